@@ -15,6 +15,7 @@ import java.util.TreeSet;
 
 import org.semanticweb.HermiT.hierarchy.HierarchyPosition;
 import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.monitor.DLClauseProfiler;
 import org.semanticweb.HermiT.monitor.ReasoningOperations;
 import org.semanticweb.HermiT.monitor.Timer;
 
@@ -461,7 +462,7 @@ public class CommandLine {
         }
     }
 
-    protected static final int kTime=1000,kDumpClauses=1001,kDumpRoleBox=1002,kDirectBlock=1003,kBlockStrategy=1004,kBlockCache=1005,kExpansion=1006,kBase=1007,kParser=1008,kDefaultNamespace=1009,kDumpNamespaces=1010,kSuperRoles=1011,kSubRoles=1012,kEquivRoles=1013,kKrssTaxonomy=1014,kFunctionalTaxonomy=1015,kIgnoreUnsupportedDatatypes=1016;
+    protected static final int kTime=1000,kDumpClauses=1001,kDumpRoleBox=1002,kDirectBlock=1003,kBlockStrategy=1004,kBlockCache=1005,kExpansion=1006,kBase=1007,kParser=1008,kDefaultNamespace=1009,kDumpNamespaces=1010,kSuperRoles=1011,kSubRoles=1012,kEquivRoles=1013,kKrssTaxonomy=1014,kFunctionalTaxonomy=1015,kIgnoreUnsupportedDatatypes=1016,kProfileClauses=1017;
 
     protected static final String versionString;
     static {
@@ -492,7 +493,7 @@ public class CommandLine {
             new Option(kIgnoreUnsupportedDatatypes,"ignoreUnsupportedDatatypes",kAlgorithm,"ignore unsupported datatypes"),
 
             // internals:
-            new Option(kDumpClauses,"dump-clauses",kInternals,false,"FILE","output DL-clauses to FILE (default stdout)"),new Option(kKrssTaxonomy,"krss-taxonomy",kInternals,"output most specific implications in KRSS format"),
+            new Option(kDumpClauses,"dump-clauses",kInternals,false,"FILE","output DL-clauses to FILE (default stdout)"),new Option(kKrssTaxonomy,"krss-taxonomy",kInternals,"output most specific implications in KRSS format"),new Option(kProfileClauses,"profile-clauses",kInternals,"after the actions, output for each DL-clause the number of evaluations, matches, derived facts, disjunctions, and clashes and its sampled evaluation time"),
             // This one will probably become "--taxonomy" as standard action
             new Option(kFunctionalTaxonomy,"functional-taxonomy",kInternals,"output most specific implications in OWL functional syntax"), };
 
@@ -743,6 +744,10 @@ public class CommandLine {
                         actions.add(new DumpClausesAction(g.getOptarg()));
                     }
                         break;
+                    case kProfileClauses: {
+                        config.tableauMonitorType=Configuration.TableauMonitorType.DLCLAUSE_PROFILING;
+                    }
+                        break;
                     case kKrssTaxonomy: {
                         actions.add(new TaxonomyAction(false));
                     }
@@ -800,6 +805,9 @@ public class CommandLine {
                         }
                         output.flush();
                     }
+                    DLClauseProfiler dlClauseProfiler=hermit.getDLClauseProfiler();
+                    if (dlClauseProfiler!=null)
+                        dlClauseProfiler.printReport(output,namespaces);
                 }
                 catch (org.semanticweb.owl.model.OWLException e) {
                     System.err.println("It all went pear-shaped: "+e.getMessage());
@@ -19,7 +19,7 @@ public class Configuration implements Serializable,Cloneable {
     private static final long serialVersionUID=7741510316249774519L;
 
     public static enum TableauMonitorType {
-        NONE,TIMING,TIMING_WITH_PAUSE,DEBUGGER_NO_HISTORY,DEBUGGER_HISTORY_ON
+        NONE,TIMING,TIMING_WITH_PAUSE,DEBUGGER_NO_HISTORY,DEBUGGER_HISTORY_ON,DLCLAUSE_PROFILING
     }
 
     public static enum DirectBlockingType {
@@ -38,14 +38,55 @@ public class Configuration implements Serializable,Cloneable {
         CREATION_ORDER,EL,INDIVIDUAL_REUSE
     }
 
+    public static enum TupleTableType {
+        OBJECTS,INTEGERS,DIRECT_BUFFERS,MEMORY_MAPPED
+    }
+
+    public static enum TupleIndexType {
+        CHAINING,OPEN_ADDRESSING
+    }
+
+    public static enum ExtensionTableType {
+        TUPLE_INDEXES,PREDICATE_PARTITIONS
+    }
+
+    public static enum DependencySetType {
+        LINKED_LISTS,BITSETS
+    }
+
+    public static enum DisjunctionSchedulerType {
+        CREATION_ORDER,REVERSE_CREATION_ORDER,FEWEST_OPEN_DISJUNCTS,ACTIVITY
+    }
+
+    public static enum DLClauseEvaluatorType {
+        INTERPRETED,COMPILED
+    }
+
+    public static enum JoinOrderType {
+        HEURISTIC,COST_BASED
+    }
+
     public Configuration.TableauMonitorType tableauMonitorType;
     public Configuration.DirectBlockingType directBlockingType;
     public Configuration.BlockingStrategyType blockingStrategyType;
     public Configuration.BlockingSignatureCacheType blockingSignatureCacheType;
     public Configuration.ExistentialStrategyType existentialStrategyType;
+    public Configuration.TupleTableType tupleTableType;
+    public Configuration.TupleIndexType tupleIndexType;
+    public Configuration.ExtensionTableType extensionTableType;
+    public Configuration.DependencySetType dependencySetType;
+    public Configuration.DisjunctionSchedulerType disjunctionSchedulerType;
+    public Configuration.DLClauseEvaluatorType dlClauseEvaluatorType;
+    public Configuration.JoinOrderType joinOrderType;
     public boolean checkClauses;
     public boolean prepareForExpressiveQueries;
     public boolean ignoreUnsupportedDatatypes;
+    public boolean learnNogoods;
+    public boolean watchDisjuncts;
+    public boolean pruneRedundantHeads;
+    public boolean useModelMerging;
+    public int numberOfHyperresolutionThreads;
+    public int numberOfSatisfiabilityThreads;
     public TableauMonitor monitor;
     public HashMap<String,Object> parameters;
 
@@ -55,15 +96,35 @@ public class Configuration implements Serializable,Cloneable {
         blockingStrategyType=Configuration.BlockingStrategyType.ANYWHERE;
         blockingSignatureCacheType=Configuration.BlockingSignatureCacheType.CACHED;
         existentialStrategyType=Configuration.ExistentialStrategyType.CREATION_ORDER;
+        tupleTableType=Configuration.TupleTableType.OBJECTS;
+        tupleIndexType=Configuration.TupleIndexType.CHAINING;
+        extensionTableType=Configuration.ExtensionTableType.TUPLE_INDEXES;
+        dependencySetType=Configuration.DependencySetType.LINKED_LISTS;
+        disjunctionSchedulerType=Configuration.DisjunctionSchedulerType.CREATION_ORDER;
+        dlClauseEvaluatorType=Configuration.DLClauseEvaluatorType.INTERPRETED;
+        joinOrderType=Configuration.JoinOrderType.HEURISTIC;
         ignoreUnsupportedDatatypes=false;
         checkClauses=true;
         prepareForExpressiveQueries=false;
+        learnNogoods=false;
+        watchDisjuncts=false;
+        pruneRedundantHeads=false;
+        useModelMerging=false;
+        numberOfHyperresolutionThreads=1;
+        numberOfSatisfiabilityThreads=1;
         monitor=null;
         parameters=new HashMap<String,Object>();
     }
     protected void setIndividualReuseStrategyReuseAlways(Set<? extends AtomicConcept> concepts) {
         parameters.put("IndividualReuseStrategy.reuseAlways",concepts);
     }
+    /**
+     * Sets the directory in which the scratch file of the MEMORY_MAPPED tuple 
+     * tables is created; by default, the temporary directory is used.
+     */
+    public void setTupleTableScratchDirectory(File directory) {
+        parameters.put("ExtensionManager.tupleTableScratchDirectory",directory);
+    }
     public void loadIndividualReuseStrategyReuseAlways(File file) throws IOException {
         Set<AtomicConcept> concepts=loadConceptsFromFile(file);
         setIndividualReuseStrategyReuseAlways(concepts);
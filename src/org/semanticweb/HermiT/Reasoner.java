@@ -19,6 +19,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -36,10 +37,14 @@ import org.semanticweb.HermiT.existentials.CreationOrderStrategy;
 import org.semanticweb.HermiT.existentials.ExpansionStrategy;
 import org.semanticweb.HermiT.existentials.IndividualReuseStrategy;
 import org.semanticweb.HermiT.hierarchy.Classifier;
+import org.semanticweb.HermiT.hierarchy.CompactTaxonomy;
 import org.semanticweb.HermiT.hierarchy.Hierarchy;
 import org.semanticweb.HermiT.hierarchy.HierarchyPosition;
+import org.semanticweb.HermiT.hierarchy.IncrementalClassification;
 import org.semanticweb.HermiT.hierarchy.NaiveHierarchyPosition;
 import org.semanticweb.HermiT.hierarchy.PositionTranslator;
+import org.semanticweb.HermiT.hierarchy.PseudoModelCache;
+import org.semanticweb.HermiT.hierarchy.Realizer;
 import org.semanticweb.HermiT.hierarchy.TableauFunc;
 import org.semanticweb.HermiT.hierarchy.TableauSubsumptionChecker;
 import org.semanticweb.HermiT.hierarchy.TranslatedHierarchyPosition;
@@ -52,6 +57,7 @@ import org.semanticweb.HermiT.model.DescriptionGraph;
 import org.semanticweb.HermiT.model.Individual;
 import org.semanticweb.HermiT.model.InverseRole;
 import org.semanticweb.HermiT.model.Role;
+import org.semanticweb.HermiT.monitor.DLClauseProfiler;
 import org.semanticweb.HermiT.monitor.TableauMonitor;
 import org.semanticweb.HermiT.monitor.TableauMonitorFork;
 import org.semanticweb.HermiT.monitor.Timer;
@@ -108,10 +114,15 @@ public class Reasoner implements Serializable {
     private final Namespaces namespaces;
     private final Tableau tableau;
     
-    // these three might be null, and are created on demand by `get...` methods:
+    // these might be null, and are created on demand by `get...` methods:
     private Map<AtomicRole,HierarchyPosition<AtomicRole>> roleHierarchy;
     private Hierarchy<AtomicConcept> conceptHierarchy;
     private Map<AtomicConcept, Set<Individual>> realization;
+    private Realizer realizer;
+    
+    // the subsumers of the concepts that are not affected by the changes
+    // since a previous version of the ontology, or null:
+    private Map<AtomicConcept, Set<AtomicConcept>> reusedSubsumers;
     
     public Namespaces getNamespaces() {
         return namespaces;
@@ -131,6 +142,14 @@ public class Reasoner implements Serializable {
         return isClassHierarchyCached();
     }
     
+    /**
+     * Releases the resources that the tableau of this reasoner holds outside
+     * of the Java heap. The reasoner must not be used afterwards.
+     */
+    public void dispose() {
+        tableau.dispose();
+    }
+    
     public boolean isClassHierarchyCached() {
         return conceptHierarchy != null;
     }
@@ -143,6 +162,28 @@ public class Reasoner implements Serializable {
         return realization != null;
     }
     
+    /**
+     * Returns the profiler that records the work done by each DL-clause, or null if no profiler is attached to the tableau.
+     * A profiler is attached if the configuration uses the DLCLAUSE_PROFILING monitor type or if the user-supplied monitor
+     * is, or forks to, a DLClauseProfiler.
+     */
+    public DLClauseProfiler getDLClauseProfiler() {
+        return findDLClauseProfiler(tableau.getTableauMonitor());
+    }
+    
+    protected static DLClauseProfiler findDLClauseProfiler(TableauMonitor tableauMonitor) {
+        if (tableauMonitor instanceof DLClauseProfiler)
+            return (DLClauseProfiler)tableauMonitor;
+        else if (tableauMonitor instanceof TableauMonitorFork) {
+            DLClauseProfiler dlClauseProfiler=findDLClauseProfiler(((TableauMonitorFork)tableauMonitor).getFirstMonitor());
+            if (dlClauseProfiler==null)
+                dlClauseProfiler=findDLClauseProfiler(((TableauMonitorFork)tableauMonitor).getSecondMonitor());
+            return dlClauseProfiler;
+        }
+        else
+            return null;
+    }
+    
     private Hierarchy<AtomicConcept> getConceptHierarchy() {
         return getConceptHierarchy(new ConsoleMonitor("Building hierarchy", System.err));
     }
@@ -150,41 +191,158 @@ public class Reasoner implements Serializable {
     private Hierarchy<AtomicConcept>
         getConceptHierarchy(TaskStatus status) {
         if (conceptHierarchy == null) {
-            Set<AtomicConcept> allConcepts = new HashSet<AtomicConcept>();
-            for (AtomicConcept c : dlOntology.getAllAtomicConcepts()) {
-                if (!Namespaces.isInternalURI(c.getURI())) {
-                    allConcepts.add(c);
-                }
+            Set<AtomicConcept> allConcepts = getExternalConcepts();
+            final ReasoningCache cache = new ReasoningCache();
+            if (configuration.useModelMerging &&
+                PseudoModelCache.isApplicable(dlOntology)) {
+                cache.pseudoModels = new PseudoModelCache(tableau);
             }
-            ReasoningCache cache = new ReasoningCache();
-            cache.seed(allConcepts, tableau,
-                       status.subTask("Testing concepts"));
-            // Map<AtomicConcept, Set<AtomicConcept>> known
-            //     = new HashMap<AtomicConcept, Set<AtomicConcept>>();
-            // for (AtomicConcept c : allConcepts) {
-            //     Set<AtomicConcept> s = new HashSet<AtomicConcept>();
-            //     s.add(c);
-            //     known.put(c, s);
-            // }
-            Taxonomy<AtomicConcept> tax = new Taxonomy<AtomicConcept>(
-                new Taxonomy.Ordering<AtomicConcept>() {
-                    public boolean doesPrecede(AtomicConcept child,
-                                               AtomicConcept parent) {
-                        System.err.println("doing subsumption test");
-                        return tableau.isSubsumedBy(child, parent);
+            List<Tableau> tableaux = createSatisfiabilityTableaux();
+            Taxonomy<AtomicConcept> tax;
+            try {
+                if (reusedSubsumers == null) {
+                    cache.seed(allConcepts, tableaux,
+                               status.subTask("Testing concepts"));
+                } else {
+                    Set<AtomicConcept> affectedConcepts
+                        = new HashSet<AtomicConcept>(allConcepts);
+                    affectedConcepts.removeAll(reusedSubsumers.keySet());
+                    cache.seed(affectedConcepts, allConcepts, tableaux,
+                               status.subTask("Testing concepts"));
+                    for (Map.Entry<AtomicConcept, Set<AtomicConcept>> e
+                            : reusedSubsumers.entrySet()) {
+                        cache.setSubsumers(e.getKey(), e.getValue());
                     }
-                },
-                allConcepts,
-                cache.knownSubsumers,
-                cache.possibleSubsumers,
-                status.subTask("Classifying")
-            );
+                    reusedSubsumers = null;
+                }
+                // Map<AtomicConcept, Set<AtomicConcept>> known
+                //     = new HashMap<AtomicConcept, Set<AtomicConcept>>();
+                // for (AtomicConcept c : allConcepts) {
+                //     Set<AtomicConcept> s = new HashSet<AtomicConcept>();
+                //     s.add(c);
+                //     known.put(c, s);
+                // }
+                List<Taxonomy.Ordering<AtomicConcept>> orderings
+                    = new ArrayList<Taxonomy.Ordering<AtomicConcept>>();
+                for (final Tableau workerTableau : tableaux) {
+                    orderings.add(new Taxonomy.Ordering<AtomicConcept>() {
+                        public boolean doesPrecede(AtomicConcept child,
+                                                   AtomicConcept parent) {
+                            if (cache.pseudoModels != null &&
+                                cache.pseudoModels.isKnownNotSubsumedBy(child,
+                                                                        parent,
+                                                                        workerTableau)) {
+                                return false;
+                            }
+                            System.err.println("doing subsumption test");
+                            return workerTableau.isSubsumedBy(child, parent);
+                        }
+                    });
+                }
+                tax = new Taxonomy<AtomicConcept>(
+                    orderings,
+                    allConcepts,
+                    cache.knownSubsumers,
+                    cache.possibleSubsumers,
+                    status.subTask("Classifying")
+                );
+            } finally {
+                disposeSatisfiabilityTableaux(tableaux);
+            }
+            tax.releaseClosure();
             conceptHierarchy = new TaxonomyHierarchy<AtomicConcept>(tax);
         }
         status.done();
         return conceptHierarchy;
     }
     
+    private Set<AtomicConcept> getExternalConcepts() {
+        Set<AtomicConcept> allConcepts = new HashSet<AtomicConcept>();
+        for (AtomicConcept c : dlOntology.getAllAtomicConcepts()) {
+            if (!Namespaces.isInternalURI(c.getURI())) {
+                allConcepts.add(c);
+            }
+        }
+        return allConcepts;
+    }
+    
+    /**
+     * Reuses the class hierarchy of a reasoner for a previous version of the
+     * ontology, which must have been built with the same configuration:
+     * when the class hierarchy of this reasoner is built, only the concepts
+     * that can be affected by the differences between the two versions are
+     * tested, and the subsumers of the other concepts are taken from the
+     * previous hierarchy. Has no effect if the previous hierarchy has not
+     * been built, if this hierarchy has already been built, or if the
+     * affected concepts cannot be determined, for example because the
+     * ontology contains nominals.
+     */
+    public void reuseClassHierarchy(Reasoner previous) {
+        if (conceptHierarchy != null ||
+            !(previous.conceptHierarchy instanceof TaxonomyHierarchy)) {
+            return;
+        }
+        Set<AtomicConcept> allConcepts = getExternalConcepts();
+        Set<AtomicConcept> affectedConcepts
+            = IncrementalClassification.getAffectedConcepts(
+                previous.dlOntology, dlOntology, allConcepts);
+        if (affectedConcepts == null) {
+            return;
+        }
+        // The individuals are ignored when determining the affected concepts,
+        // which is correct only if both versions are consistent:
+        if ((!dlOntology.getPositiveFacts().isEmpty() ||
+             !dlOntology.getNegativeFacts().isEmpty() ||
+             !previous.dlOntology.getPositiveFacts().isEmpty() ||
+             !previous.dlOntology.getNegativeFacts().isEmpty()) &&
+            (!isConsistent() || !previous.isConsistent())) {
+            return;
+        }
+        Taxonomy<AtomicConcept> previousTaxonomy
+            = ((TaxonomyHierarchy<AtomicConcept>) previous.conceptHierarchy)
+                .getTaxonomy();
+        reusedSubsumers = IncrementalClassification.getReusableSubsumers(
+            previousTaxonomy, previous.getExternalConcepts(), allConcepts,
+            affectedConcepts);
+    }
+    
+    /**
+     * Returns the tableaux on which the concepts are tested while seeding the
+     * reasoning cache and while building the taxonomy: the tableau of the
+     * reasoner, followed by one tableau for each additional thread. The additional tableaux are not monitored,
+     * since the monitors are not thread-safe, and they are not used if the
+     * ontology has datatypes, since the datatype checkers share state.
+     */
+    private List<Tableau> createSatisfiabilityTableaux() {
+        List<Tableau> tableaux = new ArrayList<Tableau>();
+        tableaux.add(tableau);
+        if (configuration.numberOfSatisfiabilityThreads > 1 &&
+            !dlOntology.hasDatatypes()) {
+            Configuration workerConfiguration = configuration.clone();
+            workerConfiguration.tableauMonitorType
+                = Configuration.TableauMonitorType.NONE;
+            workerConfiguration.monitor = null;
+            workerConfiguration.numberOfHyperresolutionThreads = 1;
+            while (tableaux.size() < configuration.numberOfSatisfiabilityThreads) {
+                tableaux.add(createTableau(workerConfiguration, dlOntology,
+                                           namespaces));
+            }
+        }
+        return tableaux;
+    }
+    
+    /**
+     * Disposes the tableaux returned by createSatisfiabilityTableaux(), except
+     * for the tableau of the reasoner.
+     */
+    private void disposeSatisfiabilityTableaux(List<Tableau> tableaux) {
+        for (Tableau workerTableau : tableaux) {
+            if (workerTableau != tableau) {
+                workerTableau.dispose();
+            }
+        }
+    }
+    
     void outputClauses(java.io.PrintWriter output, Namespaces namespaces) {
         output.println(dlOntology.toString(namespaces));
     }
@@ -325,22 +483,30 @@ public class Reasoner implements Serializable {
             OWLDataFactory factory = ontologyManager.getOWLDataFactory();
             OWLClass newClass = factory.getOWLClass(URI.create("internal:query-concept"));
             OWLAxiom classDefinitionAxiom = factory.getOWLSubClassAxiom(newClass,description);
-            DLOntology newDLOntology = extendDLOntology(configuration,
-                                                        namespaces,
-                                                        "uri:urn:internal-kb",
-                                                        dlOntology,
-                                                        ontologyManager,
-                                                        classDefinitionAxiom);
-            Tableau tempTableau
-                = createTableau(configuration, newDLOntology, namespaces);
-            return tempTableau.isSatisfiable
-                    (AtomicConcept.create("internal:query-concept"));
+            Tableau queryTableau
+                = getQueryTableau(ontologyManager, classDefinitionAxiom);
+            try {
+                return queryTableau.isSatisfiable
+                        (AtomicConcept.create("internal:query-concept"));
+            } finally {
+                releaseQueryTableau(queryTableau);
+            }
         }
     }
 
     public boolean isClassSubsumedBy(String childName,String parentName) {
-        return tableau.isSubsumedBy(AtomicConcept.create(childName),
-                                    AtomicConcept.create(parentName));
+        AtomicConcept child = AtomicConcept.create(childName);
+        AtomicConcept parent = AtomicConcept.create(parentName);
+        // once the classes are classified, the hierarchy answers this
+        // without a tableau test:
+        if (conceptHierarchy instanceof TaxonomyHierarchy) {
+            TaxonomyHierarchy<AtomicConcept> hierarchy
+                = (TaxonomyHierarchy<AtomicConcept>) conceptHierarchy;
+            if (hierarchy.contains(child) && hierarchy.contains(parent)) {
+                return hierarchy.doesPrecede(child, parent);
+            }
+        }
+        return tableau.isSubsumedBy(child, parent);
     }
 
     public boolean isSubsumedBy(OWLDescription subDescription,
@@ -363,19 +529,18 @@ public class Reasoner implements Serializable {
                 = factory.getOWLClass(URI.create("internal:query-superconcept"));
             OWLAxiom superClassDefinitionAxiom
                 = factory.getOWLSubClassAxiom(superDescription,newSuperConcept);
-            DLOntology newDLOntology = extendDLOntology(configuration,
-                                                        namespaces,
-                                                        "uri:urn:internal-kb",
-                                                        dlOntology,
-                                                        ontologyManager,
-                                                        subClassDefinitionAxiom,
-                                                        superClassDefinitionAxiom);
-            Tableau tempTableau
-                = createTableau(configuration, newDLOntology, namespaces);
-            return tempTableau.isSubsumedBy(
-                    AtomicConcept.create("internal:query-subconcept"),
-                    AtomicConcept.create("internal:query-superconcept")
-            );
+            Tableau queryTableau
+                = getQueryTableau(ontologyManager,
+                                  subClassDefinitionAxiom,
+                                  superClassDefinitionAxiom);
+            try {
+                return queryTableau.isSubsumedBy(
+                        AtomicConcept.create("internal:query-subconcept"),
+                        AtomicConcept.create("internal:query-superconcept")
+                );
+            } finally {
+                releaseQueryTableau(queryTableau);
+            }
         }
     }
 
@@ -413,17 +578,17 @@ public class Reasoner implements Serializable {
                 = factory.getOWLClass(URI.create("internal:query-concept"));
             OWLAxiom classDefinitionAxiom
                 = factory.getOWLEquivalentClassesAxiom(newClass,description);
-            DLOntology newDLOntology
-                = extendDLOntology(configuration,
-                                   namespaces,
-                                   "uri:urn:internal-kb",
-                                   dlOntology,
-                                   ontologyManager,
-                                   classDefinitionAxiom);
-            Tableau tempTableau
-                = createTableau(configuration, newDLOntology, namespaces);
-            hierarchyPosition = getHierarchyPosition(
-                AtomicConcept.create("internal:query-concept"), tempTableau);
+            // the ontology must be classified without the query DL-clauses:
+            getConceptHierarchy();
+            Tableau queryTableau
+                = getQueryTableau(ontologyManager, classDefinitionAxiom);
+            try {
+                hierarchyPosition = getHierarchyPosition(
+                    AtomicConcept.create("internal:query-concept"),
+                    queryTableau);
+            } finally {
+                releaseQueryTableau(queryTableau);
+            }
         }
         return new TranslatedHierarchyPosition<AtomicConcept,OWLClass>
             (hierarchyPosition, new ConceptToOWLClass(factory));
@@ -554,11 +719,15 @@ public class Reasoner implements Serializable {
             OWLDataFactory factory=ontologyManager.getOWLDataFactory();
             OWLClass newClass=factory.getOWLClass(URI.create("internal:query-concept"));
             OWLAxiom classDefinitionAxiom=factory.getOWLSubClassAxiom(description,newClass);
-            DLOntology newDLOntology=extendDLOntology(configuration,namespaces,"uri:urn:internal-kb",dlOntology,ontologyManager,classDefinitionAxiom);
-            Tableau tableau=createTableau(configuration,newDLOntology,namespaces);
-            return tableau.isInstanceOf(
-                Individual.create(individual.getURI().toString()),
-                AtomicConcept.create("internal:query-concept"));
+            Tableau queryTableau=getQueryTableau(ontologyManager,classDefinitionAxiom);
+            try {
+                return queryTableau.isInstanceOf(
+                    Individual.create(individual.getURI().toString()),
+                    AtomicConcept.create("internal:query-concept"));
+            }
+            finally {
+                releaseQueryTableau(queryTableau);
+            }
         }
     }
     
@@ -672,9 +841,16 @@ public class Reasoner implements Serializable {
     
     private HierarchyPosition<AtomicConcept>
         getHierarchyPosition(Individual individual) {
-        // TODO: implement!
-        // return conceptHierarchy.getPosition(
-        return null;
+        if (realizer == null) {
+            Hierarchy<AtomicConcept> hierarchy = getConceptHierarchy();
+            if (!(hierarchy instanceof TaxonomyHierarchy)) {
+                throw new IllegalStateException("The class hierarchy is not a taxonomy.");
+            }
+            realizer = new Realizer(tableau,
+                                    (TaxonomyHierarchy<AtomicConcept>) hierarchy,
+                                    dlOntology.getAllIndividuals());
+        }
+        return realizer.getPosition(individual);
     }
 
     private boolean isInstanceOf(Individual i,
@@ -725,6 +901,9 @@ public class Reasoner implements Serializable {
         case DEBUGGER_NO_HISTORY:
             wellKnownTableauMonitor=new Debugger(namespaces,false);
             break;
+        case DLCLAUSE_PROFILING:
+            wellKnownTableauMonitor=new DLClauseProfiler();
+            break;
         default:
             throw new IllegalArgumentException("Unknown monitor type");
         }
@@ -796,16 +975,137 @@ public class Reasoner implements Serializable {
             throw new IllegalArgumentException("Unknown expansion strategy type.");
         }
 
-        return new Tableau(tableauMonitor,existentialsExpansionStrategy,dlOntology,config.parameters);
+        Map<String,Object> parameters=new HashMap<String,Object>(config.parameters);
+        switch (config.tupleTableType) {
+        case OBJECTS:
+        case INTEGERS:
+        case DIRECT_BUFFERS:
+        case MEMORY_MAPPED:
+            parameters.put("ExtensionManager.tupleTableType",config.tupleTableType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown tuple table type.");
+        }
+        switch (config.tupleIndexType) {
+        case CHAINING:
+        case OPEN_ADDRESSING:
+            parameters.put("ExtensionManager.tupleIndexType",config.tupleIndexType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown tuple index type.");
+        }
+        switch (config.extensionTableType) {
+        case TUPLE_INDEXES:
+        case PREDICATE_PARTITIONS:
+            parameters.put("ExtensionManager.extensionTableType",config.extensionTableType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown extension table type.");
+        }
+        switch (config.dependencySetType) {
+        case LINKED_LISTS:
+        case BITSETS:
+            parameters.put("DependencySetFactory.dependencySetType",config.dependencySetType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown dependency set type.");
+        }
+        switch (config.disjunctionSchedulerType) {
+        case CREATION_ORDER:
+        case REVERSE_CREATION_ORDER:
+        case FEWEST_OPEN_DISJUNCTS:
+        case ACTIVITY:
+            parameters.put("Tableau.disjunctionSchedulerType",config.disjunctionSchedulerType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown disjunction scheduler type.");
+        }
+        switch (config.dlClauseEvaluatorType) {
+        case INTERPRETED:
+        case COMPILED:
+            parameters.put("HyperresolutionManager.dlClauseEvaluatorType",config.dlClauseEvaluatorType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown DL-clause evaluator type.");
+        }
+        switch (config.joinOrderType) {
+        case HEURISTIC:
+        case COST_BASED:
+            parameters.put("HyperresolutionManager.joinOrderType",config.joinOrderType);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown join order type.");
+        }
+        parameters.put("Tableau.learnNogoods",Boolean.valueOf(config.learnNogoods));
+        parameters.put("Tableau.watchDisjuncts",Boolean.valueOf(config.watchDisjuncts));
+        if (config.numberOfHyperresolutionThreads<1)
+            throw new IllegalArgumentException("The number of hyperresolution threads must be positive.");
+        parameters.put("HyperresolutionManager.numberOfThreads",Integer.valueOf(config.numberOfHyperresolutionThreads));
+
+        return new Tableau(tableauMonitor,existentialsExpansionStrategy,dlOntology,parameters);
     }
 
-    private static DLOntology extendDLOntology(Configuration config,
-                                                 Namespaces namespaces,
-                                                 String resultingOntologyURI,
-                                                 DLOntology originalDLOntology,
-                                                 OWLOntologyManager ontologyManager,
-                                                 OWLAxiom... additionalAxioms)
-        throws IllegalArgumentException {
+    /**
+     * Returns a tableau in which the query concepts defined by the given
+     * axioms can be tested. Usually this is the tableau of the ontology, to
+     * which only the DL-clauses of the axioms are attached, so that the
+     * DL-clauses of the ontology need not be clausified and compiled again;
+     * if the axioms need features for which that tableau was not set up, such
+     * as nominals or inverse roles, a tableau for the extended ontology is
+     * created instead. The result must be passed to releaseQueryTableau()
+     * after the test.
+     */
+    private Tableau getQueryTableau(OWLOntologyManager ontologyManager,
+                                    OWLAxiom... queryAxioms) {
+        DLOntology queryDLOntology = clausifyAdditionalAxioms(configuration,
+                                                              dlOntology,
+                                                              ontologyManager,
+                                                              queryAxioms);
+        if (canAttachQueryDLClauses(queryDLOntology)) {
+            tableau.setQueryDLClauses(queryDLOntology.getDLClauses());
+            return tableau;
+        }
+        return createTableau(configuration,
+                             createUnion("uri:urn:internal-kb",
+                                         dlOntology,
+                                         queryDLOntology),
+                             namespaces);
+    }
+
+    private void releaseQueryTableau(Tableau queryTableau) {
+        if (queryTableau == tableau) {
+            tableau.clearQueryDLClauses();
+        } else {
+            queryTableau.dispose();
+        }
+    }
+
+    private boolean canAttachQueryDLClauses(DLOntology queryDLOntology) {
+        // The expressivity of the query ontology includes that of the
+        // ontology, so these just check that nothing has been added:
+        return queryDLOntology.getPositiveFacts().isEmpty()
+            && queryDLOntology.getNegativeFacts().isEmpty()
+            && queryDLOntology.getAllDescriptionGraphs().isEmpty()
+            && dlOntology.getAllTransitiveObjectRoles().containsAll(
+                   queryDLOntology.getAllTransitiveObjectRoles())
+            && queryDLOntology.hasInverseRoles() == dlOntology.hasInverseRoles()
+            && queryDLOntology.hasAtMostRestrictions()
+                   == dlOntology.hasAtMostRestrictions()
+            && queryDLOntology.hasNominals() == dlOntology.hasNominals()
+            && queryDLOntology.canUseNIRule() == dlOntology.canUseNIRule()
+            && queryDLOntology.hasDatatypes() == dlOntology.hasDatatypes()
+            && (!tableau.isDeterministic() || queryDLOntology.isHorn());
+    }
+
+    /**
+     * Clausifies the given axioms in the context of the given ontology: the transitive roles of the ontology are taken into
+     * account, and the expressivity of the result includes that of the ontology. The result contains only the DL-clauses and
+     * facts of the given axioms.
+     */
+    private static DLOntology clausifyAdditionalAxioms(Configuration config,
+                                                       DLOntology originalDLOntology,
+                                                       OWLOntologyManager ontologyManager,
+                                                       OWLAxiom... additionalAxioms) {
         try {
             Set<DescriptionGraph> descriptionGraphs=Collections.emptySet();
             OWLDataFactory factory=ontologyManager.getOWLDataFactory();
@@ -854,27 +1154,29 @@ public class Reasoner implements Serializable {
             axiomsExpressivity.m_hasNominals|=originalDLOntology.hasNominals();
             axiomsExpressivity.m_hasDatatypes|=originalDLOntology.hasDatatypes();
             OWLClausification clausifier=new OWLClausification(config);
-            DLOntology newDLOntology=clausifier.clausify(ontologyManager.getOWLDataFactory(),"uri:urn:internal-kb",axioms,axiomsExpressivity,descriptionGraphs);
-            
-            Set<DLClause> dlClauses=createUnion(originalDLOntology.getDLClauses(),newDLOntology.getDLClauses());
-            Set<Atom> positiveFacts=createUnion(originalDLOntology.getPositiveFacts(),newDLOntology.getPositiveFacts());
-            Set<Atom> negativeFacts=createUnion(originalDLOntology.getNegativeFacts(),newDLOntology.getNegativeFacts());
-            Set<AtomicConcept> atomicConcepts=createUnion(originalDLOntology.getAllAtomicConcepts(),newDLOntology.getAllAtomicConcepts());
-            Set<Role> transitiveObjectRoles=createUnion(originalDLOntology.getAllTransitiveObjectRoles(),newDLOntology.getAllTransitiveObjectRoles());
-            Set<AtomicRole> atomicObjectRoles=createUnion(originalDLOntology.getAllAtomicObjectRoles(),newDLOntology.getAllAtomicObjectRoles());
-            Set<AtomicRole> atomicDataRoles=createUnion(originalDLOntology.getAllAtomicDataRoles(),newDLOntology.getAllAtomicDataRoles());
-            Set<Individual> individuals=createUnion(originalDLOntology.getAllIndividuals(),newDLOntology.getAllIndividuals());
-            boolean hasInverseRoles=originalDLOntology.hasInverseRoles() || newDLOntology.hasInverseRoles();
-            boolean hasAtMostRestrictions=originalDLOntology.hasAtMostRestrictions() || newDLOntology.hasAtMostRestrictions();
-            boolean hasNominals=originalDLOntology.hasNominals() || newDLOntology.hasNominals();
-            boolean canUseNIRule=originalDLOntology.canUseNIRule() || newDLOntology.canUseNIRule();
-            boolean hasDatatypes=originalDLOntology.hasDatatypes() || newDLOntology.hasDatatypes();
-            return new DLOntology(resultingOntologyURI,dlClauses,positiveFacts,negativeFacts,atomicConcepts,transitiveObjectRoles,atomicObjectRoles,atomicDataRoles,individuals,hasInverseRoles,hasAtMostRestrictions,hasNominals,canUseNIRule,hasDatatypes);
+            return clausifier.clausify(ontologyManager.getOWLDataFactory(),"uri:urn:internal-kb",axioms,axiomsExpressivity,descriptionGraphs);
         }
         catch (OWLException shouldntHappen) {
             throw new IllegalStateException("Internal error: Unexpected OWLException.",shouldntHappen);
         }
     }
+
+    private static DLOntology createUnion(String resultingOntologyURI,DLOntology originalDLOntology,DLOntology newDLOntology) {
+        Set<DLClause> dlClauses=createUnion(originalDLOntology.getDLClauses(),newDLOntology.getDLClauses());
+        Set<Atom> positiveFacts=createUnion(originalDLOntology.getPositiveFacts(),newDLOntology.getPositiveFacts());
+        Set<Atom> negativeFacts=createUnion(originalDLOntology.getNegativeFacts(),newDLOntology.getNegativeFacts());
+        Set<AtomicConcept> atomicConcepts=createUnion(originalDLOntology.getAllAtomicConcepts(),newDLOntology.getAllAtomicConcepts());
+        Set<Role> transitiveObjectRoles=createUnion(originalDLOntology.getAllTransitiveObjectRoles(),newDLOntology.getAllTransitiveObjectRoles());
+        Set<AtomicRole> atomicObjectRoles=createUnion(originalDLOntology.getAllAtomicObjectRoles(),newDLOntology.getAllAtomicObjectRoles());
+        Set<AtomicRole> atomicDataRoles=createUnion(originalDLOntology.getAllAtomicDataRoles(),newDLOntology.getAllAtomicDataRoles());
+        Set<Individual> individuals=createUnion(originalDLOntology.getAllIndividuals(),newDLOntology.getAllIndividuals());
+        boolean hasInverseRoles=originalDLOntology.hasInverseRoles() || newDLOntology.hasInverseRoles();
+        boolean hasAtMostRestrictions=originalDLOntology.hasAtMostRestrictions() || newDLOntology.hasAtMostRestrictions();
+        boolean hasNominals=originalDLOntology.hasNominals() || newDLOntology.hasNominals();
+        boolean canUseNIRule=originalDLOntology.canUseNIRule() || newDLOntology.canUseNIRule();
+        boolean hasDatatypes=originalDLOntology.hasDatatypes() || newDLOntology.hasDatatypes();
+        return new DLOntology(resultingOntologyURI,dlClauses,positiveFacts,negativeFacts,atomicConcepts,transitiveObjectRoles,atomicObjectRoles,atomicDataRoles,individuals,hasInverseRoles,hasAtMostRestrictions,hasNominals,canUseNIRule,hasDatatypes);
+    }
     
     protected static <T> Set<T> createUnion(Set<T> set1,Set<T> set2) {
         Set<T> result=new HashSet<T>();
@@ -915,6 +1217,28 @@ public class Reasoner implements Serializable {
         objectOutputStream.flush();
     }
 
+    /**
+     * Saves the class hierarchy, which is built if necessary, in the format
+     * of CompactTaxonomy; the file can then be queried using
+     * CompactTaxonomy.load without loading the ontology or the reasoner.
+     */
+    public void saveClassHierarchy(File file) throws IOException {
+        OutputStream outputStream=new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            saveClassHierarchy(outputStream);
+        }
+        finally {
+            outputStream.close();
+        }
+    }
+
+    public void saveClassHierarchy(OutputStream outputStream) throws IOException {
+        Hierarchy<AtomicConcept> hierarchy=getConceptHierarchy();
+        if (!(hierarchy instanceof TaxonomyHierarchy))
+            throw new IllegalStateException("The class hierarchy is not a taxonomy.");
+        CompactTaxonomy.save(((TaxonomyHierarchy<AtomicConcept>)hierarchy).getTaxonomy(),outputStream);
+    }
+
     public static Reasoner loadReasoner(InputStream inputStream) throws IOException {
         try {
             ObjectInputStream objectInputStream=new ObjectInputStream(inputStream);
@@ -6,7 +6,17 @@ import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Collection;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.semanticweb.HermiT.hierarchy.PseudoModelCache;
 import org.semanticweb.HermiT.model.*;
 import org.semanticweb.HermiT.tableau.*;
 import org.semanticweb.HermiT.util.TaskStatus;
@@ -20,6 +30,8 @@ public class ReasoningCache {
     public Map<AtomicConcept, Set<AtomicConcept>>
         possibleSubsumers = new HashMap<AtomicConcept, Set<AtomicConcept>>();
         // no entry means all
+    public PseudoModelCache pseudoModels;
+        // null means that models are not recorded
     
     public boolean allSubsumptionsKnown(Collection<AtomicConcept> concepts) {
         for (AtomicConcept c : concepts) {
@@ -36,64 +48,183 @@ public class ReasoningCache {
     
     public void seed(Collection<AtomicConcept> concepts, Tableau tableau,
                      TaskStatus status) {
+        seed(concepts, concepts, tableau, status);
+    }
+    
+    /**
+     * Tests the satisfiability of the given concepts; a concept that is
+     * unsatisfiable is subsumed by all of `allConcepts`.
+     */
+    public void seed(Collection<AtomicConcept> concepts,
+                     Collection<AtomicConcept> allConcepts,
+                     Tableau tableau, TaskStatus status) {
         status.setNumSteps(concepts.size());
         for (AtomicConcept c : concepts) {
-            status.step();
-            if (!tableau.isSatisfiable(c)) {
-                knownSubsumers.put(c, new HashSet<AtomicConcept>(concepts));
-                possibleSubsumers.put(c, new HashSet<AtomicConcept>());
-            } else {
-                Node node = tableau.getCheckedNode().getCanonicalNode();
-                Set<AtomicConcept> detConcepts = new HashSet<AtomicConcept>();
-                Set<AtomicConcept> nondetConcepts = new HashSet<AtomicConcept>();
-                { // Retrieve info from tableau:
-                    detConcepts.add(AtomicConcept.THING);
-                    ExtensionTable.Retrieval retrieval
-                        = tableau.getExtensionManager()
-                            .getBinaryExtensionTable()
-                            .createRetrieval(new boolean[] { false,true },
-                                             ExtensionTable.View.TOTAL);
-                    retrieval.getBindingsBuffer()[1] = node;
-                    for (retrieval.open(); !retrieval.afterLast(); retrieval.next()) {
-                        Object obj = retrieval.getTupleBuffer()[0];
-                        if (obj instanceof AtomicConcept) {
-                            AtomicConcept d = (AtomicConcept) obj;
-                            if (!Namespaces.isInternalURI(d.getURI())) {
-                                if (retrieval.getDependencySet().isEmpty()) {
-                                    detConcepts.add(d);
-                                } else {
-                                    nondetConcepts.add(d);
-                                }
-                            }
-                        }
-                    }
-                } // done retrieving info from tableau
-                { // update information about c:
-                    GraphUtils.successorSet(c, knownSubsumers).addAll(detConcepts);
-                    Set<AtomicConcept> poss = possibleSubsumers.get(c);
-                    if (poss == null) {
-                        poss = new HashSet<AtomicConcept>(nondetConcepts);
-                        possibleSubsumers.put(c, poss);
-                    } else {
-                        poss.retainAll(nondetConcepts);
+            merge(c, allConcepts, test(c, tableau), status);
+        }
+        status.done();
+    } // end function seed
+    
+    /**
+     * Tests the satisfiability of the concepts in parallel, one thread per
+     * tableau; the tableaux must have been created from the same DL-ontology
+     * and must not share a monitor. The threads take the next untested
+     * concept from a shared counter, so a thread that is stuck on a hard
+     * concept does not hold back the concepts behind it. Each test runs on
+     * the thread's own tableau and its result is merged into the cache under
+     * the lock of the cache; since the merge only adds known subsumers and
+     * removes possible subsumers, the result does not depend on the order in
+     * which the tests finish.
+     */
+    public void seed(Collection<AtomicConcept> concepts,
+                     List<Tableau> tableaux, TaskStatus status) {
+        seed(concepts, concepts, tableaux, status);
+    }
+    
+    public void seed(Collection<AtomicConcept> concepts,
+                     final Collection<AtomicConcept> allConcepts,
+                     final List<Tableau> tableaux, final TaskStatus status) {
+        if (tableaux.size() == 1) {
+            seed(concepts, allConcepts, tableaux.get(0), status);
+            return;
+        }
+        final AtomicConcept[] conceptsArray
+            = concepts.toArray(new AtomicConcept[concepts.size()]);
+        final AtomicInteger nextConceptIndex = new AtomicInteger(0);
+        status.setNumSteps(conceptsArray.length);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (final Tableau tableau : tableaux) {
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    int index = nextConceptIndex.getAndIncrement();
+                    while (index < conceptsArray.length) {
+                        AtomicConcept c = conceptsArray[index];
+                        merge(c, allConcepts, test(c, tableau), status);
+                        index = nextConceptIndex.getAndIncrement();
                     }
-                } // done updating information about c
-                if (!nondetConcepts.isEmpty()) {
-                    System.err.println("nondeterminism!");
+                    return null;
+                }
+            });
+        }
+        ExecutorService executorService
+            = Executors.newFixedThreadPool(tableaux.size(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "HermiT satisfiability");
+                    thread.setDaemon(true);
+                    return thread;
                 }
-                nondetConcepts.addAll(detConcepts);
-                for (AtomicConcept d : nondetConcepts) {
-                    Set<AtomicConcept> set = possibleSubsumers.get(d);
-                    if (set == null) {
-                        set = new HashSet<AtomicConcept>(nondetConcepts);
-                        possibleSubsumers.put(d, set);
+            });
+        try {
+            for (Future<Object> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while testing the concepts in parallel.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        status.done();
+    }
+    
+    /**
+     * Records the subsumers of c, which are known exactly, for example
+     * because c is not affected by a change of the ontology whose previous
+     * version has been classified.
+     */
+    public synchronized void setSubsumers(AtomicConcept c,
+                                          Set<AtomicConcept> subsumers) {
+        knownSubsumers.put(c, new HashSet<AtomicConcept>(subsumers));
+        possibleSubsumers.put(c, new HashSet<AtomicConcept>(subsumers));
+    }
+    
+    /**
+     * Tests the satisfiability of c on the given tableau and returns the
+     * atomic concepts of the root of the model, or null if c is unsatisfiable.
+     * Does not touch the maps of the cache, so it can run concurrently on
+     * different tableaux.
+     */
+    protected RootConcepts test(AtomicConcept c, Tableau tableau) {
+        if (!tableau.isSatisfiable(c)) {
+            return null;
+        }
+        if (pseudoModels != null) pseudoModels.addPositiveModel(c, tableau);
+        Node node = tableau.getCheckedNode().getCanonicalNode();
+        RootConcepts result = new RootConcepts();
+        result.detConcepts.add(AtomicConcept.THING);
+        ExtensionTable.Retrieval retrieval
+            = tableau.getExtensionManager()
+                .getBinaryExtensionTable()
+                .createRetrieval(new boolean[] { false,true },
+                                 ExtensionTable.View.TOTAL);
+        retrieval.getBindingsBuffer()[1] = node;
+        for (retrieval.open(); !retrieval.afterLast(); retrieval.next()) {
+            Object obj = retrieval.getTupleBuffer()[0];
+            if (obj instanceof AtomicConcept) {
+                AtomicConcept d = (AtomicConcept) obj;
+                if (!Namespaces.isInternalURI(d.getURI())) {
+                    if (retrieval.getDependencySet().isEmpty()) {
+                        result.detConcepts.add(d);
                     } else {
-                        set.retainAll(nondetConcepts);
+                        result.nondetConcepts.add(d);
                     }
                 }
-            } // end if isSatisfiable(c)
-        } // end for
-        status.done();
-    } // end function seed
+            }
+        }
+        return result;
+    }
+    
+    protected synchronized void merge(AtomicConcept c,
+                                      Collection<AtomicConcept> concepts,
+                                      RootConcepts rootConcepts,
+                                      TaskStatus status) {
+        status.step();
+        if (rootConcepts == null) {
+            knownSubsumers.put(c, new HashSet<AtomicConcept>(concepts));
+            possibleSubsumers.put(c, new HashSet<AtomicConcept>());
+            return;
+        }
+        Set<AtomicConcept> detConcepts = rootConcepts.detConcepts;
+        Set<AtomicConcept> nondetConcepts = rootConcepts.nondetConcepts;
+        { // update information about c:
+            GraphUtils.successorSet(c, knownSubsumers).addAll(detConcepts);
+            Set<AtomicConcept> poss = possibleSubsumers.get(c);
+            if (poss == null) {
+                poss = new HashSet<AtomicConcept>(nondetConcepts);
+                possibleSubsumers.put(c, poss);
+            } else {
+                poss.retainAll(nondetConcepts);
+            }
+        } // done updating information about c
+        if (!nondetConcepts.isEmpty()) {
+            System.err.println("nondeterminism!");
+        }
+        nondetConcepts.addAll(detConcepts);
+        for (AtomicConcept d : nondetConcepts) {
+            Set<AtomicConcept> set = possibleSubsumers.get(d);
+            if (set == null) {
+                set = new HashSet<AtomicConcept>(nondetConcepts);
+                possibleSubsumers.put(d, set);
+            } else {
+                set.retainAll(nondetConcepts);
+            }
+        }
+    }
+    
+    protected static class RootConcepts {
+        public final Set<AtomicConcept> detConcepts
+            = new HashSet<AtomicConcept>();
+        public final Set<AtomicConcept> nondetConcepts
+            = new HashSet<AtomicConcept>();
+    }
     
 }
\ No newline at end of file
@@ -76,4 +76,8 @@ public class AncestorBlocking implements BlockingStrategy,Serializable {
             }
         }
     }
+    public void dlClausesChanged() {
+        if (m_blockingSignatureCache!=null)
+            m_blockingSignatureCache.clear();
+    }
 }
@@ -119,6 +119,10 @@ public class AnywhereBlocking implements BlockingStrategy,Serializable {
             }
         }
     }
+    public void dlClausesChanged() {
+        if (m_blockingSignatureCache!=null)
+            m_blockingSignatureCache.clear();
+    }
 }
 class BlockingCache implements Serializable {
     private static final long serialVersionUID=-7692825443489644667L;
@@ -15,4 +15,5 @@ public interface BlockingStrategy {
     void nodeStatusChanged(Node node);
     void nodeDestroyed(Node node);
     void modelFound();
+    void dlClausesChanged();
 }
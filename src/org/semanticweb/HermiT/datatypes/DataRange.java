@@ -40,6 +40,13 @@ public abstract class DataRange extends LiteralConcept implements DLPredicate {
      */
     public abstract CanonicalDataRange getNewInstance();
 
+    /**
+     * Data ranges are not interned, so they have no index.
+     */
+    public int getIndex() {
+        return -1;
+    }
+
     /**
      * The URI of the datatype that implements this DataRange instance 
      * @return The URI for the type of the concrete implementation for this 
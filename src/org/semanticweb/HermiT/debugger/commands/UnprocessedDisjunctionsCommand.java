@@ -19,6 +19,10 @@ public class UnprocessedDisjunctionsCommand extends AbstractCommand implements I
         writer.println("===========================================");
         GroundDisjunction groundDisjunction=debugger.getTableau().getFirstUnprocessedGroundDisjunction();
         while (groundDisjunction!=null) {
+            if (groundDisjunction.isProcessed()) {
+                groundDisjunction=groundDisjunction.getPreviousGroundDisjunction();
+                continue;
+            }
             for (int disjunctIndex=0;disjunctIndex<groundDisjunction.getNumberOfDisjuncts();disjunctIndex++) {
                 if (disjunctIndex!=0)
                     writer.print(" v ");
@@ -124,6 +124,9 @@ public abstract class AbstractExpansionStrategy implements Serializable,Expansio
     public void modelFound() {
         m_blockingStrategy.modelFound();
     }
+    public void dlClausesChanged() {
+        m_blockingStrategy.dlClausesChanged();
+    }
     /**
      * This method performs the actual expansion.
      */
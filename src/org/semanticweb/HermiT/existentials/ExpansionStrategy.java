@@ -31,5 +31,10 @@ public interface ExpansionStrategy {
     void branchingPointPushed();
     void backtrack();
     void modelFound();
+    /**
+     * Called when DL-clauses have been added to the tableau; information that is kept across tableau runs, such as the blocking
+     * signatures of the nodes in earlier models, may then no longer be valid.
+     */
+    void dlClausesChanged();
     boolean isDeterministic();
 }
@@ -0,0 +1,396 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.hierarchy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.AtomicConcept;
+
+/**
+ * A read-only class hierarchy in a compact binary format that can be
+ * memory-mapped, so that hierarchy queries can be answered without the
+ * ontology, the tableau, or the maps of a `Taxonomy`.
+ *
+ * The concepts are numbered densely in the order of the UTF-8 bytes of
+ * their URIs, and each class of equivalent concepts forms a node. The file
+ * consists of big-endian ints followed by the UTF-8 bytes of the URIs:
+ *
+ *   magic, version, number of concepts, number of nodes,
+ *   number of parent edges, number of URI bytes,
+ *   the node of each concept,
+ *   the equivalents of each node (offsets and concept ids),
+ *   the parents of each node (offsets and node ids),
+ *   the children of each node (offsets and node ids),
+ *   the offsets of the URIs, the URI bytes.
+ *
+ * Each adjacency is stored in CSR layout: the entries of node `n` are at
+ * the positions from offsets[n] (inclusive) to offsets[n + 1] (exclusive)
+ * of the entry array. The concepts of a node are sorted, so the first one
+ * is its representative.
+ */
+public class CompactTaxonomy {
+    public static final int MAGIC = 0x48546178;
+    public static final int VERSION = 1;
+    protected static final int HEADER_SIZE = 6;
+
+    protected final int numberOfConcepts;
+    protected final int numberOfNodes;
+    protected final IntBuffer conceptNodes;
+    protected final IntBuffer equivalentOffsets;
+    protected final IntBuffer equivalents;
+    protected final IntBuffer parentOffsets;
+    protected final IntBuffer parents;
+    protected final IntBuffer childOffsets;
+    protected final IntBuffer children;
+    protected final IntBuffer nameOffsets;
+    protected final ByteBuffer names;
+
+    /**
+     * Wraps a buffer in the format written by `save`; the buffer is not
+     * copied.
+     */
+    public CompactTaxonomy(ByteBuffer buffer) throws IOException {
+        buffer = buffer.duplicate();
+        buffer.position(0);
+        IntBuffer ints = buffer.asIntBuffer();
+        if (ints.limit() < HEADER_SIZE ||
+            ints.get(0) != MAGIC || ints.get(1) != VERSION) {
+            throw new IOException("The data is not a compact taxonomy.");
+        }
+        numberOfConcepts = ints.get(2);
+        numberOfNodes = ints.get(3);
+        int numberOfEdges = ints.get(4);
+        int numberOfNameBytes = ints.get(5);
+        int numberOfInts = HEADER_SIZE + numberOfConcepts
+            + (numberOfNodes + 1) + numberOfConcepts
+            + 2 * ((numberOfNodes + 1) + numberOfEdges)
+            + (numberOfConcepts + 1);
+        if (numberOfConcepts < 0 || numberOfNodes < 0 ||
+            numberOfEdges < 0 || numberOfNameBytes < 0 ||
+            (long) numberOfInts * 4 + numberOfNameBytes != buffer.limit()) {
+            throw new IOException("The compact taxonomy is truncated.");
+        }
+        int position = HEADER_SIZE;
+        conceptNodes = slice(ints, position, numberOfConcepts);
+        position += numberOfConcepts;
+        equivalentOffsets = slice(ints, position, numberOfNodes + 1);
+        position += numberOfNodes + 1;
+        equivalents = slice(ints, position, numberOfConcepts);
+        position += numberOfConcepts;
+        parentOffsets = slice(ints, position, numberOfNodes + 1);
+        position += numberOfNodes + 1;
+        parents = slice(ints, position, numberOfEdges);
+        position += numberOfEdges;
+        childOffsets = slice(ints, position, numberOfNodes + 1);
+        position += numberOfNodes + 1;
+        children = slice(ints, position, numberOfEdges);
+        position += numberOfEdges;
+        nameOffsets = slice(ints, position, numberOfConcepts + 1);
+        position += numberOfConcepts + 1;
+        buffer.position(position * 4);
+        names = buffer.slice();
+    }
+
+    private static IntBuffer slice(IntBuffer ints, int position, int length) {
+        IntBuffer view = ints.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+
+    /**
+     * Maps the given file into memory; the contents are read from the file
+     * only as they are accessed.
+     */
+    public static CompactTaxonomy load(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return new CompactTaxonomy(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            // the mapping remains valid after the file is closed
+            input.close();
+        }
+    }
+
+    public static void save(Taxonomy<AtomicConcept> taxonomy, File file)
+        throws IOException {
+        OutputStream outputStream
+            = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            save(taxonomy, outputStream);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    public static void save(Taxonomy<AtomicConcept> taxonomy,
+                            OutputStream outputStream) throws IOException {
+        // Number the concepts in the order of their URIs:
+        final Map<AtomicConcept, byte[]> uris
+            = new HashMap<AtomicConcept, byte[]>();
+        for (AtomicConcept c : taxonomy.canonical.keySet()) {
+            if (taxonomy.reduced.containsKey(taxonomy.canonical.get(c))) {
+                uris.put(c, toUTF8(c.getURI()));
+            }
+        }
+        List<AtomicConcept> concepts
+            = new ArrayList<AtomicConcept>(uris.keySet());
+        Collections.sort(concepts, new Comparator<AtomicConcept>() {
+            public int compare(AtomicConcept a, AtomicConcept b) {
+                byte[] aURI = uris.get(a);
+                return compareBytes(aURI, 0, aURI.length, uris.get(b));
+            }
+        });
+        // Number the nodes in the order of their first concepts:
+        int[] conceptNodes = new int[concepts.size()];
+        List<AtomicConcept> nodes = new ArrayList<AtomicConcept>();
+        Map<AtomicConcept, Integer> nodeIds
+            = new HashMap<AtomicConcept, Integer>();
+        Map<AtomicConcept, List<Integer>> members
+            = new HashMap<AtomicConcept, List<Integer>>();
+        for (int i = 0; i < concepts.size(); ++i) {
+            AtomicConcept can = taxonomy.canonical.get(concepts.get(i));
+            List<Integer> m = members.get(can);
+            if (m == null) {
+                m = new ArrayList<Integer>();
+                members.put(can, m);
+                nodeIds.put(can, nodes.size());
+                nodes.add(can);
+            }
+            m.add(i);
+            conceptNodes[i] = nodeIds.get(can);
+        }
+        int[] equivalentOffsets = new int[nodes.size() + 1];
+        int[] equivalents = new int[concepts.size()];
+        int[] parentOffsets = new int[nodes.size() + 1];
+        List<Integer> parents = new ArrayList<Integer>();
+        int[] childOffsets = new int[nodes.size() + 1];
+        List<Integer> children = new ArrayList<Integer>();
+        for (int n = 0; n < nodes.size(); ++n) {
+            AtomicConcept can = nodes.get(n);
+            // the members were added in ascending order
+            List<Integer> m = members.get(can);
+            for (int i = 0; i < m.size(); ++i) {
+                equivalents[equivalentOffsets[n] + i] = m.get(i);
+            }
+            equivalentOffsets[n + 1] = equivalentOffsets[n] + m.size();
+            addNodes(taxonomy.reduced.get(can), can, nodeIds, parents);
+            parentOffsets[n + 1] = parents.size();
+            addNodes(taxonomy.reduced_inverse.get(can), can, nodeIds,
+                     children);
+            childOffsets[n + 1] = children.size();
+        }
+        int[] nameOffsets = new int[concepts.size() + 1];
+        for (int i = 0; i < concepts.size(); ++i) {
+            nameOffsets[i + 1]
+                = nameOffsets[i] + uris.get(concepts.get(i)).length;
+        }
+        if (parents.size() != children.size()) {
+            throw new IllegalArgumentException(
+                "The taxonomy is not consistent with its inverse.");
+        }
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(concepts.size());
+        output.writeInt(nodes.size());
+        output.writeInt(parents.size());
+        output.writeInt(nameOffsets[concepts.size()]);
+        writeInts(output, conceptNodes);
+        writeInts(output, equivalentOffsets);
+        writeInts(output, equivalents);
+        writeInts(output, parentOffsets);
+        writeInts(output, toSortedArray(parents, parentOffsets));
+        writeInts(output, childOffsets);
+        writeInts(output, toSortedArray(children, childOffsets));
+        writeInts(output, nameOffsets);
+        for (AtomicConcept c : concepts) {
+            output.write(uris.get(c));
+        }
+        output.flush();
+    }
+
+    private static int compareBytes(byte[] a, int start, int end, byte[] b) {
+        for (int i = 0; start + i < end && i < b.length; ++i) {
+            int diff = (a[start + i] & 0xff) - (b[i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return (end - start) - b.length;
+    }
+
+    private static void addNodes(Set<AtomicConcept> concepts,
+                                 AtomicConcept self,
+                                 Map<AtomicConcept, Integer> nodeIds,
+                                 List<Integer> out) {
+        if (concepts != null) {
+            for (AtomicConcept c : concepts) {
+                Integer id = nodeIds.get(c);
+                if (id != null && !c.equals(self)) out.add(id);
+            }
+        }
+    }
+
+    /**
+     * Sorts the entries of each node separately.
+     */
+    private static int[] toSortedArray(List<Integer> list, int[] offsets) {
+        int[] out = new int[list.size()];
+        for (int i = 0; i < out.length; ++i) out[i] = list.get(i);
+        for (int n = 0; n + 1 < offsets.length; ++n) {
+            Arrays.sort(out, offsets[n], offsets[n + 1]);
+        }
+        return out;
+    }
+
+    private static void writeInts(DataOutputStream output, int[] ints)
+        throws IOException {
+        for (int i : ints) output.writeInt(i);
+    }
+
+    private static byte[] toUTF8(String s) {
+        try {
+            return s.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fromUTF8(byte[] bytes) {
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getNumberOfConcepts() {
+        return numberOfConcepts;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Returns the id of the concept with the given URI, or -1 if there is
+     * no such concept.
+     */
+    public int getConceptId(String uri) {
+        byte[] key = toUTF8(uri);
+        int low = 0, high = numberOfConcepts - 1;
+        byte[] name = new byte[0];
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = nameOffsets.get(mid), end = nameOffsets.get(mid + 1);
+            if (name.length < end - start) name = new byte[end - start];
+            for (int i = start; i < end; ++i) {
+                name[i - start] = names.get(i);
+            }
+            int cmp = compareBytes(name, 0, end - start, key);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public String getURI(int conceptId) {
+        int start = nameOffsets.get(conceptId);
+        byte[] name = new byte[nameOffsets.get(conceptId + 1) - start];
+        for (int i = 0; i < name.length; ++i) {
+            name[i] = names.get(start + i);
+        }
+        return fromUTF8(name);
+    }
+
+    public int getNode(int conceptId) {
+        return conceptNodes.get(conceptId);
+    }
+
+    /**
+     * Returns the ids of the concepts of the given node in ascending order.
+     */
+    public int[] getEquivalents(int node) {
+        return get(equivalentOffsets, equivalents, node);
+    }
+
+    /**
+     * Returns the direct supernodes of the given node in ascending order.
+     */
+    public int[] getParents(int node) {
+        return get(parentOffsets, parents, node);
+    }
+
+    /**
+     * Returns the direct subnodes of the given node in ascending order.
+     */
+    public int[] getChildren(int node) {
+        return get(childOffsets, children, node);
+    }
+
+    private static int[] get(IntBuffer offsets, IntBuffer entries, int node) {
+        int start = offsets.get(node);
+        int[] out = new int[offsets.get(node + 1) - start];
+        for (int i = 0; i < out.length; ++i) {
+            out[i] = entries.get(start + i);
+        }
+        return out;
+    }
+
+    /**
+     * Returns all the supernodes of the given node, excluding the node
+     * itself, in ascending order.
+     */
+    public int[] getAncestors(int node) {
+        return closure(parentOffsets, parents, node);
+    }
+
+    /**
+     * Returns all the subnodes of the given node, excluding the node itself,
+     * in ascending order.
+     */
+    public int[] getDescendants(int node) {
+        return closure(childOffsets, children, node);
+    }
+
+    private int[] closure(IntBuffer offsets, IntBuffer entries, int node) {
+        boolean[] visited = new boolean[numberOfNodes];
+        int[] queue = new int[numberOfNodes];
+        int head = 0, tail = 0;
+        queue[tail++] = node;
+        visited[node] = true;
+        while (head < tail) {
+            int n = queue[head++];
+            for (int i = offsets.get(n); i < offsets.get(n + 1); ++i) {
+                int m = entries.get(i);
+                if (!visited[m]) {
+                    visited[m] = true;
+                    queue[tail++] = m;
+                }
+            }
+        }
+        int[] out = new int[tail - 1];
+        System.arraycopy(queue, 1, out, 0, out.length);
+        Arrays.sort(out);
+        return out;
+    }
+}
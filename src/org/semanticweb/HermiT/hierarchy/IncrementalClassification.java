@@ -0,0 +1,340 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.Namespaces;
+import org.semanticweb.HermiT.model.AtLeastConcept;
+import org.semanticweb.HermiT.model.AtMostGuard;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.InverseRole;
+import org.semanticweb.HermiT.model.LiteralConcept;
+import org.semanticweb.HermiT.model.Role;
+import org.semanticweb.HermiT.model.Term;
+
+/**
+ * Determines which atomic concepts can have different subsumers in two versions of a DL-ontology. Without nominals and description
+ * graphs, a model of C and not D consists of the trees that the DL-clauses derive from C and from the individuals, and the latter
+ * influence the result only if they are inconsistent. The DL-clauses that can be applied in the tree of C are those whose body
+ * predicates are all reachable from C, where a DL-clause makes its head predicates reachable once it is applicable. Hence, if
+ * neither version contains an applicable DL-clause that is not contained in the other version, then C has the same subsumers
+ * in both versions.
+ *
+ * DL-clauses are compared by their string representations. The clausification names the concepts that it introduces in the
+ * order in which it encounters them, so these names are replaced by names derived from the DL-clauses in which the concepts occur;
+ * otherwise, a single change could rename all introduced concepts and affect all atomic concepts. The derived name contains the
+ * string representations of these DL-clauses themselves rather than a hash code of them, since two different definitions that
+ * got the same name in the two versions would make a changed DL-clause look unchanged.
+ */
+public class IncrementalClassification {
+    protected static final AtomicConcept SELF=AtomicConcept.create("internal:def#self");
+    protected static final AtomicConcept OTHER=AtomicConcept.create("internal:def#other");
+
+    protected final List<DLClauseInfo> m_changedDLClauseInfos;
+    protected final Map<DLPredicate,List<DLClauseInfo>> m_dlClauseInfosByBodyPredicate;
+    protected final List<DLClauseInfo> m_globalDLClauseInfos;
+
+    /**
+     * Indexes the DL-clauses of dlOntology, marking those that are not contained in otherDLOntology as changed.
+     */
+    protected IncrementalClassification(DLOntology dlOntology,Set<String> keysOfOtherDLOntology,Map<DLClause,String> keys) {
+        m_changedDLClauseInfos=new ArrayList<DLClauseInfo>();
+        m_dlClauseInfosByBodyPredicate=new HashMap<DLPredicate,List<DLClauseInfo>>();
+        m_globalDLClauseInfos=new ArrayList<DLClauseInfo>();
+        for (DLClause dlClause : dlOntology.getDLClauses()) {
+            DLClauseInfo dlClauseInfo=new DLClauseInfo(dlClause,!keysOfOtherDLOntology.contains(keys.get(dlClause)));
+            if (dlClauseInfo.m_isChanged)
+                m_changedDLClauseInfos.add(dlClauseInfo);
+            if (dlClauseInfo.m_bodyPredicates.length==0)
+                m_globalDLClauseInfos.add(dlClauseInfo);
+            for (DLPredicate bodyPredicate : dlClauseInfo.m_bodyPredicates) {
+                List<DLClauseInfo> dlClauseInfos=m_dlClauseInfosByBodyPredicate.get(bodyPredicate);
+                if (dlClauseInfos==null) {
+                    dlClauseInfos=new ArrayList<DLClauseInfo>();
+                    m_dlClauseInfosByBodyPredicate.put(bodyPredicate,dlClauseInfos);
+                }
+                dlClauseInfos.add(dlClauseInfo);
+            }
+        }
+    }
+    protected boolean hasChangedGlobalDLClause() {
+        for (DLClauseInfo dlClauseInfo : m_globalDLClauseInfos)
+            if (dlClauseInfo.m_isChanged)
+                return true;
+        return false;
+    }
+    /**
+     * Returns true if a changed DL-clause is applicable in the tree of atomicConcept.
+     */
+    protected boolean isAffected(AtomicConcept atomicConcept) {
+        Set<DLPredicate> reachedPredicates=new HashSet<DLPredicate>();
+        Map<DLClauseInfo,Integer> numbersOfUnreachedBodyPredicates=new HashMap<DLClauseInfo,Integer>();
+        List<DLPredicate> toProcess=new ArrayList<DLPredicate>();
+        reachedPredicates.add(atomicConcept);
+        toProcess.add(atomicConcept);
+        for (DLClauseInfo dlClauseInfo : m_globalDLClauseInfos)
+            reach(dlClauseInfo.m_headPredicates,reachedPredicates,toProcess);
+        while (!toProcess.isEmpty()) {
+            DLPredicate dlPredicate=toProcess.remove(toProcess.size()-1);
+            List<DLClauseInfo> dlClauseInfos=m_dlClauseInfosByBodyPredicate.get(dlPredicate);
+            if (dlClauseInfos!=null)
+                for (DLClauseInfo dlClauseInfo : dlClauseInfos) {
+                    Integer numberOfUnreachedBodyPredicates=numbersOfUnreachedBodyPredicates.get(dlClauseInfo);
+                    int remaining=(numberOfUnreachedBodyPredicates==null ? dlClauseInfo.m_bodyPredicates.length : numberOfUnreachedBodyPredicates.intValue())-1;
+                    numbersOfUnreachedBodyPredicates.put(dlClauseInfo,Integer.valueOf(remaining));
+                    if (remaining==0) {
+                        if (dlClauseInfo.m_isChanged)
+                            return true;
+                        reach(dlClauseInfo.m_headPredicates,reachedPredicates,toProcess);
+                    }
+                }
+        }
+        return false;
+    }
+    protected static void reach(DLPredicate[] dlPredicates,Set<DLPredicate> reachedPredicates,List<DLPredicate> toProcess) {
+        for (DLPredicate dlPredicate : dlPredicates)
+            if (reachedPredicates.add(dlPredicate))
+                toProcess.add(dlPredicate);
+    }
+    /**
+     * Incremental classification is possible only if the trees of different atomic concepts do not interact, which is not the
+     * case in the presence of nominals or description graphs.
+     */
+    public static boolean isApplicable(DLOntology dlOntology) {
+        return !dlOntology.hasNominals() && dlOntology.getAllDescriptionGraphs().isEmpty();
+    }
+    /**
+     * Returns the atomic concepts whose subsumers in currentDLOntology can differ from their subsumers in previousDLOntology, or
+     * null if this cannot be determined or all atomic concepts can be affected. The result is correct only if the individuals of
+     * both DL-ontologies are consistent with the respective DL-clauses.
+     */
+    public static Set<AtomicConcept> getAffectedConcepts(DLOntology previousDLOntology,DLOntology currentDLOntology,Collection<AtomicConcept> atomicConcepts) {
+        if (!isApplicable(previousDLOntology) || !isApplicable(currentDLOntology))
+            return null;
+        Map<DLClause,String> previousKeys=getKeys(previousDLOntology);
+        Map<DLClause,String> currentKeys=getKeys(currentDLOntology);
+        if (previousKeys==null || currentKeys==null)
+            return null;
+        IncrementalClassification previous=new IncrementalClassification(previousDLOntology,new HashSet<String>(currentKeys.values()),previousKeys);
+        IncrementalClassification current=new IncrementalClassification(currentDLOntology,new HashSet<String>(previousKeys.values()),currentKeys);
+        if (previous.hasChangedGlobalDLClause() || current.hasChangedGlobalDLClause())
+            return null;
+        Set<AtomicConcept> affectedConcepts=new HashSet<AtomicConcept>();
+        if (previous.m_changedDLClauseInfos.isEmpty() && current.m_changedDLClauseInfos.isEmpty())
+            return affectedConcepts;
+        for (AtomicConcept atomicConcept : atomicConcepts) {
+            if (!previousDLOntology.getAllAtomicConcepts().contains(atomicConcept) || previous.isAffected(atomicConcept) || current.isAffected(atomicConcept))
+                affectedConcepts.add(atomicConcept);
+        }
+        return affectedConcepts;
+    }
+    /**
+     * Returns the subsumers that the atomic concepts that are not in affectedConcepts had in previousTaxonomy, the taxonomy of
+     * previousConcepts in the previous version. A concept that was subsumed by all of previousConcepts is left out, since it was
+     * most likely unsatisfiable: it is then subsumed by the atomic concepts that the current version adds as well, which are
+     * missing from its previous subsumers. Hence, such concepts have to be tested again, like the affected ones.
+     */
+    public static Map<AtomicConcept,Set<AtomicConcept>> getReusableSubsumers(Taxonomy<AtomicConcept> previousTaxonomy,Collection<AtomicConcept> previousConcepts,Collection<AtomicConcept> atomicConcepts,Set<AtomicConcept> affectedConcepts) {
+        Map<AtomicConcept,Set<AtomicConcept>> reusableSubsumers=new HashMap<AtomicConcept,Set<AtomicConcept>>();
+        for (AtomicConcept atomicConcept : atomicConcepts)
+            if (!affectedConcepts.contains(atomicConcept)) {
+                Set<AtomicConcept> subsumers=previousTaxonomy.getAllSuccessors(atomicConcept);
+                if (subsumers!=null && !subsumers.containsAll(previousConcepts))
+                    reusableSubsumers.put(atomicConcept,subsumers);
+            }
+        return reusableSubsumers;
+    }
+    /**
+     * Returns a string for each DL-clause of dlOntology such that DL-clauses of different DL-ontologies with the same string
+     * have the same meaning. The concepts introduced by the clausification are renamed after the DL-clauses in which they occur.
+     * If two of them occur in the same DL-clauses up to the names of the other introduced concepts, they cannot be told apart
+     * from their counterparts in another version, so null is returned.
+     */
+    protected static Map<DLClause,String> getKeys(DLOntology dlOntology) {
+        Map<AtomicConcept,List<DLClause>> dlClausesByInternalConcept=new HashMap<AtomicConcept,List<DLClause>>();
+        for (DLClause dlClause : dlOntology.getDLClauses()) {
+            Set<AtomicConcept> internalConcepts=new HashSet<AtomicConcept>();
+            for (int headIndex=0;headIndex<dlClause.getHeadLength();headIndex++)
+                addInternalConcepts(dlClause.getHeadAtom(headIndex).getDLPredicate(),internalConcepts);
+            for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++)
+                addInternalConcepts(dlClause.getBodyAtom(bodyIndex).getDLPredicate(),internalConcepts);
+            for (AtomicConcept internalConcept : internalConcepts) {
+                List<DLClause> dlClauses=dlClausesByInternalConcept.get(internalConcept);
+                if (dlClauses==null) {
+                    dlClauses=new ArrayList<DLClause>();
+                    dlClausesByInternalConcept.put(internalConcept,dlClauses);
+                }
+                dlClauses.add(dlClause);
+            }
+        }
+        Map<String,AtomicConcept> internalConceptsByName=new HashMap<String,AtomicConcept>();
+        for (Map.Entry<AtomicConcept,List<DLClause>> entry : dlClausesByInternalConcept.entrySet()) {
+            final AtomicConcept internalConcept=entry.getKey();
+            Renaming renaming=new Renaming() {
+                public AtomicConcept rename(AtomicConcept atomicConcept) {
+                    if (atomicConcept==internalConcept)
+                        return SELF;
+                    else if (isInternal(atomicConcept))
+                        return OTHER;
+                    else
+                        return atomicConcept;
+                }
+            };
+            String[] dlClauseKeys=new String[entry.getValue().size()];
+            for (int index=0;index<dlClauseKeys.length;index++)
+                dlClauseKeys[index]=getKey(entry.getValue().get(index),renaming);
+            Arrays.sort(dlClauseKeys);
+            // each key is preceded by its length, so that different lists of keys cannot give the same name
+            StringBuffer name=new StringBuffer("internal:def#");
+            for (String dlClauseKey : dlClauseKeys)
+                name.append('[').append(dlClauseKey.length()).append(']').append(dlClauseKey);
+            if (internalConceptsByName.put(name.toString(),internalConcept)!=null)
+                return null;
+        }
+        final Map<AtomicConcept,AtomicConcept> newNames=new HashMap<AtomicConcept,AtomicConcept>();
+        for (Map.Entry<String,AtomicConcept> entry : internalConceptsByName.entrySet())
+            newNames.put(entry.getValue(),AtomicConcept.create(entry.getKey()));
+        Renaming renaming=new Renaming() {
+            public AtomicConcept rename(AtomicConcept atomicConcept) {
+                AtomicConcept newName=newNames.get(atomicConcept);
+                return newName==null ? atomicConcept : newName;
+            }
+        };
+        Map<DLClause,String> keys=new HashMap<DLClause,String>();
+        for (DLClause dlClause : dlOntology.getDLClauses())
+            keys.put(dlClause,getKey(dlClause,renaming));
+        return keys;
+    }
+    protected static String getKey(DLClause dlClause,Renaming renaming) {
+        String[] headAtoms=new String[dlClause.getHeadLength()];
+        for (int headIndex=0;headIndex<headAtoms.length;headIndex++)
+            headAtoms[headIndex]=rename(dlClause.getHeadAtom(headIndex),renaming).toString();
+        String[] bodyAtoms=new String[dlClause.getBodyLength()];
+        for (int bodyIndex=0;bodyIndex<bodyAtoms.length;bodyIndex++)
+            bodyAtoms[bodyIndex]=rename(dlClause.getBodyAtom(bodyIndex),renaming).toString();
+        Arrays.sort(headAtoms);
+        Arrays.sort(bodyAtoms);
+        StringBuffer buffer=new StringBuffer();
+        for (int headIndex=0;headIndex<headAtoms.length;headIndex++) {
+            if (headIndex!=0)
+                buffer.append(" v ");
+            buffer.append(headAtoms[headIndex]);
+        }
+        buffer.append(" :- ");
+        for (int bodyIndex=0;bodyIndex<bodyAtoms.length;bodyIndex++) {
+            if (bodyIndex!=0)
+                buffer.append(", ");
+            buffer.append(bodyAtoms[bodyIndex]);
+        }
+        return buffer.toString();
+    }
+    protected static Atom rename(Atom atom,Renaming renaming) {
+        DLPredicate dlPredicate=atom.getDLPredicate();
+        DLPredicate renamedPredicate;
+        if (dlPredicate instanceof AtomicConcept)
+            renamedPredicate=renaming.rename((AtomicConcept)dlPredicate);
+        else if (dlPredicate instanceof AtLeastConcept) {
+            AtLeastConcept atLeastConcept=(AtLeastConcept)dlPredicate;
+            renamedPredicate=AtLeastConcept.create(atLeastConcept.getNumber(),atLeastConcept.getOnRole(),rename(atLeastConcept.getToConcept(),renaming));
+        }
+        else if (dlPredicate instanceof AtMostGuard) {
+            AtMostGuard atMostGuard=(AtMostGuard)dlPredicate;
+            renamedPredicate=AtMostGuard.create(atMostGuard.getCaridnality(),atMostGuard.getOnRole(),renaming.rename(atMostGuard.getToAtomicConcept()));
+        }
+        else
+            return atom;
+        if (renamedPredicate==dlPredicate)
+            return atom;
+        Term[] arguments=new Term[atom.getArity()];
+        for (int argumentIndex=0;argumentIndex<arguments.length;argumentIndex++)
+            arguments[argumentIndex]=atom.getArgument(argumentIndex);
+        return Atom.create(renamedPredicate,arguments);
+    }
+    protected static LiteralConcept rename(LiteralConcept literalConcept,Renaming renaming) {
+        if (literalConcept instanceof AtomicConcept)
+            return renaming.rename((AtomicConcept)literalConcept);
+        else if (literalConcept instanceof AtomicNegationConcept)
+            return AtomicNegationConcept.create(renaming.rename(((AtomicNegationConcept)literalConcept).getNegatedAtomicConcept()));
+        else
+            return literalConcept;
+    }
+    protected static void addInternalConcepts(DLPredicate dlPredicate,Set<AtomicConcept> internalConcepts) {
+        if (dlPredicate instanceof AtomicConcept) {
+            if (isInternal((AtomicConcept)dlPredicate))
+                internalConcepts.add((AtomicConcept)dlPredicate);
+        }
+        else if (dlPredicate instanceof AtLeastConcept) {
+            LiteralConcept toConcept=((AtLeastConcept)dlPredicate).getToConcept();
+            if (toConcept instanceof AtomicNegationConcept)
+                toConcept=((AtomicNegationConcept)toConcept).getNegatedAtomicConcept();
+            if (toConcept instanceof AtomicConcept)
+                addInternalConcepts((AtomicConcept)toConcept,internalConcepts);
+        }
+        else if (dlPredicate instanceof AtMostGuard)
+            addInternalConcepts(((AtMostGuard)dlPredicate).getToAtomicConcept(),internalConcepts);
+    }
+    protected static boolean isInternal(AtomicConcept atomicConcept) {
+        return Namespaces.isInternalURI(atomicConcept.getURI());
+    }
+    protected static AtomicRole getAtomicRole(Role role) {
+        if (role instanceof InverseRole)
+            return ((InverseRole)role).getInverseOf();
+        else
+            return (AtomicRole)role;
+    }
+
+    protected static interface Renaming {
+        AtomicConcept rename(AtomicConcept atomicConcept);
+    }
+
+    protected static class DLClauseInfo {
+        protected final boolean m_isChanged;
+        protected final DLPredicate[] m_bodyPredicates;
+        protected final DLPredicate[] m_headPredicates;
+
+        public DLClauseInfo(DLClause dlClause,boolean isChanged) {
+            m_isChanged=isChanged;
+            Set<DLPredicate> bodyPredicates=new HashSet<DLPredicate>();
+            for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++) {
+                DLPredicate dlPredicate=dlClause.getBodyAtom(bodyIndex).getDLPredicate();
+                if (isDerivable(dlPredicate))
+                    bodyPredicates.add(dlPredicate);
+            }
+            m_bodyPredicates=new DLPredicate[bodyPredicates.size()];
+            bodyPredicates.toArray(m_bodyPredicates);
+            Set<DLPredicate> headPredicates=new HashSet<DLPredicate>();
+            for (int headIndex=0;headIndex<dlClause.getHeadLength();headIndex++) {
+                DLPredicate dlPredicate=dlClause.getHeadAtom(headIndex).getDLPredicate();
+                headPredicates.add(dlPredicate);
+                if (dlPredicate instanceof AtLeastConcept) {
+                    AtLeastConcept atLeastConcept=(AtLeastConcept)dlPredicate;
+                    headPredicates.add(getAtomicRole(atLeastConcept.getOnRole()));
+                    if (atLeastConcept.getToConcept() instanceof AtomicConcept)
+                        headPredicates.add((AtomicConcept)atLeastConcept.getToConcept());
+                }
+            }
+            m_headPredicates=new DLPredicate[headPredicates.size()];
+            headPredicates.toArray(m_headPredicates);
+        }
+        /**
+         * Returns true if dlPredicate holds only where a DL-clause derives it. The remaining predicates, such as owl:Thing and
+         * equality, are assumed to hold everywhere, which can only make more DL-clauses applicable.
+         */
+        protected static boolean isDerivable(DLPredicate dlPredicate) {
+            return (dlPredicate instanceof AtomicConcept && !AtomicConcept.THING.equals(dlPredicate)) || dlPredicate instanceof AtomicRole || dlPredicate instanceof AtMostGuard;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.hierarchy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.tableau.ExtensionTable;
+import org.semanticweb.HermiT.tableau.Node;
+import org.semanticweb.HermiT.tableau.Tableau;
+
+/**
+ * Proves non-subsumptions by merging pseudo-models. The pseudo-model of a concept records the predicates of the tuples that
+ * contain the root of a model of the concept: the atomic and negated atomic concepts of the root, its existentials and at-most
+ * guards, and the roles of its edges. If C is satisfiable and D is not equivalent to owl:Thing, the models of C and of not D
+ * can be merged at their roots into a model of C and not D, provided that the merged root does not clash and that no DL-clause
+ * can be matched by combining tuples of both models. The latter is checked conservatively: a match that combines both models
+ * has to contain two distinct body atoms, one from each model, that both contain the root. Hence, the models are mergeable if
+ * no DL-clause contains distinct body atoms whose predicates occur at the roots of the two models. A model is not used if a
+ * node is blocked by the root or by a child of the root, or if it is blocked directly below the root, since merging changes
+ * the label of the root.
+ */
+public class PseudoModelCache {
+    /** Recorded as the negative model of the concepts that are equivalent to owl:Thing. */
+    protected static final PseudoModel NO_MODEL=new PseudoModel();
+
+    protected final Tableau m_tableau;
+    protected final Map<DLPredicate,List<DLClauseInfo>> m_dlClauseInfosByBodyPredicate;
+    protected final List<DLClauseInfo> m_disconnectedDLClauseInfos;
+    protected final ConcurrentMap<AtomicConcept,PseudoModel> m_positiveModels;
+    protected final ConcurrentMap<AtomicConcept,PseudoModel> m_negativeModels;
+    protected final AtomicInteger m_numberOfMergeTests;
+    protected final AtomicInteger m_numberOfSuccessfulMergeTests;
+
+    public PseudoModelCache(Tableau tableau) {
+        m_tableau=tableau;
+        m_dlClauseInfosByBodyPredicate=new HashMap<DLPredicate,List<DLClauseInfo>>();
+        m_disconnectedDLClauseInfos=new ArrayList<DLClauseInfo>();
+        m_positiveModels=new ConcurrentHashMap<AtomicConcept,PseudoModel>();
+        m_negativeModels=new ConcurrentHashMap<AtomicConcept,PseudoModel>();
+        m_numberOfMergeTests=new AtomicInteger();
+        m_numberOfSuccessfulMergeTests=new AtomicInteger();
+        for (DLClause dlClause : tableau.getDLOntology().getDLClauses()) {
+            DLClauseInfo dlClauseInfo=new DLClauseInfo(dlClause);
+            if (dlClauseInfo.m_isConnected) {
+                Set<DLPredicate> bodyPredicates=new HashSet<DLPredicate>();
+                for (DLPredicate bodyPredicate : dlClauseInfo.m_bodyPredicates)
+                    if (bodyPredicates.add(bodyPredicate)) {
+                        List<DLClauseInfo> dlClauseInfos=m_dlClauseInfosByBodyPredicate.get(bodyPredicate);
+                        if (dlClauseInfos==null) {
+                            dlClauseInfos=new ArrayList<DLClauseInfo>();
+                            m_dlClauseInfosByBodyPredicate.put(bodyPredicate,dlClauseInfos);
+                        }
+                        dlClauseInfos.add(dlClauseInfo);
+                    }
+            }
+            else
+                m_disconnectedDLClauseInfos.add(dlClauseInfo);
+        }
+    }
+    /**
+     * Model merging is sound only if each model of a concept is determined by its root and the nodes reachable from it, which
+     * is not the case in the presence of nominals, datatypes, or description graphs.
+     */
+    public static boolean isApplicable(DLOntology dlOntology) {
+        return !dlOntology.hasNominals() && !dlOntology.hasDatatypes() && dlOntology.getAllDescriptionGraphs().isEmpty();
+    }
+    public int getNumberOfMergeTests() {
+        return m_numberOfMergeTests.get();
+    }
+    public int getNumberOfSuccessfulMergeTests() {
+        return m_numberOfSuccessfulMergeTests.get();
+    }
+    /**
+     * Records the model that the last call of tableau.isSatisfiable(atomicConcept) has produced; the call must have returned true.
+     */
+    public void addPositiveModel(AtomicConcept atomicConcept) {
+        addPositiveModel(atomicConcept,m_tableau);
+    }
+    /**
+     * Records the model that the last call of tableau.isSatisfiable(atomicConcept) has produced, where tableau has been created
+     * from the same DL-ontology as the tableau of this cache. Several threads can record the models of their own tableaux
+     * concurrently.
+     */
+    public void addPositiveModel(AtomicConcept atomicConcept,Tableau tableau) {
+        m_positiveModels.put(atomicConcept,new PseudoModel(tableau));
+    }
+    /**
+     * Returns true if subconcept is known not to be subsumed by superconcept. This can require a satisfiability test of the
+     * complement of superconcept, whose result is cached, but it never requires a test of subconcept and not superconcept.
+     */
+    public boolean isKnownNotSubsumedBy(AtomicConcept subconcept,AtomicConcept superconcept) {
+        return isKnownNotSubsumedBy(subconcept,superconcept,m_tableau);
+    }
+    /**
+     * Same as isKnownNotSubsumedBy(subconcept,superconcept), but the complement of superconcept is tested on the given tableau,
+     * which must have been created from the same DL-ontology as the tableau of this cache. Threads that classify using their own
+     * tableaux can thus share the cache, provided that no two threads pass the same tableau. The complement of superconcept is
+     * tested without holding a lock, so the threads can test different concepts concurrently; if two threads test the same
+     * concept, the model recorded first is kept.
+     */
+    public boolean isKnownNotSubsumedBy(AtomicConcept subconcept,AtomicConcept superconcept,Tableau tableau) {
+        PseudoModel positiveModel=m_positiveModels.get(subconcept);
+        if (positiveModel==null || !positiveModel.m_isMergeable || positiveModel.m_rootPredicates.contains(superconcept))
+            return false;
+        PseudoModel negativeModel=m_negativeModels.get(superconcept);
+        if (negativeModel==null) {
+            if (tableau.isSubsumedBy(AtomicConcept.THING,superconcept))
+                negativeModel=NO_MODEL;
+            else
+                negativeModel=new PseudoModel(tableau);
+            PseudoModel existingModel=m_negativeModels.putIfAbsent(superconcept,negativeModel);
+            if (existingModel!=null)
+                negativeModel=existingModel;
+        }
+        if (!negativeModel.m_isMergeable)
+            return false;
+        m_numberOfMergeTests.incrementAndGet();
+        if (isMergeable(positiveModel,negativeModel)) {
+            m_numberOfSuccessfulMergeTests.incrementAndGet();
+            return true;
+        }
+        else
+            return false;
+    }
+    protected boolean isMergeable(PseudoModel model1,PseudoModel model2) {
+        for (AtomicConcept atomicConcept : model1.m_negatedAtomicConcepts)
+            if (model2.m_rootPredicates.contains(atomicConcept))
+                return false;
+        for (AtomicConcept atomicConcept : model2.m_negatedAtomicConcepts)
+            if (model1.m_rootPredicates.contains(atomicConcept))
+                return false;
+        PseudoModel smallerModel=(model1.m_rootPredicates.size()<=model2.m_rootPredicates.size() ? model1 : model2);
+        PseudoModel otherModel=(smallerModel==model1 ? model2 : model1);
+        for (DLPredicate dlPredicate : smallerModel.m_rootPredicates) {
+            List<DLClauseInfo> dlClauseInfos=m_dlClauseInfosByBodyPredicate.get(dlPredicate);
+            if (dlClauseInfos!=null)
+                for (DLClauseInfo dlClauseInfo : dlClauseInfos)
+                    if (dlClauseInfo.canCombine(model1.m_rootPredicates,model2.m_rootPredicates))
+                        return false;
+        }
+        for (DLClauseInfo dlClauseInfo : m_disconnectedDLClauseInfos)
+            if (dlClauseInfo.canCombine(smallerModel.m_allPredicates,otherModel.m_allPredicates))
+                return false;
+        return true;
+    }
+
+    protected static class PseudoModel {
+        protected final Set<DLPredicate> m_rootPredicates;
+        protected final Set<AtomicConcept> m_negatedAtomicConcepts;
+        protected final Set<DLPredicate> m_allPredicates;
+        protected boolean m_isMergeable;
+
+        protected PseudoModel() {
+            m_rootPredicates=new HashSet<DLPredicate>();
+            m_negatedAtomicConcepts=new HashSet<AtomicConcept>();
+            m_allPredicates=new HashSet<DLPredicate>();
+            m_isMergeable=false;
+        }
+        public PseudoModel(Tableau tableau) {
+            m_rootPredicates=new HashSet<DLPredicate>();
+            m_negatedAtomicConcepts=new HashSet<AtomicConcept>();
+            m_allPredicates=new HashSet<DLPredicate>();
+            m_isMergeable=true;
+            m_rootPredicates.add(AtomicConcept.THING);
+            m_allPredicates.add(AtomicConcept.THING);
+            Node root=tableau.getCheckedNode().getCanonicalNode();
+            for (Node node=tableau.getFirstTableauNode();node!=null;node=node.getNextTableauNode())
+                if (node.isActive() && node.isBlocked() && (node.getParent()==root || node.getBlocker()==root || (node.getBlocker()!=Node.CACHE_BLOCKER && node.getBlocker().getParent()==root)))
+                    m_isMergeable=false;
+            addTuples(tableau.getExtensionManager().getBinaryExtensionTable(),root);
+            addTuples(tableau.getExtensionManager().getTernaryExtensionTable(),root);
+        }
+        protected void addTuples(ExtensionTable extensionTable,Node root) {
+            ExtensionTable.Retrieval retrieval=extensionTable.createRetrieval(new boolean[extensionTable.getArity()],ExtensionTable.View.TOTAL);
+            Object[] tupleBuffer=retrieval.getTupleBuffer();
+            retrieval.open();
+            while (!retrieval.afterLast()) {
+                boolean containsRoot=false;
+                for (int index=1;index<tupleBuffer.length;index++)
+                    if (tupleBuffer[index]==root)
+                        containsRoot=true;
+                if (tupleBuffer[0] instanceof DLPredicate) {
+                    DLPredicate dlPredicate=(DLPredicate)tupleBuffer[0];
+                    m_allPredicates.add(dlPredicate);
+                    if (containsRoot)
+                        m_rootPredicates.add(dlPredicate);
+                }
+                else if (tupleBuffer[0] instanceof AtomicNegationConcept) {
+                    if (containsRoot)
+                        m_negatedAtomicConcepts.add(((AtomicNegationConcept)tupleBuffer[0]).getNegatedAtomicConcept());
+                }
+                else
+                    m_isMergeable=false;
+                retrieval.next();
+            }
+        }
+    }
+
+    protected static class DLClauseInfo {
+        protected final DLPredicate[] m_bodyPredicates;
+        protected final boolean m_isConnected;
+
+        public DLClauseInfo(DLClause dlClause) {
+            m_bodyPredicates=new DLPredicate[dlClause.getBodyLength()];
+            for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++)
+                m_bodyPredicates[bodyIndex]=dlClause.getBodyAtom(bodyIndex).getDLPredicate();
+            m_isConnected=isConnected(dlClause);
+        }
+        /**
+         * Returns true if two distinct body atoms have their predicates in predicates1 and predicates2, respectively.
+         */
+        public boolean canCombine(Set<DLPredicate> predicates1,Set<DLPredicate> predicates2) {
+            for (int index1=0;index1<m_bodyPredicates.length;index1++)
+                if (predicates1.contains(m_bodyPredicates[index1]))
+                    for (int index2=0;index2<m_bodyPredicates.length;index2++)
+                        if (index1!=index2 && predicates2.contains(m_bodyPredicates[index2]))
+                            return true;
+            return false;
+        }
+        protected static boolean isConnected(DLClause dlClause) {
+            if (dlClause.getBodyLength()<=1)
+                return true;
+            Set<Variable> reachedVariables=new HashSet<Variable>();
+            boolean[] reachedAtoms=new boolean[dlClause.getBodyLength()];
+            reachedAtoms[0]=true;
+            int numberOfReachedAtoms=1;
+            dlClause.getBodyAtom(0).getVariables(reachedVariables);
+            boolean changed=true;
+            while (changed) {
+                changed=false;
+                for (int bodyIndex=1;bodyIndex<dlClause.getBodyLength();bodyIndex++)
+                    if (!reachedAtoms[bodyIndex]) {
+                        Atom atom=dlClause.getBodyAtom(bodyIndex);
+                        for (int argumentIndex=0;argumentIndex<atom.getArity() && !reachedAtoms[bodyIndex];argumentIndex++)
+                            if (reachedVariables.contains(atom.getArgumentVariable(argumentIndex))) {
+                                reachedAtoms[bodyIndex]=true;
+                                numberOfReachedAtoms++;
+                                atom.getVariables(reachedVariables);
+                                changed=true;
+                            }
+                    }
+            }
+            return numberOfReachedAtoms==dlClause.getBodyLength();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.hierarchy;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Answers reachability queries over a directed acyclic graph without
+ * materializing its transitive closure, using the interval labelling of
+ * Agrawal, Borgida, and Jagadish ("Efficient management of transitive
+ * relationships in large data and knowledge bases", SIGMOD 1989).
+ *
+ * The vertices are numbered in the post-order of a depth-first search, so
+ * that the vertices below a vertex in the search tree form an interval of
+ * numbers. Each vertex is labelled with a sorted list of disjoint intervals
+ * that cover the numbers of all vertices that it reaches; the list of a
+ * vertex is the union of its own tree interval and the lists of its
+ * neighbours. For a tree the list of each vertex consists of a single
+ * interval; class hierarchies are mostly tree-shaped, so the lists stay
+ * short, and a reachability test is a binary search in one list.
+ *
+ * There is one labelling for each direction of the edges, so that both the
+ * successors and the predecessors of a vertex can be enumerated.
+ */
+public class ReachabilityIndex<T> {
+    private final Map<T, Integer> ids;
+    private final Object[] vertices;
+    private final Labelling forward;
+    private final Labelling backward;
+
+    /**
+     * @param graph maps each vertex to its direct successors; it must be
+     *              acyclic, apart from self loops, which are ignored
+     */
+    public ReachabilityIndex(Map<T, Set<T>> graph) {
+        ids = new HashMap<T, Integer>();
+        for (Map.Entry<T, Set<T>> e : graph.entrySet()) {
+            getId(e.getKey());
+            for (T succ : e.getValue()) {
+                getId(succ);
+            }
+        }
+        vertices = new Object[ids.size()];
+        for (Map.Entry<T, Integer> e : ids.entrySet()) {
+            vertices[e.getValue()] = e.getKey();
+        }
+        int[] outDegree = new int[vertices.length];
+        int[] inDegree = new int[vertices.length];
+        for (Map.Entry<T, Set<T>> e : graph.entrySet()) {
+            int from = ids.get(e.getKey());
+            for (T succ : e.getValue()) {
+                int to = ids.get(succ);
+                if (to != from) {
+                    ++outDegree[from];
+                    ++inDegree[to];
+                }
+            }
+        }
+        int[][] successors = new int[vertices.length][];
+        int[][] predecessors = new int[vertices.length][];
+        for (int i = 0; i < vertices.length; ++i) {
+            successors[i] = new int[outDegree[i]];
+            predecessors[i] = new int[inDegree[i]];
+        }
+        for (Map.Entry<T, Set<T>> e : graph.entrySet()) {
+            int from = ids.get(e.getKey());
+            for (T succ : e.getValue()) {
+                int to = ids.get(succ);
+                if (to != from) {
+                    successors[from][--outDegree[from]] = to;
+                    predecessors[to][--inDegree[to]] = from;
+                }
+            }
+        }
+        forward = new Labelling(successors);
+        backward = new Labelling(predecessors);
+    }
+
+    private int getId(T t) {
+        Integer id = ids.get(t);
+        if (id == null) {
+            id = ids.size();
+            ids.put(t, id);
+        }
+        return id;
+    }
+
+    public boolean contains(T t) {
+        return ids.containsKey(t);
+    }
+
+    /**
+     * Returns true if `successor` can be reached from `t`, which is the
+     * case in particular if they are the same vertex.
+     */
+    public boolean reaches(T t, T successor) {
+        Integer from = ids.get(t);
+        Integer to = ids.get(successor);
+        if (from == null || to == null) {
+            return t.equals(successor);
+        }
+        return forward.reaches(from, to);
+    }
+
+    /**
+     * Returns a read-only view of the vertices reachable from `t`, including
+     * `t` itself.
+     */
+    public Set<T> getSuccessors(T t) {
+        return getReachable(forward, t);
+    }
+
+    /**
+     * Returns a read-only view of the vertices from which `t` is reachable,
+     * including `t` itself.
+     */
+    public Set<T> getPredecessors(T t) {
+        return getReachable(backward, t);
+    }
+
+    /**
+     * Returns the total number of intervals in both labellings, which is a
+     * measure of the size of the index.
+     */
+    public int getNumberOfIntervals() {
+        return forward.getNumberOfIntervals()
+            + backward.getNumberOfIntervals();
+    }
+
+    private Set<T> getReachable(final Labelling labelling, T t) {
+        Integer id = ids.get(t);
+        if (id == null) {
+            return Collections.singleton(t);
+        }
+        final int[] intervals = labelling.intervals[id];
+        return new AbstractSet<T>() {
+            public int size() {
+                int size = 0;
+                for (int i = 0; i < intervals.length; i += 2) {
+                    size += intervals[i + 1] - intervals[i] + 1;
+                }
+                return size;
+            }
+            public boolean contains(Object o) {
+                Integer other = ids.get(o);
+                return other != null &&
+                    Labelling.contains(intervals, labelling.post[other]);
+            }
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    int interval = 0;
+                    int next = intervals.length == 0 ? 0 : intervals[0];
+                    public boolean hasNext() {
+                        return interval < intervals.length;
+                    }
+                    @SuppressWarnings("unchecked")
+                    public T next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        T out = (T) vertices[labelling.vertexAt[next]];
+                        if (next == intervals[interval + 1]) {
+                            interval += 2;
+                            if (interval < intervals.length) {
+                                next = intervals[interval];
+                            }
+                        } else {
+                            ++next;
+                        }
+                        return out;
+                    }
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    private static class Labelling {
+        /** The post-order number of each vertex. */
+        final int[] post;
+        /** The vertex with each post-order number. */
+        final int[] vertexAt;
+        /** The intervals of each vertex as pairs of bounds (inclusive). */
+        final int[][] intervals;
+
+        Labelling(int[][] edges) {
+            int n = edges.length;
+            post = new int[n];
+            vertexAt = new int[n];
+            intervals = new int[n][];
+            int[] low = new int[n];
+            boolean[] visited = new boolean[n];
+            // An explicit stack, since hierarchies can be very deep:
+            int[] stack = new int[n];
+            int[] edgeIndex = new int[n];
+            int counter = 0;
+            for (int root = 0; root < n; ++root) {
+                if (visited[root]) continue;
+                int depth = 0;
+                stack[0] = root;
+                edgeIndex[0] = 0;
+                visited[root] = true;
+                low[root] = counter;
+                while (depth >= 0) {
+                    int v = stack[depth];
+                    if (edgeIndex[depth] < edges[v].length) {
+                        int w = edges[v][edgeIndex[depth]++];
+                        if (!visited[w]) {
+                            visited[w] = true;
+                            low[w] = counter;
+                            stack[++depth] = w;
+                            edgeIndex[depth] = 0;
+                        }
+                    } else {
+                        // All vertices reachable from v are finished:
+                        post[v] = counter;
+                        vertexAt[counter] = v;
+                        ++counter;
+                        intervals[v] = merge(low[v], post[v], edges[v],
+                                             intervals);
+                        --depth;
+                    }
+                }
+            }
+        }
+
+        private static int[] merge(int low, int high, int[] neighbours,
+                                   int[][] intervals) {
+            int total = 2;
+            for (int w : neighbours) {
+                total += intervals[w].length;
+            }
+            long[] bounds = new long[total / 2];
+            int count = 0;
+            bounds[count++] = ((long) low << 32) | high;
+            for (int w : neighbours) {
+                int[] other = intervals[w];
+                for (int i = 0; i < other.length; i += 2) {
+                    bounds[count++] = ((long) other[i] << 32) | other[i + 1];
+                }
+            }
+            // the bounds are non-negative, so this sorts by lower bound:
+            Arrays.sort(bounds);
+            int[] out = new int[total];
+            int size = 0;
+            for (long b : bounds) {
+                int start = (int) (b >>> 32);
+                int end = (int) b;
+                if (size > 0 && start <= out[size - 1] + 1) {
+                    if (end > out[size - 1]) out[size - 1] = end;
+                } else {
+                    out[size++] = start;
+                    out[size++] = end;
+                }
+            }
+            if (size < out.length) {
+                int[] trimmed = new int[size];
+                System.arraycopy(out, 0, trimmed, 0, size);
+                out = trimmed;
+            }
+            return out;
+        }
+
+        boolean reaches(int from, int to) {
+            return contains(intervals[from], post[to]);
+        }
+
+        static boolean contains(int[] intervals, int p) {
+            int lo = 0, hi = intervals.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (p < intervals[2 * mid]) hi = mid - 1;
+                else if (p > intervals[2 * mid + 1]) lo = mid + 1;
+                else return true;
+            }
+            return false;
+        }
+
+        int getNumberOfIntervals() {
+            int count = 0;
+            for (int[] i : intervals) count += i.length / 2;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.hierarchy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.Individual;
+import org.semanticweb.HermiT.tableau.ExtensionTable;
+import org.semanticweb.HermiT.tableau.Node;
+import org.semanticweb.HermiT.tableau.Tableau;
+
+/**
+ * Computes the positions of the individuals of the ABox in the class hierarchy. The ABox is saturated once: the atomic concepts
+ * that an individual has in the resulting model without depending on a choice are its known types, and the atomic concepts that
+ * it has in the model at all are its possible types, since the model refutes all other types. The remaining possible types are
+ * tested top-down along the taxonomy, so a concept is tested only if all its parents are types of the individual. A failed
+ * instance test produces another model of the ontology, which is used to discard possible types of all individuals that have
+ * not been realized yet; hence, one tableau run can rule out the candidate types of many individuals.
+ */
+public class Realizer {
+    protected final Tableau m_tableau;
+    protected final TaxonomyHierarchy<AtomicConcept> m_hierarchy;
+    protected final Taxonomy<AtomicConcept> m_taxonomy;
+    protected final Map<Individual,Set<AtomicConcept>> m_knownTypes;
+    /** The possible types of the individuals whose types are not all known; no entry means that all types are known. */
+    protected final Map<Individual,Set<AtomicConcept>> m_possibleTypes;
+    protected final Set<AtomicConcept> m_bottom;
+    protected int m_numberOfInstanceTests;
+
+    public Realizer(Tableau tableau,TaxonomyHierarchy<AtomicConcept> hierarchy,Collection<Individual> individuals) {
+        m_tableau=tableau;
+        m_hierarchy=hierarchy;
+        m_taxonomy=hierarchy.getTaxonomy();
+        m_knownTypes=new HashMap<Individual,Set<AtomicConcept>>();
+        m_possibleTypes=new HashMap<Individual,Set<AtomicConcept>>();
+        m_bottom=new HashSet<AtomicConcept>();
+        AtomicConcept bottom=m_taxonomy.canonical.get(AtomicConcept.NOTHING);
+        if (bottom!=null)
+            m_bottom.add(bottom);
+        ReachabilityIndex<AtomicConcept> index=m_taxonomy.getReachabilityIndex();
+        boolean isConsistent=m_tableau.isABoxSatisfiable();
+        Map<Individual,Node> aboxNodes=m_tableau.getABoxNodes();
+        for (Individual individual : individuals) {
+            Set<AtomicConcept> knownTypes=new HashSet<AtomicConcept>();
+            Set<AtomicConcept> possibleTypes=new HashSet<AtomicConcept>();
+            Node node=(aboxNodes==null ? null : aboxNodes.get(individual));
+            if (!isConsistent)
+                // every individual is an instance of every concept
+                knownTypes.addAll(m_taxonomy.reduced.keySet());
+            else if (node==null)
+                possibleTypes=null;
+            else
+                addTypes(node,knownTypes,possibleTypes);
+            AtomicConcept top=m_taxonomy.canonical.get(AtomicConcept.THING);
+            if (top!=null)
+                knownTypes.add(top);
+            Set<AtomicConcept> closedKnownTypes=new HashSet<AtomicConcept>();
+            for (AtomicConcept knownType : knownTypes)
+                closedKnownTypes.addAll(index.getSuccessors(knownType));
+            m_knownTypes.put(individual,closedKnownTypes);
+            if (possibleTypes==null || !closedKnownTypes.containsAll(possibleTypes)) {
+                if (possibleTypes!=null)
+                    possibleTypes.addAll(closedKnownTypes);
+                m_possibleTypes.put(individual,possibleTypes);
+            }
+        }
+    }
+    /**
+     * Adds the types of the individual of the given node in the current model to possibleTypes, and the ones that do not depend
+     * on a choice to knownTypes. The types are canonical concepts of the taxonomy.
+     */
+    protected void addTypes(Node node,Set<AtomicConcept> knownTypes,Set<AtomicConcept> possibleTypes) {
+        // if the node has been merged, the types of the other node may depend on the merge
+        boolean isDeterministic=node.isActive();
+        node=node.getCanonicalNode();
+        ExtensionTable.Retrieval retrieval=m_tableau.getExtensionManager().getBinaryExtensionTable().createRetrieval(new boolean[] { false,true },ExtensionTable.View.TOTAL);
+        retrieval.getBindingsBuffer()[1]=node;
+        for (retrieval.open();!retrieval.afterLast();retrieval.next()) {
+            Object object=retrieval.getTupleBuffer()[0];
+            if (object instanceof AtomicConcept) {
+                AtomicConcept type=m_taxonomy.canonical.get(object);
+                if (type!=null) {
+                    possibleTypes.add(type);
+                    if (knownTypes!=null && isDeterministic && retrieval.getDependencySet().isEmpty())
+                        knownTypes.add(type);
+                }
+            }
+        }
+    }
+    /**
+     * Uses the current model of the tableau, which has been produced by a failed instance test, to discard the possible types
+     * of the individuals that are not types in the model.
+     */
+    protected void discardPossibleTypes() {
+        Map<Individual,Node> aboxNodes=m_tableau.getABoxNodes();
+        Set<AtomicConcept> modelTypes=new HashSet<AtomicConcept>();
+        for (Map.Entry<Individual,Set<AtomicConcept>> entry : m_possibleTypes.entrySet()) {
+            Node node=aboxNodes.get(entry.getKey());
+            if (node!=null) {
+                modelTypes.clear();
+                addTypes(node,null,modelTypes);
+                if (entry.getValue()==null)
+                    entry.setValue(new HashSet<AtomicConcept>(modelTypes));
+                else
+                    entry.getValue().retainAll(modelTypes);
+                // the label of a node need not contain owl:Thing, but the known types are types in every model
+                entry.getValue().addAll(m_knownTypes.get(entry.getKey()));
+            }
+        }
+    }
+    public int getNumberOfInstanceTests() {
+        return m_numberOfInstanceTests;
+    }
+    /**
+     * Returns the types of the individual that have been established so far; after getPosition(individual), these are all
+     * its types.
+     */
+    public Set<AtomicConcept> getKnownTypes(Individual individual) {
+        return m_knownTypes.get(individual);
+    }
+    public HierarchyPosition<AtomicConcept> getPosition(final Individual individual) {
+        Set<AtomicConcept> knownTypes=m_knownTypes.get(individual);
+        if (knownTypes==null) {
+            // the individual does not occur in the ABox, so any concept other than owl:Thing can be a type
+            knownTypes=new HashSet<AtomicConcept>();
+            AtomicConcept top=m_taxonomy.canonical.get(AtomicConcept.THING);
+            if (top!=null)
+                knownTypes.addAll(m_taxonomy.getReachabilityIndex().getSuccessors(top));
+            m_knownTypes.put(individual,knownTypes);
+            m_possibleTypes.put(individual,null);
+        }
+        Set<AtomicConcept> possibleTypes=m_possibleTypes.get(individual);
+        if (!m_possibleTypes.containsKey(individual))
+            possibleTypes=knownTypes;
+        Hierarchy.Element<AtomicConcept> element=new Hierarchy.Element<AtomicConcept>() {
+            public boolean doesPrecede(AtomicConcept concept) {
+                // the possible types can have been reduced by the tests of other concepts
+                Set<AtomicConcept> possibleTypes=m_possibleTypes.get(individual);
+                if (possibleTypes!=null && !possibleTypes.contains(concept))
+                    return false;
+                m_numberOfInstanceTests++;
+                if (m_tableau.isInstanceOf(individual,concept))
+                    return true;
+                discardPossibleTypes();
+                return false;
+            }
+            public boolean doesSucceed(AtomicConcept concept) {
+                // only unsatisfiable concepts are subsumed by an individual of a consistent ontology
+                return m_bottom.contains(concept);
+            }
+            public AtomicConcept getEquivalent() {
+                return null;
+            }
+        };
+        HierarchyPosition<AtomicConcept> position=m_hierarchy.getPosition(element,new HashSet<AtomicConcept>(knownTypes),possibleTypes==null ? null : new HashSet<AtomicConcept>(possibleTypes),new HashSet<AtomicConcept>(m_bottom),new HashSet<AtomicConcept>(m_bottom));
+        // all types are known now, so the individual no longer needs to be updated from models
+        m_possibleTypes.remove(individual);
+        Set<AtomicConcept> types=new HashSet<AtomicConcept>();
+        for (AtomicConcept type : position.getAncestors())
+            types.add(m_taxonomy.canonical.get(type));
+        m_knownTypes.put(individual,types);
+        return position;
+    }
+}
@@ -9,6 +9,16 @@ import java.util.List;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.semanticweb.HermiT.util.GraphUtils;
 import org.semanticweb.HermiT.util.InducedSubgraph;
 import org.semanticweb.HermiT.util.DifferenceSet;
@@ -19,12 +29,19 @@ import org.semanticweb.HermiT.util.NullMonitor;
 import org.semanticweb.HermiT.util.ConsoleMonitor;
 
 public class Taxonomy<T> {
+    /**
+     * The number of concepts per thread that are considered together when
+     * classifying in parallel.
+     */
+    public static final int BATCH_SIZE_PER_THREAD = 4;
+    
     public Map<T, T> canonical;
     public Map<T, Set<T>> equivs;
     public Map<T, Set<T>> reduced;
     public Map<T, Set<T>> reduced_inverse;
     public Map<T, Set<T>> closed;
     public Map<T, Set<T>> closed_inverse;
+    private ReachabilityIndex<T> reachability;
     
     /**
      * Prune possible information based on the (partial) information stored
@@ -255,12 +272,66 @@ public class Taxonomy<T> {
     public interface Ordering<U> {
         boolean doesPrecede(U predecessor, U successor);
     }
+    
+    /**
+     * Remembers the results of an ordering. The results can be shared
+     * between several instances whose orderings compute the same relation,
+     * for example using different tableaux, and which are used by different
+     * threads.
+     */
+    private static class MemoizingOrdering<U> implements Ordering<U> {
+        private final Ordering<? super U> order;
+        private final ConcurrentMap<List<U>, Boolean> results;
+        MemoizingOrdering(Ordering<? super U> order,
+                          ConcurrentMap<List<U>, Boolean> results) {
+            this.order = order;
+            this.results = results;
+        }
+        @SuppressWarnings("unchecked")
+        public boolean doesPrecede(U predecessor, U successor) {
+            List<U> key = Arrays.asList(predecessor, successor);
+            Boolean result = results.get(key);
+            if (result == null) {
+                result = Boolean.valueOf(order.doesPrecede(predecessor,
+                                                           successor));
+                results.put(key, result);
+            }
+            return result.booleanValue();
+        }
+    }
 
     public Taxonomy(final Ordering<? super T> order,
                     Set<T> domain,
                     Map<T, Set<T>> knownSuccessors, // can't be null
                     Map<T, Set<T>> possibleSuccessors,
                     TaskStatus status) {
+        this(Collections.singletonList(order), domain,
+             knownSuccessors, possibleSuccessors, status);
+    }
+    
+    /**
+     * Builds the taxonomy using one thread for each of the given orderings,
+     * which must all compute the same relation; the first ordering is used
+     * by the calling thread.
+     * 
+     * The concepts are inserted in the same order and by the same (serial)
+     * algorithm as with a single ordering, so the result is the same. The
+     * concepts are taken in batches of consecutive concepts none of which
+     * is a possible successor of another. Before a batch is inserted, the
+     * threads search the current taxonomy for the successors and
+     * predecessors of the concepts of the batch, each thread working on one
+     * concept at a time; the taxonomy is not modified during this phase, so
+     * the threads only need to share the results of the orderings. The
+     * insertion then finds most results already computed. Since the
+     * concepts of a batch are independent, inserting one of them hardly
+     * changes the part of the taxonomy relevant to the others, so few tests
+     * are wasted.
+     */
+    public Taxonomy(List<? extends Ordering<? super T>> orderings,
+                    Set<T> domain,
+                    Map<T, Set<T>> knownSuccessors, // can't be null
+                    Map<T, Set<T>> possibleSuccessors,
+                    TaskStatus status) {
         if (status == null) status = new NullMonitor();
         // Sanitize knownSuccessors and init taxonomy from known info:
         if (knownSuccessors == null) {
@@ -357,64 +428,232 @@ public class Taxonomy<T> {
                             status.subTask("choosing classification order"));
         //Collections.reverse(definitionOrder);
         status.setNumSteps(definitionOrder.size());
-        for (T t : definitionOrder) {
-            status.step();
-            
-            // Skip an element if we already know everything about it:
-            if (poss.get(t).equals(closed.get(t)) &&
-                poss_inv.get(t).equals(closed_inverse.get(t))) continue;
-            
-            // Identify position in unknown portion of graph:
-            final T finalT = t;
-            Set<T> toConsider = new HashSet<T>(poss.get(t));
-            toConsider.removeAll(GraphUtils.successors(t, closed));
-            Set<T> succs = mostGeneral
-                (new Predicate<T>() {
-                     public boolean trueOf(T u) {
-                         return order.doesPrecede(finalT, u);
-                     }
-                 },
-                 new InducedSubgraph<T>(reduced, toConsider),
-                 new InducedSubgraph<T>(reduced_inverse, toConsider));
+        ConcurrentMap<List<T>, Boolean> results
+            = new ConcurrentHashMap<List<T>, Boolean>();
+        MemoizingOrdering<T> order
+            = new MemoizingOrdering<T>(orderings.get(0), results);
+        ExecutorService executorService = null;
+        List<MemoizingOrdering<T>> workerOrders
+            = new ArrayList<MemoizingOrdering<T>>();
+        if (orderings.size() > 1) {
+            for (Ordering<? super T> workerOrder : orderings) {
+                workerOrders.add(new MemoizingOrdering<T>(workerOrder,
+                                                          results));
+            }
+            executorService = Executors.newFixedThreadPool(orderings.size(),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                                   "HermiT classification");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        }
+        try {
+            int nextIndex = 0;
+            while (nextIndex < definitionOrder.size()) {
+                List<T> batch = new ArrayList<T>();
+                do {
+                    batch.add(definitionOrder.get(nextIndex++));
+                } while (nextIndex < definitionOrder.size() &&
+                         batch.size() < orderings.size() * BATCH_SIZE_PER_THREAD &&
+                         isIndependent(definitionOrder.get(nextIndex), batch, poss));
+                if (executorService != null && batch.size() > 1) {
+                    search(batch, workerOrders, poss, poss_inv,
+                           executorService);
+                }
+                for (T t : batch) {
+                    status.step();
+                    if (!isClassified(t, poss, poss_inv)) {
+                        insert(t, order, poss, poss_inv);
+                    }
+                }
+                results.clear();
+            }
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+        status.done();
+    }
+    
+    /**
+     * Returns true if we already know everything about `t`.
+     */
+    private boolean isClassified(T t,
+                                 Map<T, Set<T>> poss,
+                                 Map<T, Set<T>> poss_inv) {
+        return poss.get(t).equals(closed.get(t)) &&
+               poss_inv.get(t).equals(closed_inverse.get(t));
+    }
+    
+    private static <T> boolean isIndependent(T t, List<T> batch,
+                                             Map<T, Set<T>> poss) {
+        for (T u : batch) {
+            if (poss.get(t).contains(u) || poss.get(u).contains(t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Identify the position of `t` in the unknown portion of the graph and
+     * add it to the taxonomy.
+     */
+    private void insert(T t, Ordering<? super T> order,
+                        Map<T, Set<T>> poss, Map<T, Set<T>> poss_inv) {
+        Set<T> succs = findSuccessors(t, order, poss);
 
-            extendClosure(t, succs, closed, closed_inverse);
-            prunePossibles(t, poss, poss_inv, closed, closed_inverse);
-            
-            toConsider = new HashSet<T>(poss_inv.get(t));
-            toConsider.removeAll(GraphUtils.successors(t, closed_inverse));
-            Set<T> preds = mostGeneral
-                (new Predicate<T>() {
-                     public boolean trueOf(T u) {
-                         return order.doesPrecede(u, finalT);
-                     }
-                 },
-                 new InducedSubgraph<T>(reduced_inverse, toConsider),
-                 new InducedSubgraph<T>(reduced, toConsider));
+        extendClosure(t, succs, closed, closed_inverse);
+        prunePossibles(t, poss, poss_inv, closed, closed_inverse);
+        
+        Set<T> preds = findPredecessors(t, order, poss_inv);
 
-            extendClosure(t, preds, closed_inverse, closed);
-            prunePossibles(t, poss_inv, poss, closed_inverse, closed);
-            
-            // Update reduced:
-            if (!succs.isEmpty() && succs.equals(preds)) {
-                assert succs.size() == 1 && preds.size() == 1;
-                T tCanonical = succs.iterator().next();
-                Set<T> eqClass = equivs.get(canonical);
-                eqClass.addAll(equivs.get(t));
-                for (T equiv : equivs.get(t)) {
-                    canonical.put(equiv, tCanonical);
+        extendClosure(t, preds, closed_inverse, closed);
+        prunePossibles(t, poss_inv, poss, closed_inverse, closed);
+        
+        // Update reduced:
+        if (!succs.isEmpty() && succs.equals(preds)) {
+            assert succs.size() == 1 && preds.size() == 1;
+            T tCanonical = succs.iterator().next();
+            Set<T> eqClass = equivs.get(canonical);
+            eqClass.addAll(equivs.get(t));
+            for (T equiv : equivs.get(t)) {
+                canonical.put(equiv, tCanonical);
+            }
+            equivs.remove(t);
+            succs = GraphUtils.successors(t, reduced);
+            preds = GraphUtils.successors(t, reduced_inverse);
+            t = tCanonical;
+        }
+        
+        extendReduced(t, succs,
+                      reduced, reduced_inverse, closed, closed_inverse);
+        extendReduced(t, preds,
+                      reduced_inverse, reduced, closed_inverse, closed);
+    }
+    
+    private Set<T> findSuccessors(final T t, final Ordering<? super T> order,
+                                  Map<T, Set<T>> poss) {
+        Set<T> toConsider = new HashSet<T>(poss.get(t));
+        toConsider.removeAll(GraphUtils.successors(t, closed));
+        return mostGeneral
+            (new Predicate<T>() {
+                 public boolean trueOf(T u) {
+                     return order.doesPrecede(t, u);
+                 }
+             },
+             new InducedSubgraph<T>(reduced, toConsider),
+             new InducedSubgraph<T>(reduced_inverse, toConsider));
+    }
+    
+    private Set<T> findPredecessors(final T t,
+                                    final Ordering<? super T> order,
+                                    Map<T, Set<T>> poss_inv) {
+        Set<T> toConsider = new HashSet<T>(poss_inv.get(t));
+        toConsider.removeAll(GraphUtils.successors(t, closed_inverse));
+        return mostGeneral
+            (new Predicate<T>() {
+                 public boolean trueOf(T u) {
+                     return order.doesPrecede(u, t);
+                 }
+             },
+             new InducedSubgraph<T>(reduced_inverse, toConsider),
+             new InducedSubgraph<T>(reduced, toConsider));
+    }
+    
+    /**
+     * Search for the successors and predecessors of each element of `batch`
+     * in parallel, one thread per ordering, without modifying the taxonomy;
+     * the only effect is that the results of the orderings are remembered.
+     */
+    private void search(List<T> batch,
+                        List<MemoizingOrdering<T>> workerOrders,
+                        final Map<T, Set<T>> poss,
+                        final Map<T, Set<T>> poss_inv,
+                        ExecutorService executorService) {
+        final List<T> finalBatch = batch;
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (final MemoizingOrdering<T> workerOrder : workerOrders) {
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    int index = nextIndex.getAndIncrement();
+                    while (index < finalBatch.size()) {
+                        T t = finalBatch.get(index);
+                        if (!isClassified(t, poss, poss_inv)) {
+                            findSuccessors(t, workerOrder, poss);
+                            findPredecessors(t, workerOrder, poss_inv);
+                        }
+                        index = nextIndex.getAndIncrement();
+                    }
+                    return null;
                 }
-                equivs.remove(t);
-                succs = GraphUtils.successors(t, reduced);
-                preds = GraphUtils.successors(t, reduced_inverse);
-                t = tCanonical;
+            });
+        }
+        try {
+            for (Future<Object> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while classifying in parallel.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
             }
-            
-            extendReduced(t, succs,
-                          reduced, reduced_inverse, closed, closed_inverse);
-            extendReduced(t, preds,
-                          reduced_inverse, reduced, closed_inverse, closed);
         }
-        status.done();
+    }
+    
+    /**
+     * Returns every element that `t` precedes, including `t` and the
+     * elements equivalent to it, or null if `t` is not in the taxonomy.
+     */
+    public Set<T> getAllSuccessors(T t) {
+        T can = canonical.get(t);
+        if (can == null || !reduced.containsKey(can)) return null;
+        Set<T> out = new HashSet<T>();
+        for (T succ : getReachabilityIndex().getSuccessors(can)) {
+            Set<T> eqClass = equivs.get(succ);
+            if (eqClass != null) {
+                out.addAll(eqClass);
+            } else {
+                out.add(succ);
+            }
+        }
+        return out;
+    }
+    
+    /**
+     * Returns an index of the transitive closure of `reduced`, which is
+     * built when it is first needed; the taxonomy must not change after
+     * that. The queries on a finished taxonomy use this index rather than
+     * `closed` and `closed_inverse`.
+     */
+    public synchronized ReachabilityIndex<T> getReachabilityIndex() {
+        if (reachability == null) {
+            reachability = new ReachabilityIndex<T>(reduced);
+        }
+        return reachability;
+    }
+    
+    /**
+     * Builds the reachability index and drops `closed` and
+     * `closed_inverse`, which are only needed while the taxonomy is built
+     * and which take quadratic space for deep taxonomies.
+     */
+    public void releaseClosure() {
+        getReachabilityIndex();
+        closed = null;
+        closed_inverse = null;
     }
     
     Position getPosition(final Hierarchy.Element<T> element,
@@ -437,6 +676,7 @@ public class Taxonomy<T> {
                         Set<T> possibleSuccessors,
                         Set<T> knownPredecessors,
                         Set<T> possiblePredecessors) {
+            ReachabilityIndex<T> index = getReachabilityIndex();
             T equiv = element.getEquivalent();
             if (equiv != null && canonical.containsKey(equiv)) {
                 equiv = canonical.get(equiv);
@@ -454,24 +694,24 @@ public class Taxonomy<T> {
             // Extend known:
             if (knownSuccessors != null) {
                 for (T succ : new ArrayList<T>(knownSuccessors)) {
-                    knownSuccessors.addAll(closed.get(succ));
+                    knownSuccessors.addAll(index.getSuccessors(succ));
                 }
             }
             if (knownPredecessors != null) {
                 for (T pred : new ArrayList<T>(knownPredecessors)) {
-                    knownPredecessors.addAll(closed_inverse.get(pred));
+                    knownPredecessors.addAll(index.getPredecessors(pred));
                 }
             }
 
             // Prune possible successors:
             if (knownPredecessors != null && possibleSuccessors != null) {
                 for (T pred : knownPredecessors) {
-                    possibleSuccessors.retainAll(closed.get(pred));
+                    possibleSuccessors.retainAll(index.getSuccessors(pred));
                 }
             }
             
             // Find successors:
-            Set<T> toConsider = new HashSet<T>(closed.keySet());
+            Set<T> toConsider = new HashSet<T>(reduced.keySet());
             if (possibleSuccessors != null) {
                 toConsider.retainAll(possibleSuccessors);
             }
@@ -488,9 +728,10 @@ public class Taxonomy<T> {
                 new InducedSubgraph<T>(reduced_inverse, toConsider));
             if (knownSuccessors != null) {
                 for (T succ : successors) {
-                    knownSuccessors.removeAll(closed.get(succ));
+                    knownSuccessors.removeAll(index.getSuccessors(succ));
                 }
                 successors.addAll(knownSuccessors);
+                removeNonMinimal(successors, index, true);
             }
             
             
@@ -498,12 +739,12 @@ public class Taxonomy<T> {
             if (possiblePredecessors != null) {
                 for (T succ : successors) {
                     possiblePredecessors
-                        .retainAll(closed_inverse.get(succ));
+                        .retainAll(index.getPredecessors(succ));
                 }
             }
 
             // Find predecessors:
-            toConsider = new HashSet<T>(closed.keySet());
+            toConsider = new HashSet<T>(reduced.keySet());
             if (possiblePredecessors != null) {
                 toConsider.retainAll(possiblePredecessors);
             }
@@ -520,11 +761,34 @@ public class Taxonomy<T> {
                 new InducedSubgraph<T>(reduced, toConsider));
             if (knownPredecessors != null) {
                 for (T pred : predecessors) {
-                    knownPredecessors.removeAll(closed_inverse.get(pred));
+                    knownPredecessors.removeAll(index.getPredecessors(pred));
                 }
                 predecessors.addAll(knownPredecessors);
+                removeNonMinimal(predecessors, index, false);
+            }
+        }
+    }
+    
+    /**
+     * Removes the elements of `set` that are successors (or, if `forward`
+     * is false, predecessors) of other elements of `set`; the known
+     * successors (predecessors) are closed, so they can contain such
+     * elements.
+     */
+    private static <T> void removeNonMinimal(Set<T> set,
+                                             ReachabilityIndex<T> index,
+                                             boolean forward) {
+        Set<T> redundant = new HashSet<T>();
+        for (T t : set) {
+            for (T u : set) {
+                if (!t.equals(u) &&
+                    (forward ? index.reaches(u, t) : index.reaches(t, u))) {
+                    redundant.add(t);
+                    break;
+                }
             }
         }
+        set.removeAll(redundant);
     }
     
     
@@ -1,13 +1,46 @@
 // Copyright 2008 by Oxford University; see license.txt for details
 package org.semanticweb.HermiT.hierarchy;
 
+import java.util.Set;
+
 public class TaxonomyHierarchy<T> implements Hierarchy<T> {
     private Taxonomy<T> tax;
     public TaxonomyHierarchy(Taxonomy<T> tax) {
         this.tax = tax;
     }
+    public Taxonomy<T> getTaxonomy() {
+        return tax;
+    }
+    public boolean contains(T t) {
+        return tax.canonical.containsKey(t);
+    }
+    /**
+     * Returns true if `t` precedes (or is equivalent to) `other`; both must
+     * be in the hierarchy.
+     */
+    public boolean doesPrecede(T t, T other) {
+        return tax.getReachabilityIndex().reaches(tax.canonical.get(t),
+                                                  tax.canonical.get(other));
+    }
     public HierarchyPosition<T> getPosition(Element<T> e) {
-        Taxonomy<T>.Position pos = tax.getPosition(e, null, null, null, null);
+        return getPosition(e, null, null, null, null);
+    }
+    /**
+     * Returns the position of `e`, which is compared only with the elements
+     * of the possible successors and predecessors that are not known to be
+     * successors or predecessors; null stands for no information. The given
+     * sets are modified.
+     */
+    public HierarchyPosition<T> getPosition(Element<T> e,
+                                            Set<T> knownSuccessors,
+                                            Set<T> possibleSuccessors,
+                                            Set<T> knownPredecessors,
+                                            Set<T> possiblePredecessors) {
+        Taxonomy<T>.Position pos = tax.getPosition(e,
+                                                   knownSuccessors,
+                                                   possibleSuccessors,
+                                                   knownPredecessors,
+                                                   possiblePredecessors);
         if (pos.successors.equals(pos.predecessors)) {
             assert pos.successors.size() == 1;
             assert pos.predecessors.size() == 1;
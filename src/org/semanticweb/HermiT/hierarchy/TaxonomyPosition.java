@@ -19,14 +19,14 @@ public class TaxonomyPosition<T> implements HierarchyPosition<T> {
     }
     public Set<T> getAncestors() {
         Set<T> output = new HashSet<T>();
-        for (T anc : tax.closed.get(vertex)) {
+        for (T anc : tax.getReachabilityIndex().getSuccessors(vertex)) {
             output.addAll(tax.equivs.get(anc));
         }
         return output;
     }
     public Set<T> getDescendants() {
         Set<T> output = new HashSet<T>();
-        for (T desc : tax.closed_inverse.get(vertex)) {
+        for (T desc : tax.getReachabilityIndex().getPredecessors(vertex)) {
             output.addAll(tax.equivs.get(desc));
         }
         return output;
@@ -47,14 +47,14 @@ public class TaxonomyPosition<T> implements HierarchyPosition<T> {
     }
     public Set<HierarchyPosition<T>> getAncestorPositions() {
         Set<HierarchyPosition<T>> output = new HashSet<HierarchyPosition<T>>();
-        for (T parent : tax.closed.get(vertex)) {
+        for (T parent : tax.getReachabilityIndex().getSuccessors(vertex)) {
             output.add(new TaxonomyPosition<T>(tax, parent));
         }
         return output;
     }
     public Set<HierarchyPosition<T>> getDescendantPositions() {
         Set<HierarchyPosition<T>> output = new HashSet<HierarchyPosition<T>>();
-        for (T child : tax.closed_inverse.get(vertex)) {
+        for (T child : tax.getReachabilityIndex().getPredecessors(vertex)) {
             output.add(new TaxonomyPosition<T>(tax, child));
         }
         return output;
@@ -85,8 +85,9 @@ public class TaxonomyPosition<T> implements HierarchyPosition<T> {
         }
         public Set<T> getAncestors() {
             Set<T> output = new HashSet<T>();
+            ReachabilityIndex<T> index = tax.getReachabilityIndex();
             for (T parent : pos.successors) {
-                for (T anc : tax.closed.get(parent)) {
+                for (T anc : index.getSuccessors(parent)) {
                     if (!output.contains(anc)) {
                         output.addAll(tax.equivs.get(anc));
                     }
@@ -96,8 +97,9 @@ public class TaxonomyPosition<T> implements HierarchyPosition<T> {
         }
         public Set<T> getDescendants() {
             Set<T> output = new HashSet<T>();
+            ReachabilityIndex<T> index = tax.getReachabilityIndex();
             for (T child : pos.predecessors) {
-                for (T desc : tax.closed_inverse.get(child)) {
+                for (T desc : index.getPredecessors(child)) {
                     if (!output.contains(desc)) {
                         output.addAll(tax.equivs.get(desc));
                     }
@@ -12,6 +12,7 @@ public class AtLeastConcept extends ExistentialConcept implements DLPredicate {
     protected final int m_number;
     protected final Role m_onRole;
     protected final LiteralConcept m_toConcept;
+    protected transient int m_index;
     
     protected AtLeastConcept(int number,Role onRole,LiteralConcept toConcept) {
         m_number=number;
@@ -27,6 +28,9 @@ public class AtLeastConcept extends ExistentialConcept implements DLPredicate {
     public LiteralConcept getToConcept() {
         return m_toConcept;
     }
+    public int getIndex() {
+        return m_index;
+    }
     public int getArity() {
         return 1;
     }
@@ -41,6 +45,10 @@ public class AtLeastConcept extends ExistentialConcept implements DLPredicate {
         protected boolean equal(AtLeastConcept object1,AtLeastConcept object2) {
             return object1.m_number==object2.m_number && object1.m_onRole==object2.m_onRole && object1.m_toConcept==object2.m_toConcept;
         }
+        protected int objectInterned(AtLeastConcept object) {
+            object.m_index=DLPredicateIndexes.allocateIndex();
+            return object.m_index;
+        }
         protected int getHashCode(AtLeastConcept object) {
             return (object.m_number*7+object.m_onRole.hashCode())*7+object.m_toConcept.hashCode();
         }
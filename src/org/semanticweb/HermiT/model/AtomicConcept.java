@@ -10,6 +10,7 @@ public class AtomicConcept extends LiteralConcept implements DLPredicate {
     private static final long serialVersionUID=-1078274072706143620L;
 
     protected final String m_uri;
+    protected transient int m_index;
     
     protected AtomicConcept(String uri) {
         m_uri=uri;
@@ -17,6 +18,9 @@ public class AtomicConcept extends LiteralConcept implements DLPredicate {
     public String getURI() {
         return m_uri;
     }
+    public int getIndex() {
+        return m_index;
+    }
     public int getArity() {
         return 1;
     }
@@ -31,6 +35,10 @@ public class AtomicConcept extends LiteralConcept implements DLPredicate {
         protected boolean equal(AtomicConcept object1,AtomicConcept object2) {
             return object1.m_uri.equals(object2.m_uri);
         }
+        protected int objectInterned(AtomicConcept object) {
+            object.m_index=DLPredicateIndexes.allocateIndex();
+            return object.m_index;
+        }
         protected int getHashCode(AtomicConcept object) {
             return object.m_uri.hashCode();
         }
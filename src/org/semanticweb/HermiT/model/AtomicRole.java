@@ -10,6 +10,7 @@ public class AtomicRole extends Role implements DLPredicate {
     private static final long serialVersionUID=3766087788313643809L;
 
     protected final String m_uri;
+    protected transient int m_index;
 
     protected AtomicRole(String uri) {
         m_uri=uri;
@@ -17,6 +18,9 @@ public class AtomicRole extends Role implements DLPredicate {
     public String getURI() {
         return m_uri;
     }
+    public int getIndex() {
+        return m_index;
+    }
     public int getArity() {
         return 2;
     }
@@ -34,6 +38,10 @@ public class AtomicRole extends Role implements DLPredicate {
         protected boolean equal(AtomicRole object1,AtomicRole object2) {
             return object1.m_uri.equals(object2.m_uri);
         }
+        protected int objectInterned(AtomicRole object) {
+            object.m_index=DLPredicateIndexes.allocateIndex();
+            return object.m_index;
+        }
         protected int getHashCode(AtomicRole object) {
             return object.m_uri.hashCode();
         }
@@ -11,5 +11,10 @@ public interface DLPredicate {
      * @return the arity of the predicate
      */
     int getArity();
+    /**
+     * @return the index of the predicate, which is allocated by DLPredicateIndexes and can be used to index arrays, or -1 if the
+     *         predicate is not interned and therefore has no index (as is the case for data ranges and description graphs)
+     */
+    int getIndex();
     String toString(Namespaces namespaces);
 }
@@ -0,0 +1,37 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.model;
+
+/**
+ * Allocates the indexes of DL predicates. An interned predicate receives an index when it is interned, and the index is released
+ * once the predicate has been garbage collected and its entry has been removed from the interning manager. Released indexes are
+ * handed out again before new ones, so the indexes in use are bounded by the number of interned predicates rather than by the
+ * number of predicates ever created.
+ */
+public final class DLPredicateIndexes {
+    protected static int s_nextIndex=0;
+    protected static int[] s_freeIndexes=new int[16];
+    protected static int s_numberOfFreeIndexes=0;
+
+    private DLPredicateIndexes() {
+    }
+    public static synchronized int allocateIndex() {
+        if (s_numberOfFreeIndexes>0)
+            return s_freeIndexes[--s_numberOfFreeIndexes];
+        else
+            return s_nextIndex++;
+    }
+    public static synchronized void releaseIndex(int index) {
+        if (s_numberOfFreeIndexes==s_freeIndexes.length) {
+            int[] newFreeIndexes=new int[s_freeIndexes.length*2];
+            System.arraycopy(s_freeIndexes,0,newFreeIndexes,0,s_freeIndexes.length);
+            s_freeIndexes=newFreeIndexes;
+        }
+        s_freeIndexes[s_numberOfFreeIndexes++]=index;
+    }
+    /**
+     * Returns an upper bound on the indexes allocated so far.
+     */
+    public static synchronized int getNumberOfIndexes() {
+        return s_nextIndex;
+    }
+}
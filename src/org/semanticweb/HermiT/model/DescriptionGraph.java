@@ -23,6 +23,9 @@ public class DescriptionGraph implements DLPredicate,Serializable {
     public String getName() {
         return m_name;
     }
+    public int getIndex() {
+        return -1;
+    }
     public int getArity() {
         return m_atomicConceptsByVertices.length;
     }
@@ -12,8 +12,14 @@ public class Equality implements DLPredicate,Serializable {
     private static final long serialVersionUID=8308051741088513244L;
 
     public static final Equality INSTANCE=new Equality();
+
+    protected final int m_index;
     
     protected Equality () {
+        m_index=DLPredicateIndexes.allocateIndex();
+    }
+    public int getIndex() {
+        return m_index;
     }
     public int getArity() {
         return 2;
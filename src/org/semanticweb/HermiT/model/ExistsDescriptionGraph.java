@@ -8,6 +8,7 @@ public class ExistsDescriptionGraph extends ExistentialConcept implements DLPred
 
     protected final DescriptionGraph m_descriptionGraph;
     protected final int m_vertex;
+    protected transient int m_index;
     
     protected ExistsDescriptionGraph(DescriptionGraph descriptionGraph,int vertex) {
         m_descriptionGraph=descriptionGraph;
@@ -19,6 +20,9 @@ public class ExistsDescriptionGraph extends ExistentialConcept implements DLPred
     public int getVertex() {
         return m_vertex;
     }
+    public int getIndex() {
+        return m_index;
+    }
     public int getArity() {
         return 1;
     }
@@ -36,6 +40,10 @@ public class ExistsDescriptionGraph extends ExistentialConcept implements DLPred
         protected boolean equal(ExistsDescriptionGraph object1,ExistsDescriptionGraph object2) {
             return object1.m_descriptionGraph.equals(object2.m_descriptionGraph) && object1.m_vertex==object2.m_vertex;
         }
+        protected int objectInterned(ExistsDescriptionGraph object) {
+            object.m_index=DLPredicateIndexes.allocateIndex();
+            return object.m_index;
+        }
         protected int getHashCode(ExistsDescriptionGraph object) {
             return object.m_descriptionGraph.hashCode()+7*object.m_vertex;
         }
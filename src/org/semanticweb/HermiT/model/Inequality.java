@@ -12,8 +12,14 @@ public class Inequality implements DLPredicate,Serializable {
     private static final long serialVersionUID=296924110684230279L;
 
     public static final Inequality INSTANCE=new Inequality();
+
+    protected final int m_index;
     
     protected Inequality () {
+        m_index=DLPredicateIndexes.allocateIndex();
+    }
+    public int getIndex() {
+        return m_index;
     }
     public int getArity() {
         return 2;
@@ -21,7 +21,7 @@ public abstract class InterningManager<E> {
         m_size=0;
         m_resizeThreshold=(int)(m_entries.length*LOAD_FACTOR);
     }
-    public E intern(E object) {
+    public synchronized E intern(E object) {
         processQueue();
         int hashCode=getHashCode(object);
         int objectEntryIndex=getIndexFor(hashCode,m_entries.length);
@@ -36,6 +36,7 @@ public abstract class InterningManager<E> {
                     else
                         previousEntry.m_next=entry.m_next;
                     m_size--;
+                    entryRemoved(entry);
                 }
                 else if (equal(object,entryObject))
                     return entryObject;
@@ -50,8 +51,10 @@ public abstract class InterningManager<E> {
                 Entry<E> currentEntry=m_entries[entryIndex];
                 while (currentEntry!=null) {
                     Entry<E> nextEntry=currentEntry.m_next;
-                    if (currentEntry.get()==null)
+                    if (currentEntry.get()==null) {
                         m_size--;
+                        entryRemoved(currentEntry);
+                    }
                     else {
                         int newIndex=getIndexFor(currentEntry.m_hashCode,newEntriesLength);
                         currentEntry.m_next=newEntries[newIndex];
@@ -64,17 +67,30 @@ public abstract class InterningManager<E> {
             m_resizeThreshold=(int)(newEntriesLength*LOAD_FACTOR);
             objectEntryIndex=getIndexFor(hashCode,m_entries.length);
         }
-        Entry<E> newEntry=new Entry<E>(object,hashCode,m_entries[objectEntryIndex]);
+        Entry<E> newEntry=new Entry<E>(object,hashCode,m_entries[objectEntryIndex],m_referenceQueue);
+        newEntry.m_index=objectInterned(object);
         m_entries[objectEntryIndex]=newEntry;
         m_size++;
         return object;
     }
+    /**
+     * Called when the given object is interned for the first time. Interning managers of DL predicates allocate the index of the
+     * object from DLPredicateIndexes and return it; the index is released when the entry of the object is removed. The default
+     * implementation returns -1, meaning that no index has been allocated.
+     */
+    protected int objectInterned(E object) {
+        return -1;
+    }
+    protected void entryRemoved(Entry<E> entry) {
+        if (entry.m_index>=0)
+            DLPredicateIndexes.releaseIndex(entry.m_index);
+    }
     protected final int getIndexFor(int hashCode,int entriesLength) {
         return hashCode & (entriesLength-1);
     }
     /** Returns a previously-interned version of the given object; if the object has
         never before been interned then return null. */
-    public E getExisting(E e) {
+    public synchronized E getExisting(E e) {
         for (Entry<E> i=m_entries[getIndexFor(getHashCode(e), m_entries.length)];
              i != null; i = i.m_next) if (equal(i.get(),e)) return i.get();
         return null;
@@ -90,6 +106,7 @@ public abstract class InterningManager<E> {
                     m_entries[index]=current.m_next;
                 else
                     previousEntry.m_next=current.m_next;
+                entryRemoved(entry);
                 return;
             }
             previousEntry=current;
@@ -116,9 +133,10 @@ public abstract class InterningManager<E> {
     protected static class Entry<E> extends WeakReference<E> {
         public final int m_hashCode;
         public Entry<E> m_next;
+        public int m_index;
         
-        public Entry(E object,int hashCode,Entry<E> next) {
-            super(object);
+        public Entry(E object,int hashCode,Entry<E> next,ReferenceQueue<? super E> referenceQueue) {
+            super(object,referenceQueue);
             m_hashCode=hashCode;
             m_next=next;
         }
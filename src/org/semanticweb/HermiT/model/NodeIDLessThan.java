@@ -11,8 +11,14 @@ import org.semanticweb.HermiT.*;
 public class NodeIDLessThan implements DLPredicate,Serializable {
     private static final long serialVersionUID=5572346926189452451L;
     public static final NodeIDLessThan INSTANCE=new NodeIDLessThan();
+
+    protected final int m_index;
     
     protected NodeIDLessThan () {
+        m_index=DLPredicateIndexes.allocateIndex();
+    }
+    public int getIndex() {
+        return m_index;
     }
     public int getArity() {
         return 2;
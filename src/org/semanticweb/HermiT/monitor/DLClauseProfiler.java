@@ -0,0 +1,252 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.monitor;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.semanticweb.HermiT.Namespaces;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.tableau.DLClauseEvaluator;
+import org.semanticweb.HermiT.tableau.GroundDisjunction;
+import org.semanticweb.HermiT.tableau.Tableau;
+
+/**
+ * Records for each DL-clause of the DL-ontology how often it was evaluated, how often its body was matched, and how many
+ * tuples, ground disjunctions, and clashes its heads produced. DL-clauses with the same body are evaluated together, so they
+ * share the number of match attempts and the evaluation time. Counting is exact, whereas the time is measured only for every
+ * m_samplingInterval-th evaluation and is scaled up accordingly, which keeps the overhead of reading the clock low.
+ *
+ * The statistics of the DL-clauses that an evaluator evaluates are cached in a weak map, since the evaluators are replaced
+ * whenever the DL-clauses are compiled again (for example, after cost-based join ordering or when query DL-clauses are set);
+ * the superseded evaluators can then be garbage collected. Query DL-clauses are not DL-clauses of the DL-ontology, so they are
+ * not profiled.
+ */
+public class DLClauseProfiler extends TableauMonitorAdapter {
+    private static final long serialVersionUID=-5263309405226389735L;
+
+    public static final int DEFAULT_SAMPLING_INTERVAL=16;
+    protected static final Comparator<DLClauseStatistics> BY_TIME_AND_ATTEMPTS=new Comparator<DLClauseStatistics>() {
+        public int compare(DLClauseStatistics statistics1,DLClauseStatistics statistics2) {
+            if (statistics1.m_estimatedTime!=statistics2.m_estimatedTime)
+                return statistics1.m_estimatedTime>statistics2.m_estimatedTime ? -1 : 1;
+            if (statistics1.m_numberOfMatchAttempts!=statistics2.m_numberOfMatchAttempts)
+                return statistics1.m_numberOfMatchAttempts>statistics2.m_numberOfMatchAttempts ? -1 : 1;
+            return 0;
+        }
+    };
+
+    protected final int m_samplingInterval;
+    protected final Map<DLClause,DLClauseStatistics> m_statisticsByDLClause;
+    protected transient Map<DLClauseEvaluator,DLClauseStatistics[]> m_statisticsByDLClauseEvaluator;
+    protected DLClauseStatistics[] m_currentEvaluation;
+    protected DLClauseStatistics m_currentMatch;
+    protected long m_evaluationStartTime;
+    protected int m_numberOfEvaluations;
+
+    public DLClauseProfiler() {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+    public DLClauseProfiler(int samplingInterval) {
+        if (samplingInterval<1)
+            throw new IllegalArgumentException("The sampling interval must be at least 1.");
+        m_samplingInterval=samplingInterval;
+        m_statisticsByDLClause=new HashMap<DLClause,DLClauseStatistics>();
+        m_statisticsByDLClauseEvaluator=new WeakHashMap<DLClauseEvaluator,DLClauseStatistics[]>();
+    }
+    private void readObject(ObjectInputStream inputStream) throws IOException,ClassNotFoundException {
+        inputStream.defaultReadObject();
+        m_statisticsByDLClauseEvaluator=new WeakHashMap<DLClauseEvaluator,DLClauseStatistics[]>();
+    }
+    public void setTableau(Tableau tableau) {
+        super.setTableau(tableau);
+        // the statistics of DL-clauses that the new tableau shares with the previous one are kept
+        m_statisticsByDLClause.keySet().retainAll(tableau.getDLOntology().getDLClauses());
+        m_statisticsByDLClauseEvaluator.clear();
+        for (DLClause dlClause : tableau.getDLOntology().getDLClauses())
+            if (!m_statisticsByDLClause.containsKey(dlClause))
+                m_statisticsByDLClause.put(dlClause,new DLClauseStatistics(dlClause));
+    }
+    public int getSamplingInterval() {
+        return m_samplingInterval;
+    }
+    public void clear() {
+        for (DLClauseStatistics statistics : m_statisticsByDLClause.values())
+            statistics.clear();
+        m_numberOfEvaluations=0;
+    }
+    /**
+     * Returns the statistics of the given DL-clause, or null if it is not a DL-clause of the DL-ontology of the tableau.
+     */
+    public DLClauseStatistics getStatistics(DLClause dlClause) {
+        return m_statisticsByDLClause.get(dlClause);
+    }
+    /**
+     * Returns the statistics of all DL-clauses, the most expensive ones first.
+     */
+    public List<DLClauseStatistics> getStatistics() {
+        List<DLClauseStatistics> result=new ArrayList<DLClauseStatistics>(m_statisticsByDLClause.values());
+        Collections.sort(result,BY_TIME_AND_ATTEMPTS);
+        return result;
+    }
+    /**
+     * Returns the statistics of the DL-clauses that dlClauseEvaluator evaluates; the entries for query DL-clauses are null.
+     */
+    protected DLClauseStatistics[] getStatistics(DLClauseEvaluator dlClauseEvaluator) {
+        DLClauseStatistics[] statistics=m_statisticsByDLClauseEvaluator.get(dlClauseEvaluator);
+        if (statistics==null) {
+            statistics=new DLClauseStatistics[dlClauseEvaluator.getNumberOfDLClauses()];
+            for (int dlClauseIndex=0;dlClauseIndex<statistics.length;dlClauseIndex++)
+                statistics[dlClauseIndex]=getStatistics(dlClauseEvaluator.getDLClause(dlClauseIndex));
+            m_statisticsByDLClauseEvaluator.put(dlClauseEvaluator,statistics);
+        }
+        return statistics;
+    }
+    public void dlClauseEvaluationStarted(DLClauseEvaluator dlClauseEvaluator) {
+        m_currentEvaluation=getStatistics(dlClauseEvaluator);
+        for (int index=m_currentEvaluation.length-1;index>=0;--index)
+            if (m_currentEvaluation[index]!=null)
+                m_currentEvaluation[index].m_numberOfMatchAttempts++;
+        if (++m_numberOfEvaluations%m_samplingInterval==0)
+            m_evaluationStartTime=System.nanoTime();
+        else
+            m_evaluationStartTime=-1;
+    }
+    public void dlClauseEvaluationFinished(DLClauseEvaluator dlClauseEvaluator) {
+        if (m_evaluationStartTime!=-1 && m_currentEvaluation!=null) {
+            long estimatedTime=(System.nanoTime()-m_evaluationStartTime)*m_samplingInterval;
+            for (int index=m_currentEvaluation.length-1;index>=0;--index)
+                if (m_currentEvaluation[index]!=null)
+                    m_currentEvaluation[index].m_estimatedTime+=estimatedTime;
+        }
+        m_currentEvaluation=null;
+    }
+    public void dlClauseMatchedStarted(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
+        m_currentMatch=getStatistics(dlClauseEvaluator)[dlClauseIndex];
+        if (m_currentMatch!=null)
+            m_currentMatch.m_numberOfMatches++;
+    }
+    public void dlClauseMatchedFinished(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
+        m_currentMatch=null;
+    }
+    public void addFactFinished(Object[] tuple,boolean factAdded) {
+        if (factAdded && m_currentMatch!=null)
+            m_currentMatch.m_numberOfDerivedTuples++;
+    }
+    public void groundDisjunctionDerived(GroundDisjunction groundDisjunction) {
+        if (m_currentMatch!=null)
+            m_currentMatch.m_numberOfGroundDisjunctions++;
+    }
+    public void clashDetected(Object[]... causes) {
+        if (m_currentMatch!=null)
+            m_currentMatch.m_numberOfClashes++;
+    }
+    /**
+     * Prints the statistics of the DL-clauses that were evaluated at least once, the most expensive ones first. The kind of axiom
+     * that a DL-clause encodes is printed where it can be recognized from the shape of the DL-clause.
+     */
+    public void printReport(PrintWriter output,Namespaces namespaces) {
+        output.println("DL-clause profile (time sampled every "+m_samplingInterval+" evaluations):");
+        output.println("   time (ms)   attempts    matches     tuples  disjunct.    clashes  DL-clause");
+        for (DLClauseStatistics statistics : getStatistics()) {
+            if (statistics.m_numberOfMatchAttempts>0) {
+                output.print(pad(String.valueOf(statistics.m_estimatedTime/1000000),12));
+                output.print(pad(String.valueOf(statistics.m_numberOfMatchAttempts),11));
+                output.print(pad(String.valueOf(statistics.m_numberOfMatches),11));
+                output.print(pad(String.valueOf(statistics.m_numberOfDerivedTuples),11));
+                output.print(pad(String.valueOf(statistics.m_numberOfGroundDisjunctions),11));
+                output.print(pad(String.valueOf(statistics.m_numberOfClashes),11));
+                output.print("  ");
+                output.print(statistics.m_dlClause.toString(namespaces));
+                String axiomType=statistics.getAxiomType();
+                if (axiomType!=null) {
+                    output.print("  [");
+                    output.print(axiomType);
+                    output.print("]");
+                }
+                output.println();
+            }
+        }
+        output.flush();
+    }
+    protected static String pad(String string,int width) {
+        StringBuffer buffer=new StringBuffer();
+        for (int count=width-string.length();count>0;--count)
+            buffer.append(' ');
+        buffer.append(string);
+        return buffer.toString();
+    }
+
+    public static class DLClauseStatistics implements Serializable {
+        private static final long serialVersionUID=3397641260745384826L;
+
+        protected final DLClause m_dlClause;
+        protected long m_numberOfMatchAttempts;
+        protected long m_numberOfMatches;
+        protected long m_numberOfDerivedTuples;
+        protected long m_numberOfGroundDisjunctions;
+        protected long m_numberOfClashes;
+        protected long m_estimatedTime;
+
+        public DLClauseStatistics(DLClause dlClause) {
+            m_dlClause=dlClause;
+        }
+        public void clear() {
+            m_numberOfMatchAttempts=0;
+            m_numberOfMatches=0;
+            m_numberOfDerivedTuples=0;
+            m_numberOfGroundDisjunctions=0;
+            m_numberOfClashes=0;
+            m_estimatedTime=0;
+        }
+        public DLClause getDLClause() {
+            return m_dlClause;
+        }
+        public long getNumberOfMatchAttempts() {
+            return m_numberOfMatchAttempts;
+        }
+        public long getNumberOfMatches() {
+            return m_numberOfMatches;
+        }
+        public long getNumberOfDerivedTuples() {
+            return m_numberOfDerivedTuples;
+        }
+        public long getNumberOfGroundDisjunctions() {
+            return m_numberOfGroundDisjunctions;
+        }
+        public long getNumberOfClashes() {
+            return m_numberOfClashes;
+        }
+        /**
+         * Returns the estimated time in nanoseconds spent evaluating the DL-clause.
+         */
+        public long getEstimatedTime() {
+            return m_estimatedTime;
+        }
+        /**
+         * Returns the kind of axiom that the DL-clause encodes, or null if it cannot be recognized from the DL-clause alone.
+         */
+        public String getAxiomType() {
+            if (m_dlClause.isConceptInclusion())
+                return "concept inclusion";
+            else if (m_dlClause.isRoleInclusion())
+                return "role inclusion";
+            else if (m_dlClause.isRoleInverseInclusion())
+                return "inverse role inclusion";
+            else if (m_dlClause.isFunctionalityAxiom() || m_dlClause.isGuardedFunctionalityAxiom())
+                return "functionality";
+            else if (m_dlClause.isInverseFunctionalityAxiom() || m_dlClause.isGuardedInverseFunctionalityAxiom())
+                return "inverse functionality";
+            else
+                return null;
+        }
+    }
+}
@@ -26,6 +26,8 @@ public interface TableauMonitor {
     void saturateFinished();
     void iterationStarted();
     void iterationFinished();
+    void dlClauseEvaluationStarted(DLClauseEvaluator dlClauseEvaluator);
+    void dlClauseEvaluationFinished(DLClauseEvaluator dlClauseEvaluator);
     void dlClauseMatchedStarted(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex);
     void dlClauseMatchedFinished(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex);
     void addFactStarted(Object[] tuple);
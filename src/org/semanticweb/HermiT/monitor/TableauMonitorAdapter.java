@@ -49,6 +49,10 @@ public class TableauMonitorAdapter implements TableauMonitor,Serializable  {
     }
     public void iterationFinished() {
     }
+    public void dlClauseEvaluationStarted(DLClauseEvaluator dlClauseEvaluator) {
+    }
+    public void dlClauseEvaluationFinished(DLClauseEvaluator dlClauseEvaluator) {
+    }
     public void dlClauseMatchedStarted(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
     }
     public void dlClauseMatchedFinished(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
@@ -23,6 +23,12 @@ public class TableauMonitorFork implements TableauMonitor,Serializable  {
         m_first=first;
         m_second=second;
     }
+    public TableauMonitor getFirstMonitor() {
+        return m_first;
+    }
+    public TableauMonitor getSecondMonitor() {
+        return m_second;
+    }
     public void setTableau(Tableau tableau) {
         m_first.setTableau(tableau);
         m_second.setTableau(tableau);
@@ -79,6 +85,14 @@ public class TableauMonitorFork implements TableauMonitor,Serializable  {
         m_first.iterationFinished();
         m_second.iterationFinished();
     }
+    public void dlClauseEvaluationStarted(DLClauseEvaluator dlClauseEvaluator) {
+        m_first.dlClauseEvaluationStarted(dlClauseEvaluator);
+        m_second.dlClauseEvaluationStarted(dlClauseEvaluator);
+    }
+    public void dlClauseEvaluationFinished(DLClauseEvaluator dlClauseEvaluator) {
+        m_first.dlClauseEvaluationFinished(dlClauseEvaluator);
+        m_second.dlClauseEvaluationFinished(dlClauseEvaluator);
+    }
     public void dlClauseMatchedStarted(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
         m_first.dlClauseMatchedStarted(dlClauseEvaluator,dlClauseIndex);
         m_second.dlClauseMatchedStarted(dlClauseEvaluator,dlClauseIndex);
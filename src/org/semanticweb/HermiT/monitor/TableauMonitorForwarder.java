@@ -77,13 +77,21 @@ public class TableauMonitorForwarder implements TableauMonitor,Serializable {
         if (m_forwardingOn)
             m_forwardingTargetMonitor.iterationFinished();
     }
+    public void dlClauseEvaluationStarted(DLClauseEvaluator dlClauseEvaluator) {
+        if (m_forwardingOn)
+            m_forwardingTargetMonitor.dlClauseEvaluationStarted(dlClauseEvaluator);
+    }
+    public void dlClauseEvaluationFinished(DLClauseEvaluator dlClauseEvaluator) {
+        if (m_forwardingOn)
+            m_forwardingTargetMonitor.dlClauseEvaluationFinished(dlClauseEvaluator);
+    }
     public void dlClauseMatchedStarted(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
         if (m_forwardingOn)
             m_forwardingTargetMonitor.dlClauseMatchedStarted(dlClauseEvaluator,dlClauseIndex);
     }
     public void dlClauseMatchedFinished(DLClauseEvaluator dlClauseEvaluator,int dlClauseIndex) {
         if (m_forwardingOn)
-            m_forwardingTargetMonitor.dlClauseMatchedStarted(dlClauseEvaluator,dlClauseIndex);
+            m_forwardingTargetMonitor.dlClauseMatchedFinished(dlClauseEvaluator,dlClauseIndex);
     }
     public void addFactStarted(Object[] tuple) {
         if (m_forwardingOn)
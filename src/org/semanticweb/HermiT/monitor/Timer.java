@@ -13,6 +13,8 @@ public class Timer extends TableauMonitorAdapter {
     protected long m_problemStartTime;
     protected long m_lastStatusTime;
     protected int m_numberOfBacktrackings;
+    protected int m_numberOfProcessedGroundDisjunctions;
+    protected int m_numberOfDisjunctChoices;
 
     public Timer() {
         m_output=new PrintWriter(System.out);
@@ -26,6 +28,8 @@ public class Timer extends TableauMonitorAdapter {
     }
     protected void start() {
         m_numberOfBacktrackings=0;
+        m_numberOfProcessedGroundDisjunctions=0;
+        m_numberOfDisjunctChoices=0;
         m_problemStartTime=System.currentTimeMillis();
         m_lastStatusTime=m_problemStartTime;
     }
@@ -76,6 +80,12 @@ public class Timer extends TableauMonitorAdapter {
     public void backtrackToFinished(BranchingPoint newCurrentBrancingPoint) {
         m_numberOfBacktrackings++;
     }
+    public void processGroundDisjunctionFinished(GroundDisjunction groundDisjunction) {
+        m_numberOfProcessedGroundDisjunctions++;
+    }
+    public void disjunctProcessingStarted(GroundDisjunction groundDisjunction,int disjunct) {
+        m_numberOfDisjunctChoices++;
+    }
     protected void doStatistics() {
         long duartionSoFar=System.currentTimeMillis()-m_problemStartTime;
         m_output.print(duartionSoFar);
@@ -96,6 +106,14 @@ public class Timer extends TableauMonitorAdapter {
             m_output.print(m_numberOfBacktrackings);
         }
         m_output.println();
+        if (m_numberOfProcessedGroundDisjunctions>0) {
+            m_output.print("    Disjunctions branched on: ");
+            m_output.print(m_numberOfProcessedGroundDisjunctions);
+            m_output.print("    disjuncts tried: ");
+            m_output.print(m_numberOfDisjunctChoices);
+            m_output.print("    scheduler: ");
+            m_output.println(m_tableau.getDisjunctionScheduler().getClass().getSimpleName());
+        }
         m_output.print("    Binary table size:   ");
         m_output.print(m_tableau.getExtensionManager().getBinaryExtensionTable().sizeInMemory()/1000);
         m_output.print("kb    Ternary table size: ");
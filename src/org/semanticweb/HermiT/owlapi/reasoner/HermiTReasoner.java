@@ -84,6 +84,8 @@ public class HermiTReasoner implements MonitorableOWLReasoner {
     }
 
     public void clearOntologies() {
+        if (hermit!=null)
+            hermit.dispose();
         hermit=null;
         ontologies.clear();
         allReferencedClasses.clear();
@@ -131,6 +133,13 @@ public class HermiTReasoner implements MonitorableOWLReasoner {
         // The manager might at this point contain more ontologies than the ones
         // we have to load.
         try {
+            // The class hierarchy of the previous ontologies is reused for
+            // the concepts that are not affected by the change, so the
+            // previous reasoner is detached rather than disposed by
+            // clearOntologies() and is disposed once it has been reused.
+            Reasoner previous=hermit;
+            boolean reuseClassHierarchy=isClassified();
+            hermit=null;
             clearOntologies();
             ontologies.addAll(inOntologies);
             for (OWLOntology ontology : ontologies) {
@@ -148,11 +157,15 @@ public class HermiTReasoner implements MonitorableOWLReasoner {
             try {
                 monitor.beginTask("Loading...");
                 hermit=new Reasoner(config,manager,ontologies,"urn:hermit:kb");
+                if (reuseClassHierarchy)
+                    hermit.reuseClassHierarchy(previous);
             }
             catch (PluginMonitor.Cancelled e) {
                 // ignore; if we pass it on the user gets a dialog
             }
             finally {
+                if (previous!=null)
+                    previous.dispose();
                 monitor.endTask();
             }
         }
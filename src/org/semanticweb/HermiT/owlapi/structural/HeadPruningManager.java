@@ -0,0 +1,197 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.owlapi.structural;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Term;
+import org.semanticweb.HermiT.model.Variable;
+
+/**
+ * Prunes redundant head atoms of disjunctive DL-clauses using the told axioms. This is not absorption: OWLNormalization already
+ * absorbs complex subclasses by giving them definitions of negative polarity, so that they end up in the bodies of DL-clauses.
+ * The disjunctions that remain have positive heads, and this class removes those head atoms that the told axioms decide. For
+ * each term of such a DL-clause, the body determines a set of atomic concepts that the term is known to belong to: its atomic
+ * concepts, the domains and ranges of its roles, and all their told subsumers. A DL-clause with a head atom A(t) such that A is
+ * in the set of t is implied by the told subsumptions and is removed; a head atom A(t) such that A is told to be disjoint with a
+ * concept in the set of t can never be satisfied and is removed from the head. Both transformations preserve the models of the
+ * DL-clauses, but they avoid ground disjunctions that the tableau would otherwise have to derive and possibly branch on.
+ */
+public class HeadPruningManager {
+    protected final Map<AtomicConcept,Set<AtomicConcept>> m_toldSubsumers;
+    protected final Map<AtomicRole,Set<AtomicConcept>> m_domains;
+    protected final Map<AtomicRole,Set<AtomicConcept>> m_ranges;
+    protected final Map<AtomicConcept,Set<AtomicConcept>> m_toldDisjoints;
+    protected final Map<AtomicConcept,Set<AtomicConcept>> m_allSubsumers;
+
+    public HeadPruningManager() {
+        m_toldSubsumers=new HashMap<AtomicConcept,Set<AtomicConcept>>();
+        m_domains=new HashMap<AtomicRole,Set<AtomicConcept>>();
+        m_ranges=new HashMap<AtomicRole,Set<AtomicConcept>>();
+        m_toldDisjoints=new HashMap<AtomicConcept,Set<AtomicConcept>>();
+        m_allSubsumers=new HashMap<AtomicConcept,Set<AtomicConcept>>();
+    }
+    /**
+     * Replaces the DL-clauses with disjunctive heads in dlClauses by their pruned versions.
+     *
+     * @return the number of head atoms that were removed, either on their own or together with their DL-clause
+     */
+    public int pruneRedundantHeads(Collection<DLClause> dlClauses) {
+        for (DLClause dlClause : dlClauses)
+            collectToldAxiom(dlClause);
+        int numberOfRemovedHeadAtoms=0;
+        List<DLClause> prunedDLClauses=new ArrayList<DLClause>();
+        Iterator<DLClause> iterator=dlClauses.iterator();
+        while (iterator.hasNext()) {
+            DLClause dlClause=iterator.next();
+            if (dlClause.getHeadLength()>1) {
+                DLClause prunedDLClause=prune(dlClause);
+                if (prunedDLClause!=dlClause) {
+                    iterator.remove();
+                    if (prunedDLClause==null)
+                        numberOfRemovedHeadAtoms+=dlClause.getHeadLength();
+                    else {
+                        numberOfRemovedHeadAtoms+=dlClause.getHeadLength()-prunedDLClause.getHeadLength();
+                        prunedDLClauses.add(prunedDLClause);
+                    }
+                }
+            }
+        }
+        dlClauses.addAll(prunedDLClauses);
+        return numberOfRemovedHeadAtoms;
+    }
+    /**
+     * Returns dlClause if nothing can be pruned, null if dlClause is implied by the told axioms, and otherwise dlClause without
+     * the head atoms that contradict the told axioms.
+     */
+    protected DLClause prune(DLClause dlClause) {
+        Map<Term,Set<AtomicConcept>> knownConcepts=getKnownConcepts(dlClause);
+        List<Atom> headAtoms=new ArrayList<Atom>();
+        for (int headIndex=0;headIndex<dlClause.getHeadLength();headIndex++) {
+            Atom headAtom=dlClause.getHeadAtom(headIndex);
+            boolean keep=true;
+            if (headAtom.getDLPredicate() instanceof AtomicConcept) {
+                AtomicConcept atomicConcept=(AtomicConcept)headAtom.getDLPredicate();
+                Set<AtomicConcept> concepts=knownConcepts.get(headAtom.getArgument(0));
+                if (concepts!=null) {
+                    if (concepts.contains(atomicConcept))
+                        return null;
+                    keep=!isDisjointWithAny(atomicConcept,concepts);
+                }
+            }
+            if (keep)
+                headAtoms.add(headAtom);
+        }
+        if (headAtoms.size()==dlClause.getHeadLength())
+            return dlClause;
+        Atom[] headAtomsArray=new Atom[headAtoms.size()];
+        headAtoms.toArray(headAtomsArray);
+        return dlClause.getChangedDLClause(headAtomsArray,null);
+    }
+    protected Map<Term,Set<AtomicConcept>> getKnownConcepts(DLClause dlClause) {
+        Map<Term,Set<AtomicConcept>> knownConcepts=new HashMap<Term,Set<AtomicConcept>>();
+        for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++) {
+            Atom bodyAtom=dlClause.getBodyAtom(bodyIndex);
+            if (bodyAtom.getDLPredicate() instanceof AtomicConcept)
+                addKnownConcept(knownConcepts,bodyAtom.getArgument(0),(AtomicConcept)bodyAtom.getDLPredicate());
+            else if (bodyAtom.getDLPredicate() instanceof AtomicRole) {
+                AtomicRole atomicRole=(AtomicRole)bodyAtom.getDLPredicate();
+                addKnownConcepts(knownConcepts,bodyAtom.getArgument(0),m_domains.get(atomicRole));
+                addKnownConcepts(knownConcepts,bodyAtom.getArgument(1),m_ranges.get(atomicRole));
+            }
+        }
+        return knownConcepts;
+    }
+    protected void addKnownConcepts(Map<Term,Set<AtomicConcept>> knownConcepts,Term term,Set<AtomicConcept> atomicConcepts) {
+        if (atomicConcepts!=null)
+            for (AtomicConcept atomicConcept : atomicConcepts)
+                addKnownConcept(knownConcepts,term,atomicConcept);
+    }
+    protected void addKnownConcept(Map<Term,Set<AtomicConcept>> knownConcepts,Term term,AtomicConcept atomicConcept) {
+        Set<AtomicConcept> concepts=knownConcepts.get(term);
+        if (concepts==null) {
+            concepts=new HashSet<AtomicConcept>();
+            knownConcepts.put(term,concepts);
+        }
+        concepts.addAll(getAllSubsumers(atomicConcept));
+    }
+    protected boolean isDisjointWithAny(AtomicConcept atomicConcept,Set<AtomicConcept> concepts) {
+        for (AtomicConcept subsumer : getAllSubsumers(atomicConcept)) {
+            Set<AtomicConcept> disjoints=m_toldDisjoints.get(subsumer);
+            if (disjoints!=null)
+                for (AtomicConcept disjoint : disjoints)
+                    if (concepts.contains(disjoint))
+                        return true;
+        }
+        return false;
+    }
+    /**
+     * Returns the reflexive and transitive closure of the told subsumers of atomicConcept.
+     */
+    protected Set<AtomicConcept> getAllSubsumers(AtomicConcept atomicConcept) {
+        Set<AtomicConcept> allSubsumers=m_allSubsumers.get(atomicConcept);
+        if (allSubsumers==null) {
+            allSubsumers=new HashSet<AtomicConcept>();
+            List<AtomicConcept> toProcess=new ArrayList<AtomicConcept>();
+            toProcess.add(atomicConcept);
+            while (!toProcess.isEmpty()) {
+                AtomicConcept subsumer=toProcess.remove(toProcess.size()-1);
+                if (allSubsumers.add(subsumer)) {
+                    Set<AtomicConcept> toldSubsumers=m_toldSubsumers.get(subsumer);
+                    if (toldSubsumers!=null)
+                        toProcess.addAll(toldSubsumers);
+                }
+            }
+            m_allSubsumers.put(atomicConcept,allSubsumers);
+        }
+        return allSubsumers;
+    }
+    /**
+     * Records dlClause if it is of the form A(X) -> B(X), R(X,Y) -> B(X), R(X,Y) -> B(Y), or A(X) /\ B(X) -> .
+     */
+    protected void collectToldAxiom(DLClause dlClause) {
+        if (dlClause.getHeadLength()==1 && dlClause.getBodyLength()==1) {
+            Atom headAtom=dlClause.getHeadAtom(0);
+            Atom bodyAtom=dlClause.getBodyAtom(0);
+            if (headAtom.getDLPredicate() instanceof AtomicConcept && headAtom.getArgument(0) instanceof Variable) {
+                AtomicConcept headConcept=(AtomicConcept)headAtom.getDLPredicate();
+                if (bodyAtom.getDLPredicate() instanceof AtomicConcept && headAtom.getArgument(0).equals(bodyAtom.getArgument(0)) && !AtomicConcept.THING.equals(bodyAtom.getDLPredicate()))
+                    add(m_toldSubsumers,(AtomicConcept)bodyAtom.getDLPredicate(),headConcept);
+                else if (bodyAtom.getDLPredicate() instanceof AtomicRole && !bodyAtom.getArgument(0).equals(bodyAtom.getArgument(1))) {
+                    if (headAtom.getArgument(0).equals(bodyAtom.getArgument(0)))
+                        add(m_domains,(AtomicRole)bodyAtom.getDLPredicate(),headConcept);
+                    else if (headAtom.getArgument(0).equals(bodyAtom.getArgument(1)))
+                        add(m_ranges,(AtomicRole)bodyAtom.getDLPredicate(),headConcept);
+                }
+            }
+        }
+        else if (dlClause.getHeadLength()==0 && dlClause.getBodyLength()==2) {
+            Atom bodyAtom1=dlClause.getBodyAtom(0);
+            Atom bodyAtom2=dlClause.getBodyAtom(1);
+            if (bodyAtom1.getDLPredicate() instanceof AtomicConcept && bodyAtom2.getDLPredicate() instanceof AtomicConcept && bodyAtom1.getArgument(0) instanceof Variable && bodyAtom1.getArgument(0).equals(bodyAtom2.getArgument(0))) {
+                AtomicConcept atomicConcept1=(AtomicConcept)bodyAtom1.getDLPredicate();
+                AtomicConcept atomicConcept2=(AtomicConcept)bodyAtom2.getDLPredicate();
+                add(m_toldDisjoints,atomicConcept1,atomicConcept2);
+                add(m_toldDisjoints,atomicConcept2,atomicConcept1);
+            }
+        }
+    }
+    protected static <K> void add(Map<K,Set<AtomicConcept>> map,K key,AtomicConcept atomicConcept) {
+        Set<AtomicConcept> atomicConcepts=map.get(key);
+        if (atomicConcepts==null) {
+            atomicConcepts=new HashSet<AtomicConcept>();
+            map.put(key,atomicConcepts);
+        }
+        atomicConcepts.add(atomicConcept);
+    }
+}
@@ -238,6 +238,8 @@ public class OWLClausification implements Serializable {
             fact.accept(factClausifier);
         for (DescriptionGraph descriptionGraph : descriptionGraphs)
             descriptionGraph.produceStartDLClauses(dlClauses);
+        if (m_config.pruneRedundantHeads)
+            new HeadPruningManager().pruneRedundantHeads(dlClauses);
         Set<AtomicConcept> atomicConcepts=new HashSet<AtomicConcept>();
         Set<Role> transitiveObjectRoles=new HashSet<Role>();
         Set<AtomicRole> objectRoles=new HashSet<AtomicRole>();
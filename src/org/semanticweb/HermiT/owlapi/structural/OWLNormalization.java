@@ -551,6 +551,11 @@ public class OWLNormalization implements Serializable {
         return true;
     }
 
+    /**
+     * Returns the concept that replaces desc. If desc has no positive parts, the definition is \neg Q for a fresh Q and the
+     * inclusion Q \vee desc is added, so that desc implies Q. This absorbs complex subclasses: \exists R.(B \sqcap C) \sqsubseteq D
+     * becomes D(X) :- R(X,Y), Q(Y) and Q(X) :- B(X), C(X) instead of the disjunctive D(X) v Q(Y) :- R(X,Y).
+     */
     protected OWLDescription getDefinitionFor(OWLDescription desc,boolean[] alreadyExists,boolean forcePositive) {
         OWLDescription definition=m_definitions.get(desc);
         if (definition==null || (forcePositive && !(definition instanceof OWLClass))) {
@@ -915,6 +920,10 @@ public class OWLNormalization implements Serializable {
                 else
                     newDisjuncts.add(s);
             }
+            // C or not C holds trivially, and C and not C is unsatisfiable
+            for (OWLDescription disjunct : newDisjuncts)
+                if (disjunct instanceof OWLObjectComplementOf && newDisjuncts.contains(((OWLObjectComplementOf)disjunct).getOperand()))
+                    return m_factory.getOWLThing();
             return m_factory.getOWLObjectUnionOf(newDisjuncts);
         }
 
@@ -932,6 +941,9 @@ public class OWLNormalization implements Serializable {
                 else
                     newConjuncts.add(s);
             }
+            for (OWLDescription conjunct : newConjuncts)
+                if (conjunct instanceof OWLObjectComplementOf && newConjuncts.contains(((OWLObjectComplementOf)conjunct).getOperand()))
+                    return m_factory.getOWLNothing();
             return m_factory.getOWLObjectIntersectionOf(newConjuncts);
         }
 
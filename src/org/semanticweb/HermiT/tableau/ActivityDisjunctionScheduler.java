@@ -0,0 +1,112 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.HermiT.model.DLPredicate;
+
+/**
+ * Orders the ground disjunctions and their disjuncts by the activity of the disjuncts' predicates. Whenever a clash occurs, the
+ * activity of the predicates of the disjuncts chosen at the disjunction branching points that the clash depends on is increased;
+ * since the increment grows after each clash, recent clashes weigh more than old ones. The disjunction containing the most
+ * active disjunct is processed first, so that conflicts are found early, and its disjuncts are tried starting with the least
+ * active one, which is the least likely to lead to a clash. Ties are broken by the order of derivation and by the order of the
+ * disjuncts. The activities are kept across tests, so that they reflect the ontology rather than a single test.
+ */
+public class ActivityDisjunctionScheduler implements DisjunctionScheduler {
+    private static final long serialVersionUID=-1934826618296043318L;
+    protected static final double ACTIVITY_DECAY=0.95;
+    protected static final double ACTIVITY_RESCALE_LIMIT=1e100;
+
+    protected final Tableau m_tableau;
+    protected final Map<DLPredicate,double[]> m_activities;
+    protected double m_activityIncrement;
+
+    public ActivityDisjunctionScheduler(Tableau tableau) {
+        m_tableau=tableau;
+        m_activities=new HashMap<DLPredicate,double[]>();
+        m_activityIncrement=1.0;
+    }
+    public void clear() {
+    }
+    public double getActivity(DLPredicate dlPredicate) {
+        double[] activity=m_activities.get(dlPredicate);
+        return activity==null ? 0.0 : activity[0];
+    }
+    public GroundDisjunction getNextGroundDisjunction() {
+        GroundDisjunction bestGroundDisjunction=null;
+        double bestActivity=-1.0;
+        GroundDisjunction groundDisjunction=m_tableau.m_firstUnprocessedGroundDisjunction;
+        while (groundDisjunction!=null) {
+            if (!groundDisjunction.m_processed) {
+                double activity=0.0;
+                for (int disjunctIndex=0;disjunctIndex<groundDisjunction.getNumberOfDisjuncts();disjunctIndex++)
+                    activity=Math.max(activity,getActivity(groundDisjunction.getDLPredicate(disjunctIndex)));
+                if (activity>bestActivity) {
+                    bestGroundDisjunction=groundDisjunction;
+                    bestActivity=activity;
+                }
+            }
+            groundDisjunction=groundDisjunction.m_previousGroundDisjunction;
+        }
+        return bestGroundDisjunction;
+    }
+    public int[] getDisjunctOrder(GroundDisjunction groundDisjunction) {
+        int numberOfDisjuncts=groundDisjunction.getNumberOfDisjuncts();
+        double[] activities=new double[numberOfDisjuncts];
+        boolean sorted=true;
+        for (int disjunctIndex=0;disjunctIndex<numberOfDisjuncts;disjunctIndex++) {
+            activities[disjunctIndex]=getActivity(groundDisjunction.getDLPredicate(disjunctIndex));
+            if (disjunctIndex>0 && activities[disjunctIndex]<activities[disjunctIndex-1])
+                sorted=false;
+        }
+        if (sorted)
+            return null;
+        // insertion sort by activity; disjunctions are short and the sort is stable
+        int[] disjunctOrder=new int[numberOfDisjuncts];
+        for (int disjunctIndex=0;disjunctIndex<numberOfDisjuncts;disjunctIndex++) {
+            int position=disjunctIndex;
+            while (position>0 && activities[disjunctOrder[position-1]]>activities[disjunctIndex]) {
+                disjunctOrder[position]=disjunctOrder[position-1];
+                position--;
+            }
+            disjunctOrder[position]=disjunctIndex;
+        }
+        return disjunctOrder;
+    }
+    public void clashDetected(DependencySet clashDependencySet) {
+        PermanentDependencySet dependencySet=m_tableau.getDependencySetFactory().getPermanent(clashDependencySet);
+        int nonbacktrackableBranchingPoint=m_tableau.m_nonbacktrackableBranchingPoint;
+        if (dependencySet.m_words==null && dependencySet.m_members==null) {
+            while (dependencySet.m_branchingPoint>nonbacktrackableBranchingPoint) {
+                bumpActivity(dependencySet.m_branchingPoint);
+                dependencySet=dependencySet.m_rest;
+            }
+        }
+        else {
+            for (int branchingPoint=dependencySet.m_branchingPoint;branchingPoint>nonbacktrackableBranchingPoint;--branchingPoint)
+                if (dependencySet.containsBranchingPoint(branchingPoint))
+                    bumpActivity(branchingPoint);
+        }
+        m_activityIncrement/=ACTIVITY_DECAY;
+    }
+    protected void bumpActivity(int branchingPoint) {
+        BranchingPoint point=m_tableau.m_branchingPoints[branchingPoint];
+        if (point instanceof DisjunctionBranchingPoint) {
+            DisjunctionBranchingPoint disjunctionBranchingPoint=(DisjunctionBranchingPoint)point;
+            DLPredicate dlPredicate=disjunctionBranchingPoint.m_groundDisjunction.getDLPredicate(disjunctionBranchingPoint.getCurrentDisjunct());
+            double[] activity=m_activities.get(dlPredicate);
+            if (activity==null) {
+                activity=new double[1];
+                m_activities.put(dlPredicate,activity);
+            }
+            activity[0]+=m_activityIncrement;
+            if (activity[0]>ACTIVITY_RESCALE_LIMIT) {
+                for (double[] otherActivity : m_activities.values())
+                    otherActivity[0]/=ACTIVITY_RESCALE_LIMIT;
+                m_activityIncrement/=ACTIVITY_RESCALE_LIMIT;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * Processes the ground disjunctions in the order in which they are derived, trying the disjuncts from left to right.
+ */
+public class CreationOrderDisjunctionScheduler implements DisjunctionScheduler {
+    private static final long serialVersionUID=3310585337926381453L;
+
+    protected final Tableau m_tableau;
+
+    public CreationOrderDisjunctionScheduler(Tableau tableau) {
+        m_tableau=tableau;
+    }
+    public void clear() {
+    }
+    public GroundDisjunction getNextGroundDisjunction() {
+        return m_tableau.m_firstUnprocessedGroundDisjunction;
+    }
+    public int[] getDisjunctOrder(GroundDisjunction groundDisjunction) {
+        return null;
+    }
+    public void clashDetected(DependencySet clashDependencySet) {
+    }
+}
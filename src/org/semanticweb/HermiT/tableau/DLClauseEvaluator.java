@@ -15,22 +15,42 @@ public class DLClauseEvaluator implements Serializable {
     protected static final String CRLF=System.getProperty("line.separator");
 
     protected final ExtensionManager m_extensionManager;
+    protected final TableauMonitor m_tableauMonitor;
     protected final Object[] m_valuesBuffer;
     protected final UnionDependencySet m_unionDependencySet;
     protected final ExtensionTable.Retrieval[] m_retrievals;
     protected final Worker[] m_workers;
+    protected final Matcher m_matcher;
     protected final DLClause m_bodyDLClause;
     protected final List<DLClause> m_headDLClauses;
     
     public DLClauseEvaluator(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval) {
+        this(extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval,false);
+    }
+    /**
+     * If compileMatchers is true, the worker program is additionally compiled into a tree of matchers, one for each body atom,
+     * which is then used for evaluation. A matcher runs the loop over its retrieval and the equality checks, the copying of the
+     * bindings and the dependency sets of each tuple in a single method and calls the matcher of the next atom directly, so the
+     * evaluation makes one call per matched tuple rather than one call per instruction of the worker program.
+     */
+    public DLClauseEvaluator(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,boolean compileMatchers) {
+        this(extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval,compileMatchers,null);
+    }
+    /**
+     * If derivationBuffer is not null, the consequences of the DL-clauses are not added to the tableau, but are appended to the
+     * buffer; the evaluator then only reads the extension tables, so that several such evaluators can run in parallel.
+     */
+    public DLClauseEvaluator(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,boolean compileMatchers,DerivationBuffer derivationBuffer) {
         m_extensionManager=extensionManager;
-        DLClauseCompiler compiler=new DLClauseCompiler(this,m_extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval);
+        m_tableauMonitor=(derivationBuffer==null ? m_extensionManager.m_tableauMonitor : null);
+        DLClauseCompiler compiler=new DLClauseCompiler(this,m_extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval,compileMatchers,derivationBuffer);
         m_valuesBuffer=compiler.m_valuesBuffer;
         m_unionDependencySet=compiler.m_unionDependencySet;
         m_retrievals=new ExtensionTable.Retrieval[compiler.m_retrievals.size()];
         compiler.m_retrievals.toArray(m_retrievals);
         m_workers=new Worker[compiler.m_workers.size()];
         compiler.m_workers.toArray(m_workers);
+        m_matcher=compiler.m_matcher;
         m_bodyDLClause=bodyDLClause;
         m_headDLClauses=headDLClauses;
     }
@@ -55,10 +75,23 @@ public class DLClauseEvaluator implements Serializable {
     public Object[] getTupleMatchedToBody(int atomIndex) {
         return m_retrievals[atomIndex].getTupleBuffer();
     }
+    public boolean hasCompiledMatchers() {
+        return m_matcher!=null;
+    }
     public void evaluate() {
-        int programCounter=0;
-        while (programCounter<m_workers.length && !m_extensionManager.containsClash())
-            programCounter=m_workers[programCounter].execute(programCounter);
+        if (m_tableauMonitor!=null)
+            m_tableauMonitor.dlClauseEvaluationStarted(this);
+        if (m_matcher!=null) {
+            if (!m_extensionManager.containsClash())
+                m_matcher.match();
+        }
+        else {
+            int programCounter=0;
+            while (programCounter<m_workers.length && !m_extensionManager.containsClash())
+                programCounter=m_workers[programCounter].execute(programCounter);
+        }
+        if (m_tableauMonitor!=null)
+            m_tableauMonitor.dlClauseEvaluationFinished(this);
     }
     public String toString() {
         StringBuffer buffer=new StringBuffer();
@@ -448,6 +481,144 @@ public class DLClauseEvaluator implements Serializable {
         }
     }
     
+    protected static final class BufferDerivation implements Worker,Serializable {
+        private static final long serialVersionUID=-6226371695283960113L;
+
+        protected final DerivationBuffer m_derivationBuffer;
+        protected final Object[] m_valuesBuffer;
+        protected final UnionDependencySet m_dependencySet;
+        protected final DLPredicate[] m_headDLPredicates;
+        protected final int[] m_disjunctStart;
+        protected final int[] m_copyValuesToArguments;
+
+        public BufferDerivation(DerivationBuffer derivationBuffer,Object[] valuesBuffer,UnionDependencySet dependencySet,DLPredicate[] headDLPredicates,int[] copyValuesToArguments) {
+            m_derivationBuffer=derivationBuffer;
+            m_valuesBuffer=valuesBuffer;
+            m_dependencySet=dependencySet;
+            m_headDLPredicates=headDLPredicates;
+            m_disjunctStart=new int[m_headDLPredicates.length];
+            int argumentsSize=0;
+            for (int disjunctIndex=0;disjunctIndex<m_headDLPredicates.length;disjunctIndex++) {
+                m_disjunctStart[disjunctIndex]=argumentsSize;
+                argumentsSize+=m_headDLPredicates[disjunctIndex].getArity();
+            }
+            m_copyValuesToArguments=copyValuesToArguments;
+        }
+        public int execute(int programCounter) {
+            Node[] arguments=new Node[m_copyValuesToArguments.length];
+            for (int argumentIndex=m_copyValuesToArguments.length-1;argumentIndex>=0;--argumentIndex)
+                arguments[argumentIndex]=(Node)m_valuesBuffer[m_copyValuesToArguments[argumentIndex]];
+            m_derivationBuffer.addDerivation(m_headDLPredicates,m_disjunctStart,arguments,m_dependencySet);
+            return programCounter+1;
+        }
+        public String toString() {
+            return "Buffer derivation";
+        }
+    }
+
+    protected static abstract class Matcher implements Serializable {
+        private static final long serialVersionUID=-2930418377012487352L;
+
+        public abstract void match();
+    }
+
+    protected static abstract class TupleMatcher extends Matcher {
+        private static final long serialVersionUID=6094218833517290761L;
+
+        protected final ExtensionManager m_extensionManager;
+        protected final ExtensionTable.Retrieval m_retrieval;
+        protected final Object[] m_tupleBuffer;
+        protected final int[] m_equalIndexes;
+        protected final Object[] m_valuesBuffer;
+        protected final int[] m_copyIndexes;
+        protected final DependencySet[] m_dependencySets;
+        protected final int m_dependencySetIndex;
+        protected final Matcher m_next;
+
+        public TupleMatcher(ExtensionManager extensionManager,ExtensionTable.Retrieval retrieval,int[] equalIndexes,Object[] valuesBuffer,int[] copyIndexes,DependencySet[] dependencySets,int dependencySetIndex,Matcher next) {
+            m_extensionManager=extensionManager;
+            m_retrieval=retrieval;
+            m_tupleBuffer=m_retrieval.getTupleBuffer();
+            m_equalIndexes=equalIndexes;
+            m_valuesBuffer=valuesBuffer;
+            m_copyIndexes=copyIndexes;
+            m_dependencySets=dependencySets;
+            m_dependencySetIndex=dependencySetIndex;
+            m_next=next;
+        }
+        protected final void matchTuple() {
+            for (int index=0;index<m_equalIndexes.length;index+=2)
+                if (!m_tupleBuffer[m_equalIndexes[index]].equals(m_tupleBuffer[m_equalIndexes[index+1]]))
+                    return;
+            for (int index=0;index<m_copyIndexes.length;index+=2)
+                m_valuesBuffer[m_copyIndexes[index+1]]=m_tupleBuffer[m_copyIndexes[index]];
+            m_dependencySets[m_dependencySetIndex]=m_retrieval.getDependencySet();
+            m_next.match();
+        }
+    }
+
+    protected static final class FirstAtomMatcher extends TupleMatcher {
+        private static final long serialVersionUID=-5560212797291736412L;
+
+        public FirstAtomMatcher(ExtensionManager extensionManager,ExtensionTable.Retrieval retrieval,int[] equalIndexes,Object[] valuesBuffer,int[] copyIndexes,DependencySet[] dependencySets,int dependencySetIndex,Matcher next) {
+            super(extensionManager,retrieval,equalIndexes,valuesBuffer,copyIndexes,dependencySets,dependencySetIndex,next);
+        }
+        public void match() {
+            matchTuple();
+        }
+    }
+
+    protected static final class RetrievalLoopMatcher extends TupleMatcher {
+        private static final long serialVersionUID=3391742658024016325L;
+
+        public RetrievalLoopMatcher(ExtensionManager extensionManager,ExtensionTable.Retrieval retrieval,int[] equalIndexes,Object[] valuesBuffer,int[] copyIndexes,DependencySet[] dependencySets,int dependencySetIndex,Matcher next) {
+            super(extensionManager,retrieval,equalIndexes,valuesBuffer,copyIndexes,dependencySets,dependencySetIndex,next);
+        }
+        public void match() {
+            m_retrieval.open();
+            while (!m_retrieval.afterLast() && !m_extensionManager.containsClash()) {
+                matchTuple();
+                m_retrieval.next();
+            }
+        }
+    }
+
+    protected static final class NodeIDLessThanMatcher extends Matcher {
+        private static final long serialVersionUID=-7466017962893618305L;
+
+        protected final Object[] m_valuesBuffer;
+        protected final int m_index1;
+        protected final int m_index2;
+        protected final Matcher m_next;
+
+        public NodeIDLessThanMatcher(Object[] valuesBuffer,int index1,int index2,Matcher next) {
+            m_valuesBuffer=valuesBuffer;
+            m_index1=index1;
+            m_index2=index2;
+            m_next=next;
+        }
+        public void match() {
+            if (((Node)m_valuesBuffer[m_index1]).getNodeID()<((Node)m_valuesBuffer[m_index2]).getNodeID())
+                m_next.match();
+        }
+    }
+
+    protected static final class HeadsMatcher extends Matcher {
+        private static final long serialVersionUID=2216934707541960337L;
+
+        protected final ExtensionManager m_extensionManager;
+        protected final Worker[] m_headWorkers;
+
+        public HeadsMatcher(ExtensionManager extensionManager,Worker[] headWorkers) {
+            m_extensionManager=extensionManager;
+            m_headWorkers=headWorkers;
+        }
+        public void match() {
+            for (int index=0;index<m_headWorkers.length && !m_extensionManager.containsClash();index++)
+                m_headWorkers[index].execute(index);
+        }
+    }
+
     protected static final class DLClauseCompiler {
         protected final DLClauseEvaluator m_dlClauseEvalautor;
         protected final ExtensionManager m_extensionManager;
@@ -460,8 +631,11 @@ public class DLClauseEvaluator implements Serializable {
         protected final List<ExtensionTable.Retrieval> m_retrievals;
         protected final List<Worker> m_workers;
         protected final List<Integer> m_labels;
+        protected final boolean m_compileMatchers;
+        protected final DerivationBuffer m_derivationBuffer;
+        protected final Matcher m_matcher;
 
-        public DLClauseCompiler(DLClauseEvaluator dlClauseEvalautor,ExtensionManager extensionManager,DLClause bodyDLClauses,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval) {
+        public DLClauseCompiler(DLClauseEvaluator dlClauseEvalautor,ExtensionManager extensionManager,DLClause bodyDLClauses,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,boolean compileMatchers,DerivationBuffer derivationBuffer) {
             m_dlClauseEvalautor=dlClauseEvalautor;
             m_extensionManager=extensionManager;
             m_bodyDLClauses=bodyDLClauses;
@@ -497,12 +671,21 @@ public class DLClauseEvaluator implements Serializable {
             m_workers=new ArrayList<Worker>();
             m_labels=new ArrayList<Integer>();
             m_labels.add(null);
+            m_compileMatchers=compileMatchers;
+            m_derivationBuffer=derivationBuffer;
             m_retrievals.add(firstAtomRetrieval);
             int afterRule=addLabel();
+            int checksStart=m_workers.size();
             compileCheckUnboundVariableMatches(getBodyAtom(0),firstAtomRetrieval,afterRule);
+            int bindingsStart=m_workers.size();
             compileGenerateBindings(firstAtomRetrieval,getBodyAtom(0));
+            int bindingsEnd=m_workers.size();
             m_workers.add(new CopyDependencySet(firstAtomRetrieval,m_unionDependencySet.getConstituents(),0));
-            compileBodyAtom(1,afterRule);
+            Matcher nextMatcher=compileBodyAtom(1,afterRule);
+            if (m_compileMatchers)
+                m_matcher=new FirstAtomMatcher(m_extensionManager,firstAtomRetrieval,getEqualIndexes(checksStart,bindingsStart),m_valuesBuffer,getCopyIndexes(bindingsStart,bindingsEnd),m_unionDependencySet.getConstituents(),0,nextMatcher);
+            else
+                m_matcher=null;
             setLabelProgramCounter(afterRule);
             for (Worker worker : m_workers)
                 if (worker instanceof BranchingWorker) {
@@ -535,9 +718,9 @@ public class DLClauseEvaluator implements Serializable {
                     return true;
             return false;
         }
-        protected void compileBodyAtom(int bodyAtomIndex,int lastAtomNextElement) {
+        protected Matcher compileBodyAtom(int bodyAtomIndex,int lastAtomNextElement) {
             if (bodyAtomIndex==getBodyLength())
-                compileHeads();
+                return compileHeads();
             else if (getBodyAtom(bodyAtomIndex).getDLPredicate().equals(NodeIDLessThan.INSTANCE)) {
                 Atom atom=getBodyAtom(bodyAtomIndex);
                 int variable1Index=m_variables.indexOf(atom.getArgumentVariable(0));
@@ -545,7 +728,8 @@ public class DLClauseEvaluator implements Serializable {
                 assert variable1Index!=-1;
                 assert variable2Index!=-1;
                 m_workers.add(new BranchIfNotNodeIDLessThan(lastAtomNextElement,m_valuesBuffer,variable1Index,variable2Index));
-                compileBodyAtom(bodyAtomIndex+1,lastAtomNextElement);
+                Matcher nextMatcher=compileBodyAtom(bodyAtomIndex+1,lastAtomNextElement);
+                return m_compileMatchers ? new NodeIDLessThanMatcher(m_valuesBuffer,variable1Index,variable2Index,nextMatcher) : null;
             }
             else {
                 // Each atom is compiled into the following structure:
@@ -579,18 +763,31 @@ public class DLClauseEvaluator implements Serializable {
                 m_workers.add(new OpenRetrieval(retrieval));
                 int loopStart=m_workers.size();
                 m_workers.add(new HasMoreRetrieval(afterLoop,retrieval));
+                int checksStart=m_workers.size();
                 compileCheckUnboundVariableMatches(atom,retrieval,nextElement);
+                int bindingsStart=m_workers.size();
                 compileGenerateBindings(retrieval,atom);
-                m_workers.add(new CopyDependencySet(retrieval,m_unionDependencySet.getConstituents(),m_retrievals.size()-1));
-                compileBodyAtom(bodyAtomIndex+1,nextElement);
+                int bindingsEnd=m_workers.size();
+                int dependencySetIndex=m_retrievals.size()-1;
+                m_workers.add(new CopyDependencySet(retrieval,m_unionDependencySet.getConstituents(),dependencySetIndex));
+                Matcher nextMatcher=compileBodyAtom(bodyAtomIndex+1,nextElement);
                 setLabelProgramCounter(nextElement);
                 m_workers.add(new NextRetrieval(retrieval));
                 m_workers.add(new JumpTo(loopStart));
                 setLabelProgramCounter(afterLoop);
+                if (m_compileMatchers)
+                    return new RetrievalLoopMatcher(m_extensionManager,retrieval,getEqualIndexes(checksStart,bindingsStart),m_valuesBuffer,getCopyIndexes(bindingsStart,bindingsEnd),m_unionDependencySet.getConstituents(),dependencySetIndex,nextMatcher);
+                else
+                    return null;
             }
         }
-        protected void compileHeads() {
+        protected Matcher compileHeads() {
+            int headsStart=m_workers.size();
             for (int dlClauseIndex=0;dlClauseIndex<getNumberOfHeads();dlClauseIndex++) {
+                if (m_derivationBuffer!=null) {
+                    compileBufferedHead(dlClauseIndex);
+                    continue;
+                }
                 if (m_extensionManager.m_tableauMonitor!=null)
                     m_workers.add(new CallMatchStartedOnMonitor(m_extensionManager.m_tableauMonitor,m_dlClauseEvalautor,dlClauseIndex));
                 if (getHeadLength(dlClauseIndex)==0) {
@@ -634,6 +831,31 @@ public class DLClauseEvaluator implements Serializable {
                 if (m_extensionManager.m_tableauMonitor!=null)
                     m_workers.add(new CallMatchFinishedOnMonitor(m_extensionManager.m_tableauMonitor,m_dlClauseEvalautor,dlClauseIndex));
             }
+            if (m_compileMatchers) {
+                Worker[] headWorkers=new Worker[m_workers.size()-headsStart];
+                m_workers.subList(headsStart,m_workers.size()).toArray(headWorkers);
+                return new HeadsMatcher(m_extensionManager,headWorkers);
+            }
+            else
+                return null;
+        }
+        protected void compileBufferedHead(int dlClauseIndex) {
+            int totalNumberOfArguments=0;
+            for (int headIndex=0;headIndex<getHeadLength(dlClauseIndex);headIndex++)
+                totalNumberOfArguments+=getHeadAtom(dlClauseIndex,headIndex).getArity();
+            DLPredicate[] headDLPredicates=new DLPredicate[getHeadLength(dlClauseIndex)];
+            int[] copyValuesToArguments=new int[totalNumberOfArguments];
+            int index=0;
+            for (int headIndex=0;headIndex<getHeadLength(dlClauseIndex);headIndex++) {
+                Atom atom=getHeadAtom(dlClauseIndex,headIndex);
+                headDLPredicates[headIndex]=atom.getDLPredicate();
+                for (int argumentIndex=0;argumentIndex<atom.getArity();argumentIndex++) {
+                    int variableIndex=m_variables.indexOf(atom.getArgumentVariable(argumentIndex));
+                    assert variableIndex!=-1;
+                    copyValuesToArguments[index++]=variableIndex;
+                }
+            }
+            m_workers.add(new BufferDerivation(m_derivationBuffer,m_valuesBuffer,m_unionDependencySet,headDLPredicates,copyValuesToArguments));
         }
         protected void compileCheckUnboundVariableMatches(Atom atom,ExtensionTable.Retrieval retrieval,int jumpIndex) {
             for (int outerArgumentIndex=0;outerArgumentIndex<atom.getArity();outerArgumentIndex++) {
@@ -658,6 +880,24 @@ public class DLClauseEvaluator implements Serializable {
                 }
             }
         }
+        protected int[] getEqualIndexes(int start,int end) {
+            int[] equalIndexes=new int[(end-start)*2];
+            for (int index=start;index<end;index++) {
+                BranchIfNotEqual branchIfNotEqual=(BranchIfNotEqual)m_workers.get(index);
+                equalIndexes[(index-start)*2]=branchIfNotEqual.m_index1;
+                equalIndexes[(index-start)*2+1]=branchIfNotEqual.m_index2;
+            }
+            return equalIndexes;
+        }
+        protected int[] getCopyIndexes(int start,int end) {
+            int[] copyIndexes=new int[(end-start)*2];
+            for (int index=start;index<end;index++) {
+                CopyValues copyValues=(CopyValues)m_workers.get(index);
+                copyIndexes[(index-start)*2]=copyValues.m_fromIndex;
+                copyIndexes[(index-start)*2+1]=copyValues.m_toIndex;
+            }
+            return copyIndexes;
+        }
         protected int addLabel() {
             int labelIndex=m_labels.size();
             m_labels.add(null);
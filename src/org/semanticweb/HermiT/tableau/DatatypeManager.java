@@ -24,6 +24,7 @@ public class DatatypeManager implements Serializable {
     private static final long serialVersionUID = -5304869484553471737L;
     protected final TableauMonitor tableauMonitor;
     protected final ExtensionManager extensionManager;
+    protected final ExtensionTableWithPartitions binaryTableWithPartitions;
     protected final ExtensionTable.Retrieval pairsDeltaOld;
     protected final ExtensionTable.Retrieval triplesDeltaOld;
     protected final ExtensionTable.Retrieval triplesFirstBoundRetr;
@@ -36,7 +37,13 @@ public class DatatypeManager implements Serializable {
         tableauMonitor = tableau.m_tableauMonitor;
         extensionManager = tableau.m_extensionManager;
         // retrieval object for all the datatype assertions in the changed part of the tuple table
-        pairsDeltaOld = extensionManager.getBinaryExtensionTable().createRetrieval(new boolean[2],ExtensionTable.View.DELTA_OLD);
+        if (extensionManager.getBinaryExtensionTable() instanceof ExtensionTableWithPartitions) {
+            binaryTableWithPartitions = (ExtensionTableWithPartitions) extensionManager.getBinaryExtensionTable();
+            pairsDeltaOld = binaryTableWithPartitions.createRetrieval(new boolean[] { true,false },ExtensionTable.View.DELTA_OLD);
+        } else {
+            binaryTableWithPartitions = null;
+            pairsDeltaOld = extensionManager.getBinaryExtensionTable().createRetrieval(new boolean[2],ExtensionTable.View.DELTA_OLD);
+        }
         // retrieval object for all the inequality assertions in the changed part of the tuple table
         triplesDeltaOld = extensionManager.getTernaryExtensionTable().createRetrieval(new boolean[] { true,false,false },ExtensionTable.View.DELTA_OLD);
         // retrieval object to fetch the parent node of a data range node
@@ -65,33 +72,32 @@ public class DatatypeManager implements Serializable {
         }
         boolean datatypesSat = true;
         Set<DataRange> checkedDRs = new HashSet<DataRange>();
-        Object[] pair = pairsDeltaOld.getTupleBuffer();
-        pairsDeltaOld.open();
-        while (datatypesSat && !pairsDeltaOld.afterLast()) {
-            if (pair[0] instanceof DataRange) { //&& !checkedDRs.contains((DataRange) pair[0])) {
-                // in the last saturation, we added a DataRange, so lets check 
-                // whether this caused a clash
-                Map<Node, Set<Node>> inequalities = new HashMap<Node, Set<Node>>();
-                inequalities.put((Node) pair[1], new HashSet<Node>());
-                Map<Node, Set<Node>> inequalitiesSym = new HashMap<Node, Set<Node>>();
-                inequalitiesSym.put((Node) pair[1], new HashSet<Node>());
-                boolean foundSelfInequality = fetchRelevantNodes(inequalities, inequalitiesSym);
-                if (foundSelfInequality) return false;
-                
-                Map<Node,Set<DataRange>> nodeToDRs = fetchRelevantDataRanges(inequalities.keySet());
-                datatypesSat = checkDatatypeAssertionFor(nodeToDRs, inequalities, inequalitiesSym);
-                if (datatypesSat) {
-                    // remember, which ranges we have already checked because 
-                    // pairsDeltaOld can contain more than one data range 
-                    // assertion and we check not just a found assertion, but 
-                    // the all data range assertions for the node and its data 
-                    // range siblings
-                    for (Node node : nodeToDRs.keySet()) {
-                        checkedDRs.addAll(nodeToDRs.get(node));
+        if (binaryTableWithPartitions == null) {
+            Object[] pair = pairsDeltaOld.getTupleBuffer();
+            pairsDeltaOld.open();
+            while (datatypesSat && !pairsDeltaOld.afterLast()) {
+                if (pair[0] instanceof DataRange) { //&& !checkedDRs.contains((DataRange) pair[0])) {
+                    // in the last saturation, we added a DataRange, so lets check 
+                    // whether this caused a clash
+                    datatypesSat = checkDataRangeAssertion((Node) pair[1], checkedDRs);
+                }
+                pairsDeltaOld.next();
+            }
+        } else {
+            // the binary table is partitioned by predicate, so only the 
+            // partitions of data ranges need to be scanned
+            Object[] pair = pairsDeltaOld.getTupleBuffer();
+            Object[] predicates = binaryTableWithPartitions.getPartitionPredicates();
+            for (int index = 0; datatypesSat && index < predicates.length; index++) {
+                if (predicates[index] instanceof DataRange) {
+                    pairsDeltaOld.getBindingsBuffer()[0] = predicates[index];
+                    pairsDeltaOld.open();
+                    while (datatypesSat && !pairsDeltaOld.afterLast()) {
+                        datatypesSat = checkDataRangeAssertion((Node) pair[1], checkedDRs);
+                        pairsDeltaOld.next();
                     }
                 }
             }
-            pairsDeltaOld.next();
         }
         Object[] triple = triplesDeltaOld.getTupleBuffer();
         triplesDeltaOld.getBindingsBuffer()[0]=Inequality.INSTANCE;
@@ -131,6 +137,36 @@ public class DatatypeManager implements Serializable {
         return datatypesSat;
     }
     
+    /**
+     * Checks whether the data range assertions on the given node and on its 
+     * data range siblings are satisfiable given the asserted inequalities. 
+     * The checked data ranges are added to checkedDRs. 
+     * @return true if the data range assertions are satisfiable and false 
+     *         otherwise
+     */
+    protected boolean checkDataRangeAssertion(Node node, Set<DataRange> checkedDRs) {
+        Map<Node, Set<Node>> inequalities = new HashMap<Node, Set<Node>>();
+        inequalities.put(node, new HashSet<Node>());
+        Map<Node, Set<Node>> inequalitiesSym = new HashMap<Node, Set<Node>>();
+        inequalitiesSym.put(node, new HashSet<Node>());
+        boolean foundSelfInequality = fetchRelevantNodes(inequalities, inequalitiesSym);
+        if (foundSelfInequality) return false;
+        
+        Map<Node,Set<DataRange>> nodeToDRs = fetchRelevantDataRanges(inequalities.keySet());
+        boolean datatypesSat = checkDatatypeAssertionFor(nodeToDRs, inequalities, inequalitiesSym);
+        if (datatypesSat) {
+            // remember, which ranges we have already checked because 
+            // pairsDeltaOld can contain more than one data range 
+            // assertion and we check not just a found assertion, but 
+            // the all data range assertions for the node and its data 
+            // range siblings
+            for (Node n : nodeToDRs.keySet()) {
+                checkedDRs.addAll(nodeToDRs.get(n));
+            }
+        }
+        return datatypesSat;
+    }
+    
     /**
      * Input are 2 maps with the nodes as keys and empty sets as values for 
      * which we want to collect the inequalities. Afterwards the sets have keys 
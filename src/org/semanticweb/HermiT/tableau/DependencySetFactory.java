@@ -3,6 +3,7 @@ package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -23,10 +24,22 @@ import java.util.List;
  * Then, the generation number is used to check whether the factory
  * is given objects from the current generation. This is then used
  * to detect the error and to try to fix up the internal structure of the factory. 
+ * 
+ * By default, a permanent dependency set is a linked list of branching points in 
+ * decreasing order, in which each set shares its tail with the set obtained by 
+ * removing the largest branching point. If the factory is created in bitset mode, 
+ * each permanent set instead stores its members as a bitset: sets whose members 
+ * are dense are stored as an array of words, and sets with few widely spread 
+ * members as a sorted array of branching points. Such sets are interned by their 
+ * contents, so union and removal become word operations and destroying a set does 
+ * not cascade into other sets. Unused bitsets are swept only when their number has 
+ * grown, rather than after each backtracking step.
  */
 public final class DependencySetFactory implements Serializable {
     private static final long serialVersionUID=8632867055646817311L;
+    protected static final int MINIMUM_SWEEP_THRESHOLD=1024;
 
+    protected final boolean m_useBitsets;
     protected final IntegerArray m_mergeArray;
     protected final List<PermanentDependencySet> m_mergeSets;
     protected final List<UnionDependencySet> m_unprocessedSets;
@@ -37,15 +50,26 @@ public final class DependencySetFactory implements Serializable {
     protected int m_size;
     protected int m_resizeThreshold;
     protected int m_generation;
+    protected long[] m_wordBuffer;
+    protected int m_wordBufferSize;
+    protected int m_sweepThreshold;
 
     public DependencySetFactory() {
+        this(false);
+    }
+    public DependencySetFactory(boolean useBitsets) {
+        m_useBitsets=useBitsets;
+        m_wordBuffer=new long[16];
         m_mergeArray=new IntegerArray();
         m_mergeSets=new ArrayList<PermanentDependencySet>();
         m_unprocessedSets=new ArrayList<UnionDependencySet>();
         clear();
     }
+    public boolean usesBitsets() {
+        return m_useBitsets;
+    }
     public int sizeInMemory() {
-        return m_entries.length*4+m_size*20;
+        return m_entries.length*4+m_size*(m_useBitsets ? 40 : 20);
     }
     public void clear() {
         m_generation++;
@@ -58,6 +82,11 @@ public final class DependencySetFactory implements Serializable {
         m_emptySet.m_rest=null;
         m_emptySet.m_previousUnusedSet=null;
         m_emptySet.m_nextUnusedSet=null;
+        if (m_useBitsets)
+            m_emptySet.m_members=new int[0];
+        Arrays.fill(m_wordBuffer,0,m_wordBufferSize,0L);
+        m_wordBufferSize=0;
+        m_sweepThreshold=MINIMUM_SWEEP_THRESHOLD;
         m_firstUnusedSet=null;
         m_firstDestroyedSet=null;
         m_entries=new PermanentDependencySet[16];
@@ -68,6 +97,11 @@ public final class DependencySetFactory implements Serializable {
         return m_emptySet;
     }
     public void removeUnusedSets() {
+        if (m_useBitsets) {
+            // Bitsets do not share structure, so unused ones can stay interned until there are many of them.
+            if (m_size<m_sweepThreshold)
+                return;
+        }
         boolean errorDetected=false;
         while (m_firstUnusedSet!=null && !errorDetected)
             errorDetected=destroyDependencySet(m_firstUnusedSet);
@@ -102,6 +136,8 @@ public final class DependencySetFactory implements Serializable {
             if (errorDetected)
                 throw new IllegalStateException("Internal error due to a bug in Java VM: the corruption was detected for the second time in a row, so we are guving up!");
         }
+        if (m_useBitsets)
+            m_sweepThreshold=Math.max(MINIMUM_SWEEP_THRESHOLD,m_size*2);
     }
     protected void checkGeneration(PermanentDependencySet dependencySet) {
         while (dependencySet!=null) {
@@ -110,8 +146,14 @@ public final class DependencySetFactory implements Serializable {
             dependencySet=dependencySet.m_rest;
         }
     }
+    protected int getEntryHashCode(PermanentDependencySet dependencySet) {
+        if (m_useBitsets)
+            return dependencySet.m_hashCode;
+        else
+            return dependencySet.m_rest.hashCode()+dependencySet.m_branchingPoint;
+    }
     protected boolean isInEntries(PermanentDependencySet dependencySet) {
-        int index=(dependencySet.m_rest.hashCode()+dependencySet.m_branchingPoint) & (m_entries.length-1);
+        int index=getEntryHashCode(dependencySet) & (m_entries.length-1);
         PermanentDependencySet entry=m_entries[index];
         while (entry!=null) {
             if (entry==dependencySet)
@@ -139,6 +181,13 @@ public final class DependencySetFactory implements Serializable {
     }
     public PermanentDependencySet addBranchingPoint(DependencySet dependencySet,int branchingPoint) {
         PermanentDependencySet permanentDependencySet=getPermanent(dependencySet);
+        if (m_useBitsets) {
+            if (permanentDependencySet.containsBranchingPoint(branchingPoint))
+                return permanentDependencySet;
+            addToWordBuffer(permanentDependencySet);
+            setInWordBuffer(branchingPoint);
+            return getDependencySetForWordBuffer();
+        }
         if (branchingPoint>permanentDependencySet.m_branchingPoint)
             return getDepdendencySet(permanentDependencySet,branchingPoint);
         else if (branchingPoint==permanentDependencySet.m_branchingPoint)
@@ -177,7 +226,7 @@ public final class DependencySetFactory implements Serializable {
         return dependencySet;
     }
     protected PermanentDependencySet createDependencySet(PermanentDependencySet rest,int branchingPoint) {
-        assert rest.m_generation==m_generation;
+        assert rest==null ? m_useBitsets : rest.m_generation==m_generation;
         PermanentDependencySet newSet;
         if (m_firstDestroyedSet==null)
             newSet=new PermanentDependencySet(m_generation);
@@ -188,7 +237,8 @@ public final class DependencySetFactory implements Serializable {
         newSet.m_rest=rest;
         newSet.m_branchingPoint=branchingPoint;
         newSet.m_usageCounter=0;
-        addUsage(newSet.m_rest);
+        if (!m_useBitsets)
+            addUsage(newSet.m_rest);
         addToUnusedList(newSet);
         m_size++;
         return newSet;
@@ -197,11 +247,14 @@ public final class DependencySetFactory implements Serializable {
         assert dependencySet.m_generation==m_generation;
         assert dependencySet.m_branchingPoint>=0;
         assert dependencySet.m_usageCounter==0;
-        assert dependencySet.m_rest.m_usageCounter>0;
+        assert m_useBitsets || dependencySet.m_rest.m_usageCounter>0;
         removeFromUnusedList(dependencySet);
-        removeUsage(dependencySet.m_rest);
+        if (!m_useBitsets)
+            removeUsage(dependencySet.m_rest);
         boolean errorDetected=removeFromEntries(dependencySet);
         dependencySet.m_rest=null;
+        dependencySet.m_words=null;
+        dependencySet.m_members=null;
         dependencySet.m_branchingPoint=-2;
         dependencySet.m_nextEntry=m_firstDestroyedSet;
         m_firstDestroyedSet=dependencySet;
@@ -210,7 +263,7 @@ public final class DependencySetFactory implements Serializable {
     }
     protected boolean removeFromEntries(PermanentDependencySet dependencySet) {
         assert dependencySet.m_generation==m_generation;
-        int index=(dependencySet.m_rest.hashCode()+dependencySet.m_branchingPoint) & (m_entries.length-1);
+        int index=getEntryHashCode(dependencySet) & (m_entries.length-1);
         PermanentDependencySet lastEntry=null;
         PermanentDependencySet entry=m_entries[index];
         while (entry!=null) {
@@ -256,7 +309,7 @@ public final class DependencySetFactory implements Serializable {
             PermanentDependencySet entry=m_entries[oldIndex];
             while (entry!=null) {
                 PermanentDependencySet nextEntry=entry.m_nextEntry;
-                int newIndex=(entry.m_rest.hashCode()+entry.m_branchingPoint) & newLengthMinusOne;
+                int newIndex=getEntryHashCode(entry) & newLengthMinusOne;
                 entry.m_nextEntry=newEntries[newIndex];
                 newEntries[newIndex]=entry;
                 entry=nextEntry;
@@ -268,6 +321,13 @@ public final class DependencySetFactory implements Serializable {
     public PermanentDependencySet removeBranchingPoint(DependencySet dependencySet,int branchingPoint) {
         PermanentDependencySet permanentDependencySet=getPermanent(dependencySet);
         assert permanentDependencySet.m_generation==m_generation;
+        if (m_useBitsets) {
+            if (!permanentDependencySet.containsBranchingPoint(branchingPoint))
+                return permanentDependencySet;
+            addToWordBuffer(permanentDependencySet);
+            m_wordBuffer[branchingPoint >>> 6]&=~(1L << branchingPoint);
+            return getDependencySetForWordBuffer();
+        }
         if (branchingPoint==permanentDependencySet.m_branchingPoint)
             return permanentDependencySet.m_rest;
         else if (branchingPoint>permanentDependencySet.m_branchingPoint)
@@ -296,6 +356,15 @@ public final class DependencySetFactory implements Serializable {
         assert permanentSet2.m_generation==m_generation;
         if (permanentSet1==permanentSet2)
             return permanentSet1;
+        if (m_useBitsets) {
+            if (permanentSet2.isEmpty())
+                return permanentSet1;
+            else if (permanentSet1.isEmpty())
+                return permanentSet2;
+            addToWordBuffer(permanentSet1);
+            addToWordBuffer(permanentSet2);
+            return getDependencySetForWordBuffer();
+        }
         m_mergeArray.clear();
         while (permanentSet1!=permanentSet2) {
             if (permanentSet1.m_branchingPoint>permanentSet2.m_branchingPoint) {
@@ -335,6 +404,12 @@ public final class DependencySetFactory implements Serializable {
                 }
             }
         }
+        if (m_useBitsets) {
+            for (int index=m_mergeSets.size()-1;index>=0;--index)
+                addToWordBuffer(m_mergeSets.get(index));
+            m_mergeSets.clear();
+            return getDependencySetForWordBuffer();
+        }
         int numberOfSets=m_mergeSets.size();
         m_mergeArray.clear();
         while (true) {
@@ -377,6 +452,111 @@ public final class DependencySetFactory implements Serializable {
         m_mergeSets.clear();
         return result;
     }
+    protected void setInWordBuffer(int branchingPoint) {
+        int wordIndex=branchingPoint >>> 6;
+        ensureWordBufferSize(wordIndex+1);
+        m_wordBuffer[wordIndex]|=(1L << branchingPoint);
+    }
+    protected void ensureWordBufferSize(int size) {
+        if (size>m_wordBuffer.length) {
+            long[] newWordBuffer=new long[Math.max(size,m_wordBuffer.length*3/2)];
+            System.arraycopy(m_wordBuffer,0,newWordBuffer,0,m_wordBufferSize);
+            m_wordBuffer=newWordBuffer;
+        }
+        if (size>m_wordBufferSize)
+            m_wordBufferSize=size;
+    }
+    protected void addToWordBuffer(PermanentDependencySet dependencySet) {
+        assert dependencySet.m_generation==m_generation;
+        if (dependencySet.m_words!=null) {
+            long[] words=dependencySet.m_words;
+            ensureWordBufferSize(words.length);
+            for (int wordIndex=words.length-1;wordIndex>=0;--wordIndex)
+                m_wordBuffer[wordIndex]|=words[wordIndex];
+        }
+        else {
+            int[] members=dependencySet.m_members;
+            for (int index=members.length-1;index>=0;--index)
+                setInWordBuffer(members[index]);
+        }
+    }
+    /**
+     * Returns the interned set with the members currently in the word buffer and clears the buffer. A set is stored
+     * sparsely if the array of its members takes less than half the space of its words.
+     */
+    protected PermanentDependencySet getDependencySetForWordBuffer() {
+        while (m_wordBufferSize>0 && m_wordBuffer[m_wordBufferSize-1]==0L)
+            m_wordBufferSize--;
+        if (m_wordBufferSize==0)
+            return m_emptySet;
+        int hashCode=0;
+        int cardinality=0;
+        for (int wordIndex=0;wordIndex<m_wordBufferSize;wordIndex++) {
+            long word=m_wordBuffer[wordIndex];
+            hashCode=hashCode*31+(int)(word ^ (word >>> 32));
+            cardinality+=Long.bitCount(word);
+        }
+        int index=hashCode & (m_entries.length-1);
+        PermanentDependencySet dependencySet=m_entries[index];
+        while (dependencySet!=null) {
+            if (dependencySet.m_hashCode==hashCode && isWordBufferEqual(dependencySet,cardinality))
+                break;
+            dependencySet=dependencySet.m_nextEntry;
+        }
+        if (dependencySet==null) {
+            int lastWordIndex=m_wordBufferSize-1;
+            int maximumBranchingPoint=(lastWordIndex << 6)+63-Long.numberOfLeadingZeros(m_wordBuffer[lastWordIndex]);
+            dependencySet=createDependencySet(null,maximumBranchingPoint);
+            dependencySet.m_hashCode=hashCode;
+            if (cardinality*2<m_wordBufferSize) {
+                int[] members=new int[cardinality];
+                int memberIndex=0;
+                for (int wordIndex=0;wordIndex<m_wordBufferSize;wordIndex++) {
+                    long word=m_wordBuffer[wordIndex];
+                    while (word!=0L) {
+                        members[memberIndex++]=(wordIndex << 6)+Long.numberOfTrailingZeros(word);
+                        word&=word-1L;
+                    }
+                }
+                dependencySet.m_members=members;
+            }
+            else {
+                long[] words=new long[m_wordBufferSize];
+                System.arraycopy(m_wordBuffer,0,words,0,m_wordBufferSize);
+                dependencySet.m_words=words;
+            }
+            dependencySet.m_nextEntry=m_entries[index];
+            m_entries[index]=dependencySet;
+            if (m_size>=m_resizeThreshold)
+                resizeEntries();
+        }
+        Arrays.fill(m_wordBuffer,0,m_wordBufferSize,0L);
+        m_wordBufferSize=0;
+        return dependencySet;
+    }
+    protected boolean isWordBufferEqual(PermanentDependencySet dependencySet,int cardinality) {
+        if (dependencySet.m_words!=null) {
+            long[] words=dependencySet.m_words;
+            if (words.length!=m_wordBufferSize)
+                return false;
+            for (int wordIndex=words.length-1;wordIndex>=0;--wordIndex)
+                if (words[wordIndex]!=m_wordBuffer[wordIndex])
+                    return false;
+            return true;
+        }
+        else {
+            int[] members=dependencySet.m_members;
+            if (members.length!=cardinality)
+                return false;
+            for (int index=members.length-1;index>=0;--index) {
+                int branchingPoint=members[index];
+                int wordIndex=branchingPoint >>> 6;
+                if (wordIndex>=m_wordBufferSize || (m_wordBuffer[wordIndex] & (1L << branchingPoint))==0L)
+                    return false;
+            }
+            return true;
+        }
+    }
     
     protected static final class IntegerArray implements Serializable {
         private static final long serialVersionUID=7070190530381846058L;
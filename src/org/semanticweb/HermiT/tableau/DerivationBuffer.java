@@ -0,0 +1,100 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.HermiT.model.DLPredicate;
+
+/**
+ * Collects the consequences of DL-clauses that are evaluated in parallel, so that they can be added to the tableau afterwards.
+ * A derivation with no head predicates is a clash, one with a single head predicate is a fact, and one with several head
+ * predicates is a ground disjunction.
+ */
+public final class DerivationBuffer implements Serializable {
+    private static final long serialVersionUID=-1265213987707530158L;
+
+    protected final List<Derivation> m_derivations;
+    protected boolean m_containsClash;
+
+    public DerivationBuffer() {
+        m_derivations=new ArrayList<Derivation>();
+    }
+    public void clear() {
+        m_derivations.clear();
+        m_containsClash=false;
+    }
+    public int size() {
+        return m_derivations.size();
+    }
+    public boolean containsClash() {
+        return m_containsClash;
+    }
+    public void addDerivation(DLPredicate[] headDLPredicates,int[] disjunctStart,Node[] arguments,UnionDependencySet dependencySet) {
+        DependencySet[] constituents=dependencySet.getConstituents();
+        UnionDependencySet dependencySetCopy=new UnionDependencySet(constituents.length);
+        System.arraycopy(constituents,0,dependencySetCopy.getConstituents(),0,constituents.length);
+        m_derivations.add(new Derivation(headDLPredicates,disjunctStart,arguments,dependencySetCopy));
+        if (headDLPredicates.length==0)
+            m_containsClash=true;
+    }
+    /**
+     * Adds the buffered derivations to the tableau in the order in which they were made, stopping at the first clash. Derivations
+     * that involve a node that has become inactive in the meantime are dropped; their premises have been copied to the node into
+     * which the inactive node was merged, so the DL-clauses will be applied to them again.
+     */
+    public void addToTableau(Tableau tableau) {
+        ExtensionManager extensionManager=tableau.getExtensionManager();
+        for (int index=0;index<m_derivations.size() && !extensionManager.containsClash();index++) {
+            Derivation derivation=m_derivations.get(index);
+            if (derivation.areArgumentsActive()) {
+                DLPredicate[] headDLPredicates=derivation.m_headDLPredicates;
+                Node[] arguments=derivation.m_arguments;
+                if (headDLPredicates.length==0)
+                    extensionManager.setClash(derivation.m_dependencySet);
+                else if (headDLPredicates.length==1) {
+                    switch (arguments.length) {
+                    case 1:
+                        extensionManager.addAssertion(headDLPredicates[0],arguments[0],derivation.m_dependencySet);
+                        break;
+                    case 2:
+                        extensionManager.addAssertion(headDLPredicates[0],arguments[0],arguments[1],derivation.m_dependencySet);
+                        break;
+                    default:
+                        extensionManager.addAssertion(headDLPredicates[0],arguments,derivation.m_dependencySet);
+                        break;
+                    }
+                }
+                else {
+                    GroundDisjunction groundDisjunction=new GroundDisjunction(tableau,headDLPredicates,derivation.m_disjunctStart,arguments,tableau.m_dependencySetFactory.getPermanent(derivation.m_dependencySet));
+                    if (!groundDisjunction.isSatisfied(tableau))
+                        tableau.addGroundDisjunction(groundDisjunction);
+                }
+            }
+        }
+        clear();
+    }
+
+    protected static final class Derivation implements Serializable {
+        private static final long serialVersionUID=4716880377498125537L;
+
+        protected final DLPredicate[] m_headDLPredicates;
+        protected final int[] m_disjunctStart;
+        protected final Node[] m_arguments;
+        protected final UnionDependencySet m_dependencySet;
+
+        public Derivation(DLPredicate[] headDLPredicates,int[] disjunctStart,Node[] arguments,UnionDependencySet dependencySet) {
+            m_headDLPredicates=headDLPredicates;
+            m_disjunctStart=disjunctStart;
+            m_arguments=arguments;
+            m_dependencySet=dependencySet;
+        }
+        public boolean areArgumentsActive() {
+            for (int argumentIndex=m_arguments.length-1;argumentIndex>=0;--argumentIndex)
+                if (!m_arguments[argumentIndex].isActive())
+                    return false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.Equality;
+import org.semanticweb.HermiT.model.Inequality;
+
+/**
+ * Detects ground disjunctions that have become unit or conflicting, in the style of the two-watched-literal scheme of SAT solvers.
+ * A disjunct is false if the tableau contains its complement: a negated atomic concept for a concept disjunct, or an inequality
+ * for an equality disjunct; other disjuncts are never false. Each ground disjunction watches two of its disjuncts, preferably
+ * ones that are not false, and is registered with the node of each watched disjunct. When a negated atomic concept or an
+ * inequality is added to a node, only the disjunctions watching that node are examined: a watched disjunct that has become false
+ * is replaced by another disjunct that is not false, and if there is none, the disjunction is queued. Queued disjunctions are
+ * propagated during saturation: if just one disjunct is not false, it is added without opening a branching point, and if all
+ * disjuncts are false, a clash is raised; the dependency set is that of the disjunction together with those of the complements.
+ *
+ * Watches are not changed on backtracking, as backtracking only makes disjuncts non-false. Watches are registered with the
+ * canonical node of a disjunct at the time of registration; a complement added after a merge might be missed, in which case the
+ * disjunction is simply processed as usual. Registrations of destroyed disjunctions are removed lazily.
+ */
+public final class DisjunctWatchManager implements Serializable {
+    private static final long serialVersionUID=5307962210498575532L;
+    protected static final int INITIAL_WATCH_LIST_SIZE=4;
+
+    protected final Tableau m_tableau;
+    protected final ExtensionManager m_extensionManager;
+    protected final DependencySetFactory m_dependencySetFactory;
+    protected final Object[] m_binaryAuxiliaryTuple;
+    protected GroundDisjunction[][] m_watchLists;
+    protected int[][] m_watchListSlots;
+    protected int[] m_watchListSizes;
+    protected int[] m_watchListCreationNumbers;
+    protected GroundDisjunction[] m_queue;
+    protected int m_queueSize;
+    protected int m_numberOfPropagations;
+
+    public DisjunctWatchManager(Tableau tableau) {
+        m_tableau=tableau;
+        m_extensionManager=tableau.getExtensionManager();
+        m_dependencySetFactory=tableau.getDependencySetFactory();
+        m_binaryAuxiliaryTuple=new Object[2];
+        clear();
+    }
+    public void clear() {
+        m_watchLists=new GroundDisjunction[NodeArena.INITIAL_CAPACITY][];
+        m_watchListSlots=new int[NodeArena.INITIAL_CAPACITY][];
+        m_watchListSizes=new int[NodeArena.INITIAL_CAPACITY];
+        m_watchListCreationNumbers=new int[NodeArena.INITIAL_CAPACITY];
+        m_queue=new GroundDisjunction[16];
+        m_queueSize=0;
+        m_numberOfPropagations=0;
+    }
+    public int getNumberOfPropagations() {
+        return m_numberOfPropagations;
+    }
+    public void backtrack() {
+        while (m_queueSize>0)
+            m_queue[--m_queueSize]=null;
+    }
+    /**
+     * Chooses the watched disjuncts of a newly derived ground disjunction.
+     */
+    public void groundDisjunctionAdded(GroundDisjunction groundDisjunction) {
+        int numberOfDisjuncts=groundDisjunction.getNumberOfDisjuncts();
+        if (numberOfDisjuncts<2)
+            return;
+        int watch0=-1;
+        int watch1=-1;
+        for (int disjunctIndex=0;disjunctIndex<numberOfDisjuncts && watch1==-1;disjunctIndex++)
+            if (!isFalse(groundDisjunction,disjunctIndex)) {
+                if (watch0==-1)
+                    watch0=disjunctIndex;
+                else
+                    watch1=disjunctIndex;
+            }
+        if (watch1==-1) {
+            enqueue(groundDisjunction);
+            if (watch0==-1)
+                watch0=0;
+            watch1=(watch0==0 ? 1 : 0);
+        }
+        groundDisjunction.m_watchedDisjuncts=new int[] { watch0,watch1 };
+        watch(groundDisjunction,0);
+        watch(groundDisjunction,1);
+    }
+    /**
+     * Called when the complement of a disjunct has been added to the given node.
+     */
+    public void complementAdded(Node node) {
+        int nodeID=node.m_nodeID;
+        if (nodeID>=m_watchListSizes.length || m_watchListCreationNumbers[nodeID]!=m_tableau.m_nodeArena.m_creationNumbers[nodeID])
+            return;
+        GroundDisjunction[] watchList=m_watchLists[nodeID];
+        int[] watchListSlots=m_watchListSlots[nodeID];
+        int index=0;
+        while (index<m_watchListSizes[nodeID]) {
+            GroundDisjunction groundDisjunction=watchList[index];
+            int slot=watchListSlots[index];
+            if (groundDisjunction.m_dependencySet==null) {
+                removeFromWatchList(nodeID,index);
+                continue;
+            }
+            if (isFalse(groundDisjunction,groundDisjunction.m_watchedDisjuncts[slot])) {
+                int replacement=findReplacement(groundDisjunction);
+                if (replacement!=-1) {
+                    groundDisjunction.m_watchedDisjuncts[slot]=replacement;
+                    removeFromWatchList(nodeID,index);
+                    watch(groundDisjunction,slot);
+                    // the watch list might have been reallocated if the replacement is about the same node
+                    watchList=m_watchLists[nodeID];
+                    watchListSlots=m_watchListSlots[nodeID];
+                    continue;
+                }
+                enqueue(groundDisjunction);
+            }
+            index++;
+        }
+    }
+    /**
+     * Propagates the queued ground disjunctions. Returns true if the tableau has been changed.
+     */
+    public boolean propagate() {
+        boolean hasChange=false;
+        for (int queueIndex=0;queueIndex<m_queueSize && !m_extensionManager.containsClash();queueIndex++) {
+            GroundDisjunction groundDisjunction=m_queue[queueIndex];
+            m_queue[queueIndex]=null;
+            if (groundDisjunction.m_dependencySet!=null && !groundDisjunction.isSatisfied(m_tableau)) {
+                DependencySet dependencySet=groundDisjunction.getDependencySet();
+                int openDisjunct=-1;
+                for (int disjunctIndex=0;disjunctIndex<groundDisjunction.getNumberOfDisjuncts() && dependencySet!=null;disjunctIndex++) {
+                    DependencySet complementDependencySet=getComplementDependencySet(groundDisjunction,disjunctIndex);
+                    if (complementDependencySet!=null)
+                        dependencySet=m_dependencySetFactory.unionWith(dependencySet,complementDependencySet);
+                    else if (openDisjunct==-1)
+                        openDisjunct=disjunctIndex;
+                    else
+                        dependencySet=null;
+                }
+                if (dependencySet!=null) {
+                    m_numberOfPropagations++;
+                    if (openDisjunct==-1)
+                        m_extensionManager.setClash(dependencySet);
+                    else
+                        groundDisjunction.addDisjunctToTableau(m_tableau,openDisjunct,dependencySet);
+                    hasChange=true;
+                }
+            }
+        }
+        for (int queueIndex=0;queueIndex<m_queueSize;queueIndex++)
+            m_queue[queueIndex]=null;
+        m_queueSize=0;
+        return hasChange;
+    }
+    protected void enqueue(GroundDisjunction groundDisjunction) {
+        if (m_queueSize==m_queue.length) {
+            GroundDisjunction[] newQueue=new GroundDisjunction[m_queue.length*3/2];
+            System.arraycopy(m_queue,0,newQueue,0,m_queueSize);
+            m_queue=newQueue;
+        }
+        m_queue[m_queueSize++]=groundDisjunction;
+    }
+    protected int findReplacement(GroundDisjunction groundDisjunction) {
+        int[] watchedDisjuncts=groundDisjunction.m_watchedDisjuncts;
+        for (int disjunctIndex=0;disjunctIndex<groundDisjunction.getNumberOfDisjuncts();disjunctIndex++)
+            if (disjunctIndex!=watchedDisjuncts[0] && disjunctIndex!=watchedDisjuncts[1] && !isFalse(groundDisjunction,disjunctIndex))
+                return disjunctIndex;
+        return -1;
+    }
+    protected boolean isFalse(GroundDisjunction groundDisjunction,int disjunctIndex) {
+        DLPredicate dlPredicate=groundDisjunction.getDLPredicate(disjunctIndex);
+        if (dlPredicate instanceof AtomicConcept) {
+            m_binaryAuxiliaryTuple[0]=AtomicNegationConcept.create((AtomicConcept)dlPredicate);
+            m_binaryAuxiliaryTuple[1]=groundDisjunction.getArgument(disjunctIndex,0).getCanonicalNode();
+            return m_extensionManager.containsTuple(m_binaryAuxiliaryTuple);
+        }
+        else if (Equality.INSTANCE.equals(dlPredicate)) {
+            Node node0=groundDisjunction.getArgument(disjunctIndex,0).getCanonicalNode();
+            Node node1=groundDisjunction.getArgument(disjunctIndex,1).getCanonicalNode();
+            return m_extensionManager.containsAssertion(Inequality.INSTANCE,node0,node1) || m_extensionManager.containsAssertion(Inequality.INSTANCE,node1,node0);
+        }
+        else
+            return false;
+    }
+    protected DependencySet getComplementDependencySet(GroundDisjunction groundDisjunction,int disjunctIndex) {
+        DLPredicate dlPredicate=groundDisjunction.getDLPredicate(disjunctIndex);
+        if (dlPredicate instanceof AtomicConcept) {
+            Node node=groundDisjunction.getArgument(disjunctIndex,0);
+            DependencySet dependencySet=m_extensionManager.getConceptAssertionDependencySet(AtomicNegationConcept.create((AtomicConcept)dlPredicate),node.getCanonicalNode());
+            return dependencySet==null ? null : node.addCacnonicalNodeDependencySet(dependencySet);
+        }
+        else if (Equality.INSTANCE.equals(dlPredicate)) {
+            Node node0=groundDisjunction.getArgument(disjunctIndex,0);
+            Node node1=groundDisjunction.getArgument(disjunctIndex,1);
+            DependencySet dependencySet=m_extensionManager.getAssertionDependencySet(Inequality.INSTANCE,node0.getCanonicalNode(),node1.getCanonicalNode());
+            if (dependencySet==null)
+                dependencySet=m_extensionManager.getAssertionDependencySet(Inequality.INSTANCE,node1.getCanonicalNode(),node0.getCanonicalNode());
+            return dependencySet==null ? null : node1.addCacnonicalNodeDependencySet(node0.addCacnonicalNodeDependencySet(dependencySet));
+        }
+        else
+            return null;
+    }
+    protected void watch(GroundDisjunction groundDisjunction,int slot) {
+        Node node=groundDisjunction.getArgument(groundDisjunction.m_watchedDisjuncts[slot],0).getCanonicalNode();
+        int nodeID=node.m_nodeID;
+        if (nodeID>=m_watchListSizes.length)
+            resize(nodeID);
+        int creationNumber=m_tableau.m_nodeArena.m_creationNumbers[nodeID];
+        if (m_watchListCreationNumbers[nodeID]!=creationNumber) {
+            // the list belongs to a destroyed node with the same ID
+            for (int index=0;index<m_watchListSizes[nodeID];index++)
+                m_watchLists[nodeID][index]=null;
+            m_watchListSizes[nodeID]=0;
+            m_watchListCreationNumbers[nodeID]=creationNumber;
+        }
+        GroundDisjunction[] watchList=m_watchLists[nodeID];
+        int size=m_watchListSizes[nodeID];
+        if (watchList==null) {
+            watchList=new GroundDisjunction[INITIAL_WATCH_LIST_SIZE];
+            m_watchLists[nodeID]=watchList;
+            m_watchListSlots[nodeID]=new int[INITIAL_WATCH_LIST_SIZE];
+        }
+        else if (size==watchList.length) {
+            // drop the registrations of destroyed disjunctions before growing the list
+            int[] watchListSlots=m_watchListSlots[nodeID];
+            int newSize=0;
+            for (int index=0;index<size;index++)
+                if (watchList[index].m_dependencySet!=null) {
+                    watchList[newSize]=watchList[index];
+                    watchListSlots[newSize]=watchListSlots[index];
+                    newSize++;
+                }
+            for (int index=newSize;index<size;index++)
+                watchList[index]=null;
+            size=newSize;
+            if (size>watchList.length*2/3) {
+                GroundDisjunction[] newWatchList=new GroundDisjunction[watchList.length*2];
+                System.arraycopy(watchList,0,newWatchList,0,size);
+                watchList=newWatchList;
+                m_watchLists[nodeID]=watchList;
+                int[] newWatchListSlots=new int[newWatchList.length];
+                System.arraycopy(watchListSlots,0,newWatchListSlots,0,size);
+                m_watchListSlots[nodeID]=newWatchListSlots;
+            }
+        }
+        watchList[size]=groundDisjunction;
+        m_watchListSlots[nodeID][size]=slot;
+        m_watchListSizes[nodeID]=size+1;
+    }
+    protected void removeFromWatchList(int nodeID,int index) {
+        int lastIndex=--m_watchListSizes[nodeID];
+        m_watchLists[nodeID][index]=m_watchLists[nodeID][lastIndex];
+        m_watchListSlots[nodeID][index]=m_watchListSlots[nodeID][lastIndex];
+        m_watchLists[nodeID][lastIndex]=null;
+    }
+    protected void resize(int nodeID) {
+        int newCapacity=m_watchListSizes.length*3/2;
+        while (nodeID>=newCapacity)
+            newCapacity=newCapacity*3/2;
+        GroundDisjunction[][] newWatchLists=new GroundDisjunction[newCapacity][];
+        System.arraycopy(m_watchLists,0,newWatchLists,0,m_watchLists.length);
+        m_watchLists=newWatchLists;
+        int[][] newWatchListSlots=new int[newCapacity][];
+        System.arraycopy(m_watchListSlots,0,newWatchListSlots,0,m_watchListSlots.length);
+        m_watchListSlots=newWatchListSlots;
+        m_watchListSizes=NodeArena.resize(m_watchListSizes,newCapacity);
+        m_watchListCreationNumbers=NodeArena.resize(m_watchListCreationNumbers,newCapacity);
+    }
+}
@@ -7,30 +7,54 @@ public class DisjunctionBranchingPoint extends BranchingPoint {
     private static final long serialVersionUID=-8855083430836162354L;
 
     protected final GroundDisjunction m_groundDisjunction;
+    protected final int[] m_disjunctOrder;
     protected int m_currentDisjunctIndex;
     
     public DisjunctionBranchingPoint(Tableau tableau,GroundDisjunction groundDisjunction) {
+        this(tableau,groundDisjunction,null);
+    }
+    /**
+     * Creates a branching point that tries the disjuncts in the given order; if the order is null, the disjuncts are tried from
+     * left to right. m_currentDisjunctIndex is the position of the current disjunct in this order.
+     */
+    public DisjunctionBranchingPoint(Tableau tableau,GroundDisjunction groundDisjunction,int[] disjunctOrder) {
         super(tableau);
         m_groundDisjunction=groundDisjunction;
+        m_disjunctOrder=disjunctOrder;
         m_currentDisjunctIndex=0;
     }
+    public GroundDisjunction getGroundDisjunction() {
+        return m_groundDisjunction;
+    }
+    public int getDisjunct(int position) {
+        return m_disjunctOrder==null ? position : m_disjunctOrder[position];
+    }
+    public int getCurrentDisjunct() {
+        return getDisjunct(m_currentDisjunctIndex);
+    }
     public void startNextChoice(Tableau tableau,DependencySet clashDependencySet) {
         m_currentDisjunctIndex++;
         assert m_currentDisjunctIndex<m_groundDisjunction.getNumberOfDisjuncts();
+        int currentDisjunct=getCurrentDisjunct();
         if (tableau.m_tableauMonitor!=null)
-            tableau.m_tableauMonitor.disjunctProcessingStarted(m_groundDisjunction,m_currentDisjunctIndex);
+            tableau.m_tableauMonitor.disjunctProcessingStarted(m_groundDisjunction,currentDisjunct);
         PermanentDependencySet dependencySet=tableau.getDependencySetFactory().getPermanent(clashDependencySet);
         if (m_currentDisjunctIndex==m_groundDisjunction.getNumberOfDisjuncts()-1)
             dependencySet=tableau.getDependencySetFactory().removeBranchingPoint(dependencySet,m_level);
-        for (int previousDisjunctIndex=0;previousDisjunctIndex<m_currentDisjunctIndex;previousDisjunctIndex++) {
+        for (int previousPosition=0;previousPosition<m_currentDisjunctIndex;previousPosition++) {
+            int previousDisjunctIndex=getDisjunct(previousPosition);
             DLPredicate dlPredicate=m_groundDisjunction.getDLPredicate(previousDisjunctIndex);
             if (Equality.INSTANCE.equals(dlPredicate))
                 tableau.getExtensionManager().addAssertion(Inequality.INSTANCE,m_groundDisjunction.getArgument(previousDisjunctIndex,0),m_groundDisjunction.getArgument(previousDisjunctIndex,1),dependencySet);
             else if (dlPredicate instanceof AtomicConcept)
                 tableau.getExtensionManager().addConceptAssertion(AtomicNegationConcept.create((AtomicConcept)dlPredicate),m_groundDisjunction.getArgument(previousDisjunctIndex,0),dependencySet);
         }
-        m_groundDisjunction.addDisjunctToTableau(tableau,m_currentDisjunctIndex,dependencySet);
+        DependencySet nogoodDependencySet=(tableau.m_nogoodManager==null ? null : tableau.m_nogoodManager.getViolatedNogoodDependencySet(m_groundDisjunction,currentDisjunct));
+        if (nogoodDependencySet!=null)
+            tableau.getExtensionManager().setClash(tableau.getDependencySetFactory().unionWith(dependencySet,nogoodDependencySet));
+        else
+            m_groundDisjunction.addDisjunctToTableau(tableau,currentDisjunct,dependencySet);
         if (tableau.m_tableauMonitor!=null)
-            tableau.m_tableauMonitor.disjunctProcessingFinished(m_groundDisjunction,m_currentDisjunctIndex);
+            tableau.m_tableauMonitor.disjunctProcessingFinished(m_groundDisjunction,currentDisjunct);
     }
 }
@@ -0,0 +1,27 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+
+/**
+ * Decides in which order the tableau processes the unprocessed ground disjunctions and in which order it tries the disjuncts
+ * of a disjunction. The unprocessed ground disjunctions are those from Tableau.getFirstUnprocessedGroundDisjunction() onwards
+ * (following getPreviousGroundDisjunction()) that are not marked as processed; the latter can happen if a scheduler does not
+ * process the disjunctions in the order in which they are derived.
+ */
+public interface DisjunctionScheduler extends Serializable {
+    void clear();
+    /**
+     * Returns the ground disjunction that should be processed next, or null if all ground disjunctions have been processed.
+     */
+    GroundDisjunction getNextGroundDisjunction();
+    /**
+     * Returns the order in which the disjuncts of the given ground disjunction should be tried, or null if they should be tried
+     * in the order in which they occur in the disjunction.
+     */
+    int[] getDisjunctOrder(GroundDisjunction groundDisjunction);
+    /**
+     * Called before the tableau backtracks because of the given clash.
+     */
+    void clashDetected(DependencySet clashDependencySet);
+}
@@ -0,0 +1,151 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+
+/**
+ * The base class of the tuple tables that store the encoded tuples of an 
+ * extension table as integers. The first position of each tuple is encoded 
+ * using the IDs of a TupleObjectDictionary, and the remaining encoded positions 
+ * are nodes, which are encoded by their node IDs; ID 0 stands for null. The 
+ * IDs are stored in pages column by column, so comparing a position of many 
+ * tuples touches contiguous memory; subclasses decide where the pages live. 
+ * Positions after the encoded ones (such as the dependency set of a tuple) 
+ * are stored as plain objects.
+ */
+public abstract class EncodedTupleTable implements TupleStore,Serializable {
+    private static final long serialVersionUID=-1526377329485066013L;
+
+    protected final TupleObjectDictionary m_dictionary;
+    protected final int m_encodedArity;
+    protected final int m_objectArity;
+    protected final int m_pageSize;
+    protected final int m_pageShift;
+    protected final int m_pageMask;
+    protected Object[][] m_objectPages;
+    protected int m_numberOfPages;
+    protected int m_tupleCapacity;
+    protected int m_firstFreeTupleIndex;
+
+    /**
+     * @param pageShift the binary logarithm of the number of tuples per page
+     */
+    protected EncodedTupleTable(TupleObjectDictionary dictionary,int encodedArity,int objectArity,int pageShift) {
+        m_dictionary=dictionary;
+        m_encodedArity=encodedArity;
+        m_objectArity=objectArity;
+        m_pageShift=pageShift;
+        m_pageSize=1 << pageShift;
+        m_pageMask=m_pageSize-1;
+        m_objectPages=new Object[10][];
+        m_numberOfPages=0;
+        m_tupleCapacity=0;
+        m_firstFreeTupleIndex=0;
+    }
+    /**
+     * Returns the ID stored at the given position of the given tuple.
+     */
+    public abstract int getTupleID(int tupleIndex,int objectIndex);
+    protected abstract void setTupleID(int tupleIndex,int objectIndex,int id);
+    /**
+     * Allocates the storage for the IDs of the page with the given index; 
+     * pages are allocated in order.
+     */
+    protected abstract void allocateIDPage(int pageIndex);
+    protected abstract int idPagesSizeInMemory();
+
+    public int sizeInMemory() {
+        int size=m_objectPages.length*4+idPagesSizeInMemory();
+        for (int i=m_objectPages.length-1;i>=0;--i)
+            if (m_objectPages[i]!=null)
+                size+=m_objectPages[i].length*4;
+        return size;
+    }
+    public int getFirstFreeTupleIndex() {
+        return m_firstFreeTupleIndex;
+    }
+    public int addTuple(Object[] tupleBuffer) {
+        int newTupleIndex=m_firstFreeTupleIndex;
+        if (newTupleIndex==m_tupleCapacity)
+            addPage();
+        setTupleID(newTupleIndex,0,m_dictionary.getObjectID(tupleBuffer[0]));
+        for (int column=1;column<m_encodedArity;column++)
+            setTupleID(newTupleIndex,column,m_dictionary.getNodeID(tupleBuffer[column]));
+        for (int column=m_encodedArity;column<tupleBuffer.length;column++)
+            m_objectPages[newTupleIndex >>> m_pageShift][(newTupleIndex & m_pageMask)*m_objectArity+column-m_encodedArity]=tupleBuffer[column];
+        m_firstFreeTupleIndex++;
+        return newTupleIndex;
+    }
+    protected void addPage() {
+        if (m_numberOfPages==m_objectPages.length) {
+            Object[][] newObjectPages=new Object[m_numberOfPages*3/2][];
+            System.arraycopy(m_objectPages,0,newObjectPages,0,m_numberOfPages);
+            m_objectPages=newObjectPages;
+        }
+        if (m_objectArity>0)
+            m_objectPages[m_numberOfPages]=new Object[m_objectArity*m_pageSize];
+        allocateIDPage(m_numberOfPages);
+        m_numberOfPages++;
+        m_tupleCapacity+=m_pageSize;
+    }
+    public boolean tupleEquals(Object[] tupleBuffer,int tupleIndex,int compareLength) {
+        for (int column=compareLength-1;column>=0;--column) {
+            if (column>=m_encodedArity) {
+                if (!tupleBuffer[column].equals(m_objectPages[tupleIndex >>> m_pageShift][(tupleIndex & m_pageMask)*m_objectArity+column-m_encodedArity]))
+                    return false;
+            }
+            else if (getTupleID(tupleIndex,column)!=encode(tupleBuffer[column],column))
+                return false;
+        }
+        return true;
+    }
+    public void retrieveTuple(Object[] tupleBuffer,int tupleIndex) {
+        tupleBuffer[0]=m_dictionary.getObject(getTupleID(tupleIndex,0));
+        int encodedLength=Math.min(m_encodedArity,tupleBuffer.length);
+        for (int column=1;column<encodedLength;column++)
+            tupleBuffer[column]=m_dictionary.getNode(getTupleID(tupleIndex,column));
+        for (int column=m_encodedArity;column<tupleBuffer.length;column++)
+            tupleBuffer[column]=m_objectPages[tupleIndex >>> m_pageShift][(tupleIndex & m_pageMask)*m_objectArity+column-m_encodedArity];
+    }
+    public Object getTupleObject(int tupleIndex,int objectIndex) {
+        assert objectIndex<m_encodedArity+m_objectArity;
+        if (objectIndex==0)
+            return m_dictionary.getObject(getTupleID(tupleIndex,0));
+        else if (objectIndex<m_encodedArity)
+            return m_dictionary.getNode(getTupleID(tupleIndex,objectIndex));
+        else
+            return m_objectPages[tupleIndex >>> m_pageShift][(tupleIndex & m_pageMask)*m_objectArity+objectIndex-m_encodedArity];
+    }
+    public void setTupleObject(int tupleIndex,int objectIndex,Object object) {
+        if (objectIndex==0)
+            setTupleID(tupleIndex,0,m_dictionary.getObjectID(object));
+        else if (objectIndex<m_encodedArity)
+            setTupleID(tupleIndex,objectIndex,m_dictionary.getNodeID(object));
+        else
+            m_objectPages[tupleIndex >>> m_pageShift][(tupleIndex & m_pageMask)*m_objectArity+objectIndex-m_encodedArity]=object;
+    }
+    public void truncate(int newFirstFreeTupleIndex) {
+        m_firstFreeTupleIndex=newFirstFreeTupleIndex;
+    }
+    public void nullifyTuple(int tupleIndex) {
+        for (int column=0;column<m_encodedArity;column++)
+            setTupleID(tupleIndex,column,0);
+        if (m_objectArity>0) {
+            Object[] objectPage=m_objectPages[tupleIndex >>> m_pageShift];
+            int start=(tupleIndex & m_pageMask)*m_objectArity;
+            for (int index=0;index<m_objectArity;index++)
+                objectPage[start+index]=null;
+        }
+    }
+    public void clear() {
+        m_firstFreeTupleIndex=0;
+    }
+    public void dispose() {
+    }
+    protected int encode(Object object,int column) {
+        if (column==0)
+            return m_dictionary.getExistingObjectID(object);
+        else
+            return m_dictionary.getNodeID(object);
+    }
+}
@@ -1,11 +1,15 @@
 // Copyright 2008 by Oxford University; see license.txt for details
 package org.semanticweb.HermiT.tableau;
 
+import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.model.AtomicConcept;
 import org.semanticweb.HermiT.model.AtomicRole;
 import org.semanticweb.HermiT.model.Concept;
@@ -22,6 +26,10 @@ public final class ExtensionManager implements Serializable {
     protected final Tableau m_tableau;
     protected final TableauMonitor m_tableauMonitor;
     protected final DependencySetFactory m_dependencySetFactory;
+    protected final Configuration.TupleTableType m_tupleTableType;
+    protected final TupleObjectDictionary m_tupleObjectDictionary;
+    protected final Configuration.TupleIndexType m_tupleIndexType;
+    protected final boolean m_partitionByPredicate;
     protected final Map<Integer,ExtensionTable> m_extensionTablesByArity;
     protected final ExtensionTable[] m_allExtensionTablesArray;
     protected final ExtensionTable m_binaryExtensionTable;
@@ -39,40 +47,17 @@ public final class ExtensionManager implements Serializable {
         m_tableau=tableau;
         m_tableauMonitor=m_tableau.m_tableauMonitor;
         m_dependencySetFactory=m_tableau.m_dependencySetFactory;
+        Object tupleTableType=m_tableau.getParameters().get("ExtensionManager.tupleTableType");
+        m_tupleTableType=(tupleTableType==null ? Configuration.TupleTableType.OBJECTS : (Configuration.TupleTableType)tupleTableType);
+        m_tupleObjectDictionary=(m_tupleTableType==Configuration.TupleTableType.OBJECTS ? null : new TupleObjectDictionary(m_tableau));
+        Object tupleIndexType=m_tableau.getParameters().get("ExtensionManager.tupleIndexType");
+        m_tupleIndexType=(tupleIndexType==null ? Configuration.TupleIndexType.CHAINING : (Configuration.TupleIndexType)tupleIndexType);
+        Object extensionTableType=m_tableau.getParameters().get("ExtensionManager.extensionTableType");
+        m_partitionByPredicate=(extensionTableType==Configuration.ExtensionTableType.PREDICATE_PARTITIONS);
         m_extensionTablesByArity=new HashMap<Integer,ExtensionTable>();
-        m_binaryExtensionTable = new ExtensionTableWithTupleIndexes(
-                m_tableau, this, 2, !m_tableau.isDeterministic(),
-                new TupleIndex[] {
-            new TupleIndex(new int[] { 1,0 }),
-            new TupleIndex(new int[] { 0,1 })
-        }) {
-            private static final long serialVersionUID=1462821385000191875L;
-
-            public boolean isTupleActive(Object[] tuple) {
-                return ((Node)tuple[1]).isActive();
-            }
-            public boolean isTupleActive(int tupleIndex) {
-                return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive();
-            }
-        };
+        m_binaryExtensionTable=createBinaryExtensionTable();
         m_extensionTablesByArity.put(new Integer(2),m_binaryExtensionTable);
-        m_ternaryExtensionTable = new ExtensionTableWithTupleIndexes(
-                m_tableau, this,3,!m_tableau.isDeterministic(),
-                new TupleIndex[] {
-            new TupleIndex(new int[] { 0,1,2 }),
-            new TupleIndex(new int[] { 1,2,0 }),
-            new TupleIndex(new int[] { 2,0,1 })
-        }) {
-            private static final long serialVersionUID=-731201626401421877L;
-
-            public boolean isTupleActive(Object[] tuple) {
-                return ((Node)tuple[1]).isActive() && ((Node)tuple[2]).isActive();
-            }
-            public boolean isTupleActive(int tupleIndex) {
-                return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive() 
-                    && ((Node)m_tupleTable.getTupleObject(tupleIndex,2)).isActive();
-            }
-        };
+        m_ternaryExtensionTable=createTernaryExtensionTable();
         m_extensionTablesByArity.put(new Integer(3),m_ternaryExtensionTable);
         for (DescriptionGraph descriptionGraph : m_tableau.getDLOntology().getAllDescriptionGraphs()) {
             Integer arityInteger=new Integer(descriptionGraph.getNumberOfVertices()+1);
@@ -100,11 +85,100 @@ public final class ExtensionManager implements Serializable {
             m_descriptionGraphTuplesAdd.put(descriptionGraph,new Object[descriptionGraph.getNumberOfVertices()+1]);
         }
     }
+    /**
+     * Creates the tuple table for an extension table whose tuples consist of 
+     * encodedArity objects (a predicate followed by nodes) followed by 
+     * objectArity arbitrary objects.
+     */
+    protected TupleStore createTupleStore(int encodedArity,int objectArity) {
+        switch (m_tupleTableType) {
+        case INTEGERS:
+            return new IntTupleTable(m_tupleObjectDictionary,encodedArity,objectArity);
+        case DIRECT_BUFFERS:
+            return new OffHeapTupleTable(m_tupleObjectDictionary,encodedArity,objectArity,false,null);
+        case MEMORY_MAPPED:
+            return new OffHeapTupleTable(m_tupleObjectDictionary,encodedArity,objectArity,true,(File)m_tableau.getParameters().get("ExtensionManager.tupleTableScratchDirectory"));
+        default:
+            return new TupleTable(encodedArity+objectArity);
+        }
+    }
+    protected ExtensionTable createBinaryExtensionTable() {
+        TupleIndex[] tupleIndexes=new TupleIndex[] {
+            createTupleIndex(new int[] { 1,0 }),
+            createTupleIndex(new int[] { 0,1 })
+        };
+        if (m_partitionByPredicate)
+            return new ExtensionTableWithPartitions(m_tableau,this,2,!m_tableau.isDeterministic(),tupleIndexes) {
+                private static final long serialVersionUID=-2093746018735316209L;
+
+                public boolean isTupleActive(Object[] tuple) {
+                    return ((Node)tuple[1]).isActive();
+                }
+                public boolean isTupleActive(int tupleIndex) {
+                    return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive();
+                }
+            };
+        else
+            return new ExtensionTableWithTupleIndexes(m_tableau,this,2,!m_tableau.isDeterministic(),tupleIndexes) {
+                private static final long serialVersionUID=1462821385000191875L;
+
+                public boolean isTupleActive(Object[] tuple) {
+                    return ((Node)tuple[1]).isActive();
+                }
+                public boolean isTupleActive(int tupleIndex) {
+                    return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive();
+                }
+            };
+    }
+    protected ExtensionTable createTernaryExtensionTable() {
+        TupleIndex[] tupleIndexes=new TupleIndex[] {
+            createTupleIndex(new int[] { 0,1,2 }),
+            createTupleIndex(new int[] { 1,2,0 }),
+            createTupleIndex(new int[] { 2,0,1 })
+        };
+        if (m_partitionByPredicate)
+            return new ExtensionTableWithPartitions(m_tableau,this,3,!m_tableau.isDeterministic(),tupleIndexes) {
+                private static final long serialVersionUID=4411306874252137315L;
+
+                public boolean isTupleActive(Object[] tuple) {
+                    return ((Node)tuple[1]).isActive() && ((Node)tuple[2]).isActive();
+                }
+                public boolean isTupleActive(int tupleIndex) {
+                    return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive() 
+                        && ((Node)m_tupleTable.getTupleObject(tupleIndex,2)).isActive();
+                }
+            };
+        else
+            return new ExtensionTableWithTupleIndexes(m_tableau,this,3,!m_tableau.isDeterministic(),tupleIndexes) {
+                private static final long serialVersionUID=-731201626401421877L;
+
+                public boolean isTupleActive(Object[] tuple) {
+                    return ((Node)tuple[1]).isActive() && ((Node)tuple[2]).isActive();
+                }
+                public boolean isTupleActive(int tupleIndex) {
+                    return ((Node)m_tupleTable.getTupleObject(tupleIndex,1)).isActive() 
+                        && ((Node)m_tupleTable.getTupleObject(tupleIndex,2)).isActive();
+                }
+            };
+    }
+    protected TupleIndex createTupleIndex(int[] indexingSequence) {
+        if (m_tupleIndexType==Configuration.TupleIndexType.OPEN_ADDRESSING)
+            return new OpenAddressingTupleIndex(indexingSequence);
+        else
+            return new TupleIndex(indexingSequence);
+    }
+    public TupleObjectDictionary getTupleObjectDictionary() {
+        return m_tupleObjectDictionary;
+    }
     public void clear() {
         for (int index=m_allExtensionTablesArray.length-1;index>=0;--index)
             m_allExtensionTablesArray[index].clear();
         m_clashDependencySet=null;
     }
+    public void dispose() {
+        for (int index=m_allExtensionTablesArray.length-1;index>=0;--index)
+            m_allExtensionTablesArray[index].dispose();
+    }
     public void branchingPointPushed() {
         for (int index=m_allExtensionTablesArray.length-1;index>=0;--index)
             m_allExtensionTablesArray[index].branchingPointPushed();
@@ -370,6 +444,50 @@ public final class ExtensionManager implements Serializable {
             }
         }
     }
+    /**
+     * Adds a batch of tuples with the same dependency set, such as the facts of an ABox. The tuples are grouped by extension
+     * table and each group is loaded in bulk by ExtensionTable.addTuples(). Equalities are processed after all other tuples
+     * have been loaded, so the merged nodes already carry all their assertions. Returns the number of tuples actually added.
+     */
+    public int addTuples(List<Object[]> tuples,DependencySet dependencySet) {
+        if (m_addActive)
+            throw new IllegalStateException("ExtensionManager is not reentrant.");
+        Map<ExtensionTable,List<Object[]>> tuplesByExtensionTable=new HashMap<ExtensionTable,List<Object[]>>();
+        List<Object[]> equalityTuples=new ArrayList<Object[]>();
+        int numberOfAddedTuples=0;
+        for (Object[] tuple : tuples) {
+            if (tuple.length==0) {
+                if (addTuple(tuple,dependencySet))
+                    numberOfAddedTuples++;
+            }
+            else if (Equality.INSTANCE.equals(tuple[0]))
+                equalityTuples.add(tuple);
+            else {
+                ExtensionTable extensionTable=getExtensionTable(tuple.length);
+                List<Object[]> tuplesForExtensionTable=tuplesByExtensionTable.get(extensionTable);
+                if (tuplesForExtensionTable==null) {
+                    tuplesForExtensionTable=new ArrayList<Object[]>();
+                    tuplesByExtensionTable.put(extensionTable,tuplesForExtensionTable);
+                }
+                tuplesForExtensionTable.add(tuple);
+            }
+        }
+        m_addActive=true;
+        try {
+            for (int index=0;index<m_allExtensionTablesArray.length;index++) {
+                List<Object[]> tuplesForExtensionTable=tuplesByExtensionTable.get(m_allExtensionTablesArray[index]);
+                if (tuplesForExtensionTable!=null)
+                    numberOfAddedTuples+=m_allExtensionTablesArray[index].addTuples(tuplesForExtensionTable,dependencySet);
+            }
+        }
+        finally {
+            m_addActive=false;
+        }
+        for (Object[] tuple : equalityTuples)
+            if (addTuple(tuple,dependencySet))
+                numberOfAddedTuples++;
+        return numberOfAddedTuples;
+    }
     public boolean addTuple(Object[] tuple,DependencySet dependencySet) {
         if (tuple.length==0) {
             boolean result=(m_clashDependencySet==null);
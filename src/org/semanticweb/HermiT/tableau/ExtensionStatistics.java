@@ -0,0 +1,101 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cardinality statistics of the extension tables, used to order the body atoms of DL-clauses. For each predicate, the statistics
+ * contain the number of active tuples and, for each argument position, the number of distinct objects at that position; the
+ * average fan-out of a position is the quotient of the two. The statistics are collected by a single scan over the tables, so
+ * they describe the tables at the time of their creation only.
+ */
+public class ExtensionStatistics implements Serializable {
+    private static final long serialVersionUID=-3152285419430361447L;
+
+    protected final Map<Object,PredicateStatistics> m_statisticsByPredicate;
+    protected int m_numberOfTuples;
+
+    public ExtensionStatistics(ExtensionManager extensionManager) {
+        m_statisticsByPredicate=new HashMap<Object,PredicateStatistics>();
+        Map<Object,List<Set<Object>>> objectsByPredicate=new HashMap<Object,List<Set<Object>>>();
+        for (ExtensionTable extensionTable : extensionManager.getExtensionTables()) {
+            int tupleArity=extensionTable.getArity();
+            Object[] tupleBuffer=new Object[tupleArity];
+            for (int tupleIndex=0;tupleIndex<extensionTable.m_afterExtensionThisTupleIndex;tupleIndex++) {
+                if (extensionTable.isTupleActive(tupleIndex)) {
+                    extensionTable.retrieveTuple(tupleBuffer,tupleIndex);
+                    List<Set<Object>> objects=objectsByPredicate.get(tupleBuffer[0]);
+                    if (objects==null) {
+                        objects=createObjectSets(tupleArity);
+                        objectsByPredicate.put(tupleBuffer[0],objects);
+                        m_statisticsByPredicate.put(tupleBuffer[0],new PredicateStatistics(tupleArity));
+                    }
+                    for (int position=1;position<tupleArity;position++)
+                        objects.get(position).add(tupleBuffer[position]);
+                    m_statisticsByPredicate.get(tupleBuffer[0]).m_numberOfTuples++;
+                    m_numberOfTuples++;
+                }
+            }
+        }
+        for (Map.Entry<Object,List<Set<Object>>> entry : objectsByPredicate.entrySet()) {
+            PredicateStatistics predicateStatistics=m_statisticsByPredicate.get(entry.getKey());
+            List<Set<Object>> objects=entry.getValue();
+            for (int position=1;position<objects.size();position++)
+                predicateStatistics.m_numberOfDistinctObjects[position]=objects.get(position).size();
+        }
+    }
+    protected static List<Set<Object>> createObjectSets(int tupleArity) {
+        // position 0 holds the predicate, so it has no set
+        List<Set<Object>> objects=new ArrayList<Set<Object>>(tupleArity);
+        objects.add(null);
+        for (int position=1;position<tupleArity;position++)
+            objects.add(new HashSet<Object>());
+        return objects;
+    }
+    public int getNumberOfTuples() {
+        return m_numberOfTuples;
+    }
+    public int getNumberOfTuples(Object predicate) {
+        PredicateStatistics predicateStatistics=m_statisticsByPredicate.get(predicate);
+        return predicateStatistics==null ? 0 : predicateStatistics.m_numberOfTuples;
+    }
+    /**
+     * Returns the number of distinct objects that occur at the given position (starting from 1) of the tuples of the given predicate.
+     */
+    public int getNumberOfDistinctObjects(Object predicate,int position) {
+        PredicateStatistics predicateStatistics=m_statisticsByPredicate.get(predicate);
+        return predicateStatistics==null ? 0 : predicateStatistics.m_numberOfDistinctObjects[position];
+    }
+    /**
+     * Estimates the number of tuples of the given predicate that match a retrieval in which the arguments marked in boundArguments
+     * are bound. The positions are assumed to be independent, so each bound position divides the estimate by its number of distinct
+     * objects.
+     */
+    public double getEstimatedNumberOfMatches(Object predicate,boolean[] boundArguments) {
+        PredicateStatistics predicateStatistics=m_statisticsByPredicate.get(predicate);
+        if (predicateStatistics==null)
+            return 0.0;
+        double estimate=predicateStatistics.m_numberOfTuples;
+        for (int argumentIndex=0;argumentIndex<boundArguments.length;argumentIndex++)
+            if (boundArguments[argumentIndex])
+                estimate/=predicateStatistics.m_numberOfDistinctObjects[argumentIndex+1];
+        return estimate;
+    }
+
+    protected static final class PredicateStatistics implements Serializable {
+        private static final long serialVersionUID=4590384471232683627L;
+
+        protected int m_numberOfTuples;
+        protected final int[] m_numberOfDistinctObjects;
+
+        public PredicateStatistics(int tupleArity) {
+            m_numberOfDistinctObjects=new int[tupleArity];
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.semanticweb.HermiT.model.AtomicRole;
 import org.semanticweb.HermiT.model.AtomicConcept;
@@ -34,7 +35,7 @@ public abstract class ExtensionTable implements Serializable {
     protected final ExtensionManager m_extensionManager;
     protected final TableauMonitor m_tableauMonitor;
     protected final int m_tupleArity;
-    protected final TupleTable m_tupleTable;
+    protected final TupleStore m_tupleTable;
     protected final DependencySetManager m_dependencySetManager;
     protected final Object[] m_binaryAuxiliaryTuple;
     protected final UnionDependencySet m_binaryUnionDependencySet;
@@ -48,7 +49,7 @@ public abstract class ExtensionTable implements Serializable {
         m_tableauMonitor=m_tableau.m_tableauMonitor;
         m_extensionManager=extensionManager;
         m_tupleArity=tupleArity;
-        m_tupleTable=new TupleTable(m_tupleArity+(needsDependencySets ? 1 : 0));
+        m_tupleTable=m_extensionManager.createTupleStore(m_tupleArity,needsDependencySets ? 1 : 0);
         m_dependencySetManager=needsDependencySets ? new LastObjectDependencySetManager(this) : new DeterministicDependencySetManager(this);
         m_binaryAuxiliaryTuple=new Object[2];
         m_binaryUnionDependencySet=new UnionDependencySet(2);
@@ -68,6 +69,17 @@ public abstract class ExtensionTable implements Serializable {
         return m_dependencySetManager.getDependencySet(tupleIndex);
     }
     public abstract boolean addTuple(Object[] tuple,DependencySet dependencySet);
+    /**
+     * Adds all given tuples with the same dependency set and returns the number of tuples that were actually added. The result
+     * is the same as calling addTuple() for each tuple in turn; subclasses may override this to load the tuples more efficiently.
+     */
+    public int addTuples(List<Object[]> tuples,DependencySet dependencySet) {
+        int numberOfAddedTuples=0;
+        for (Object[] tuple : tuples)
+            if (addTuple(tuple,dependencySet))
+                numberOfAddedTuples++;
+        return numberOfAddedTuples;
+    }
     
     /**
      * Performs a few tests depending on the type of the added tuple (concept, 
@@ -84,6 +96,8 @@ public abstract class ExtensionTable implements Serializable {
             m_tableau.m_existentialsExpansionStrategy.assertionAdded((Concept)dlPredicateObject,node);
             if (dlPredicateObject instanceof AtomicNegationConcept) {
                 node.addToNegativeLabel();
+                if (m_tableau.m_disjunctWatchManager!=null)
+                    m_tableau.m_disjunctWatchManager.complementAdded(node);
                 if (node.getPositiveLabelSize()>0) {
                     m_binaryAuxiliaryTuple[0]=((AtomicNegationConcept)dlPredicateObject).getNegatedAtomicConcept();
                     m_binaryAuxiliaryTuple[1]=node;
@@ -139,6 +153,10 @@ public abstract class ExtensionTable implements Serializable {
                 if (m_tableauMonitor!=null)
                     m_tableauMonitor.clashDetected(tuple);
             }
+            else if (m_tableau.m_disjunctWatchManager!=null) {
+                m_tableau.m_disjunctWatchManager.complementAdded((Node)tuple[1]);
+                m_tableau.m_disjunctWatchManager.complementAdded((Node)tuple[2]);
+            }
         }
         else if (dlPredicateObject instanceof DescriptionGraph)
             m_tableau.m_descriptionGraphManager.descriptionGraphTupleAdded(tupleIndex,tuple);
@@ -229,6 +247,9 @@ public abstract class ExtensionTable implements Serializable {
         m_afterExtensionThisTupleIndex=0;
         m_afterDeltaNewTupleIndex=0;
     }
+    public void dispose() {
+        m_tupleTable.dispose();
+    }
     public boolean isTupleActive(Object[] tuple) {
         for (int objectIndex=m_tupleArity-1;objectIndex>0;--objectIndex)
             if (!((Node)tuple[objectIndex]).isActive())
@@ -321,6 +342,19 @@ public abstract class ExtensionTable implements Serializable {
                 m_currentTupleIndex++;
             }
         }
+        /**
+         * Opens the retrieval on the given range of tuple indexes rather than on the range of its view.
+         */
+        public void open(int firstTupleIndex,int afterLastTupleIndex) {
+            m_currentTupleIndex=firstTupleIndex;
+            m_afterLastTupleIndex=afterLastTupleIndex;
+            while (m_currentTupleIndex<m_afterLastTupleIndex) {
+                m_tupleTable.retrieveTuple(m_tupleBuffer,m_currentTupleIndex);
+                if (isTupleActive())
+                    return;
+                m_currentTupleIndex++;
+            }
+        }
         public boolean afterLast() {
             return m_currentTupleIndex>=m_afterLastTupleIndex;
         }
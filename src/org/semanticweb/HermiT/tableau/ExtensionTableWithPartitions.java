@@ -0,0 +1,232 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An extension table for binary and ternary assertions that, in addition to 
+ * the tuple indexes, keeps for each predicate (the object in the first 
+ * position of a tuple) the indexes of all tuples with that predicate in an 
+ * append-only array. Since tuples are only ever appended and are removed in 
+ * reverse order on backtracking, these arrays are sorted, so the tuples of a 
+ * predicate in any view form a contiguous segment whose boundaries are 
+ * computed by binary search and cached until the views of the table change. 
+ * Retrievals that bind only the predicate are answered by scanning this 
+ * segment rather than by walking the trie of a tuple index.
+ */
+public class ExtensionTableWithPartitions extends ExtensionTableWithTupleIndexes {
+    private static final long serialVersionUID=-3917410283463227164L;
+
+    protected final Map<Object,Partition> m_partitionsByPredicate;
+    protected final List<Partition> m_partitions;
+    protected int m_viewsStamp;
+
+    public ExtensionTableWithPartitions(Tableau tableau,ExtensionManager extensionManager,int tupleArity,boolean needsDependencySets,TupleIndex[] tupleIndexes) {
+        super(tableau,extensionManager,tupleArity,needsDependencySets,tupleIndexes);
+        m_partitionsByPredicate=new HashMap<Object,Partition>();
+        m_partitions=new ArrayList<Partition>();
+    }
+    public int sizeInMemory() {
+        int size=super.sizeInMemory();
+        for (int index=m_partitions.size()-1;index>=0;--index)
+            size+=m_partitions.get(index).sizeInMemory();
+        return size;
+    }
+    /**
+     * Returns the predicates for which this table has contained at least one 
+     * tuple since it was last cleared.
+     */
+    public Object[] getPartitionPredicates() {
+        Object[] predicates=new Object[m_partitions.size()];
+        for (int index=0;index<predicates.length;index++)
+            predicates[index]=m_partitions.get(index).m_predicate;
+        return predicates;
+    }
+    protected Partition getPartition(Object predicate) {
+        return m_partitionsByPredicate.get(predicate);
+    }
+    protected void postAdd(Object[] tuple,DependencySet dependencySet,int tupleIndex) {
+        Partition partition=m_partitionsByPredicate.get(tuple[0]);
+        if (partition==null) {
+            partition=new Partition(tuple[0]);
+            m_partitionsByPredicate.put(tuple[0],partition);
+            m_partitions.add(partition);
+        }
+        partition.add(tupleIndex);
+        super.postAdd(tuple,dependencySet,tupleIndex);
+    }
+    protected void removeTuple(int tupleIndex) {
+        m_partitionsByPredicate.get(m_tupleTable.getTupleObject(tupleIndex,0)).removeLast(tupleIndex);
+        super.removeTuple(tupleIndex);
+    }
+    public boolean propagateDeltaNew() {
+        m_viewsStamp++;
+        return super.propagateDeltaNew();
+    }
+    public void backtrack() {
+        super.backtrack();
+        m_viewsStamp++;
+    }
+    public void clear() {
+        super.clear();
+        m_partitionsByPredicate.clear();
+        m_partitions.clear();
+        m_viewsStamp++;
+    }
+    public Retrieval createRetrieval(int[] bindingPositions,Object[] bindingsBuffer,View extensionView) {
+        if (bindingPositions[0]!=-1) {
+            boolean onlyPredicateBound=true;
+            for (int index=1;onlyPredicateBound && index<bindingPositions.length;index++)
+                if (bindingPositions[index]!=-1)
+                    onlyPredicateBound=false;
+            if (onlyPredicateBound)
+                return new PartitionRetrieval(bindingPositions,bindingsBuffer,extensionView);
+        }
+        return super.createRetrieval(bindingPositions,bindingsBuffer,extensionView);
+    }
+
+    protected final class Partition implements Serializable {
+        private static final long serialVersionUID=6181539287512873409L;
+
+        protected final Object m_predicate;
+        protected int[] m_tupleIndexes;
+        protected int m_size;
+        protected int m_stamp;
+        protected int m_afterExtensionOldPosition;
+        protected int m_afterExtensionThisPosition;
+
+        public Partition(Object predicate) {
+            m_predicate=predicate;
+            m_tupleIndexes=new int[16];
+            m_stamp=m_viewsStamp-1;
+        }
+        public int sizeInMemory() {
+            return m_tupleIndexes.length*4;
+        }
+        public void add(int tupleIndex) {
+            assert m_size==0 || m_tupleIndexes[m_size-1]<tupleIndex;
+            if (m_size==m_tupleIndexes.length) {
+                int[] newTupleIndexes=new int[m_tupleIndexes.length*3/2];
+                System.arraycopy(m_tupleIndexes,0,newTupleIndexes,0,m_size);
+                m_tupleIndexes=newTupleIndexes;
+            }
+            m_tupleIndexes[m_size++]=tupleIndex;
+        }
+        public void removeLast(int tupleIndex) {
+            assert m_size>0 && m_tupleIndexes[m_size-1]==tupleIndex;
+            m_size--;
+        }
+        public void updateBoundaries() {
+            if (m_stamp!=m_viewsStamp) {
+                m_afterExtensionOldPosition=getFirstPositionNotBefore(m_afterExtensionOldTupleIndex);
+                m_afterExtensionThisPosition=getFirstPositionNotBefore(m_afterExtensionThisTupleIndex);
+                m_stamp=m_viewsStamp;
+            }
+        }
+        protected int getFirstPositionNotBefore(int tupleIndex) {
+            int low=0;
+            int high=m_size;
+            while (low<high) {
+                int middle=(low+high) >>> 1;
+                if (m_tupleIndexes[middle]<tupleIndex)
+                    low=middle+1;
+                else
+                    high=middle;
+            }
+            return low;
+        }
+    }
+
+    protected class PartitionRetrieval implements Retrieval,Serializable {
+        private static final long serialVersionUID=-2426209817043981213L;
+
+        protected final int[] m_bindingPositions;
+        protected final Object[] m_bindingsBuffer;
+        protected final ExtensionTable.View m_extensionView;
+        protected final Object[] m_tupleBuffer;
+        protected DependencySet m_dependencySet;
+        protected Partition m_partition;
+        protected int m_currentPosition;
+        protected int m_afterLastPosition;
+
+        public PartitionRetrieval(int[] bindingPositions,Object[] bindingsBuffer,View extensionView) {
+            m_bindingPositions=bindingPositions;
+            m_bindingsBuffer=bindingsBuffer;
+            m_extensionView=extensionView;
+            m_tupleBuffer=new Object[m_tupleArity];
+        }
+        public ExtensionTable getExtensionTable() {
+            return ExtensionTableWithPartitions.this;
+        }
+        public ExtensionTable.View getExtensionView() {
+            return m_extensionView;
+        }
+        public int[] getBindingPositions() {
+            return m_bindingPositions;
+        }
+        public Object[] getBindingsBuffer() {
+            return m_bindingsBuffer;
+        }
+        public Object[] getTupleBuffer() {
+            return m_tupleBuffer;
+        }
+        public DependencySet getDependencySet() {
+            return m_dependencySet;
+        }
+        public void open() {
+            m_partition=m_partitionsByPredicate.get(m_bindingsBuffer[m_bindingPositions[0]]);
+            if (m_partition==null) {
+                m_currentPosition=0;
+                m_afterLastPosition=0;
+                return;
+            }
+            m_partition.updateBoundaries();
+            switch (m_extensionView) {
+            case EXTENSION_THIS:
+                m_currentPosition=0;
+                m_afterLastPosition=m_partition.m_afterExtensionThisPosition;
+                break;
+            case EXTENSION_OLD:
+                m_currentPosition=0;
+                m_afterLastPosition=m_partition.m_afterExtensionOldPosition;
+                break;
+            case DELTA_OLD:
+                m_currentPosition=m_partition.m_afterExtensionOldPosition;
+                m_afterLastPosition=m_partition.m_afterExtensionThisPosition;
+                break;
+            case TOTAL:
+                m_currentPosition=0;
+                m_afterLastPosition=m_partition.m_size;
+                break;
+            }
+            findActiveTuple();
+        }
+        public boolean afterLast() {
+            return m_currentPosition>=m_afterLastPosition;
+        }
+        public int getCurrentTupleIndex() {
+            return m_partition.m_tupleIndexes[m_currentPosition];
+        }
+        public void next() {
+            if (m_currentPosition<m_afterLastPosition) {
+                m_currentPosition++;
+                findActiveTuple();
+            }
+        }
+        protected void findActiveTuple() {
+            while (m_currentPosition<m_afterLastPosition) {
+                int tupleIndex=m_partition.m_tupleIndexes[m_currentPosition];
+                m_tupleTable.retrieveTuple(m_tupleBuffer,tupleIndex);
+                if (ExtensionTableWithPartitions.this.isTupleActive(m_tupleBuffer)) {
+                    m_dependencySet=m_dependencySetManager.getDependencySet(tupleIndex);
+                    return;
+                }
+                m_currentPosition++;
+            }
+        }
+    }
+}
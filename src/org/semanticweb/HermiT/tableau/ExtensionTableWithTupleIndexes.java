@@ -2,6 +2,7 @@
 package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.semanticweb.HermiT.model.AtomicConcept;
 
@@ -48,6 +49,43 @@ public class ExtensionTableWithTupleIndexes extends ExtensionTable {
             m_tableauMonitor.addFactFinished(tuple,false);
         return false;
     }
+    /**
+     * Loads the tuples in bulk: the tuples are first appended to the tuple table, using only the first tuple index to eliminate
+     * duplicates; the remaining tuple indexes are then built in one pass each over the appended tuples, and only then are the
+     * tuples announced to the rest of the tableau through postAdd(). The hash tables of the indexes are sized once up front. If
+     * a monitor is attached, the tuples are added one by one so that the monitor sees each of them.
+     */
+    public int addTuples(List<Object[]> tuples,DependencySet dependencySet) {
+        if (m_tableauMonitor!=null)
+            return super.addTuples(tuples,dependencySet);
+        int firstTupleIndex=m_tupleTable.getFirstFreeTupleIndex();
+        m_tupleIndexes[0].ensureCapacity(tuples.size());
+        for (Object[] tuple : tuples) {
+            if (isTupleActive(tuple) && (m_tableau.m_needsThingExtension || !AtomicConcept.THING.equals(tuple[0])) && !AtomicConcept.RDFS_LITERAL.equals(tuple[0])) {
+                int firstFreeTupleIndex=m_tupleTable.getFirstFreeTupleIndex();
+                if (m_tupleIndexes[0].addTuple(tuple,firstFreeTupleIndex)) {
+                    m_tupleTable.addTuple(tuple);
+                    m_dependencySetManager.setDependencySet(firstFreeTupleIndex,dependencySet);
+                }
+            }
+        }
+        int afterLastTupleIndex=m_tupleTable.getFirstFreeTupleIndex();
+        Object[] tupleBuffer=new Object[m_tupleArity];
+        for (int index=1;index<m_tupleIndexes.length;index++) {
+            TupleIndex tupleIndex=m_tupleIndexes[index];
+            tupleIndex.ensureCapacity(afterLastTupleIndex-firstTupleIndex);
+            for (int tupleIndexInTable=firstTupleIndex;tupleIndexInTable<afterLastTupleIndex;tupleIndexInTable++) {
+                m_tupleTable.retrieveTuple(tupleBuffer,tupleIndexInTable);
+                tupleIndex.addTuple(tupleBuffer,tupleIndexInTable);
+            }
+        }
+        m_afterDeltaNewTupleIndex=afterLastTupleIndex;
+        for (int tupleIndexInTable=firstTupleIndex;tupleIndexInTable<afterLastTupleIndex;tupleIndexInTable++) {
+            m_tupleTable.retrieveTuple(tupleBuffer,tupleIndexInTable);
+            postAdd(tupleBuffer,dependencySet,tupleIndexInTable);
+        }
+        return afterLastTupleIndex-firstTupleIndex;
+    }
     public boolean containsTuple(Object[] tuple) {
         int tupleIndex=m_tupleIndexes[0].getTupleIndex(tuple);
         return tupleIndex!=-1 && isTupleActive(tupleIndex);
@@ -0,0 +1,96 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.Equality;
+import org.semanticweb.HermiT.model.Inequality;
+
+/**
+ * Processes first the ground disjunction with the fewest disjuncts that are not already known to be false. A disjunction that
+ * is satisfied or that has just one open disjunct is processed right away; otherwise, all unprocessed disjunctions are examined,
+ * and ties are broken by the order of derivation. The open disjuncts are tried before those known to be false.
+ */
+public class FewestOpenDisjunctsScheduler implements DisjunctionScheduler {
+    private static final long serialVersionUID=1858217463493738196L;
+
+    protected final Tableau m_tableau;
+    protected final ExtensionManager m_extensionManager;
+
+    public FewestOpenDisjunctsScheduler(Tableau tableau) {
+        m_tableau=tableau;
+        m_extensionManager=tableau.getExtensionManager();
+    }
+    public void clear() {
+    }
+    public GroundDisjunction getNextGroundDisjunction() {
+        GroundDisjunction bestGroundDisjunction=null;
+        int bestNumberOfOpenDisjuncts=Integer.MAX_VALUE;
+        GroundDisjunction groundDisjunction=m_tableau.m_firstUnprocessedGroundDisjunction;
+        while (groundDisjunction!=null) {
+            if (!groundDisjunction.m_processed) {
+                int numberOfOpenDisjuncts=getNumberOfOpenDisjuncts(groundDisjunction);
+                if (numberOfOpenDisjuncts<=1)
+                    return groundDisjunction;
+                if (numberOfOpenDisjuncts<bestNumberOfOpenDisjuncts) {
+                    bestGroundDisjunction=groundDisjunction;
+                    bestNumberOfOpenDisjuncts=numberOfOpenDisjuncts;
+                }
+            }
+            groundDisjunction=groundDisjunction.m_previousGroundDisjunction;
+        }
+        return bestGroundDisjunction;
+    }
+    /**
+     * Returns the number of disjuncts whose negation is not in the tableau, or 0 if the disjunction is satisfied.
+     */
+    protected int getNumberOfOpenDisjuncts(GroundDisjunction groundDisjunction) {
+        int numberOfOpenDisjuncts=0;
+        for (int disjunctIndex=0;disjunctIndex<groundDisjunction.getNumberOfDisjuncts();disjunctIndex++) {
+            DLPredicate dlPredicate=groundDisjunction.getDLPredicate(disjunctIndex);
+            Node node0=groundDisjunction.getArgument(disjunctIndex,0).getCanonicalNode();
+            if (dlPredicate.getArity()==1 ? m_extensionManager.containsAssertion(dlPredicate,node0) : m_extensionManager.containsAssertion(dlPredicate,node0,groundDisjunction.getArgument(disjunctIndex,1).getCanonicalNode()))
+                return 0;
+            if (!isFalse(groundDisjunction,disjunctIndex))
+                numberOfOpenDisjuncts++;
+        }
+        return numberOfOpenDisjuncts;
+    }
+    protected boolean isFalse(GroundDisjunction groundDisjunction,int disjunctIndex) {
+        DLPredicate dlPredicate=groundDisjunction.getDLPredicate(disjunctIndex);
+        if (dlPredicate instanceof AtomicConcept)
+            return m_extensionManager.containsConceptAssertion(AtomicNegationConcept.create((AtomicConcept)dlPredicate),groundDisjunction.getArgument(disjunctIndex,0).getCanonicalNode());
+        else if (Equality.INSTANCE.equals(dlPredicate))
+            return m_extensionManager.containsAssertion(Inequality.INSTANCE,groundDisjunction.getArgument(disjunctIndex,0).getCanonicalNode(),groundDisjunction.getArgument(disjunctIndex,1).getCanonicalNode());
+        else
+            return false;
+    }
+    public int[] getDisjunctOrder(GroundDisjunction groundDisjunction) {
+        int numberOfDisjuncts=groundDisjunction.getNumberOfDisjuncts();
+        int[] disjunctOrder=null;
+        int numberOfOpenDisjuncts=0;
+        for (int disjunctIndex=0;disjunctIndex<numberOfDisjuncts;disjunctIndex++) {
+            if (isFalse(groundDisjunction,disjunctIndex)) {
+                if (disjunctOrder==null) {
+                    disjunctOrder=new int[numberOfDisjuncts];
+                    for (int index=0;index<disjunctIndex;index++)
+                        disjunctOrder[index]=index;
+                }
+            }
+            else if (disjunctOrder!=null)
+                disjunctOrder[numberOfOpenDisjuncts++]=disjunctIndex;
+            else
+                numberOfOpenDisjuncts++;
+        }
+        if (disjunctOrder!=null) {
+            int nextClosedPosition=numberOfOpenDisjuncts;
+            for (int disjunctIndex=0;disjunctIndex<numberOfDisjuncts;disjunctIndex++)
+                if (isFalse(groundDisjunction,disjunctIndex))
+                    disjunctOrder[nextClosedPosition++]=disjunctIndex;
+        }
+        return disjunctOrder;
+    }
+    public void clashDetected(DependencySet clashDependencySet) {
+    }
+}
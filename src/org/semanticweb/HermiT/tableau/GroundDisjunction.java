@@ -15,6 +15,8 @@ public class GroundDisjunction implements Serializable {
     protected PermanentDependencySet m_dependencySet;
     protected GroundDisjunction m_previousGroundDisjunction;
     protected GroundDisjunction m_nextGroundDisjunction;
+    protected boolean m_processed;
+    protected int[] m_watchedDisjuncts;
 
     public GroundDisjunction(Tableau tableau,DLPredicate[] dlPredicates,int[] disjunctStart,Node[] arguments,DependencySet dependencySet) {
         m_dlPredicates=dlPredicates;
@@ -29,6 +31,13 @@ public class GroundDisjunction implements Serializable {
     public GroundDisjunction getNextGroundDisjunction() {
         return m_nextGroundDisjunction;
     }
+    /**
+     * Returns true if the disjunction has been processed out of the order of derivation, that is, ahead of
+     * Tableau.getFirstUnprocessedGroundDisjunction().
+     */
+    public boolean isProcessed() {
+        return m_processed;
+    }
     public void destroy(Tableau tableau) {
         tableau.m_dependencySetFactory.removeUsage(m_dependencySet);
         m_dependencySet=null;
@@ -2,13 +2,16 @@
 package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Set;
 import java.util.HashSet;
 
+import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.model.Atom;
 import org.semanticweb.HermiT.model.DLClause;
 import org.semanticweb.HermiT.model.DLPredicate;
@@ -22,18 +25,111 @@ import org.semanticweb.HermiT.model.Variable;
 public final class HyperresolutionManager implements Serializable {
     private static final long serialVersionUID=-4880817508962130189L;
 
+    protected static final int MINIMAL_NUMBER_OF_TUPLES_FOR_JOIN_ORDER_STATISTICS=1000;
+    protected static final int MINIMAL_DELTA_SIZE_FOR_PARALLEL_HYPERRESOLUTION=1000;
+
     protected final Tableau m_tableau;
     protected final ExtensionManager m_extensionManager;
-    protected final ExtensionTable.Retrieval[] m_deltaOldRetrievals;
-    protected final Map<DLPredicate,CompiledDLClauseInfo> m_tupleConsumersByDeltaPredicate;
+    protected final boolean m_compileMatchers;
+    protected final boolean m_costBasedJoinOrder;
+    protected final int m_numberOfThreads;
+    protected ExtensionTable.Retrieval[] m_deltaOldRetrievals;
+    protected Map<DLPredicate,CompiledDLClauseInfo> m_baseTupleConsumersByDeltaPredicate;
+    protected Map<Integer,ExtensionTable.Retrieval> m_baseRetrievalsByArity;
+    protected Map<DLPredicate,ExtensionTable.Retrieval> m_baseRetrievalsByPredicate;
+    protected Collection<DLClause> m_queryDLClauses;
+    protected Map<DLPredicate,CompiledDLClauseInfo> m_tupleConsumersByDeltaPredicate;
+    protected CompiledDLClauseInfo[] m_tupleConsumersByDeltaPredicateIndex;
+    protected Map<DLPredicate,CompiledDLClauseInfo> m_tupleConsumersByUnindexedDeltaPredicate;
+    protected ExtensionTable.Retrieval[] m_predicateDeltaOldRetrievals;
+    protected CompiledDLClauseInfo[] m_predicateTupleConsumers;
+    protected int m_numberOfTuplesAtLastJoinOrder;
+    protected transient ParallelHyperresolution m_parallelHyperresolution;
 
     public HyperresolutionManager(Tableau tableau) {
         m_tableau=tableau;
         m_extensionManager=m_tableau.getExtensionManager();
-        m_tupleConsumersByDeltaPredicate=new HashMap<DLPredicate,CompiledDLClauseInfo>();
-        Map<Integer,ExtensionTable.Retrieval> retrievalsByArity=new HashMap<Integer,ExtensionTable.Retrieval>();
-        Map<DLClauseBodyKey,List<DLClause>> dlClausesByBody=new HashMap<DLClauseBodyKey,List<DLClause>>();
-        for (DLClause dlClause : m_tableau.m_dlOntology.getDLClauses()) {
+        m_compileMatchers=(m_tableau.getParameters().get("HyperresolutionManager.dlClauseEvaluatorType")==Configuration.DLClauseEvaluatorType.COMPILED);
+        m_costBasedJoinOrder=(m_tableau.getParameters().get("HyperresolutionManager.joinOrderType")==Configuration.JoinOrderType.COST_BASED);
+        Integer numberOfThreads=(Integer)m_tableau.getParameters().get("HyperresolutionManager.numberOfThreads");
+        m_numberOfThreads=(numberOfThreads==null ? 1 : numberOfThreads.intValue());
+        compileDLClauses(null);
+    }
+    /**
+     * Compiles the DL-clauses again, ordering their body atoms by the given statistics or, if statistics is null, by the static
+     * heuristic. This must not be called while the DL-clauses are being applied.
+     */
+    public void compileDLClauses(ExtensionStatistics statistics) {
+        m_baseTupleConsumersByDeltaPredicate=new LinkedHashMap<DLPredicate,CompiledDLClauseInfo>();
+        m_baseRetrievalsByArity=new LinkedHashMap<Integer,ExtensionTable.Retrieval>();
+        m_baseRetrievalsByPredicate=new LinkedHashMap<DLPredicate,ExtensionTable.Retrieval>();
+        compileDLClauses(m_tableau.m_dlOntology.getDLClauses(),statistics,m_baseTupleConsumersByDeltaPredicate,m_baseRetrievalsByArity,m_baseRetrievalsByPredicate);
+        m_numberOfTuplesAtLastJoinOrder=(statistics==null ? 0 : statistics.getNumberOfTuples());
+        attachQueryDLClauses();
+    }
+    /**
+     * Replaces the query DL-clauses, which are applied in addition to the DL-clauses of the ontology. Only the query DL-clauses
+     * are compiled: their consumers are chained in front of the compiled DL-clauses of the ontology, which are left untouched, so
+     * removing the query DL-clauses (by passing null or an empty collection) just restores the compiled form of the ontology. This
+     * must not be called while the DL-clauses are being applied.
+     */
+    public void setQueryDLClauses(Collection<DLClause> queryDLClauses) {
+        m_queryDLClauses=(queryDLClauses==null || queryDLClauses.isEmpty() ? null : new ArrayList<DLClause>(queryDLClauses));
+        attachQueryDLClauses();
+    }
+    public Collection<DLClause> getQueryDLClauses() {
+        if (m_queryDLClauses==null)
+            return Collections.emptySet();
+        else
+            return Collections.unmodifiableCollection(m_queryDLClauses);
+    }
+    /**
+     * Stops the threads of parallel hyperresolution, if any have been started. They are started again when they are needed.
+     */
+    public void dispose() {
+        if (m_parallelHyperresolution!=null) {
+            m_parallelHyperresolution.dispose();
+            m_parallelHyperresolution=null;
+        }
+    }
+    protected void attachQueryDLClauses() {
+        dispose();
+        Map<Integer,ExtensionTable.Retrieval> retrievalsByArity;
+        Map<DLPredicate,ExtensionTable.Retrieval> retrievalsByPredicate;
+        if (m_queryDLClauses==null) {
+            m_tupleConsumersByDeltaPredicate=m_baseTupleConsumersByDeltaPredicate;
+            retrievalsByArity=m_baseRetrievalsByArity;
+            retrievalsByPredicate=m_baseRetrievalsByPredicate;
+        }
+        else {
+            // The maps are copied so that the retrievals and consumers of the query DL-clauses are not recorded for the ontology.
+            m_tupleConsumersByDeltaPredicate=new LinkedHashMap<DLPredicate,CompiledDLClauseInfo>(m_baseTupleConsumersByDeltaPredicate);
+            retrievalsByArity=new LinkedHashMap<Integer,ExtensionTable.Retrieval>(m_baseRetrievalsByArity);
+            retrievalsByPredicate=new LinkedHashMap<DLPredicate,ExtensionTable.Retrieval>(m_baseRetrievalsByPredicate);
+            compileDLClauses(m_queryDLClauses,null,m_tupleConsumersByDeltaPredicate,retrievalsByArity,retrievalsByPredicate);
+        }
+        m_tupleConsumersByDeltaPredicateIndex=getTupleConsumersByDeltaPredicateIndex(m_tupleConsumersByDeltaPredicate);
+        m_tupleConsumersByUnindexedDeltaPredicate=getTupleConsumersByUnindexedDeltaPredicate(m_tupleConsumersByDeltaPredicate);
+        m_deltaOldRetrievals=new ExtensionTable.Retrieval[retrievalsByArity.size()];
+        retrievalsByArity.values().toArray(m_deltaOldRetrievals);
+        m_predicateDeltaOldRetrievals=new ExtensionTable.Retrieval[retrievalsByPredicate.size()];
+        m_predicateTupleConsumers=new CompiledDLClauseInfo[retrievalsByPredicate.size()];
+        int index=0;
+        for (Map.Entry<DLPredicate,ExtensionTable.Retrieval> entry : retrievalsByPredicate.entrySet()) {
+            m_predicateDeltaOldRetrievals[index]=entry.getValue();
+            m_predicateTupleConsumers[index]=m_tupleConsumersByDeltaPredicate.get(entry.getKey());
+            index++;
+        }
+    }
+    /**
+     * Compiles the given DL-clauses and chains the resulting consumers in front of the ones in tupleConsumersByDeltaPredicate. The
+     * delta retrievals are shared through the given maps, so the consumers of all DL-clauses see the tuple of the same retrieval.
+     * All maps are linked, so the consumers and retrievals are ordered by the position of the DL-clauses in dlClausesToCompile
+     * rather than by identity hash codes, and DL-clauses are applied in the same order in every run.
+     */
+    protected void compileDLClauses(Collection<DLClause> dlClausesToCompile,ExtensionStatistics statistics,Map<DLPredicate,CompiledDLClauseInfo> tupleConsumersByDeltaPredicate,Map<Integer,ExtensionTable.Retrieval> retrievalsByArity,Map<DLPredicate,ExtensionTable.Retrieval> retrievalsByPredicate) {
+        Map<DLClauseBodyKey,List<DLClause>> dlClausesByBody=new LinkedHashMap<DLClauseBodyKey,List<DLClause>>();
+        for (DLClause dlClause : dlClausesToCompile) {
             DLClauseBodyKey key=new DLClauseBodyKey(dlClause);
             List<DLClause> dlClauses=dlClausesByBody.get(key);
             if (dlClauses==null) {
@@ -44,33 +140,126 @@ public final class HyperresolutionManager implements Serializable {
         }
         for (Map.Entry<DLClauseBodyKey,List<DLClause>> entry : dlClausesByBody.entrySet()) {
             DLClause bodyDLClause=entry.getKey().m_dlClause;
-            BodyAtomsSwapper bodyAtomsSwapper=new BodyAtomsSwapper(bodyDLClause);
+            BodyAtomsSwapper bodyAtomsSwapper=new BodyAtomsSwapper(bodyDLClause,statistics);
             for (int bodyAtomIndex=0;bodyAtomIndex<bodyDLClause.getBodyLength();++bodyAtomIndex) {
                 DLClause swappedDLClause=bodyAtomsSwapper.getSwappedDLClause(bodyAtomIndex);
                 DLPredicate deltaDLPredicate=swappedDLClause.getBodyAtom(0).getDLPredicate();
                 Integer arity=Integer.valueOf(deltaDLPredicate.getArity()+1);
-                ExtensionTable.Retrieval firstTableRetrieval=retrievalsByArity.get(arity);
-                if (firstTableRetrieval==null) {
-                    ExtensionTable extensionTable=m_extensionManager.getExtensionTable(arity.intValue());
-                    firstTableRetrieval=extensionTable.createRetrieval(new boolean[extensionTable.getArity()],ExtensionTable.View.DELTA_OLD);
-                    retrievalsByArity.put(arity,firstTableRetrieval);
+                ExtensionTable extensionTable=m_extensionManager.getExtensionTable(arity.intValue());
+                ExtensionTable.Retrieval firstTableRetrieval;
+                if (extensionTable instanceof ExtensionTableWithPartitions) {
+                    // The delta of a partitioned table is scanned separately for each predicate that has consumers.
+                    firstTableRetrieval=retrievalsByPredicate.get(deltaDLPredicate);
+                    if (firstTableRetrieval==null) {
+                        boolean[] bindingPattern=new boolean[extensionTable.getArity()];
+                        bindingPattern[0]=true;
+                        firstTableRetrieval=extensionTable.createRetrieval(bindingPattern,ExtensionTable.View.DELTA_OLD);
+                        firstTableRetrieval.getBindingsBuffer()[0]=deltaDLPredicate;
+                        retrievalsByPredicate.put(deltaDLPredicate,firstTableRetrieval);
+                    }
                 }
-                CompiledDLClauseInfo nextTupleConsumer=new CompiledDLClauseInfo(m_extensionManager,swappedDLClause,entry.getValue(),firstTableRetrieval,m_tupleConsumersByDeltaPredicate.get(deltaDLPredicate));
-                m_tupleConsumersByDeltaPredicate.put(deltaDLPredicate,nextTupleConsumer);
+                else {
+                    firstTableRetrieval=retrievalsByArity.get(arity);
+                    if (firstTableRetrieval==null) {
+                        firstTableRetrieval=extensionTable.createRetrieval(new boolean[extensionTable.getArity()],ExtensionTable.View.DELTA_OLD);
+                        retrievalsByArity.put(arity,firstTableRetrieval);
+                    }
+                }
+                CompiledDLClauseInfo nextTupleConsumer=new CompiledDLClauseInfo(m_extensionManager,swappedDLClause,entry.getValue(),firstTableRetrieval,m_compileMatchers,tupleConsumersByDeltaPredicate.get(deltaDLPredicate));
+                tupleConsumersByDeltaPredicate.put(deltaDLPredicate,nextTupleConsumer);
             }
         }
-        m_deltaOldRetrievals=new ExtensionTable.Retrieval[retrievalsByArity.size()];
-        retrievalsByArity.values().toArray(m_deltaOldRetrievals);
     }
+    /**
+     * Called by the tableau after a model has been found. If cost-based join ordering is used and the size of the extension has
+     * changed by more than a factor of two since the body atoms were last ordered, the statistics are collected from the model and
+     * the DL-clauses are compiled again.
+     */
+    public void modelFound() {
+        if (m_costBasedJoinOrder) {
+            int numberOfTuples=0;
+            for (ExtensionTable extensionTable : m_extensionManager.getExtensionTables())
+                numberOfTuples+=extensionTable.m_afterExtensionThisTupleIndex;
+            if (numberOfTuples>=MINIMAL_NUMBER_OF_TUPLES_FOR_JOIN_ORDER_STATISTICS && (numberOfTuples>2*m_numberOfTuplesAtLastJoinOrder || 2*numberOfTuples<m_numberOfTuplesAtLastJoinOrder))
+                compileDLClauses(new ExtensionStatistics(m_extensionManager));
+        }
+    }
+    /**
+     * Applies the DL-clauses to the delta. If several threads have been configured and no monitor is attached to the tableau,
+     * deltas of at least MINIMAL_DELTA_SIZE_FOR_PARALLEL_HYPERRESOLUTION tuples in the tables that are not partitioned by
+     * predicate are processed by ParallelHyperresolution.
+     */
     public void applyDLClauses() {
-        for (int index=0;index<m_deltaOldRetrievals.length;index++)
-            processDeltaOld(m_deltaOldRetrievals[index]);
+        for (int index=0;index<m_deltaOldRetrievals.length && !m_extensionManager.containsClash();index++) {
+            ExtensionTable extensionTable=m_deltaOldRetrievals[index].getExtensionTable();
+            if (m_numberOfThreads>1 && m_tableau.m_tableauMonitor==null && extensionTable.m_afterExtensionThisTupleIndex-extensionTable.m_afterExtensionOldTupleIndex>=MINIMAL_DELTA_SIZE_FOR_PARALLEL_HYPERRESOLUTION) {
+                if (m_parallelHyperresolution==null)
+                    m_parallelHyperresolution=new ParallelHyperresolution(this,m_numberOfThreads);
+                m_parallelHyperresolution.processDeltaOld(index);
+            }
+            else
+                processDeltaOld(m_deltaOldRetrievals[index]);
+        }
+        for (int index=0;index<m_predicateDeltaOldRetrievals.length && !m_extensionManager.containsClash();index++)
+            processPredicateDeltaOld(m_predicateDeltaOldRetrievals[index],m_predicateTupleConsumers[index]);
     }
     protected void processDeltaOld(ExtensionTable.Retrieval retrieval) {
         retrieval.open();
         Object[] tupleBuffer=retrieval.getTupleBuffer();
         while (!retrieval.afterLast() && !m_extensionManager.containsClash()) {
-            CompiledDLClauseInfo compiledDLClauseInfo=m_tupleConsumersByDeltaPredicate.get(tupleBuffer[0]);
+            CompiledDLClauseInfo compiledDLClauseInfo=getTupleConsumers(tupleBuffer[0],m_tupleConsumersByDeltaPredicateIndex,m_tupleConsumersByUnindexedDeltaPredicate);
+            while (compiledDLClauseInfo!=null) {
+                compiledDLClauseInfo.evaluate();
+                compiledDLClauseInfo=compiledDLClauseInfo.m_next;
+            }
+            retrieval.next();
+        }
+    }
+    /**
+     * Returns the first consumer of a delta tuple whose first object is deltaObject, or null if the tuple has no consumers. The
+     * consumers of a predicate with an index are found by one array access, and a tuple whose predicate has an index beyond the
+     * array or an empty slot, or whose first object is not a DL predicate at all (such as a negated atomic concept), is skipped
+     * without hashing. Only predicates without an index (description graphs and data ranges) are looked up in the map, which is
+     * null if no such predicate has consumers.
+     */
+    protected static CompiledDLClauseInfo getTupleConsumers(Object deltaObject,CompiledDLClauseInfo[] tupleConsumersByDeltaPredicateIndex,Map<DLPredicate,CompiledDLClauseInfo> tupleConsumersByUnindexedDeltaPredicate) {
+        if (deltaObject instanceof DLPredicate) {
+            int predicateIndex=((DLPredicate)deltaObject).getIndex();
+            if (predicateIndex>=0)
+                return predicateIndex<tupleConsumersByDeltaPredicateIndex.length ? tupleConsumersByDeltaPredicateIndex[predicateIndex] : null;
+            else if (tupleConsumersByUnindexedDeltaPredicate!=null)
+                return tupleConsumersByUnindexedDeltaPredicate.get(deltaObject);
+        }
+        return null;
+    }
+    /**
+     * Returns an array that maps the index of each predicate in the given map to its consumers. The array extends only to the
+     * largest index of a predicate with consumers, which DLPredicateIndexes keeps bounded by the number of interned predicates.
+     */
+    protected static CompiledDLClauseInfo[] getTupleConsumersByDeltaPredicateIndex(Map<DLPredicate,CompiledDLClauseInfo> tupleConsumersByDeltaPredicate) {
+        int length=0;
+        for (DLPredicate dlPredicate : tupleConsumersByDeltaPredicate.keySet())
+            length=Math.max(length,dlPredicate.getIndex()+1);
+        CompiledDLClauseInfo[] tupleConsumersByDeltaPredicateIndex=new CompiledDLClauseInfo[length];
+        for (Map.Entry<DLPredicate,CompiledDLClauseInfo> entry : tupleConsumersByDeltaPredicate.entrySet())
+            if (entry.getKey().getIndex()>=0)
+                tupleConsumersByDeltaPredicateIndex[entry.getKey().getIndex()]=entry.getValue();
+        return tupleConsumersByDeltaPredicateIndex;
+    }
+    protected static Map<DLPredicate,CompiledDLClauseInfo> getTupleConsumersByUnindexedDeltaPredicate(Map<DLPredicate,CompiledDLClauseInfo> tupleConsumersByDeltaPredicate) {
+        Map<DLPredicate,CompiledDLClauseInfo> tupleConsumersByUnindexedDeltaPredicate=null;
+        for (Map.Entry<DLPredicate,CompiledDLClauseInfo> entry : tupleConsumersByDeltaPredicate.entrySet())
+            if (entry.getKey().getIndex()<0) {
+                if (tupleConsumersByUnindexedDeltaPredicate==null)
+                    tupleConsumersByUnindexedDeltaPredicate=new LinkedHashMap<DLPredicate,CompiledDLClauseInfo>();
+                tupleConsumersByUnindexedDeltaPredicate.put(entry.getKey(),entry.getValue());
+            }
+        return tupleConsumersByUnindexedDeltaPredicate;
+    }
+    protected void processPredicateDeltaOld(ExtensionTable.Retrieval retrieval,CompiledDLClauseInfo firstTupleConsumer) {
+        retrieval.open();
+        while (!retrieval.afterLast() && !m_extensionManager.containsClash()) {
+            CompiledDLClauseInfo compiledDLClauseInfo=firstTupleConsumer;
             while (compiledDLClauseInfo!=null) {
                 compiledDLClauseInfo.evaluate();
                 compiledDLClauseInfo=compiledDLClauseInfo.m_next;
@@ -84,21 +273,26 @@ public final class HyperresolutionManager implements Serializable {
 
         protected final CompiledDLClauseInfo m_next;
 
-        public CompiledDLClauseInfo(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,CompiledDLClauseInfo next) {
-            super(extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval);
+        public CompiledDLClauseInfo(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,boolean compileMatchers,CompiledDLClauseInfo next) {
+            this(extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval,compileMatchers,null,next);
+        }
+        public CompiledDLClauseInfo(ExtensionManager extensionManager,DLClause bodyDLClause,List<DLClause> headDLClauses,ExtensionTable.Retrieval firstAtomRetrieval,boolean compileMatchers,DerivationBuffer derivationBuffer,CompiledDLClauseInfo next) {
+            super(extensionManager,bodyDLClause,headDLClauses,firstAtomRetrieval,compileMatchers,derivationBuffer);
             m_next=next;
         }
     }
 
     protected static final class BodyAtomsSwapper {
         protected final DLClause m_dlClause;
+        protected final ExtensionStatistics m_statistics;
         protected final List<Atom> m_nodeIDComparisonAtoms;
         protected final boolean[] m_usedAtoms;
         protected final List<Atom> m_reorderedAtoms;
         protected final Set<Variable> m_boundVariables;
 
-        public BodyAtomsSwapper(DLClause dlClause) {
+        public BodyAtomsSwapper(DLClause dlClause,ExtensionStatistics statistics) {
             m_dlClause=dlClause;
+            m_statistics=statistics;
             m_nodeIDComparisonAtoms=new ArrayList<Atom>(m_dlClause.getBodyLength());
             m_usedAtoms=new boolean[m_dlClause.getBodyLength()];
             m_reorderedAtoms=new ArrayList<Atom>(m_dlClause.getBodyLength());
@@ -121,11 +315,11 @@ public final class HyperresolutionManager implements Serializable {
             while (m_reorderedAtoms.size()!=m_usedAtoms.length) {
                 Atom bestAtom=null;
                 int bestAtomIndex=-1;
-                int bestAtomGoodness=-1000;
+                double bestAtomGoodness=-Double.MAX_VALUE;
                 for (int index=m_usedAtoms.length-1;index>=0;--index)
                     if (!m_usedAtoms[index]) {
                         atom=m_dlClause.getBodyAtom(index);
-                        int atomGoodness=getAtomGoodness(atom);
+                        double atomGoodness=(m_statistics==null ? getAtomGoodness(atom) : getAtomGoodnessFromStatistics(atom));
                         if (atomGoodness>bestAtomGoodness) {
                             bestAtom=atom;
                             bestAtomGoodness=atomGoodness;
@@ -141,6 +335,24 @@ public final class HyperresolutionManager implements Serializable {
             m_reorderedAtoms.toArray(bodyAtoms);
             return m_dlClause.getChangedDLClause(null,bodyAtoms);
         }
+        /**
+         * The goodness of an atom is the negated estimated number of tuples that match the atom given the variables bound so far,
+         * so the atom with the fewest matches is joined next. Node ID comparisons are evaluated as soon as both variables are bound.
+         */
+        protected double getAtomGoodnessFromStatistics(Atom atom) {
+            if (NodeIDLessThan.INSTANCE.equals(atom.getDLPredicate())) {
+                if (m_boundVariables.contains(atom.getArgumentVariable(0)) && m_boundVariables.contains(atom.getArgumentVariable(1)))
+                    return Double.MAX_VALUE;
+                else
+                    return -Double.MAX_VALUE;
+            }
+            else {
+                boolean[] boundArguments=new boolean[atom.getArity()];
+                for (int argumentIndex=atom.getArity()-1;argumentIndex>=0;--argumentIndex)
+                    boundArguments[argumentIndex]=m_boundVariables.contains(atom.getArgument(argumentIndex));
+                return -m_statistics.getEstimatedNumberOfMatches(atom.getDLPredicate(),boundArguments);
+            }
+        }
         protected int getAtomGoodness(Atom atom) {
             if (NodeIDLessThan.INSTANCE.equals(atom.getDLPredicate())) {
                 if (m_boundVariables.contains(atom.getArgumentVariable(0)) && m_boundVariables.contains(atom.getArgumentVariable(1)))
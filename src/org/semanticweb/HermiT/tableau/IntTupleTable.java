@@ -0,0 +1,41 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * An encoded tuple table that keeps its pages in primitive integer arrays on 
+ * the Java heap.
+ */
+public final class IntTupleTable extends EncodedTupleTable {
+    private static final long serialVersionUID=2913466401373816224L;
+
+    protected static final int PAGE_SHIFT=9;
+
+    protected int[][] m_idPages;
+
+    public IntTupleTable(TupleObjectDictionary dictionary,int encodedArity,int objectArity) {
+        super(dictionary,encodedArity,objectArity,PAGE_SHIFT);
+        m_idPages=new int[10][];
+        addPage();
+    }
+    public int getTupleID(int tupleIndex,int objectIndex) {
+        return m_idPages[tupleIndex >>> m_pageShift][(objectIndex << m_pageShift)+(tupleIndex & m_pageMask)];
+    }
+    protected void setTupleID(int tupleIndex,int objectIndex,int id) {
+        m_idPages[tupleIndex >>> m_pageShift][(objectIndex << m_pageShift)+(tupleIndex & m_pageMask)]=id;
+    }
+    protected void allocateIDPage(int pageIndex) {
+        if (pageIndex==m_idPages.length) {
+            int[][] newIDPages=new int[m_idPages.length*3/2][];
+            System.arraycopy(m_idPages,0,newIDPages,0,m_idPages.length);
+            m_idPages=newIDPages;
+        }
+        m_idPages[pageIndex]=new int[m_encodedArity*m_pageSize];
+    }
+    protected int idPagesSizeInMemory() {
+        int size=m_idPages.length*4;
+        for (int i=m_idPages.length-1;i>=0;--i)
+            if (m_idPages[i]!=null)
+                size+=m_idPages[i].length*4;
+        return size;
+    }
+}
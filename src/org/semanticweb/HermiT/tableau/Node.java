@@ -15,7 +15,8 @@ import org.semanticweb.HermiT.model.ExistentialConcept;
 /**
  * Represents a node in the tableau. Nodes are initially active, but can be set 
  * to merged or pruned at a later stage, which does not delete, but marks them 
- * as inaktive. 
+ * as inaktive. The integer-valued state of a node is stored in the NodeArena 
+ * of the tableau under the node's ID. 
  */
 public final class Node implements Serializable {
     private static final long serialVersionUID=-2549229429321484690L;
@@ -29,17 +30,10 @@ public final class Node implements Serializable {
     protected NodeState m_nodeState;
     protected Node m_parent;
     protected NodeType m_nodeType;
-    protected int m_treeDepth;
     protected Set<Concept> m_positiveLabel;
-    protected int m_positiveLabelSize;
-    protected int m_positiveLabelHashCode;
-    protected int m_negativeLabelSize;
     protected Set<AtomicRole> m_fromParentLabel;
-    protected int m_fromParentLabelHashCode;
     protected Set<AtomicRole> m_toParentLabel;
-    protected int m_toParentLabelHashCode;
     protected Set<AtomicRole> m_toSelfLabel;
-    protected int m_toSelfLabelHashCode;
     private List<ExistentialConcept> m_unprocessedExistentials;
     protected Node m_previousTableauNode;
     protected Node m_nextTableauNode;
@@ -50,8 +44,6 @@ public final class Node implements Serializable {
     protected boolean m_directlyBlocked;
     protected Object m_blockingObject;
     protected boolean m_blockingSignatureChanged;
-    protected int m_numberOfNIAssertionsFromNode;
-    protected int m_numberOfNIAssertionsToNode;
     protected int m_firstGraphOccurrenceNode;
     
     public Node(Tableau tableau) {
@@ -71,17 +63,11 @@ public final class Node implements Serializable {
         m_nodeState=NodeState.ACTIVE;
         m_parent=parent;
         m_nodeType=nodeType;
-        m_treeDepth=treeDepth;
+        m_tableau.m_nodeArena.m_treeDepths[nodeID]=treeDepth;
         m_positiveLabel=null;
-        m_positiveLabelSize=0;
-        m_positiveLabelHashCode=0;
-        m_negativeLabelSize=0;
         m_fromParentLabel=null;
-        m_fromParentLabelHashCode=0;
         m_toParentLabel=null;
-        m_toParentLabelHashCode=0;
         m_toSelfLabel=null;
-        m_toSelfLabelHashCode=0;
         m_unprocessedExistentials=NO_EXISTENTIALS;
         m_previousTableauNode=null;
         m_nextTableauNode=null;
@@ -92,8 +78,6 @@ public final class Node implements Serializable {
         m_directlyBlocked=false;
         m_blockingObject=null;
         m_blockingSignatureChanged=false;
-        m_numberOfNIAssertionsFromNode=0;
-        m_numberOfNIAssertionsToNode=0;
         m_tableau.m_descriptionGraphManager.intializeNode(this);
     }
     protected void destroy() {
@@ -171,7 +155,7 @@ public final class Node implements Serializable {
         return m_nodeType;
     }
     public int getTreeDepth() {
-        return m_treeDepth;
+        return m_tableau.m_nodeArena.m_treeDepths[m_nodeID];
     }
     public boolean isBlocked() {
         return m_blocker!=null;
@@ -242,10 +226,10 @@ public final class Node implements Serializable {
         return m_positiveLabel;
     }
     public int getPositiveLabelSize() {
-        return m_positiveLabelSize;
+        return m_tableau.m_nodeArena.m_positiveLabelSizes[m_nodeID];
     }
     public int getPositiveLabelHashCode() {
-        return m_positiveLabelHashCode;
+        return m_tableau.m_nodeArena.m_positiveLabelHashCodes[m_nodeID];
     }
     protected void addToPositiveLabel(Concept concept) {
         if (concept instanceof AtomicConcept) {
@@ -253,8 +237,8 @@ public final class Node implements Serializable {
                 m_tableau.m_labelManager.removeConceptSetReference(m_positiveLabel);
                 m_positiveLabel=null;
             }
-            m_positiveLabelHashCode+=concept.hashCode();
-            m_positiveLabelSize++;
+            m_tableau.m_nodeArena.m_positiveLabelHashCodes[m_nodeID]+=concept.hashCode();
+            m_tableau.m_nodeArena.m_positiveLabelSizes[m_nodeID]++;
         }
     }
     protected void removeFromPositiveLabel(Concept concept) {
@@ -263,18 +247,18 @@ public final class Node implements Serializable {
                 m_tableau.m_labelManager.removeConceptSetReference(m_positiveLabel);
                 m_positiveLabel=null;
             }
-            m_positiveLabelHashCode-=concept.hashCode();
-            m_positiveLabelSize--;
+            m_tableau.m_nodeArena.m_positiveLabelHashCodes[m_nodeID]-=concept.hashCode();
+            m_tableau.m_nodeArena.m_positiveLabelSizes[m_nodeID]--;
         }
     }
     public int getNegativeLabelSize() {
-        return m_negativeLabelSize;
+        return m_tableau.m_nodeArena.m_negativeLabelSizes[m_nodeID];
     }
     protected void addToNegativeLabel() {
-        m_negativeLabelSize++;
+        m_tableau.m_nodeArena.m_negativeLabelSizes[m_nodeID]++;
     }
     protected void removeFromNegativeLabel() {
-        m_negativeLabelSize--;
+        m_tableau.m_nodeArena.m_negativeLabelSizes[m_nodeID]--;
     }
     public Set<AtomicRole> getFromParentLabel() {
         if (m_fromParentLabel==null) {
@@ -284,21 +268,21 @@ public final class Node implements Serializable {
         return m_fromParentLabel;
     }
     public int getFromParentLabelHashCode() {
-        return m_fromParentLabelHashCode;
+        return m_tableau.m_nodeArena.m_fromParentLabelHashCodes[m_nodeID];
     }
     protected void addToFromParentLabel(AtomicRole atomicRole) {
         if (m_fromParentLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_fromParentLabel);
             m_fromParentLabel=null;
         }
-        m_fromParentLabelHashCode+=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_fromParentLabelHashCodes[m_nodeID]+=atomicRole.hashCode();
     }
     protected void removeFromFromParentLabel(AtomicRole atomicRole) {
         if (m_fromParentLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_fromParentLabel);
             m_fromParentLabel=null;
         }
-        m_fromParentLabelHashCode-=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_fromParentLabelHashCodes[m_nodeID]-=atomicRole.hashCode();
     }
     public Set<AtomicRole> getToParentLabel() {
         if (m_toParentLabel==null) {
@@ -308,21 +292,21 @@ public final class Node implements Serializable {
         return m_toParentLabel;
     }
     public int getToParentLabelHashCode() {
-        return m_toParentLabelHashCode;
+        return m_tableau.m_nodeArena.m_toParentLabelHashCodes[m_nodeID];
     }
     protected void addToToParentLabel(AtomicRole atomicRole) {
         if (m_toParentLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_toParentLabel);
             m_toParentLabel=null;
         }
-        m_toParentLabelHashCode+=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_toParentLabelHashCodes[m_nodeID]+=atomicRole.hashCode();
     }
     protected void removeFromToParentLabel(AtomicRole atomicRole) {
         if (m_toParentLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_toParentLabel);
             m_toParentLabel=null;
         }
-        m_toParentLabelHashCode-=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_toParentLabelHashCodes[m_nodeID]-=atomicRole.hashCode();
     }
     public Set<AtomicRole> getToSelfLabel() {
         if (m_toSelfLabel==null) {
@@ -332,21 +316,21 @@ public final class Node implements Serializable {
         return m_toParentLabel;
     }
     public int getToSelfLabelHashCode() {
-        return m_toSelfLabelHashCode;
+        return m_tableau.m_nodeArena.m_toSelfLabelHashCodes[m_nodeID];
     }
     protected void addToToSelfLabel(AtomicRole atomicRole) {
         if (m_toSelfLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_toSelfLabel);
             m_toSelfLabel=null;
         }
-        m_toSelfLabelHashCode+=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_toSelfLabelHashCodes[m_nodeID]+=atomicRole.hashCode();
     }
     protected void removeFromToSelfLabel(AtomicRole atomicRole) {
         if (m_toSelfLabel!=null) {
             m_tableau.m_labelManager.removeAtomicRoleSetReference(m_toSelfLabel);
             m_toSelfLabel=null;
         }
-        m_toSelfLabelHashCode-=atomicRole.hashCode();
+        m_tableau.m_nodeArena.m_toSelfLabelHashCodes[m_nodeID]-=atomicRole.hashCode();
     }
     protected void addToUnprocessedExistentials(ExistentialConcept existentialConcept) {
         assert NO_EXISTENTIALS.isEmpty();
@@ -378,6 +362,20 @@ public final class Node implements Serializable {
     public Collection<ExistentialConcept> getUnprocessedExistentials() {
         return m_unprocessedExistentials;
     }
+    protected int getNumberOfNIAssertionsFromNode() {
+        return m_tableau.m_nodeArena.m_numbersOfNIAssertionsFromNode[m_nodeID];
+    }
+    protected int getNumberOfNIAssertionsToNode() {
+        return m_tableau.m_nodeArena.m_numbersOfNIAssertionsToNode[m_nodeID];
+    }
+    protected void addNIAssertion(Node nodeTo) {
+        m_tableau.m_nodeArena.m_numbersOfNIAssertionsFromNode[m_nodeID]++;
+        m_tableau.m_nodeArena.m_numbersOfNIAssertionsToNode[nodeTo.m_nodeID]++;
+    }
+    protected void removeNIAssertion(Node nodeTo) {
+        m_tableau.m_nodeArena.m_numbersOfNIAssertionsFromNode[m_nodeID]--;
+        m_tableau.m_nodeArena.m_numbersOfNIAssertionsToNode[nodeTo.m_nodeID]--;
+    }
     public String toString() {
         return String.valueOf(m_nodeID);
     }
@@ -0,0 +1,106 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+
+/**
+ * Holds the nodes of a tableau together with their integer-valued state, which is kept in parallel arrays indexed by node ID.
+ * The nodes in a tableau always have the IDs 1..n, so the node object for an ID is created once and is then reused whenever a
+ * node with that ID is created again after backtracking; hence, creating nodes does not allocate once the arena has grown, and
+ * a node can be looked up by its ID in constant time. Node objects are merely handles: the label sizes and hash codes, the tree
+ * depth, the NI counters, and the creation number are read and updated through the arrays of this class. The creation number
+ * tells apart the successive nodes that use the same node object.
+ */
+public final class NodeArena implements Serializable {
+    private static final long serialVersionUID=-4418218373207316372L;
+    protected static final int INITIAL_CAPACITY=128;
+
+    protected final Tableau m_tableau;
+    protected Node[] m_nodes;
+    protected int m_numberOfAllocatedNodes;
+    protected int[] m_treeDepths;
+    protected int[] m_positiveLabelSizes;
+    protected int[] m_positiveLabelHashCodes;
+    protected int[] m_negativeLabelSizes;
+    protected int[] m_fromParentLabelHashCodes;
+    protected int[] m_toParentLabelHashCodes;
+    protected int[] m_toSelfLabelHashCodes;
+    protected int[] m_numbersOfNIAssertionsFromNode;
+    protected int[] m_numbersOfNIAssertionsToNode;
+    protected int[] m_creationNumbers;
+
+    public NodeArena(Tableau tableau) {
+        m_tableau=tableau;
+        clear();
+    }
+    public void clear() {
+        m_nodes=new Node[INITIAL_CAPACITY];
+        m_numberOfAllocatedNodes=0;
+        m_treeDepths=new int[INITIAL_CAPACITY];
+        m_positiveLabelSizes=new int[INITIAL_CAPACITY];
+        m_positiveLabelHashCodes=new int[INITIAL_CAPACITY];
+        m_negativeLabelSizes=new int[INITIAL_CAPACITY];
+        m_fromParentLabelHashCodes=new int[INITIAL_CAPACITY];
+        m_toParentLabelHashCodes=new int[INITIAL_CAPACITY];
+        m_toSelfLabelHashCodes=new int[INITIAL_CAPACITY];
+        m_numbersOfNIAssertionsFromNode=new int[INITIAL_CAPACITY];
+        m_numbersOfNIAssertionsToNode=new int[INITIAL_CAPACITY];
+        m_creationNumbers=new int[INITIAL_CAPACITY];
+    }
+    public int getNumberOfAllocatedNodes() {
+        return m_numberOfAllocatedNodes;
+    }
+    /**
+     * Returns the node object for the given ID, which is either live or was destroyed and is waiting to be reused.
+     */
+    public Node getNode(int nodeID) {
+        return m_nodes[nodeID];
+    }
+    /**
+     * Returns the node object that should be initialized for the given ID and resets the state stored for that ID.
+     */
+    protected Node getNodeForCreation(int nodeID) {
+        if (nodeID>=m_nodes.length)
+            resize(nodeID);
+        Node node=m_nodes[nodeID];
+        if (node==null) {
+            node=new Node(m_tableau);
+            m_nodes[nodeID]=node;
+            m_numberOfAllocatedNodes++;
+        }
+        m_treeDepths[nodeID]=0;
+        m_positiveLabelSizes[nodeID]=0;
+        m_positiveLabelHashCodes[nodeID]=0;
+        m_negativeLabelSizes[nodeID]=0;
+        m_fromParentLabelHashCodes[nodeID]=0;
+        m_toParentLabelHashCodes[nodeID]=0;
+        m_toSelfLabelHashCodes[nodeID]=0;
+        m_numbersOfNIAssertionsFromNode[nodeID]=0;
+        m_numbersOfNIAssertionsToNode[nodeID]=0;
+        m_creationNumbers[nodeID]=0;
+        return node;
+    }
+    protected void resize(int nodeID) {
+        int newCapacity=m_nodes.length*3/2;
+        while (nodeID>=newCapacity)
+            newCapacity=newCapacity*3/2;
+        Node[] newNodes=new Node[newCapacity];
+        System.arraycopy(m_nodes,0,newNodes,0,m_nodes.length);
+        m_nodes=newNodes;
+        m_treeDepths=resize(m_treeDepths,newCapacity);
+        m_positiveLabelSizes=resize(m_positiveLabelSizes,newCapacity);
+        m_positiveLabelHashCodes=resize(m_positiveLabelHashCodes,newCapacity);
+        m_negativeLabelSizes=resize(m_negativeLabelSizes,newCapacity);
+        m_fromParentLabelHashCodes=resize(m_fromParentLabelHashCodes,newCapacity);
+        m_toParentLabelHashCodes=resize(m_toParentLabelHashCodes,newCapacity);
+        m_toSelfLabelHashCodes=resize(m_toSelfLabelHashCodes,newCapacity);
+        m_numbersOfNIAssertionsFromNode=resize(m_numbersOfNIAssertionsFromNode,newCapacity);
+        m_numbersOfNIAssertionsToNode=resize(m_numbersOfNIAssertionsToNode,newCapacity);
+        m_creationNumbers=resize(m_creationNumbers,newCapacity);
+    }
+    protected static int[] resize(int[] array,int newCapacity) {
+        int[] newArray=new int[newCapacity];
+        System.arraycopy(array,0,newArray,0,array.length);
+        return newArray;
+    }
+}
@@ -0,0 +1,293 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+import org.semanticweb.HermiT.model.Concept;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.Equality;
+
+/**
+ * Records the clashes found during a test as nogoods, that is, as sets of disjuncts that cannot be chosen together. When a
+ * clash occurs and all branching points it depends on (apart from the nonbacktrackable ones) are disjunction branching points,
+ * the disjuncts chosen at these points are stored. Before a disjunct is chosen later on, the nogoods containing it are checked;
+ * if all other disjuncts of such a nogood currently hold, the disjunct is known to lead to a clash, and the clash is raised
+ * right away with the union of the dependency sets of these disjuncts.
+ *
+ * Disjuncts are identified by their predicate and the nodes they are about. Since node objects are reused after backtracking,
+ * each node is recorded together with its creation number, and a disjunct is considered only if its nodes have not been
+ * destroyed since. The number of nogoods is bounded; each nogood has an activity that is increased whenever it is learned or
+ * used and that decays over time, and the least active nogood is evicted when the bound is reached. Nogoods are discarded at
+ * the start of each test.
+ */
+public final class NogoodManager implements Serializable {
+    private static final long serialVersionUID=-6181932469419950036L;
+    protected static final int DEFAULT_MAXIMUM_NUMBER_OF_NOGOODS=1000;
+    protected static final int MAXIMUM_NOGOOD_SIZE=16;
+    protected static final double ACTIVITY_DECAY=0.95;
+    protected static final double ACTIVITY_RESCALE_LIMIT=1e100;
+
+    protected final Tableau m_tableau;
+    protected final ExtensionManager m_extensionManager;
+    protected final DependencySetFactory m_dependencySetFactory;
+    protected final int m_maximumNumberOfNogoods;
+    protected final List<Nogood> m_nogoods;
+    protected final Map<Literal,List<Nogood>> m_nogoodsByLiteral;
+    protected final Literal m_probeLiteral;
+    protected final List<Literal> m_literalsBuffer;
+    protected double m_activityIncrement;
+    protected int m_numberOfPreventedChoices;
+
+    public NogoodManager(Tableau tableau) {
+        m_tableau=tableau;
+        m_extensionManager=tableau.getExtensionManager();
+        m_dependencySetFactory=tableau.getDependencySetFactory();
+        Object maximumNumberOfNogoods=tableau.getParameters().get("NogoodManager.maximumNumberOfNogoods");
+        m_maximumNumberOfNogoods=(maximumNumberOfNogoods instanceof Integer ? ((Integer)maximumNumberOfNogoods).intValue() : DEFAULT_MAXIMUM_NUMBER_OF_NOGOODS);
+        m_nogoods=new ArrayList<Nogood>();
+        m_nogoodsByLiteral=new HashMap<Literal,List<Nogood>>();
+        m_probeLiteral=new Literal();
+        m_literalsBuffer=new ArrayList<Literal>();
+        clear();
+    }
+    public void clear() {
+        m_nogoods.clear();
+        m_nogoodsByLiteral.clear();
+        m_probeLiteral.m_predicate=null;
+        m_probeLiteral.m_node0=null;
+        m_probeLiteral.m_node1=null;
+        m_literalsBuffer.clear();
+        m_activityIncrement=1.0;
+        m_numberOfPreventedChoices=0;
+    }
+    public int getNumberOfNogoods() {
+        return m_nogoods.size();
+    }
+    public int getNumberOfPreventedChoices() {
+        return m_numberOfPreventedChoices;
+    }
+    /**
+     * Records the disjuncts that the given clash depends on as a nogood, provided that the clash depends only on disjunction
+     * branching points above the nonbacktrackable branching point.
+     */
+    public void clashDetected(DependencySet clashDependencySet) {
+        PermanentDependencySet dependencySet=m_dependencySetFactory.getPermanent(clashDependencySet);
+        int nonbacktrackableBranchingPoint=m_tableau.m_nonbacktrackableBranchingPoint;
+        m_literalsBuffer.clear();
+        if (dependencySet.m_words==null && dependencySet.m_members==null) {
+            while (dependencySet.m_branchingPoint>nonbacktrackableBranchingPoint) {
+                if (!addLiteralForBranchingPoint(dependencySet.m_branchingPoint))
+                    return;
+                dependencySet=dependencySet.m_rest;
+            }
+        }
+        else {
+            for (int branchingPoint=dependencySet.m_branchingPoint;branchingPoint>nonbacktrackableBranchingPoint;--branchingPoint)
+                if (dependencySet.containsBranchingPoint(branchingPoint) && !addLiteralForBranchingPoint(branchingPoint))
+                    return;
+        }
+        if (m_literalsBuffer.isEmpty() || isKnownNogood())
+            return;
+        if (m_nogoods.size()>=m_maximumNumberOfNogoods)
+            evictLeastActiveNogood();
+        Nogood nogood=new Nogood(m_literalsBuffer.toArray(new Literal[m_literalsBuffer.size()]));
+        m_nogoods.add(nogood);
+        for (Literal literal : nogood.m_literals) {
+            List<Nogood> nogoods=m_nogoodsByLiteral.get(literal);
+            if (nogoods==null) {
+                nogoods=new ArrayList<Nogood>(2);
+                m_nogoodsByLiteral.put(literal,nogoods);
+            }
+            nogoods.add(nogood);
+        }
+        bumpActivity(nogood);
+        decayActivities();
+    }
+    protected boolean addLiteralForBranchingPoint(int branchingPoint) {
+        BranchingPoint point=m_tableau.m_branchingPoints[branchingPoint];
+        if (!(point instanceof DisjunctionBranchingPoint))
+            return false;
+        DisjunctionBranchingPoint disjunctionBranchingPoint=(DisjunctionBranchingPoint)point;
+        GroundDisjunction groundDisjunction=disjunctionBranchingPoint.m_groundDisjunction;
+        // A choice other than the first one also asserts the negations of the previous disjuncts; see DisjunctionBranchingPoint.
+        for (int previousPosition=0;previousPosition<disjunctionBranchingPoint.m_currentDisjunctIndex;previousPosition++) {
+            int previousDisjunctIndex=disjunctionBranchingPoint.getDisjunct(previousPosition);
+            DLPredicate dlPredicate=groundDisjunction.getDLPredicate(previousDisjunctIndex);
+            if (Equality.INSTANCE.equals(dlPredicate))
+                return false;
+            else if (dlPredicate instanceof AtomicConcept) {
+                Literal literal=new Literal();
+                loadLiteral(literal,AtomicNegationConcept.create((AtomicConcept)dlPredicate),groundDisjunction.getArgument(previousDisjunctIndex,0),null);
+                if (!addLiteral(literal))
+                    return false;
+            }
+        }
+        Literal literal=new Literal();
+        return loadLiteral(literal,groundDisjunction,disjunctionBranchingPoint.getCurrentDisjunct()) && addLiteral(literal);
+    }
+    protected boolean addLiteral(Literal literal) {
+        if (!m_literalsBuffer.contains(literal)) {
+            if (m_literalsBuffer.size()>=MAXIMUM_NOGOOD_SIZE)
+                return false;
+            m_literalsBuffer.add(literal);
+        }
+        return true;
+    }
+    protected boolean loadLiteral(Literal literal,GroundDisjunction groundDisjunction,int disjunctIndex) {
+        DLPredicate dlPredicate=groundDisjunction.getDLPredicate(disjunctIndex);
+        if (Equality.INSTANCE.equals(dlPredicate))
+            return false;
+        else if (dlPredicate.getArity()==1)
+            loadLiteral(literal,dlPredicate,groundDisjunction.getArgument(disjunctIndex,0),null);
+        else if (dlPredicate.getArity()==2)
+            loadLiteral(literal,dlPredicate,groundDisjunction.getArgument(disjunctIndex,0),groundDisjunction.getArgument(disjunctIndex,1));
+        else
+            return false;
+        return true;
+    }
+    protected void loadLiteral(Literal literal,Object predicate,Node node0,Node node1) {
+        int[] creationNumbers=m_tableau.m_nodeArena.m_creationNumbers;
+        literal.m_predicate=predicate;
+        literal.m_node0=node0;
+        literal.m_creationNumber0=creationNumbers[node0.m_nodeID];
+        literal.m_node1=node1;
+        literal.m_creationNumber1=(node1==null ? 0 : creationNumbers[node1.m_nodeID]);
+        literal.m_hashCode=literal.computeHashCode();
+    }
+    protected boolean isKnownNogood() {
+        List<Nogood> nogoods=m_nogoodsByLiteral.get(m_literalsBuffer.get(0));
+        if (nogoods!=null)
+            for (Nogood nogood : nogoods)
+                if (nogood.m_literals.length==m_literalsBuffer.size()) {
+                    boolean allContained=true;
+                    for (int index=0;allContained && index<nogood.m_literals.length;index++)
+                        allContained=m_literalsBuffer.contains(nogood.m_literals[index]);
+                    if (allContained)
+                        return true;
+                }
+        return false;
+    }
+    protected void evictLeastActiveNogood() {
+        int leastActiveIndex=0;
+        for (int index=1;index<m_nogoods.size();index++)
+            if (m_nogoods.get(index).m_activity<m_nogoods.get(leastActiveIndex).m_activity)
+                leastActiveIndex=index;
+        Nogood nogood=m_nogoods.get(leastActiveIndex);
+        Nogood last=m_nogoods.remove(m_nogoods.size()-1);
+        if (last!=nogood)
+            m_nogoods.set(leastActiveIndex,last);
+        for (Literal literal : nogood.m_literals) {
+            List<Nogood> nogoods=m_nogoodsByLiteral.get(literal);
+            nogoods.remove(nogood);
+            if (nogoods.isEmpty())
+                m_nogoodsByLiteral.remove(literal);
+        }
+    }
+    protected void bumpActivity(Nogood nogood) {
+        nogood.m_activity+=m_activityIncrement;
+        if (nogood.m_activity>ACTIVITY_RESCALE_LIMIT) {
+            for (Nogood otherNogood : m_nogoods)
+                otherNogood.m_activity/=ACTIVITY_RESCALE_LIMIT;
+            m_activityIncrement/=ACTIVITY_RESCALE_LIMIT;
+        }
+    }
+    protected void decayActivities() {
+        m_activityIncrement/=ACTIVITY_DECAY;
+    }
+    /**
+     * Checks whether choosing the given disjunct violates a nogood. If so, the union of the dependency sets of the other
+     * disjuncts of the nogood is returned; otherwise, the result is null.
+     */
+    public DependencySet getViolatedNogoodDependencySet(GroundDisjunction groundDisjunction,int disjunctIndex) {
+        if (m_nogoods.isEmpty() || !loadLiteral(m_probeLiteral,groundDisjunction,disjunctIndex))
+            return null;
+        List<Nogood> nogoods=m_nogoodsByLiteral.get(m_probeLiteral);
+        if (nogoods!=null) {
+            for (int nogoodIndex=nogoods.size()-1;nogoodIndex>=0;--nogoodIndex) {
+                Nogood nogood=nogoods.get(nogoodIndex);
+                DependencySet dependencySet=m_dependencySetFactory.emptySet();
+                for (int index=0;dependencySet!=null && index<nogood.m_literals.length;index++) {
+                    Literal literal=nogood.m_literals[index];
+                    if (!literal.equals(m_probeLiteral)) {
+                        DependencySet literalDependencySet=getLiteralDependencySet(literal);
+                        dependencySet=(literalDependencySet==null ? null : m_dependencySetFactory.unionWith(dependencySet,literalDependencySet));
+                    }
+                }
+                if (dependencySet!=null) {
+                    bumpActivity(nogood);
+                    m_numberOfPreventedChoices++;
+                    return dependencySet;
+                }
+            }
+        }
+        return null;
+    }
+    protected DependencySet getLiteralDependencySet(Literal literal) {
+        if (!isCurrent(literal.m_node0,literal.m_creationNumber0))
+            return null;
+        Node node0=literal.m_node0.getCanonicalNode();
+        DependencySet dependencySet=literal.m_node0.addCacnonicalNodeDependencySet(m_dependencySetFactory.emptySet());
+        DependencySet assertionDependencySet;
+        if (literal.m_node1==null)
+            assertionDependencySet=(literal.m_predicate instanceof Concept ? m_extensionManager.getConceptAssertionDependencySet((Concept)literal.m_predicate,node0) : m_extensionManager.getAssertionDependencySet((DLPredicate)literal.m_predicate,node0));
+        else {
+            if (!isCurrent(literal.m_node1,literal.m_creationNumber1))
+                return null;
+            Node node1=literal.m_node1.getCanonicalNode();
+            dependencySet=literal.m_node1.addCacnonicalNodeDependencySet(dependencySet);
+            assertionDependencySet=m_extensionManager.getAssertionDependencySet((DLPredicate)literal.m_predicate,node0,node1);
+        }
+        if (assertionDependencySet==null)
+            return null;
+        return m_dependencySetFactory.unionWith(dependencySet,assertionDependencySet);
+    }
+    protected boolean isCurrent(Node node,int creationNumber) {
+        return node.m_nodeID!=-1 && m_tableau.m_nodeArena.m_creationNumbers[node.m_nodeID]==creationNumber;
+    }
+
+    protected static final class Literal implements Serializable {
+        private static final long serialVersionUID=2712553473018858264L;
+
+        protected Object m_predicate;
+        protected Node m_node0;
+        protected int m_creationNumber0;
+        protected Node m_node1;
+        protected int m_creationNumber1;
+        protected int m_hashCode;
+
+        protected int computeHashCode() {
+            int hashCode=m_predicate.hashCode()+7*m_creationNumber0;
+            if (m_node1!=null)
+                hashCode=hashCode*31+m_creationNumber1;
+            return hashCode;
+        }
+        public int hashCode() {
+            return m_hashCode;
+        }
+        public boolean equals(Object that) {
+            if (this==that)
+                return true;
+            if (!(that instanceof Literal))
+                return false;
+            Literal thatLiteral=(Literal)that;
+            return m_predicate.equals(thatLiteral.m_predicate) && m_node0==thatLiteral.m_node0 && m_creationNumber0==thatLiteral.m_creationNumber0 && m_node1==thatLiteral.m_node1 && m_creationNumber1==thatLiteral.m_creationNumber1;
+        }
+    }
+
+    protected static final class Nogood implements Serializable {
+        private static final long serialVersionUID=-3176012620766356934L;
+
+        protected final Literal[] m_literals;
+        protected double m_activity;
+
+        public Nogood(Literal[] literals) {
+            m_literals=literals;
+        }
+    }
+}
@@ -142,7 +142,7 @@ public final class NominalIntroductionManager implements Serializable {
             AtMostGuard atMost=(AtMostGuard)concept;
             Role onRole=atMost.getOnRole();
             AtomicConcept toAtomicConcept=atMost.getToAtomicConcept();
-            if (onRole instanceof AtomicRole && node.m_numberOfNIAssertionsFromNode>0) {
+            if (onRole instanceof AtomicRole && node.getNumberOfNIAssertionsFromNode()>0) {
                 m_ternaryExtensionTableSearch01Bound.getBindingsBuffer()[0]=onRole;
                 m_ternaryExtensionTableSearch01Bound.getBindingsBuffer()[1]=node;
                 m_ternaryExtensionTableSearch01Bound.open();
@@ -156,7 +156,7 @@ public final class NominalIntroductionManager implements Serializable {
                     m_ternaryExtensionTableSearch01Bound.next();
                 }
             }
-            else if (onRole instanceof InverseRole && node.m_numberOfNIAssertionsToNode>0) {
+            else if (onRole instanceof InverseRole && node.getNumberOfNIAssertionsToNode()>0) {
                 m_ternaryExtensionTableSearch02Bound.getBindingsBuffer()[0]=((InverseRole)onRole).getInverseOf();
                 m_ternaryExtensionTableSearch02Bound.getBindingsBuffer()[2]=node;
                 m_ternaryExtensionTableSearch02Bound.open();
@@ -169,7 +169,7 @@ public final class NominalIntroductionManager implements Serializable {
             }
         }
         else if (node.getNodeType()==NodeType.TREE_NODE && concept instanceof AtomicConcept) {
-            if (node.m_numberOfNIAssertionsFromNode>0) {
+            if (node.getNumberOfNIAssertionsFromNode()>0) {
                 m_ternaryExtensionTableSearch1Bound.getBindingsBuffer()[1]=node;
                 m_ternaryExtensionTableSearch1Bound.open();
                 while (!m_ternaryExtensionTableSearch1Bound.afterLast()) {
@@ -195,7 +195,7 @@ public final class NominalIntroductionManager implements Serializable {
                     m_ternaryExtensionTableSearch1Bound.next();
                 }
             }
-            if (node.m_numberOfNIAssertionsToNode>0) {
+            if (node.getNumberOfNIAssertionsToNode()>0) {
                 m_ternaryExtensionTableSearch2Bound.getBindingsBuffer()[2]=node;
                 m_ternaryExtensionTableSearch2Bound.open();
                 while (!m_ternaryExtensionTableSearch2Bound.afterLast()) {
@@ -226,8 +226,7 @@ public final class NominalIntroductionManager implements Serializable {
     public void addAtomicRoleAssertion(AtomicRole atomicRole,Node nodeFrom,Node nodeTo) {
         if ((nodeFrom.getNodeType()==NodeType.NAMED_NODE || nodeFrom.getNodeType()==NodeType.ROOT_NODE) 
                 && nodeTo.getNodeType()==NodeType.TREE_NODE && !nodeFrom.isParentOf(nodeTo)) {
-            nodeFrom.m_numberOfNIAssertionsFromNode++;
-            nodeTo.m_numberOfNIAssertionsToNode++;
+            nodeFrom.addNIAssertion(nodeTo);
             m_binaryExtensionTableSearch1Bound.getBindingsBuffer()[1]=nodeFrom;
             m_binaryExtensionTableSearch1Bound.open();
             while (!m_binaryExtensionTableSearch1Bound.afterLast()) {
@@ -247,8 +246,7 @@ public final class NominalIntroductionManager implements Serializable {
         else if (nodeFrom.getNodeType()==NodeType.TREE_NODE 
                 && (nodeTo.getNodeType()==NodeType.NAMED_NODE || nodeTo.getNodeType()==NodeType.ROOT_NODE) 
                 && !nodeTo.isParentOf(nodeFrom)) {
-            nodeFrom.m_numberOfNIAssertionsFromNode++;
-            nodeTo.m_numberOfNIAssertionsToNode++;
+            nodeFrom.addNIAssertion(nodeTo);
             m_binaryExtensionTableSearch1Bound.getBindingsBuffer()[1]=nodeTo;
             m_binaryExtensionTableSearch1Bound.open();
             while (!m_binaryExtensionTableSearch1Bound.afterLast()) {
@@ -274,8 +272,7 @@ public final class NominalIntroductionManager implements Serializable {
                 || ((nodeTo.getNodeType()==NodeType.NAMED_NODE || nodeTo.getNodeType()==NodeType.ROOT_NODE) 
                         &&  nodeFrom.getNodeType()==NodeType.TREE_NODE
                         && !nodeTo.isParentOf(nodeFrom))) {
-            nodeFrom.m_numberOfNIAssertionsFromNode--;
-            nodeTo.m_numberOfNIAssertionsToNode--;
+            nodeFrom.removeNIAssertion(nodeTo);
         }
     }
     protected void addTarget(Node rootNode,Node treeNode,AtMostGuard atMost) {
@@ -0,0 +1,142 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An encoded tuple table that keeps its pages outside of the Java heap, either 
+ * in direct byte buffers or in a memory-mapped scratch file. This allows the 
+ * extension tables of very large ABoxes to grow beyond the heap limit without 
+ * burdening the garbage collector. The scratch file is created in the given 
+ * directory (or in the default temporary directory); it is closed and deleted 
+ * when the table is disposed, or on exit if the table is never disposed. Java 
+ * cannot unmap or free the pages explicitly, so clearing and disposing the 
+ * table drop the references to the pages, which the garbage collector then 
+ * releases. When the table is serialized, the contents of its pages are 
+ * written inline.
+ */
+public final class OffHeapTupleTable extends EncodedTupleTable {
+    private static final long serialVersionUID=-6590284418622315640L;
+
+    protected static final int PAGE_SHIFT=14;
+
+    protected final boolean m_memoryMapped;
+    protected final File m_scratchDirectory;
+    protected transient IntBuffer[] m_idPages;
+    protected transient File m_scratchFilePath;
+    protected transient RandomAccessFile m_scratchFile;
+
+    /**
+     * @param memoryMapped if true, the pages are mapped from a scratch file; 
+     *            otherwise, they are allocated as direct byte buffers
+     * @param scratchDirectory the directory of the scratch file, or null for 
+     *            the default temporary directory
+     */
+    public OffHeapTupleTable(TupleObjectDictionary dictionary,int encodedArity,int objectArity,boolean memoryMapped,File scratchDirectory) {
+        super(dictionary,encodedArity,objectArity,PAGE_SHIFT);
+        m_memoryMapped=memoryMapped;
+        m_scratchDirectory=scratchDirectory;
+        m_idPages=new IntBuffer[10];
+        addPage();
+    }
+    public int getTupleID(int tupleIndex,int objectIndex) {
+        return m_idPages[tupleIndex >>> m_pageShift].get((objectIndex << m_pageShift)+(tupleIndex & m_pageMask));
+    }
+    protected void setTupleID(int tupleIndex,int objectIndex,int id) {
+        m_idPages[tupleIndex >>> m_pageShift].put((objectIndex << m_pageShift)+(tupleIndex & m_pageMask),id);
+    }
+    protected void allocateIDPage(int pageIndex) {
+        if (pageIndex==m_idPages.length) {
+            IntBuffer[] newIDPages=new IntBuffer[m_idPages.length*3/2];
+            System.arraycopy(m_idPages,0,newIDPages,0,m_idPages.length);
+            m_idPages=newIDPages;
+        }
+        int pageSizeInBytes=m_encodedArity*m_pageSize*4;
+        ByteBuffer byteBuffer;
+        if (m_memoryMapped) {
+            try {
+                if (m_scratchFile==null) {
+                    m_scratchFilePath=File.createTempFile("HermiT-tuples",".tmp",m_scratchDirectory);
+                    m_scratchFilePath.deleteOnExit();
+                    m_scratchFile=new RandomAccessFile(m_scratchFilePath,"rw");
+                }
+                byteBuffer=m_scratchFile.getChannel().map(FileChannel.MapMode.READ_WRITE,(long)pageIndex*pageSizeInBytes,pageSizeInBytes);
+            }
+            catch (IOException error) {
+                throw new IllegalStateException("Cannot map a page of the tuple table scratch file.",error);
+            }
+        }
+        else
+            byteBuffer=ByteBuffer.allocateDirect(pageSizeInBytes);
+        m_idPages[pageIndex]=byteBuffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+    /**
+     * Keeps only the first page, so that a tableau does not hold on to the 
+     * pages of a large model after it has been cleared. The scratch file keeps 
+     * its length, since the next model will most likely need it again.
+     */
+    public void clear() {
+        super.clear();
+        for (int pageIndex=1;pageIndex<m_numberOfPages;pageIndex++) {
+            m_idPages[pageIndex]=null;
+            m_objectPages[pageIndex]=null;
+        }
+        if (m_numberOfPages>1) {
+            m_numberOfPages=1;
+            m_tupleCapacity=m_pageSize;
+        }
+    }
+    public void dispose() {
+        m_idPages=null;
+        m_objectPages=null;
+        m_numberOfPages=0;
+        m_tupleCapacity=0;
+        if (m_scratchFile!=null) {
+            try {
+                // the mappings stay valid until they are collected, so this cannot invalidate a page that is still in use
+                m_scratchFile.close();
+            }
+            catch (IOException error) {
+                throw new IllegalStateException("Cannot close the tuple table scratch file.",error);
+            }
+            finally {
+                m_scratchFile=null;
+                // on some platforms, a file cannot be deleted while it is mapped; it is then deleted on exit
+                m_scratchFilePath.delete();
+                m_scratchFilePath=null;
+            }
+        }
+    }
+    protected int idPagesSizeInMemory() {
+        return m_idPages.length*4;
+    }
+    /**
+     * Returns the number of bytes occupied by the pages outside of the heap.
+     */
+    public long sizeOffHeap() {
+        return (long)m_numberOfPages*m_encodedArity*m_pageSize*4;
+    }
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        for (int tupleIndex=0;tupleIndex<m_firstFreeTupleIndex;tupleIndex++)
+            for (int column=0;column<m_encodedArity;column++)
+                outputStream.writeInt(getTupleID(tupleIndex,column));
+    }
+    private void readObject(ObjectInputStream inputStream) throws IOException,ClassNotFoundException {
+        inputStream.defaultReadObject();
+        m_idPages=new IntBuffer[Math.max(10,m_numberOfPages)];
+        for (int pageIndex=0;pageIndex<m_numberOfPages;pageIndex++)
+            allocateIDPage(pageIndex);
+        for (int tupleIndex=0;tupleIndex<m_firstFreeTupleIndex;tupleIndex++)
+            for (int column=0;column<m_encodedArity;column++)
+                setTupleID(tupleIndex,column,inputStream.readInt());
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * A tuple index that maps (parent, object) pairs to child trie nodes using 
+ * an open-addressing hash table with linear probing. The parent, the hash 
+ * code, and the object of each entry are kept in primitive arrays parallel to 
+ * the bucket array, so locating a child node does not touch the trie node 
+ * pages at all. Removal uses backward shifting, so the table never contains 
+ * tombstones. The trie itself (and thus the retrieval) is the same as in 
+ * TupleIndex.
+ */
+public class OpenAddressingTupleIndex extends TupleIndex {
+    private static final long serialVersionUID=2768323413930211823L;
+
+    protected static final float OPEN_ADDRESSING_LOAD_FACTOR=0.5f;
+
+    protected int[] m_bucketParents;
+    protected int[] m_bucketHashCodes;
+    protected Object[] m_bucketObjects;
+
+    public OpenAddressingTupleIndex(int[] indexingSequence) {
+        super(indexingSequence);
+        initializeBuckets();
+    }
+    public int sizeInMemoy() {
+        return m_buckets.length*16+m_trieNodeManager.size();
+    }
+    public void clear() {
+        super.clear();
+        initializeBuckets();
+    }
+    protected void initializeBuckets() {
+        m_buckets=new int[16];
+        m_bucketParents=new int[m_buckets.length];
+        m_bucketHashCodes=new int[m_buckets.length];
+        m_bucketObjects=new Object[m_buckets.length];
+        m_bucketsLengthMinusOne=m_buckets.length-1;
+        m_resizeThreshold=(int)(m_buckets.length*OPEN_ADDRESSING_LOAD_FACTOR);
+    }
+    protected void removeTrieNode(int trieNode) {
+        int parent=m_trieNodeManager.getTrieNodeComponent(trieNode,TRIE_NODE_PARENT);
+        int hashCode=m_trieNodeManager.getTrieNodeObject(trieNode).hashCode()+parent;
+        int bucketIndex=getIndexFor(hashCode,m_bucketsLengthMinusOne);
+        while (m_buckets[bucketIndex]-BUCKET_OFFSET!=trieNode) {
+            if (m_buckets[bucketIndex]==0)
+                throw new IllegalStateException("Internal error: should be able to remove the child node.");
+            bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        }
+        int previousSibling=m_trieNodeManager.getTrieNodeComponent(trieNode,TRIE_NODE_PREVIOUS_SIBLING);
+        int nextSibling=m_trieNodeManager.getTrieNodeComponent(trieNode,TRIE_NODE_NEXT_SIBLING);
+        if (previousSibling==-1)
+            m_trieNodeManager.setTrieNodeComponent(parent,TRIE_NODE_FIRST_CHILD,nextSibling);
+        else
+            m_trieNodeManager.setTrieNodeComponent(previousSibling,TRIE_NODE_NEXT_SIBLING,nextSibling);
+        if (nextSibling!=-1)
+            m_trieNodeManager.setTrieNodeComponent(nextSibling,TRIE_NODE_PREVIOUS_SIBLING,previousSibling);
+        m_trieNodeManager.deleteTrieNode(trieNode);
+        m_numberOfNodes--;
+        // Shift back the entries following the freed bucket that would otherwise become unreachable.
+        int freeBucketIndex=bucketIndex;
+        bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        while (m_buckets[bucketIndex]!=0) {
+            int homeBucketIndex=getIndexFor(m_bucketHashCodes[bucketIndex],m_bucketsLengthMinusOne);
+            if (((bucketIndex-homeBucketIndex) & m_bucketsLengthMinusOne)>=((bucketIndex-freeBucketIndex) & m_bucketsLengthMinusOne)) {
+                m_buckets[freeBucketIndex]=m_buckets[bucketIndex];
+                m_bucketParents[freeBucketIndex]=m_bucketParents[bucketIndex];
+                m_bucketHashCodes[freeBucketIndex]=m_bucketHashCodes[bucketIndex];
+                m_bucketObjects[freeBucketIndex]=m_bucketObjects[bucketIndex];
+                freeBucketIndex=bucketIndex;
+            }
+            bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        }
+        m_buckets[freeBucketIndex]=0;
+        m_bucketObjects[freeBucketIndex]=null;
+    }
+    protected int getChildNode(int parent,Object object) {
+        int hashCode=object.hashCode()+parent;
+        int bucketIndex=getIndexFor(hashCode,m_bucketsLengthMinusOne);
+        int bucketValue;
+        while ((bucketValue=m_buckets[bucketIndex])!=0) {
+            if (m_bucketHashCodes[bucketIndex]==hashCode && m_bucketParents[bucketIndex]==parent && object.equals(m_bucketObjects[bucketIndex]))
+                return bucketValue-BUCKET_OFFSET;
+            bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        }
+        return -1;
+    }
+    protected int getChildNodeAddIfNecessary(int parent,Object object) {
+        int hashCode=object.hashCode()+parent;
+        int bucketIndex=getIndexFor(hashCode,m_bucketsLengthMinusOne);
+        int bucketValue;
+        while ((bucketValue=m_buckets[bucketIndex])!=0) {
+            if (m_bucketHashCodes[bucketIndex]==hashCode && m_bucketParents[bucketIndex]==parent && object.equals(m_bucketObjects[bucketIndex]))
+                return bucketValue-BUCKET_OFFSET;
+            bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        }
+        if (m_numberOfNodes>=m_resizeThreshold) {
+            resizeBuckets();
+            bucketIndex=getIndexFor(hashCode,m_bucketsLengthMinusOne);
+            while (m_buckets[bucketIndex]!=0)
+                bucketIndex=(bucketIndex+1) & m_bucketsLengthMinusOne;
+        }
+        int child=m_trieNodeManager.newTrieNode();
+        int nextSibling=m_trieNodeManager.getTrieNodeComponent(parent,TRIE_NODE_FIRST_CHILD);
+        if (nextSibling!=-1)
+            m_trieNodeManager.setTrieNodeComponent(nextSibling,TRIE_NODE_PREVIOUS_SIBLING,child);
+        m_trieNodeManager.setTrieNodeComponent(parent,TRIE_NODE_FIRST_CHILD,child);
+        m_trieNodeManager.initializeTrieNode(child,parent,-1,-1,nextSibling,-1,object);
+        m_buckets[bucketIndex]=child+BUCKET_OFFSET;
+        m_bucketParents[bucketIndex]=parent;
+        m_bucketHashCodes[bucketIndex]=hashCode;
+        m_bucketObjects[bucketIndex]=object;
+        m_numberOfNodes++;
+        return child;
+    }
+    protected void resizeBuckets() {
+        int[] newBuckets=new int[m_buckets.length*2];
+        int[] newBucketParents=new int[newBuckets.length];
+        int[] newBucketHashCodes=new int[newBuckets.length];
+        Object[] newBucketObjects=new Object[newBuckets.length];
+        int newBucketsLengthMinusOne=newBuckets.length-1;
+        for (int bucketIndex=m_bucketsLengthMinusOne;bucketIndex>=0;--bucketIndex) {
+            if (m_buckets[bucketIndex]!=0) {
+                int newBucketIndex=getIndexFor(m_bucketHashCodes[bucketIndex],newBucketsLengthMinusOne);
+                while (newBuckets[newBucketIndex]!=0)
+                    newBucketIndex=(newBucketIndex+1) & newBucketsLengthMinusOne;
+                newBuckets[newBucketIndex]=m_buckets[bucketIndex];
+                newBucketParents[newBucketIndex]=m_bucketParents[bucketIndex];
+                newBucketHashCodes[newBucketIndex]=m_bucketHashCodes[bucketIndex];
+                newBucketObjects[newBucketIndex]=m_bucketObjects[bucketIndex];
+            }
+        }
+        m_buckets=newBuckets;
+        m_bucketParents=newBucketParents;
+        m_bucketHashCodes=newBucketHashCodes;
+        m_bucketObjects=newBucketObjects;
+        m_bucketsLengthMinusOne=newBucketsLengthMinusOne;
+        m_resizeThreshold=(int)(m_buckets.length*OPEN_ADDRESSING_LOAD_FACTOR);
+    }
+}
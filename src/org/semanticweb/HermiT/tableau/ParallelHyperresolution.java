@@ -0,0 +1,161 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.semanticweb.HermiT.model.DLPredicate;
+
+/**
+ * Applies the DL-clauses to the delta of an extension table in parallel. The delta is split into contiguous chunks, one for
+ * each worker. Each worker has its own copy of the compiled DL-clauses whose consequences are collected in the worker's
+ * DerivationBuffer, so that the workers only read the extension tables. Once all workers have finished, the buffers are added
+ * to the tableau in the order of the chunks, so the result does not depend on the scheduling of the workers.
+ */
+public final class ParallelHyperresolution {
+    protected static final long THREAD_KEEP_ALIVE_SECONDS=10;
+
+    protected final Tableau m_tableau;
+    protected final ExtensionManager m_extensionManager;
+    protected final ExtensionTable.Retrieval[] m_deltaOldRetrievals;
+    protected final Worker[] m_workers;
+    protected ExecutorService m_executorService;
+
+    public ParallelHyperresolution(HyperresolutionManager hyperresolutionManager,int numberOfWorkers) {
+        m_tableau=hyperresolutionManager.m_tableau;
+        m_extensionManager=hyperresolutionManager.m_extensionManager;
+        m_deltaOldRetrievals=hyperresolutionManager.m_deltaOldRetrievals;
+        m_workers=new Worker[numberOfWorkers];
+        for (int workerIndex=0;workerIndex<numberOfWorkers;workerIndex++)
+            m_workers[workerIndex]=new Worker(hyperresolutionManager);
+    }
+    public void dispose() {
+        if (m_executorService!=null) {
+            m_executorService.shutdown();
+            m_executorService=null;
+        }
+    }
+    /**
+     * Applies the DL-clauses to the delta of the table of m_deltaOldRetrievals[retrievalIndex].
+     */
+    public void processDeltaOld(int retrievalIndex) {
+        ExtensionTable extensionTable=m_deltaOldRetrievals[retrievalIndex].getExtensionTable();
+        int firstTupleIndex=extensionTable.m_afterExtensionOldTupleIndex;
+        int afterLastTupleIndex=extensionTable.m_afterExtensionThisTupleIndex;
+        int chunkSize=(afterLastTupleIndex-firstTupleIndex+m_workers.length-1)/m_workers.length;
+        List<Worker> tasks=new ArrayList<Worker>(m_workers.length);
+        for (int workerIndex=0;workerIndex<m_workers.length;workerIndex++) {
+            Worker worker=m_workers[workerIndex];
+            worker.m_retrievalIndex=retrievalIndex;
+            worker.m_firstTupleIndex=Math.min(firstTupleIndex+workerIndex*chunkSize,afterLastTupleIndex);
+            worker.m_afterLastTupleIndex=Math.min(worker.m_firstTupleIndex+chunkSize,afterLastTupleIndex);
+            tasks.add(worker);
+        }
+        try {
+            for (Future<Object> future : getExecutorService().invokeAll(tasks))
+                future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while applying the DL-clauses in parallel.",e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause=e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            else if (cause instanceof Error)
+                throw (Error)cause;
+            else
+                throw new IllegalStateException(cause);
+        }
+        for (Worker worker : m_workers)
+            worker.m_derivationBuffer.addToTableau(m_tableau);
+    }
+    /**
+     * The pool has one thread per worker. Its threads time out when idle, so a tableau that is never disposed does not keep them
+     * alive between tests.
+     */
+    protected ExecutorService getExecutorService() {
+        if (m_executorService==null) {
+            ThreadPoolExecutor threadPoolExecutor=new ThreadPoolExecutor(m_workers.length,m_workers.length,THREAD_KEEP_ALIVE_SECONDS,TimeUnit.SECONDS,new LinkedBlockingQueue<Runnable>(),new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread=new Thread(runnable,"HermiT hyperresolution");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            m_executorService=threadPoolExecutor;
+        }
+        return m_executorService;
+    }
+
+    protected static final class Worker implements Callable<Object> {
+        protected final ExtensionManager m_extensionManager;
+        protected final DerivationBuffer m_derivationBuffer;
+        protected final ExtensionTable.UnindexedRetrieval[] m_deltaOldRetrievals;
+        protected final HyperresolutionManager.CompiledDLClauseInfo[] m_tupleConsumersByDeltaPredicateIndex;
+        protected final Map<DLPredicate,HyperresolutionManager.CompiledDLClauseInfo> m_tupleConsumersByUnindexedDeltaPredicate;
+        protected int m_retrievalIndex;
+        protected int m_firstTupleIndex;
+        protected int m_afterLastTupleIndex;
+
+        public Worker(HyperresolutionManager hyperresolutionManager) {
+            m_extensionManager=hyperresolutionManager.m_extensionManager;
+            m_derivationBuffer=new DerivationBuffer();
+            m_deltaOldRetrievals=new ExtensionTable.UnindexedRetrieval[hyperresolutionManager.m_deltaOldRetrievals.length];
+            Map<ExtensionTable,ExtensionTable.UnindexedRetrieval> retrievalsByTable=new HashMap<ExtensionTable,ExtensionTable.UnindexedRetrieval>();
+            for (int index=0;index<m_deltaOldRetrievals.length;index++) {
+                ExtensionTable extensionTable=hyperresolutionManager.m_deltaOldRetrievals[index].getExtensionTable();
+                int[] bindingPositions=new int[extensionTable.getArity()];
+                for (int position=0;position<bindingPositions.length;position++)
+                    bindingPositions[position]=-1;
+                m_deltaOldRetrievals[index]=extensionTable.new UnindexedRetrieval(bindingPositions,new Object[extensionTable.getArity()],ExtensionTable.View.DELTA_OLD);
+                retrievalsByTable.put(extensionTable,m_deltaOldRetrievals[index]);
+            }
+            Map<DLPredicate,HyperresolutionManager.CompiledDLClauseInfo> tupleConsumersByDeltaPredicate=new LinkedHashMap<DLPredicate,HyperresolutionManager.CompiledDLClauseInfo>();
+            for (Map.Entry<DLPredicate,HyperresolutionManager.CompiledDLClauseInfo> entry : hyperresolutionManager.m_tupleConsumersByDeltaPredicate.entrySet()) {
+                HyperresolutionManager.CompiledDLClauseInfo compiledDLClauseInfo=entry.getValue();
+                ExtensionTable.UnindexedRetrieval firstAtomRetrieval=retrievalsByTable.get(compiledDLClauseInfo.m_retrievals[0].getExtensionTable());
+                if (firstAtomRetrieval!=null) {
+                    List<HyperresolutionManager.CompiledDLClauseInfo> consumers=new ArrayList<HyperresolutionManager.CompiledDLClauseInfo>();
+                    for (;compiledDLClauseInfo!=null;compiledDLClauseInfo=compiledDLClauseInfo.m_next)
+                        consumers.add(compiledDLClauseInfo);
+                    HyperresolutionManager.CompiledDLClauseInfo next=null;
+                    for (int index=consumers.size()-1;index>=0;--index) {
+                        HyperresolutionManager.CompiledDLClauseInfo consumer=consumers.get(index);
+                        next=new HyperresolutionManager.CompiledDLClauseInfo(m_extensionManager,consumer.m_bodyDLClause,consumer.m_headDLClauses,firstAtomRetrieval,consumer.hasCompiledMatchers(),m_derivationBuffer,next);
+                    }
+                    tupleConsumersByDeltaPredicate.put(entry.getKey(),next);
+                }
+            }
+            m_tupleConsumersByDeltaPredicateIndex=HyperresolutionManager.getTupleConsumersByDeltaPredicateIndex(tupleConsumersByDeltaPredicate);
+            m_tupleConsumersByUnindexedDeltaPredicate=HyperresolutionManager.getTupleConsumersByUnindexedDeltaPredicate(tupleConsumersByDeltaPredicate);
+        }
+        public Object call() {
+            ExtensionTable.UnindexedRetrieval retrieval=m_deltaOldRetrievals[m_retrievalIndex];
+            retrieval.open(m_firstTupleIndex,m_afterLastTupleIndex);
+            Object[] tupleBuffer=retrieval.getTupleBuffer();
+            while (!retrieval.afterLast() && !m_derivationBuffer.containsClash()) {
+                HyperresolutionManager.CompiledDLClauseInfo compiledDLClauseInfo=HyperresolutionManager.getTupleConsumers(tupleBuffer[0],m_tupleConsumersByDeltaPredicateIndex,m_tupleConsumersByUnindexedDeltaPredicate);
+                while (compiledDLClauseInfo!=null) {
+                    compiledDLClauseInfo.evaluate();
+                    compiledDLClauseInfo=compiledDLClauseInfo.m_next;
+                }
+                retrieval.next();
+            }
+            return null;
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 public final class PermanentDependencySet implements DependencySet,Serializable {
     private static final long serialVersionUID=353039301123337446L;
@@ -13,6 +14,9 @@ public final class PermanentDependencySet implements DependencySet,Serializable
     protected int m_usageCounter;
     protected PermanentDependencySet m_previousUnusedSet;
     protected PermanentDependencySet m_nextUnusedSet;
+    protected long[] m_words;
+    protected int[] m_members;
+    protected int m_hashCode;
     
     protected PermanentDependencySet(int generation) {
         m_generation=generation;
@@ -22,8 +26,16 @@ public final class PermanentDependencySet implements DependencySet,Serializable
         m_usageCounter=0;
         m_previousUnusedSet=null;
         m_nextUnusedSet=null;
+        m_words=null;
+        m_members=null;
     }
     public boolean containsBranchingPoint(int branchingPoint) {
+        if (m_words!=null) {
+            int wordIndex=branchingPoint >>> 6;
+            return wordIndex<m_words.length && (m_words[wordIndex] & (1L << branchingPoint))!=0L;
+        }
+        else if (m_members!=null)
+            return branchingPoint>=0 && Arrays.binarySearch(m_members,branchingPoint)>=0;
         PermanentDependencySet set=this;
         while (set!=null) {
             if (set.m_branchingPoint==branchingPoint)
@@ -41,6 +53,18 @@ public final class PermanentDependencySet implements DependencySet,Serializable
     public String toString() {
         StringBuffer buffer=new StringBuffer();
         buffer.append("{ ");
+        if (m_words!=null || m_members!=null) {
+            boolean first=true;
+            for (int branchingPoint=m_branchingPoint;branchingPoint>=0;--branchingPoint)
+                if (containsBranchingPoint(branchingPoint)) {
+                    if (!first)
+                        buffer.append(',');
+                    buffer.append(branchingPoint);
+                    first=false;
+                }
+            buffer.append(" }");
+            return buffer.toString();
+        }
         PermanentDependencySet dependencySet=this;
         while (dependencySet.m_branchingPoint!=-1) {
             buffer.append(dependencySet.m_branchingPoint);
@@ -0,0 +1,31 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * Processes the most recently derived ground disjunction first, trying the disjuncts from left to right.
+ */
+public class ReverseCreationOrderDisjunctionScheduler implements DisjunctionScheduler {
+    private static final long serialVersionUID=-2400531794183337916L;
+
+    protected final Tableau m_tableau;
+
+    public ReverseCreationOrderDisjunctionScheduler(Tableau tableau) {
+        m_tableau=tableau;
+    }
+    public void clear() {
+    }
+    public GroundDisjunction getNextGroundDisjunction() {
+        if (m_tableau.m_firstUnprocessedGroundDisjunction==null)
+            return null;
+        // The first unprocessed disjunction is never marked as processed, so the loop stops there at the latest.
+        GroundDisjunction groundDisjunction=m_tableau.m_firstGroundDisjunction;
+        while (groundDisjunction.m_processed)
+            groundDisjunction=groundDisjunction.m_nextGroundDisjunction;
+        return groundDisjunction;
+    }
+    public int[] getDisjunctOrder(GroundDisjunction groundDisjunction) {
+        return null;
+    }
+    public void clashDetected(DependencySet clashDependencySet) {
+    }
+}
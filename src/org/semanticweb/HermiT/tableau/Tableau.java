@@ -3,15 +3,18 @@ package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
+import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.existentials.ExpansionStrategy;
 import org.semanticweb.HermiT.model.Atom;
 import org.semanticweb.HermiT.model.AtomicConcept;
 import org.semanticweb.HermiT.model.AtomicNegationConcept;
 import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
 import org.semanticweb.HermiT.model.DLOntology;
 import org.semanticweb.HermiT.model.DLPredicate;
 import org.semanticweb.HermiT.model.ExistentialConcept;
@@ -35,6 +38,7 @@ public final class Tableau implements Serializable {
     protected final DLOntology m_dlOntology;
     protected final Map<String,Object> m_parameters;
     protected final DependencySetFactory m_dependencySetFactory;
+    protected final NodeArena m_nodeArena;
     protected final ExtensionManager m_extensionManager;
     protected final LabelManager m_labelManager;
     protected final HyperresolutionManager m_hyperresolutionManager;
@@ -43,32 +47,38 @@ public final class Tableau implements Serializable {
     protected final NominalIntroductionManager m_nominalIntroductionManager;
     protected final DescriptionGraphManager m_descriptionGraphManager;
     protected final DatatypeManager m_datatypeManager;
-    protected final boolean m_needsThingExtension;
-    protected final boolean m_needsNamedExtension;
+    protected final NogoodManager m_nogoodManager;
+    protected final DisjunctionScheduler m_disjunctionScheduler;
+    protected final DisjunctWatchManager m_disjunctWatchManager;
+    protected boolean m_needsThingExtension;
+    protected boolean m_needsNamedExtension;
     protected final List<List<ExistentialConcept>> m_existentialConceptsBuffers;
     protected final boolean m_checkDatatypes;
     protected BranchingPoint[] m_branchingPoints;
     protected int m_currentBranchingPoint;
     protected int m_nonbacktrackableBranchingPoint;
     protected boolean m_isCurrentModelDeterministic;
-    protected int m_allocatedNodes;
     protected int m_numberOfNodesInTableau;
     protected int m_numberOfMergedOrPrunedNodes;
     protected int m_numberOfNodeCreations;
-    protected Node m_firstFreeNode;
     protected Node m_firstTableauNode;
     protected Node m_lastTableauNode;
     protected Node m_lastMergedOrPrunedNode;
     protected GroundDisjunction m_firstGroundDisjunction;
     protected GroundDisjunction m_firstUnprocessedGroundDisjunction;
+    protected GroundDisjunction[] m_outOfOrderGroundDisjunctions;
+    protected int[] m_outOfOrderGroundDisjunctionLevels;
+    protected int m_numberOfOutOfOrderGroundDisjunctions;
     protected Node m_checkedNode;
+    protected Map<Individual,Node> m_aboxCheckpoint;
 
     public Tableau(TableauMonitor tableauMonitor,ExpansionStrategy existentialsExpansionStrategy,DLOntology dlOntology,Map<String,Object> parameters) {
         m_parameters=parameters;
         m_tableauMonitor=tableauMonitor;
         m_existentialsExpansionStrategy=existentialsExpansionStrategy;
         m_dlOntology=dlOntology;
-        m_dependencySetFactory=new DependencySetFactory();
+        m_dependencySetFactory=new DependencySetFactory(parameters.get("DependencySetFactory.dependencySetType")==Configuration.DependencySetType.BITSETS);
+        m_nodeArena=new NodeArena(this);
         m_extensionManager=new ExtensionManager(this);
         m_labelManager=new LabelManager(this);
         m_hyperresolutionManager=new HyperresolutionManager(this);
@@ -77,17 +87,68 @@ public final class Tableau implements Serializable {
         m_nominalIntroductionManager=new NominalIntroductionManager(this);
         m_descriptionGraphManager=new DescriptionGraphManager(this);
         m_datatypeManager=new DatatypeManager(this);
+        m_nogoodManager=(Boolean.TRUE.equals(parameters.get("Tableau.learnNogoods")) ? new NogoodManager(this) : null);
+        m_disjunctWatchManager=(Boolean.TRUE.equals(parameters.get("Tableau.watchDisjuncts")) ? new DisjunctWatchManager(this) : null);
+        m_disjunctionScheduler=createDisjunctionScheduler((Configuration.DisjunctionSchedulerType)parameters.get("Tableau.disjunctionSchedulerType"));
         m_existentialsExpansionStrategy.initialize(this);
-        m_needsThingExtension=m_hyperresolutionManager.m_tupleConsumersByDeltaPredicate.containsKey(AtomicConcept.THING);
-        m_needsNamedExtension=m_hyperresolutionManager.m_tupleConsumersByDeltaPredicate.containsKey(AtomicConcept.INTERNAL_NAMED);
+        updateNeedsExtensions();
         m_existentialConceptsBuffers=new ArrayList<List<ExistentialConcept>>();
         m_checkDatatypes=m_dlOntology.hasDatatypes();
         m_branchingPoints=new BranchingPoint[2];
         m_currentBranchingPoint=-1;
         m_nonbacktrackableBranchingPoint=-1;
+        m_outOfOrderGroundDisjunctions=new GroundDisjunction[16];
+        m_outOfOrderGroundDisjunctionLevels=new int[16];
         if (m_tableauMonitor!=null)
             m_tableauMonitor.setTableau(this);
     }
+    protected DisjunctionScheduler createDisjunctionScheduler(Configuration.DisjunctionSchedulerType disjunctionSchedulerType) {
+        if (disjunctionSchedulerType==null)
+            return new CreationOrderDisjunctionScheduler(this);
+        switch (disjunctionSchedulerType) {
+        case CREATION_ORDER:
+            return new CreationOrderDisjunctionScheduler(this);
+        case REVERSE_CREATION_ORDER:
+            return new ReverseCreationOrderDisjunctionScheduler(this);
+        case FEWEST_OPEN_DISJUNCTS:
+            return new FewestOpenDisjunctsScheduler(this);
+        case ACTIVITY:
+            return new ActivityDisjunctionScheduler(this);
+        default:
+            throw new IllegalArgumentException("Unknown disjunction scheduler type.");
+        }
+    }
+    protected void updateNeedsExtensions() {
+        m_needsThingExtension=m_hyperresolutionManager.m_tupleConsumersByDeltaPredicate.containsKey(AtomicConcept.THING);
+        m_needsNamedExtension=m_hyperresolutionManager.m_tupleConsumersByDeltaPredicate.containsKey(AtomicConcept.INTERNAL_NAMED);
+    }
+    /**
+     * Adds the given DL-clauses to the ones of the ontology until clearQueryDLClauses() is called. Only these DL-clauses are
+     * compiled, which is much cheaper than creating a tableau for the extended ontology. The DL-clauses must not need features
+     * that the tableau was not set up for: the blocking strategy, the datatype checks, and the ABox depend on the ontology, so the
+     * DL-clauses must not introduce nominals, inverse roles, at-most restrictions, datatypes, or description graphs; furthermore,
+     * if the ontology is deterministic, the DL-clauses must be Horn. The tableau is cleared, which discards the ABox checkpoint,
+     * since the DL-clauses can derive new facts from the ABox.
+     */
+    public void setQueryDLClauses(Collection<DLClause> dlClauses) {
+        if (isDeterministic())
+            for (DLClause dlClause : dlClauses)
+                if (dlClause.getHeadLength()>1)
+                    throw new IllegalArgumentException("The query DL-clauses of a deterministic tableau must be Horn.");
+        m_hyperresolutionManager.setQueryDLClauses(dlClauses);
+        updateNeedsExtensions();
+        // models with the query DL-clauses are also models without them, so this is not needed in clearQueryDLClauses()
+        m_existentialsExpansionStrategy.dlClausesChanged();
+        clear();
+    }
+    /**
+     * Removes the DL-clauses added by setQueryDLClauses() and clears the tableau.
+     */
+    public void clearQueryDLClauses() {
+        m_hyperresolutionManager.setQueryDLClauses(null);
+        updateNeedsExtensions();
+        clear();
+    }
     public DLOntology getDLOntology() {
         return m_dlOntology;
     }
@@ -127,18 +188,30 @@ public final class Tableau implements Serializable {
     public DescriptionGraphManager getDescriptionGraphManager() {
         return m_descriptionGraphManager;
     }
+    public NogoodManager getNogoodManager() {
+        return m_nogoodManager;
+    }
+    public DisjunctionScheduler getDisjunctionScheduler() {
+        return m_disjunctionScheduler;
+    }
+    public DisjunctWatchManager getDisjunctWatchManager() {
+        return m_disjunctWatchManager;
+    }
     public void clear() {
-        m_allocatedNodes=0;
         m_numberOfNodesInTableau=0;
         m_numberOfMergedOrPrunedNodes=0;
         m_numberOfNodeCreations=0;
-        m_firstFreeNode=null;
         m_firstTableauNode=null;
         m_lastTableauNode=null;
+        m_nodeArena.clear();
         m_lastMergedOrPrunedNode=null;
         m_firstGroundDisjunction=null;
         m_firstUnprocessedGroundDisjunction=null;
+        for (int index=0;index<m_numberOfOutOfOrderGroundDisjunctions;index++)
+            m_outOfOrderGroundDisjunctions[index]=null;
+        m_numberOfOutOfOrderGroundDisjunctions=0;
         m_checkedNode=null;
+        m_aboxCheckpoint=null;
         m_branchingPoints=new BranchingPoint[2];
         m_currentBranchingPoint=-1;
         m_nonbacktrackableBranchingPoint=-1;
@@ -146,12 +219,25 @@ public final class Tableau implements Serializable {
         m_extensionManager.clear();
         m_nominalIntroductionManager.clear();
         m_descriptionGraphManager.clear();
+        if (m_nogoodManager!=null)
+            m_nogoodManager.clear();
+        m_disjunctionScheduler.clear();
+        if (m_disjunctWatchManager!=null)
+            m_disjunctWatchManager.clear();
         m_isCurrentModelDeterministic=true;
         m_existentialsExpansionStrategy.clear();
         m_existentialConceptsBuffers.clear();
         if (m_tableauMonitor!=null)
             m_tableauMonitor.tableauCleared();
     }
+    /**
+     * Releases the resources that the tableau holds outside of the Java heap, such as the scratch files of the extension tables
+     * and the threads of parallel hyperresolution. The tableau must not be used afterwards.
+     */
+    public void dispose() {
+        m_hyperresolutionManager.dispose();
+        m_extensionManager.dispose();
+    }
     public boolean isSatisfiable() {
         if (m_tableauMonitor!=null)
             m_tableauMonitor.saturateStarted();
@@ -167,6 +253,7 @@ public final class Tableau implements Serializable {
             m_tableauMonitor.saturateFinished();
         if (!m_extensionManager.containsClash()) {
             m_existentialsExpansionStrategy.modelFound();
+            m_hyperresolutionManager.modelFound();
             return true;
         }
         else
@@ -181,6 +268,8 @@ public final class Tableau implements Serializable {
                 m_hyperresolutionManager.applyDLClauses();
                 if (m_checkDatatypes && !m_extensionManager.containsClash())
                     m_datatypeManager.checkDatatypeConstraints();
+                if (m_disjunctWatchManager!=null && !m_extensionManager.containsClash())
+                    m_disjunctWatchManager.propagate();
                 if (!m_extensionManager.containsClash())
                     m_nominalIntroductionManager.processTargets();
                 hasChange=true;
@@ -192,23 +281,29 @@ public final class Tableau implements Serializable {
             if (m_existentialsExpansionStrategy.expandExistentials())
                 return true;
         if (!m_extensionManager.containsClash()) {
-            while (m_firstUnprocessedGroundDisjunction!=null) {
-                GroundDisjunction groundDisjunction=m_firstUnprocessedGroundDisjunction;
+            GroundDisjunction groundDisjunction;
+            while ((groundDisjunction=m_disjunctionScheduler.getNextGroundDisjunction())!=null) {
                 if (m_tableauMonitor!=null)
                     m_tableauMonitor.processGroundDisjunctionStarted(groundDisjunction);
-                m_firstUnprocessedGroundDisjunction=groundDisjunction.m_previousGroundDisjunction;
+                markGroundDisjunctionProcessed(groundDisjunction);
                 if (!groundDisjunction.isSatisfied(this)) {
                     DependencySet dependencySet=groundDisjunction.getDependencySet();
+                    int firstDisjunct=0;
                     if (groundDisjunction.getNumberOfDisjuncts()>1) {
-                        BranchingPoint branchingPoint=new DisjunctionBranchingPoint(this,groundDisjunction);
+                        DisjunctionBranchingPoint branchingPoint=new DisjunctionBranchingPoint(this,groundDisjunction,m_disjunctionScheduler.getDisjunctOrder(groundDisjunction));
                         pushBranchingPoint(branchingPoint);
                         dependencySet=m_dependencySetFactory.addBranchingPoint(dependencySet,branchingPoint.getLevel());
+                        firstDisjunct=branchingPoint.getCurrentDisjunct();
                     }
                     if (m_tableauMonitor!=null)
-                        m_tableauMonitor.disjunctProcessingStarted(groundDisjunction,0);
-                    groundDisjunction.addDisjunctToTableau(this,0,dependencySet);
+                        m_tableauMonitor.disjunctProcessingStarted(groundDisjunction,firstDisjunct);
+                    DependencySet nogoodDependencySet=(m_nogoodManager==null ? null : m_nogoodManager.getViolatedNogoodDependencySet(groundDisjunction,firstDisjunct));
+                    if (nogoodDependencySet!=null)
+                        m_extensionManager.setClash(m_dependencySetFactory.unionWith(dependencySet,nogoodDependencySet));
+                    else
+                        groundDisjunction.addDisjunctToTableau(this,firstDisjunct,dependencySet);
                     if (m_tableauMonitor!=null) {
-                        m_tableauMonitor.disjunctProcessingFinished(groundDisjunction,0);
+                        m_tableauMonitor.disjunctProcessingFinished(groundDisjunction,firstDisjunct);
                         m_tableauMonitor.processGroundDisjunctionFinished(groundDisjunction);
                     }
                     return true;
@@ -224,6 +319,9 @@ public final class Tableau implements Serializable {
             int newCurrentBranchingPoint=clashDependencySet.getMaximumBranchingPoint();
             if (newCurrentBranchingPoint<=m_nonbacktrackableBranchingPoint)
                 return false;
+            if (m_nogoodManager!=null)
+                m_nogoodManager.clashDetected(clashDependencySet);
+            m_disjunctionScheduler.clashDetected(clashDependencySet);
             backtrackTo(newCurrentBranchingPoint);
             BranchingPoint branchingPoint=getCurrentBranchingPoint();
             if (m_tableauMonitor!=null)
@@ -245,9 +343,10 @@ public final class Tableau implements Serializable {
     public boolean isSatisfiable(AtomicConcept atomicConcept) {
         if (m_tableauMonitor!=null)
             m_tableauMonitor.isSatisfiableStarted(atomicConcept);
-        clear();
         if (hasNominals())
-            loadABox();
+            restoreABoxCheckpoint();
+        else
+            clear();
         m_checkedNode=createNewRootNode(m_dependencySetFactory.emptySet());
         m_extensionManager.addConceptAssertion(atomicConcept,m_checkedNode,m_dependencySetFactory.emptySet());
         boolean result=isSatisfiable();
@@ -258,15 +357,13 @@ public final class Tableau implements Serializable {
     public boolean isSubsumedBy(AtomicConcept subconcept,AtomicConcept superconcept) {
         if (m_tableauMonitor!=null)
             m_tableauMonitor.isSubsumedByStarted(subconcept,superconcept);
-        clear();
         if (hasNominals())
-            loadABox();
+            restoreABoxCheckpoint();
+        else
+            clear();
         m_checkedNode=createNewRootNode(m_dependencySetFactory.emptySet());
         m_extensionManager.addConceptAssertion(subconcept,m_checkedNode,m_dependencySetFactory.emptySet());
-        m_branchingPoints[0]=new BranchingPoint(this);
-        m_currentBranchingPoint++;
-        m_nonbacktrackableBranchingPoint=m_currentBranchingPoint;
-        DependencySet dependencySet=m_dependencySetFactory.addBranchingPoint(m_dependencySetFactory.emptySet(),m_currentBranchingPoint);
+        DependencySet dependencySet=addNonbacktrackableBranchingPoint();
         m_extensionManager.addConceptAssertion(AtomicNegationConcept.create(superconcept),m_checkedNode,dependencySet);
         boolean result=!isSatisfiable();
         if (m_tableauMonitor!=null)
@@ -274,24 +371,21 @@ public final class Tableau implements Serializable {
         return result;
     }
     public boolean isAsymmetric(AtomicRole role) {
-        clear();
         if (hasNominals())
-            loadABox();
+            restoreABoxCheckpoint();
+        else
+            clear();
         Node a=createNewRootNode(m_dependencySetFactory.emptySet());
         Node b=createNewRootNode(m_dependencySetFactory.emptySet());
         m_extensionManager.addRoleAssertion(role,a,b,m_dependencySetFactory.emptySet());
-        m_branchingPoints[0]=new BranchingPoint(this);
-        m_currentBranchingPoint++;
-        m_nonbacktrackableBranchingPoint=m_currentBranchingPoint;
-        DependencySet dependencySet=m_dependencySetFactory.addBranchingPoint(m_dependencySetFactory.emptySet(),m_currentBranchingPoint);
+        DependencySet dependencySet=addNonbacktrackableBranchingPoint();
         m_extensionManager.addRoleAssertion(role,b,a,dependencySet);
         return !isSatisfiable();
     }
     public boolean isABoxSatisfiable() {
         if (m_tableauMonitor!=null)
             m_tableauMonitor.isABoxSatisfiableStarted();
-        clear();
-        loadABox();
+        restoreABoxCheckpoint();
         if (m_firstTableauNode==null) {
             // Ensure that at least one individual exists.
             createNewRootNode(m_dependencySetFactory.emptySet());
@@ -304,50 +398,111 @@ public final class Tableau implements Serializable {
     public boolean isInstanceOf(Individual individual, AtomicConcept atomicConcept) {
         if (m_tableauMonitor!=null)
             m_tableauMonitor.isInstanceOfStarted(atomicConcept,individual);
-        clear();
-        Map<Individual,Node> aboxMapping=loadABox();
+        Map<Individual,Node> aboxMapping=restoreABoxCheckpoint();
+        DependencySet dependencySet=m_dependencySetFactory.emptySet();
         m_checkedNode=aboxMapping.get(individual);
         if (m_checkedNode==null)
-            m_checkedNode=createNewRootNode(m_dependencySetFactory.emptySet());
-        m_extensionManager.addConceptAssertion(AtomicNegationConcept.create(atomicConcept),m_checkedNode,m_dependencySetFactory.emptySet());
+            m_checkedNode=createNewRootNode(dependencySet);
+        else if (!m_checkedNode.isActive()) {
+            // the individual's node may have been merged while the ABox was saturated
+            dependencySet=m_checkedNode.addCacnonicalNodeDependencySet(dependencySet);
+            m_checkedNode=m_checkedNode.getCanonicalNode();
+        }
+        m_extensionManager.addConceptAssertion(AtomicNegationConcept.create(atomicConcept),m_checkedNode,dependencySet);
         boolean result=!isSatisfiable();
         if (m_tableauMonitor!=null)
             m_tableauMonitor.isInstanceOfFinished(atomicConcept,individual,result);
         return result;
     }
-    protected void loadPositiveFact(Atom atom,Map<Individual,Node> individualsToNodes) {
+    protected Object[] getPositiveFactTuple(Atom atom,Map<Individual,Node> individualsToNodes) {
         DLPredicate dlPredicate=atom.getDLPredicate();
         switch (dlPredicate.getArity()) {
         case 1:
-            m_extensionManager.addAssertion(dlPredicate,getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)),m_dependencySetFactory.emptySet());
-            break;
+            return new Object[] { dlPredicate,getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)) };
         case 2:
-            m_extensionManager.addAssertion(dlPredicate,getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)),getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(1)),m_dependencySetFactory.emptySet());
-            break;
+            return new Object[] { dlPredicate,getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)),getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(1)) };
         default:
             throw new IllegalArgumentException("Unsupported arity of positive ground atoms.");
         }
     }
-    protected void loadNegativeFact(Atom atom,Map<Individual,Node> individualsToNodes) {
+    protected Object[] getNegativeFactTuple(Atom atom,Map<Individual,Node> individualsToNodes) {
         DLPredicate dlPredicate=atom.getDLPredicate();
         if (!(dlPredicate instanceof AtomicConcept))
             throw new IllegalArgumentException("Unsupported type of negative fact.");
         switch (dlPredicate.getArity()) {
         case 1:
-            m_extensionManager.addConceptAssertion(AtomicNegationConcept.create((AtomicConcept)dlPredicate),getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)),m_dependencySetFactory.emptySet());
-            break;
+            return new Object[] { AtomicNegationConcept.create((AtomicConcept)dlPredicate),getNodeForIndividual(individualsToNodes,(Individual)atom.getArgument(0)) };
         default:
             throw new IllegalArgumentException("Unsupported arity of negative ground atoms.");
         }
     }
+    /**
+     * Creates the nodes for the individuals of the ABox and loads all its facts in one batch through ExtensionManager.addTuples(),
+     * which builds the tuple indexes in bulk rather than fact by fact.
+     */
     protected Map<Individual,Node> loadABox() {
         Map<Individual,Node> individualsToNodes=new HashMap<Individual,Node>();
+        List<Object[]> tuples=new ArrayList<Object[]>(m_dlOntology.getPositiveFacts().size()+m_dlOntology.getNegativeFacts().size());
         for (Atom atom : m_dlOntology.getPositiveFacts())
-            loadPositiveFact(atom,individualsToNodes);
+            tuples.add(getPositiveFactTuple(atom,individualsToNodes));
         for (Atom atom : m_dlOntology.getNegativeFacts())
-            loadNegativeFact(atom,individualsToNodes);
+            tuples.add(getNegativeFactTuple(atom,individualsToNodes));
+        m_extensionManager.addTuples(tuples,m_dependencySetFactory.emptySet());
         return individualsToNodes;
     }
+    /**
+     * Brings the tableau into the state it had after the ABox was loaded and its deterministic consequences were derived. This
+     * state is computed only once and is recorded as a branching point at level 0; subsequent calls just backtrack to that
+     * branching point, which takes time proportional to the changes made since. Ground disjunctions and existentials of the ABox
+     * are left unprocessed, so each test starts from the same deterministic state. If the ABox clashes on its own, no checkpoint
+     * is recorded and the clash is left in place so that the test fails immediately.
+     * 
+     * @return the mapping of the ABox individuals to their nodes
+     */
+    protected Map<Individual,Node> restoreABoxCheckpoint() {
+        if (m_aboxCheckpoint==null) {
+            clear();
+            Map<Individual,Node> individualsToNodes=loadABox();
+            while (m_extensionManager.propagateDeltaNew() && !m_extensionManager.containsClash()) {
+                m_descriptionGraphManager.checkGraphConstraints();
+                m_hyperresolutionManager.applyDLClauses();
+                if (m_checkDatatypes && !m_extensionManager.containsClash())
+                    m_datatypeManager.checkDatatypeConstraints();
+                if (m_disjunctWatchManager!=null && !m_extensionManager.containsClash())
+                    m_disjunctWatchManager.propagate();
+            }
+            if (m_extensionManager.containsClash())
+                return individualsToNodes;
+            pushBranchingPoint(new BranchingPoint(this));
+            m_aboxCheckpoint=individualsToNodes;
+        }
+        else {
+            backtrackTo(0);
+            m_dependencySetFactory.removeUnusedSets();
+        }
+        if (m_nogoodManager!=null)
+            m_nogoodManager.clear();
+        m_nonbacktrackableBranchingPoint=m_currentBranchingPoint;
+        m_isCurrentModelDeterministic=true;
+        m_checkedNode=null;
+        return m_aboxCheckpoint;
+    }
+    /**
+     * Opens a branching point that is never backtracked to, and returns the dependency set for the facts that are added to refute
+     * the current test. A clash depending on these facts only shows that the test succeeded.
+     */
+    protected DependencySet addNonbacktrackableBranchingPoint() {
+        BranchingPoint branchingPoint=new BranchingPoint(this);
+        m_currentBranchingPoint++;
+        if (m_currentBranchingPoint>=m_branchingPoints.length) {
+            BranchingPoint[] newBranchingPoints=new BranchingPoint[m_currentBranchingPoint*3/2+1];
+            System.arraycopy(m_branchingPoints,0,newBranchingPoints,0,m_branchingPoints.length);
+            m_branchingPoints=newBranchingPoints;
+        }
+        m_branchingPoints[m_currentBranchingPoint]=branchingPoint;
+        m_nonbacktrackableBranchingPoint=m_currentBranchingPoint;
+        return m_dependencySetFactory.addBranchingPoint(m_dependencySetFactory.emptySet(),m_currentBranchingPoint);
+    }
     protected Node getNodeForIndividual(Map<Individual,Node> individualsToNodes,Individual individual) {
         Node node=individualsToNodes.get(individual);
         if (node==null) {
@@ -356,6 +511,13 @@ public final class Tableau implements Serializable {
         }
         return node;
     }
+    /**
+     * Returns the nodes of the individuals of the ABox, or null if the ABox has not been loaded yet or clashes on its own. After
+     * a test, a node may have been merged into another one, which then represents the individual in the current model.
+     */
+    public Map<Individual,Node> getABoxNodes() {
+        return m_aboxCheckpoint;
+    }
     public boolean isCurrentModelDeterministic() {
         return m_isCurrentModelDeterministic;
     }
@@ -373,12 +535,42 @@ public final class Tableau implements Serializable {
         m_firstGroundDisjunction=groundDisjunction;
         if (m_firstUnprocessedGroundDisjunction==null)
             m_firstUnprocessedGroundDisjunction=groundDisjunction;
+        if (m_disjunctWatchManager!=null)
+            m_disjunctWatchManager.groundDisjunctionAdded(groundDisjunction);
         if (m_tableauMonitor!=null)
             m_tableauMonitor.groundDisjunctionDerived(groundDisjunction);
     }
     public GroundDisjunction getFirstUnprocessedGroundDisjunction() {
         return m_firstUnprocessedGroundDisjunction;
     }
+    /**
+     * Marks the given ground disjunction as processed. The disjunctions up to m_firstUnprocessedGroundDisjunction are processed;
+     * a disjunction processed out of order is marked individually, and the mark is undone when backtracking to a level below
+     * the one at which the disjunction was processed.
+     */
+    protected void markGroundDisjunctionProcessed(GroundDisjunction groundDisjunction) {
+        if (groundDisjunction==m_firstUnprocessedGroundDisjunction) {
+            do {
+                m_firstUnprocessedGroundDisjunction=m_firstUnprocessedGroundDisjunction.m_previousGroundDisjunction;
+            } while (m_firstUnprocessedGroundDisjunction!=null && m_firstUnprocessedGroundDisjunction.m_processed);
+        }
+        else {
+            assert !groundDisjunction.m_processed;
+            if (m_numberOfOutOfOrderGroundDisjunctions==m_outOfOrderGroundDisjunctions.length) {
+                GroundDisjunction[] newOutOfOrderGroundDisjunctions=new GroundDisjunction[m_numberOfOutOfOrderGroundDisjunctions*3/2];
+                System.arraycopy(m_outOfOrderGroundDisjunctions,0,newOutOfOrderGroundDisjunctions,0,m_numberOfOutOfOrderGroundDisjunctions);
+                m_outOfOrderGroundDisjunctions=newOutOfOrderGroundDisjunctions;
+                int[] newOutOfOrderGroundDisjunctionLevels=new int[m_numberOfOutOfOrderGroundDisjunctions*3/2];
+                System.arraycopy(m_outOfOrderGroundDisjunctionLevels,0,newOutOfOrderGroundDisjunctionLevels,0,m_numberOfOutOfOrderGroundDisjunctions);
+                m_outOfOrderGroundDisjunctionLevels=newOutOfOrderGroundDisjunctionLevels;
+            }
+            groundDisjunction.m_processed=true;
+            m_outOfOrderGroundDisjunctions[m_numberOfOutOfOrderGroundDisjunctions]=groundDisjunction;
+            // if the disjunction opens a branching point, it remains processed when backtracking to that point
+            m_outOfOrderGroundDisjunctionLevels[m_numberOfOutOfOrderGroundDisjunctions]=m_currentBranchingPoint+1;
+            m_numberOfOutOfOrderGroundDisjunctions++;
+        }
+    }
     /**
      * Add a branching point in case we need to backtrack to this state.
      * 
@@ -418,6 +610,11 @@ public final class Tableau implements Serializable {
         m_currentBranchingPoint=newCurrentBrancingPoint;
         // backtrack processed ground disjunctions
         m_firstUnprocessedGroundDisjunction=branchingPoint.m_firstUnprocessedGroundDisjunction;
+        while (m_numberOfOutOfOrderGroundDisjunctions>0 && m_outOfOrderGroundDisjunctionLevels[m_numberOfOutOfOrderGroundDisjunctions-1]>newCurrentBrancingPoint) {
+            m_numberOfOutOfOrderGroundDisjunctions--;
+            m_outOfOrderGroundDisjunctions[m_numberOfOutOfOrderGroundDisjunctions].m_processed=false;
+            m_outOfOrderGroundDisjunctions[m_numberOfOutOfOrderGroundDisjunctions]=null;
+        }
         // backtrack added ground disjunctions
         GroundDisjunction firstGroundDisjunctionShouldBe=branchingPoint.m_firstGroundDisjunction;
         while (m_firstGroundDisjunction!=firstGroundDisjunctionShouldBe) {
@@ -431,6 +628,9 @@ public final class Tableau implements Serializable {
         m_existentialExpasionManager.backtrack();
         // backtrack nominal introduction
         m_nominalIntroductionManager.backtrack();
+        // discard pending unit disjunctions
+        if (m_disjunctWatchManager!=null)
+            m_disjunctWatchManager.backtrack();
         // backtrack extensions
         m_extensionManager.backtrack();
         // backtrack node merges/prunes
@@ -503,15 +703,7 @@ public final class Tableau implements Serializable {
         return createNewNodeRaw(dependencySet,parent,NodeType.GRAPH_NODE,parent.getTreeDepth());
     }
     protected Node createNewNodeRaw(DependencySet dependencySet,Node parent,NodeType nodeType,int treeDepth) {
-        Node node;
-        if (m_firstFreeNode==null) {
-            node=new Node(this);
-            m_allocatedNodes++;
-        }
-        else {
-            node=m_firstFreeNode;
-            m_firstFreeNode=m_firstFreeNode.m_nextTableauNode;
-        }
+        Node node=m_nodeArena.getNodeForCreation(m_numberOfNodesInTableau+1);
         assert node.m_nodeID==-1;
         assert node.m_nodeState==null;
         node.initialize(++m_numberOfNodesInTableau,parent,nodeType,treeDepth);
@@ -523,6 +715,7 @@ public final class Tableau implements Serializable {
         m_lastTableauNode=node;
         m_existentialsExpansionStrategy.nodeStatusChanged(node);
         m_numberOfNodeCreations++;
+        m_nodeArena.m_creationNumbers[node.m_nodeID]=m_numberOfNodeCreations;
         if (m_tableauMonitor!=null)
             m_tableauMonitor.nodeCreated(node);
         if (nodeType!=NodeType.CONCRETE_NODE) {
@@ -599,8 +792,6 @@ public final class Tableau implements Serializable {
             node.m_previousTableauNode.m_nextTableauNode=null;
         m_lastTableauNode=node.m_previousTableauNode;
         node.destroy();
-        node.m_nextTableauNode=m_firstFreeNode;
-        m_firstFreeNode=node;
         m_numberOfNodesInTableau--;
         if (m_tableauMonitor!=null)
             m_tableauMonitor.nodeDestroyed(node);
@@ -615,7 +806,7 @@ public final class Tableau implements Serializable {
         return m_lastTableauNode;
     }
     public int getNumberOfAllocatedNodes() {
-        return m_allocatedNodes;
+        return m_nodeArena.getNumberOfAllocatedNodes();
     }
     public int getNumberOfNodesInTableau() {
         return m_numberOfNodesInTableau;
@@ -624,13 +815,10 @@ public final class Tableau implements Serializable {
         return m_numberOfMergedOrPrunedNodes;
     }
     public Node getNode(int nodeID) {
-        Node node=m_firstTableauNode;
-        while (node!=null) {
-            if (node.getNodeID()==nodeID)
-                return node;
-            node=node.getNextTableauNode();
-        }
-        return null;
+        if (nodeID<1 || nodeID>m_numberOfNodesInTableau)
+            return null;
+        else
+            return m_nodeArena.getNode(nodeID);
     }
     protected List<ExistentialConcept> getExistentialConceptsBuffer() {
         if (m_existentialConceptsBuffers.isEmpty())
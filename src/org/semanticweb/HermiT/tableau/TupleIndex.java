@@ -3,7 +3,7 @@ package org.semanticweb.HermiT.tableau;
 
 import java.io.Serializable;
 
-public final class TupleIndex implements Serializable {
+public class TupleIndex implements Serializable {
     private static final long serialVersionUID=-4284072092430590904L;
 
     protected static final float LOAD_FACTOR=0.7f;
@@ -41,6 +41,14 @@ public final class TupleIndex implements Serializable {
         m_resizeThreshold=(int)(m_buckets.length*LOAD_FACTOR);
         m_numberOfNodes=0;
     }
+    /**
+     * Grows the hash table so that the given number of trie nodes can be added without further resizing. Used by bulk loading,
+     * which knows in advance how many tuples will be added.
+     */
+    public void ensureCapacity(int numberOfAdditionalNodes) {
+        while (m_numberOfNodes+numberOfAdditionalNodes>m_resizeThreshold)
+            resizeBuckets();
+    }
     public boolean addTuple(Object[] tuple,int potentialTupleIndex) {
         int trieNode=m_root;
         for (int position=0;position<m_indexingSequence.length;position++) {
@@ -0,0 +1,114 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+import java.io.Serializable;
+
+/**
+ * Assigns dense integer IDs to the objects that occur in the tuples of the 
+ * extension tables so that the tuples can be stored in primitive arrays. The 
+ * object in the first position of a tuple (a DL predicate or a concept) gets an 
+ * ID from this dictionary; the IDs are never reused, so they remain valid 
+ * across tableau runs. Nodes are encoded by their node IDs: at any point in 
+ * time, the active nodes of a tableau are numbered 1, 2, ... without gaps, and 
+ * all tuples referring to a node are removed from the extension tables before 
+ * the node is destroyed. ID 0 is reserved for null in both cases.
+ */
+public final class TupleObjectDictionary implements Serializable {
+    private static final long serialVersionUID=-5286403528729305187L;
+
+    protected static final float LOAD_FACTOR=0.7f;
+
+    protected final Tableau m_tableau;
+    protected Object[] m_objectsByID;
+    protected int m_numberOfObjects;
+    protected Object[] m_buckets;
+    protected int[] m_bucketIDs;
+    protected int m_resizeThreshold;
+
+    public TupleObjectDictionary(Tableau tableau) {
+        m_tableau=tableau;
+        m_objectsByID=new Object[128];
+        m_numberOfObjects=1;
+        m_buckets=new Object[256];
+        m_bucketIDs=new int[m_buckets.length];
+        m_resizeThreshold=(int)(m_buckets.length*LOAD_FACTOR);
+    }
+    public int sizeInMemory() {
+        return m_objectsByID.length*4+m_buckets.length*8;
+    }
+    public int getNumberOfObjects() {
+        return m_numberOfObjects-1;
+    }
+    /**
+     * Returns the ID of the given object, assigning a fresh ID if necessary.
+     */
+    public int getObjectID(Object object) {
+        if (object==null)
+            return 0;
+        int bucketIndex=getIndexFor(object.hashCode(),m_buckets.length-1);
+        while (m_buckets[bucketIndex]!=null) {
+            if (object.equals(m_buckets[bucketIndex]))
+                return m_bucketIDs[bucketIndex];
+            bucketIndex=(bucketIndex+1) & (m_buckets.length-1);
+        }
+        int objectID=m_numberOfObjects++;
+        if (objectID==m_objectsByID.length) {
+            Object[] newObjectsByID=new Object[m_objectsByID.length*3/2];
+            System.arraycopy(m_objectsByID,0,newObjectsByID,0,m_objectsByID.length);
+            m_objectsByID=newObjectsByID;
+        }
+        m_objectsByID[objectID]=object;
+        m_buckets[bucketIndex]=object;
+        m_bucketIDs[bucketIndex]=objectID;
+        if (m_numberOfObjects>=m_resizeThreshold)
+            resizeBuckets();
+        return objectID;
+    }
+    /**
+     * Returns the ID of the given object, or -1 if the object has not been 
+     * assigned an ID yet (and thus cannot occur in any tuple).
+     */
+    public int getExistingObjectID(Object object) {
+        if (object==null)
+            return 0;
+        int bucketIndex=getIndexFor(object.hashCode(),m_buckets.length-1);
+        while (m_buckets[bucketIndex]!=null) {
+            if (object.equals(m_buckets[bucketIndex]))
+                return m_bucketIDs[bucketIndex];
+            bucketIndex=(bucketIndex+1) & (m_buckets.length-1);
+        }
+        return -1;
+    }
+    public Object getObject(int objectID) {
+        return m_objectsByID[objectID];
+    }
+    public int getNodeID(Object node) {
+        return node==null ? 0 : ((Node)node).m_nodeID;
+    }
+    public Node getNode(int nodeID) {
+        return nodeID==0 ? null : m_tableau.m_nodeArena.getNode(nodeID);
+    }
+    protected void resizeBuckets() {
+        Object[] newBuckets=new Object[m_buckets.length*2];
+        int[] newBucketIDs=new int[newBuckets.length];
+        int newBucketsLengthMinusOne=newBuckets.length-1;
+        for (int objectID=1;objectID<m_numberOfObjects;objectID++) {
+            Object object=m_objectsByID[objectID];
+            int bucketIndex=getIndexFor(object.hashCode(),newBucketsLengthMinusOne);
+            while (newBuckets[bucketIndex]!=null)
+                bucketIndex=(bucketIndex+1) & newBucketsLengthMinusOne;
+            newBuckets[bucketIndex]=object;
+            newBucketIDs[bucketIndex]=objectID;
+        }
+        m_buckets=newBuckets;
+        m_bucketIDs=newBucketIDs;
+        m_resizeThreshold=(int)(m_buckets.length*LOAD_FACTOR);
+    }
+    protected static int getIndexFor(int hashCode,int tableLengthMinusOne) {
+        hashCode+=~(hashCode << 9);
+        hashCode^=(hashCode >>> 14);
+        hashCode+=(hashCode << 4);
+        hashCode^=(hashCode >>> 10);
+        return hashCode & tableLengthMinusOne;
+    }
+}
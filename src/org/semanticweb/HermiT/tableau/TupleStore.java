@@ -0,0 +1,27 @@
+// Copyright 2008 by Oxford University; see license.txt for details
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * The storage contract of the tuple tables used by the extension tables. Tuples 
+ * are appended at the end of the store and are removed only by truncating the 
+ * store when backtracking, so tuple indexes of live tuples never change. 
+ * @see TupleTable
+ * @see IntTupleTable
+ * @see OffHeapTupleTable
+ */
+public interface TupleStore {
+    int sizeInMemory();
+    int getFirstFreeTupleIndex();
+    int addTuple(Object[] tupleBuffer);
+    boolean tupleEquals(Object[] tupleBuffer,int tupleIndex,int compareLength);
+    void retrieveTuple(Object[] tupleBuffer,int tupleIndex);
+    Object getTupleObject(int tupleIndex,int objectIndex);
+    void setTupleObject(int tupleIndex,int objectIndex,Object object);
+    void truncate(int newFirstFreeTupleIndex);
+    void nullifyTuple(int tupleIndex);
+    void clear();
+    /**
+     * Releases the memory and files that the store holds outside of the Java heap. The store must not be used afterwards.
+     */
+    void dispose();
+}
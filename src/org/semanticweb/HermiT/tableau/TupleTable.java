@@ -7,7 +7,7 @@ import java.io.Serializable;
  * The actual implementation of the tuple tables used in the ExtensionTable 
  * class. 
  */
-public final class TupleTable implements Serializable {
+public final class TupleTable implements TupleStore,Serializable {
     private static final long serialVersionUID=-7712458276004062803L;
 
     private static final int PAGE_SIZE=512;   // Must be a power of two!
@@ -74,6 +74,8 @@ public final class TupleTable implements Serializable {
     public void clear() {
         m_firstFreeTupleIndex=0;
     }
+    public void dispose() {
+    }
 
     private final class Page implements Serializable {
         private static final long serialVersionUID=2239482172592108644L;
@@ -9,14 +9,14 @@ public class TupleTableFullIndex implements Serializable {
     protected static final int BUCKET_OFFSET=1;
     protected static final float LOAD_FACTOR=0.75f;
     
-    protected final TupleTable m_tupleTable;
+    protected final TupleStore m_tupleTable;
     protected final int m_indexedArity;
     protected final EntryManager m_entryManager;
     protected int[] m_buckets;
     protected int m_resizeThreshold;
     protected int m_numberOfTuples;
     
-    public TupleTableFullIndex(TupleTable tupleTable,int indexedArity) {
+    public TupleTableFullIndex(TupleStore tupleTable,int indexedArity) {
         m_tupleTable=tupleTable;
         m_indexedArity=indexedArity;
         m_entryManager=new EntryManager();
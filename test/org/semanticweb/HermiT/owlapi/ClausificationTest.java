@@ -4,15 +4,22 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.Namespaces;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
 import org.semanticweb.HermiT.model.DLClause;
 import org.semanticweb.HermiT.model.DLOntology;
 import org.semanticweb.HermiT.model.DescriptionGraph;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.owlapi.structural.HeadPruningManager;
 import org.semanticweb.HermiT.owlapi.structural.OWLHasKeyDummy;
 import org.semanticweb.HermiT.owlapi.structural.OWLClausification;
 
@@ -83,6 +90,92 @@ public class ClausificationTest extends AbstractOWLOntologyTest {
         }
     }
 
+    public void testRedundantHeadPruning() throws Exception {
+        AtomicConcept a=AtomicConcept.create("int:A");
+        AtomicConcept b=AtomicConcept.create("int:B");
+        AtomicConcept c=AtomicConcept.create("int:C");
+        AtomicConcept d=AtomicConcept.create("int:D");
+        AtomicRole r=AtomicRole.createAtomicRole("int:r");
+        Variable x=Variable.create("X");
+        Variable y=Variable.create("Y");
+        Set<DLClause> dlClauses=new LinkedHashSet<DLClause>();
+        // A -> B, B and C are disjoint, and the range of r is B
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(b,x) },new Atom[] { Atom.create(a,x) }));
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(b,x),Atom.create(c,x) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(b,y) },new Atom[] { Atom.create(r,x,y) }));
+        // C(X) is pruned because A(X) implies B(X), which is disjoint with C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(c,x),Atom.create(d,x) },new Atom[] { Atom.create(a,x) }));
+        // the DL-clause is implied because the range of r is B
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(b,y),Atom.create(d,x) },new Atom[] { Atom.create(r,x,y) }));
+        // nothing is known about Y's relation to D and C
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(c,x),Atom.create(d,y) },new Atom[] { Atom.create(r,x,y) }));
+        assertEquals(3,new HeadPruningManager().pruneRedundantHeads(dlClauses));
+        Set<String> actualStrings=new HashSet<String>();
+        for (DLClause dlClause : dlClauses)
+            actualStrings.add(dlClause.toString());
+        assertEquals(5,actualStrings.size());
+        assertTrue(actualStrings.contains(DLClause.create(new Atom[] { Atom.create(d,x) },new Atom[] { Atom.create(a,x) }).toString()));
+        assertTrue(actualStrings.contains(DLClause.create(new Atom[] { Atom.create(c,x),Atom.create(d,y) },new Atom[] { Atom.create(r,x,y) }).toString()));
+    }
+
+    public void testRedundantHeadPruningOfGCIs() throws Exception {
+        loadOWLOntologyWithAxioms("SubClassOf(A B) DisjointClasses(B C) SubClassOf(A ObjectUnionOf(C D))");
+        Configuration configuration=new Configuration();
+        configuration.pruneRedundantHeads=true;
+        AtomicConcept a=AtomicConcept.create("file:/c/test.owl#A");
+        AtomicConcept d=AtomicConcept.create("file:/c/test.owl#D");
+        Variable x=Variable.create("X");
+        assertContainsDLClause(getDLClauses(configuration),new Atom[] { Atom.create(d,x) },new Atom[] { Atom.create(a,x) });
+    }
+
+    public void testAbsorptionOfComplexSubClasses() throws Exception {
+        loadOWLOntologyWithAxioms("SubClassOf(ObjectSomeValuesFrom(r ObjectIntersectionOf(B C)) D)");
+        Set<DLClause> dlClauses=getDLClauses(new Configuration());
+        AtomicConcept b=AtomicConcept.create("file:/c/test.owl#B");
+        AtomicConcept c=AtomicConcept.create("file:/c/test.owl#C");
+        AtomicConcept d=AtomicConcept.create("file:/c/test.owl#D");
+        AtomicConcept q=AtomicConcept.create("internal:q#0");
+        AtomicRole r=AtomicRole.createAtomicRole("file:/c/test.owl#r");
+        Variable x=Variable.create("X");
+        Variable y=Variable.create("Y");
+        // B and C imply the definition, which is absorbed into the body of the DL-clause for D
+        assertContainsDLClause(dlClauses,new Atom[] { Atom.create(q,x) },new Atom[] { Atom.create(b,x),Atom.create(c,x) });
+        assertContainsDLClause(dlClauses,new Atom[] { Atom.create(d,x) },new Atom[] { Atom.create(r,x,y),Atom.create(q,y) });
+        assertNoDisjunctions(dlClauses);
+    }
+
+    public void testAbsorptionOfNestedExistentials() throws Exception {
+        loadOWLOntologyWithAxioms("SubClassOf(ObjectSomeValuesFrom(r ObjectSomeValuesFrom(s B)) D) SubClassOf(ObjectIntersectionOf(A ObjectUnionOf(B C)) D)");
+        assertNoDisjunctions(getDLClauses(new Configuration()));
+    }
+
+    protected Set<DLClause> getDLClauses(Configuration configuration) throws Exception {
+        OWLClausification clausifier=new OWLClausification(configuration);
+        Set<DescriptionGraph> noDescriptionGraphs=Collections.emptySet();
+        return clausifier.clausify(m_ontologyManager,m_ontology,noDescriptionGraphs).getDLClauses();
+    }
+
+    protected void assertContainsDLClause(Set<DLClause> dlClauses,Atom[] headAtoms,Atom[] bodyAtoms) {
+        Set<Atom> expectedHead=new HashSet<Atom>(Arrays.asList(headAtoms));
+        Set<Atom> expectedBody=new HashSet<Atom>(Arrays.asList(bodyAtoms));
+        for (DLClause dlClause : dlClauses) {
+            Set<Atom> head=new HashSet<Atom>();
+            for (int headIndex=0;headIndex<dlClause.getHeadLength();headIndex++)
+                head.add(dlClause.getHeadAtom(headIndex));
+            Set<Atom> body=new HashSet<Atom>();
+            for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++)
+                body.add(dlClause.getBodyAtom(bodyIndex));
+            if (head.equals(expectedHead) && body.equals(expectedBody))
+                return;
+        }
+        fail("Missing DL-clause "+DLClause.create(headAtoms,bodyAtoms)+" in "+dlClauses);
+    }
+
+    protected void assertNoDisjunctions(Set<DLClause> dlClauses) {
+        for (DLClause dlClause : dlClauses)
+            assertTrue(dlClause.toString(),dlClause.getHeadLength()<=1);
+    }
+
     protected String[] getControl(String resource) throws Exception {
         if (resource==null)
             return null;
@@ -0,0 +1,92 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Individual;
+import org.semanticweb.HermiT.model.Variable;
+
+public class ABoxCheckpointTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept D=AtomicConcept.create("D");
+    protected static final AtomicConcept E=AtomicConcept.create("E");
+    protected static final AtomicConcept G=AtomicConcept.create("G");
+    protected static final AtomicRole R=AtomicRole.createAtomicRole("R");
+    protected static final Individual INDIVIDUAL_A=Individual.create("i:a");
+    protected static final Individual INDIVIDUAL_B=Individual.create("i:b");
+    protected static final Variable X=Variable.create("X");
+    protected static final Variable Y=Variable.create("Y");
+
+    public ABoxCheckpointTest(String name) {
+        super(name);
+    }
+    protected Tableau createTableau(Set<Atom> negativeFacts) {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // B(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(A,X) }));
+        // C(Y) :- B(X), R(X,Y)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(C,Y) },new Atom[] { Atom.create(B,X),Atom.create(R,X,Y) }));
+        // D(X) v E(X) :- C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(D,X),Atom.create(E,X) },new Atom[] { Atom.create(C,X) }));
+        // G(X) :- D(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(G,X) },new Atom[] { Atom.create(D,X) }));
+        // G(X) :- E(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(G,X) },new Atom[] { Atom.create(E,X) }));
+        Set<Atom> positiveFacts=new HashSet<Atom>();
+        positiveFacts.add(Atom.create(A,INDIVIDUAL_A));
+        positiveFacts.add(Atom.create(R,INDIVIDUAL_A,INDIVIDUAL_B));
+        // the DL-ontology claims to have nominals, so that the tests start from the ABox checkpoint
+        return createTableau(createDLOntology(dlClauses,positiveFacts,negativeFacts,true),null,new HashMap<String,Object>());
+    }
+    public void testRepeatedTests() {
+        Tableau tableau=createTableau(new HashSet<Atom>());
+        for (int round=0;round<3;round++) {
+            assertTrue(tableau.isInstanceOf(INDIVIDUAL_A,B));
+            assertTrue(tableau.isInstanceOf(INDIVIDUAL_B,G));
+            assertFalse(tableau.isInstanceOf(INDIVIDUAL_B,D));
+            assertFalse(tableau.isInstanceOf(INDIVIDUAL_A,C));
+            assertTrue(tableau.isInstanceOf(INDIVIDUAL_B,C));
+            assertTrue(tableau.isSatisfiable(A));
+            assertTrue(tableau.isSubsumedBy(A,B));
+            assertFalse(tableau.isSubsumedBy(C,D));
+            assertTrue(tableau.isSubsumedBy(C,G));
+            assertTrue(tableau.isABoxSatisfiable());
+        }
+    }
+    public void testCheckpointIsRestored() {
+        Tableau tableau=createTableau(new HashSet<Atom>());
+        assertFalse(tableau.isInstanceOf(INDIVIDUAL_B,E));
+        // the checkpoint contains a, b, and the deterministic consequences of the ABox
+        Map<Individual,Node> individualsToNodes=tableau.restoreABoxCheckpoint();
+        assertEquals(2,tableau.getNumberOfNodesInTableau());
+        Node a=individualsToNodes.get(INDIVIDUAL_A);
+        Node b=individualsToNodes.get(INDIVIDUAL_B);
+        assertTrue(tableau.getExtensionManager().containsConceptAssertion(B,a));
+        assertTrue(tableau.getExtensionManager().containsConceptAssertion(C,b));
+        assertFalse(tableau.getExtensionManager().containsConceptAssertion(G,b));
+        assertFalse(tableau.getExtensionManager().containsClash());
+        assertTrue(tableau.isSatisfiable(D));
+        assertSame(individualsToNodes,tableau.restoreABoxCheckpoint());
+        assertEquals(2,tableau.getNumberOfNodesInTableau());
+        assertTrue(a.isActive());
+        assertFalse(tableau.getExtensionManager().containsConceptAssertion(D,b));
+    }
+    public void testInconsistentABox() {
+        Set<Atom> negativeFacts=new HashSet<Atom>();
+        negativeFacts.add(Atom.create(B,INDIVIDUAL_A));
+        Tableau tableau=createTableau(negativeFacts);
+        for (int round=0;round<2;round++) {
+            assertFalse(tableau.isABoxSatisfiable());
+            assertTrue(tableau.isInstanceOf(INDIVIDUAL_B,D));
+            assertFalse(tableau.isSatisfiable(A));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.Map;
+
+import org.semanticweb.HermiT.model.AtomicRole;
+
+/**
+ * The fixture shared by the tests of the tuple tables and of the extension tables: a tableau for
+ * DLClauseEvaluationTest.TEST_DL_ONTOLOGY whose extension manager is configured by getParameters(). The subclasses
+ * choose the configuration, and testEvaluator() checks that the DL-clauses are evaluated correctly with it.
+ */
+public abstract class AbstractExtensionManagerTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicRole R=AtomicRole.createAtomicRole("R");
+    protected static final AtomicRole S=AtomicRole.createAtomicRole("S");
+    protected static final AtomicRole T=AtomicRole.createAtomicRole("T");
+    protected static final AtomicRole U=AtomicRole.createAtomicRole("U");
+
+    protected Tableau m_tableau;
+    protected ExtensionManager m_extensionManager;
+    protected DependencySet m_emptySet;
+
+    public AbstractExtensionManagerTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        initializeTableau(getParameters());
+    }
+    protected abstract Map<String,Object> getParameters();
+    protected void initializeTableau(Map<String,Object> parameters) {
+        m_tableau=createTableau(DLClauseEvaluationTest.TEST_DL_ONTOLOGY,null,parameters);
+        m_extensionManager=m_tableau.getExtensionManager();
+        m_emptySet=m_tableau.getDependencySetFactory().emptySet();
+    }
+    public void testEvaluator() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        Node c=m_tableau.createNewRootNode(m_emptySet);
+        Node d=m_tableau.createNewRootNode(m_emptySet);
+        Node e=m_tableau.createNewRootNode(m_emptySet);
+
+        m_extensionManager.addRoleAssertion(R,a,b,m_emptySet);
+        m_extensionManager.addRoleAssertion(R,a,c,m_emptySet);
+        m_extensionManager.addRoleAssertion(S,b,d,m_emptySet);
+        m_extensionManager.addRoleAssertion(T,e,e,m_emptySet);
+        m_extensionManager.addRoleAssertion(T,c,d,m_emptySet);
+
+        assertTrue(m_extensionManager.containsRoleAssertion(R,a,c));
+        assertFalse(m_extensionManager.containsRoleAssertion(R,c,a));
+        assertTrue(m_tableau.isSatisfiable());
+
+        assertRetrieval(m_extensionManager.getTernaryExtensionTable(),T(U,null,null),ExtensionTable.View.EXTENSION_THIS,new Object[][] { T(U,d,e) });
+    }
+}
@@ -2,6 +2,7 @@ package org.semanticweb.HermiT.tableau;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.HermiT.Configuration;
@@ -12,6 +13,8 @@ import org.semanticweb.HermiT.blocking.DirectBlockingChecker;
 import org.semanticweb.HermiT.blocking.PairWiseDirectBlockingChecker;
 import org.semanticweb.HermiT.existentials.CreationOrderStrategy;
 import org.semanticweb.HermiT.existentials.ExpansionStrategy;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.DLClause;
 import org.semanticweb.HermiT.model.DLOntology;
 import org.semanticweb.HermiT.model.DescriptionGraph;
 import org.semanticweb.HermiT.monitor.TableauMonitor;
@@ -41,12 +44,7 @@ public class AbstractReasonerInternalsTest extends AbstractReasonerTest {
 
         DLOntology dlOntology=getDLOntology(c,dgs);
 
-        DirectBlockingChecker directBlockingChecker=PairWiseDirectBlockingChecker.INSTANCE;
-        BlockingSignatureCache blockingSignatureCache=new BlockingSignatureCache(directBlockingChecker);
-        BlockingStrategy blockingStrategy=new AnywhereBlocking(directBlockingChecker,blockingSignatureCache);
-        ExpansionStrategy ExpansionStrategy=new CreationOrderStrategy(blockingStrategy);
-
-        return new Tableau(getTableauMonitor(),ExpansionStrategy,dlOntology,new HashMap<String,Object>());
+        return createTableau(dlOntology,getTableauMonitor(),new HashMap<String,Object>());
     }
 
     protected Tableau getTableau() throws Exception {
@@ -110,4 +108,27 @@ public class AbstractReasonerInternalsTest extends AbstractReasonerTest {
     protected static Object[] T(Object... nodes) {
         return nodes;
     }
+
+    /**
+     * Creates a DL-ontology without roles or datatypes from the given DL-clauses and facts; the atomic concepts and the
+     * individuals are collected by the DL-ontology itself.
+     */
+    protected static DLOntology createDLOntology(Set<DLClause> dlClauses,Set<Atom> positiveFacts,Set<Atom> negativeFacts,boolean hasNominals) {
+        return new DLOntology("opaque:test",dlClauses,positiveFacts,negativeFacts,null,null,null,null,null,false,false,hasNominals,false,false);
+    }
+
+    /**
+     * Creates a tableau with pair-wise anywhere blocking and the creation-order expansion strategy, which is what
+     * getTableau() uses for clausified ontologies.
+     */
+    protected static Tableau createTableau(DLOntology dlOntology,TableauMonitor tableauMonitor,Map<String,Object> parameters) {
+        DirectBlockingChecker directBlockingChecker=PairWiseDirectBlockingChecker.INSTANCE;
+        BlockingStrategy blockingStrategy=new AnywhereBlocking(directBlockingChecker,new BlockingSignatureCache(directBlockingChecker));
+        ExpansionStrategy expansionStrategy=new CreationOrderStrategy(blockingStrategy);
+        return new Tableau(tableauMonitor,expansionStrategy,dlOntology,parameters);
+    }
+
+    protected static Tableau createTableau(Set<DLClause> dlClauses,Set<Atom> positiveFacts,Set<Atom> negativeFacts,TableauMonitor tableauMonitor,Map<String,Object> parameters) {
+        return createTableau(createDLOntology(dlClauses,positiveFacts,negativeFacts,false),tableauMonitor,parameters);
+    }
 }
@@ -9,11 +9,24 @@ public class AllTests {
         TestSuite suite = new TestSuite("Test for the HermiT internals (tableau)");
         //$JUnit-BEGIN$
         suite.addTestSuite(TupleIndexTest.class);
+        suite.addTestSuite(OpenAddressingTupleIndexTest.class);
         suite.addTestSuite(TupleTableFullIndexTest.class);
+        suite.addTestSuite(IntTupleTableTest.class);
+        suite.addTestSuite(OffHeapTupleTableTest.class);
         suite.addTestSuite(DLClauseEvaluationTest.class);
+        suite.addTestSuite(ExtensionTableWithPartitionsTest.class);
         suite.addTestSuite(DependencySetTest.class);
         suite.addTestSuite(NIRuleTest.class);
         suite.addTestSuite(MergeTest.class);
+        suite.addTestSuite(ABoxCheckpointTest.class);
+        suite.addTestSuite(NogoodLearningTest.class);
+        suite.addTestSuite(DisjunctionSchedulerTest.class);
+        suite.addTestSuite(DisjunctWatchingTest.class);
+        suite.addTestSuite(ModelMergingTest.class);
+        suite.addTestSuite(ParallelSeedingTest.class);
+        suite.addTestSuite(IncrementalClassificationTest.class);
+        suite.addTestSuite(RealizationTest.class);
+        suite.addTestSuite(QueryDLClausesTest.class);
         //$JUnit-END$
         return suite;
     }
@@ -1,9 +1,14 @@
 package org.semanticweb.HermiT.tableau;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
+import org.semanticweb.HermiT.Configuration;
 import org.semanticweb.HermiT.blocking.AnywhereBlocking;
 import org.semanticweb.HermiT.blocking.BlockingSignatureCache;
 import org.semanticweb.HermiT.blocking.BlockingStrategy;
@@ -11,10 +16,16 @@ import org.semanticweb.HermiT.blocking.PairWiseDirectBlockingChecker;
 import org.semanticweb.HermiT.existentials.CreationOrderStrategy;
 import org.semanticweb.HermiT.existentials.ExpansionStrategy;
 import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
 import org.semanticweb.HermiT.model.AtomicRole;
 import org.semanticweb.HermiT.model.DLClause;
 import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.DLPredicate;
+import org.semanticweb.HermiT.model.DLPredicateIndexes;
 import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.monitor.DLClauseProfiler;
+import org.semanticweb.HermiT.monitor.TableauMonitor;
 import org.semanticweb.HermiT.tableau.DependencySet;
 import org.semanticweb.HermiT.tableau.ExtensionManager;
 import org.semanticweb.HermiT.tableau.ExtensionTable;
@@ -27,6 +38,7 @@ public class DLClauseEvaluationTest extends AbstractReasonerInternalsTest {
     protected static final AtomicRole S=AtomicRole.createAtomicRole("S");
     protected static final AtomicRole T=AtomicRole.createAtomicRole("T");
     protected static final AtomicRole U=AtomicRole.createAtomicRole("U");
+    protected static final AtomicRole V=AtomicRole.createAtomicRole("V");
     protected static final DLClause CL_1;
     protected static final DLOntology TEST_DL_ONTOLOGY;
     static {
@@ -63,14 +75,175 @@ public class DLClauseEvaluationTest extends AbstractReasonerInternalsTest {
     }
     
     protected void setUp() {
+        createTableau(new HashMap<String,Object>());
+    }
+    
+    protected void createTableau(Map<String,Object> parameters) {
+        createTableau(null,parameters);
+    }
+    
+    protected void createTableau(TableauMonitor tableauMonitor,Map<String,Object> parameters) {
         BlockingSignatureCache blockingSignatureCache=new BlockingSignatureCache(PairWiseDirectBlockingChecker.INSTANCE);
         BlockingStrategy blockingStrategy=new AnywhereBlocking(PairWiseDirectBlockingChecker.INSTANCE,blockingSignatureCache);
         ExpansionStrategy ExpansionStrategy=new CreationOrderStrategy(blockingStrategy);
-        m_tableau=new Tableau(null,ExpansionStrategy,TEST_DL_ONTOLOGY,new HashMap<String,Object>());
+        m_tableau=new Tableau(tableauMonitor,ExpansionStrategy,TEST_DL_ONTOLOGY,parameters);
         m_extensionManager=m_tableau.getExtensionManager();
     }
     
     public void testEvaluator() {
+        doTestEvaluator();
+    }
+    
+    public void testCompiledEvaluator() {
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("HyperresolutionManager.dlClauseEvaluatorType",Configuration.DLClauseEvaluatorType.COMPILED);
+        createTableau(parameters);
+        for (HyperresolutionManager.CompiledDLClauseInfo compiledDLClauseInfo : m_tableau.getHyperresolutionManager().m_tupleConsumersByDeltaPredicate.values())
+            assertTrue(compiledDLClauseInfo.hasCompiledMatchers());
+        doTestEvaluator();
+    }
+    
+    public void testDeltaDispatchByPredicateIndex() {
+        HyperresolutionManager hyperresolutionManager=m_tableau.getHyperresolutionManager();
+        HyperresolutionManager.CompiledDLClauseInfo[] tupleConsumersByDeltaPredicateIndex=hyperresolutionManager.m_tupleConsumersByDeltaPredicateIndex;
+        // the array extends only to the largest index of a predicate with consumers
+        assertEquals(Math.max(R.getIndex(),Math.max(S.getIndex(),T.getIndex()))+1,tupleConsumersByDeltaPredicateIndex.length);
+        assertNull(hyperresolutionManager.m_tupleConsumersByUnindexedDeltaPredicate);
+        assertTrue(R.getIndex()!=S.getIndex());
+        for (AtomicRole atomicRole : new AtomicRole[] { R,S,T }) {
+            assertSame(hyperresolutionManager.m_tupleConsumersByDeltaPredicate.get(atomicRole),tupleConsumersByDeltaPredicateIndex[atomicRole.getIndex()]);
+            assertSame(tupleConsumersByDeltaPredicateIndex[atomicRole.getIndex()],HyperresolutionManager.getTupleConsumers(atomicRole,tupleConsumersByDeltaPredicateIndex,null));
+        }
+        // U occurs only in the head and negated concepts are not DL predicates, so their tuples are skipped
+        assertNull(HyperresolutionManager.getTupleConsumers(U,tupleConsumersByDeltaPredicateIndex,null));
+        assertNull(HyperresolutionManager.getTupleConsumers(AtomicNegationConcept.create(AtomicConcept.create("internal:fresh")),tupleConsumersByDeltaPredicateIndex,null));
+        // creating predicates does not make the array grow
+        for (int index=0;index<100;index++)
+            AtomicConcept.create("internal:fresh"+index);
+        hyperresolutionManager.compileDLClauses(null);
+        assertEquals(tupleConsumersByDeltaPredicateIndex.length,hyperresolutionManager.m_tupleConsumersByDeltaPredicateIndex.length);
+    }
+    
+    public void testPredicateIndexesAreReused() {
+        int index=DLPredicateIndexes.allocateIndex();
+        DLPredicateIndexes.releaseIndex(index);
+        int numberOfIndexes=DLPredicateIndexes.getNumberOfIndexes();
+        assertEquals(index,DLPredicateIndexes.allocateIndex());
+        assertEquals(numberOfIndexes,DLPredicateIndexes.getNumberOfIndexes());
+        DLPredicateIndexes.releaseIndex(index);
+    }
+    
+    public void testConsumersInDLClauseOrder() {
+        HyperresolutionManager hyperresolutionManager=m_tableau.getHyperresolutionManager();
+        // the consumers follow the order of the body atoms of CL_1, not the hash codes of the predicates
+        assertEquals(Arrays.asList(R,S,T),new ArrayList<DLPredicate>(hyperresolutionManager.m_tupleConsumersByDeltaPredicate.keySet()));
+    }
+    
+    public void testCostBasedJoinOrder() {
+        HyperresolutionManager hyperresolutionManager=m_tableau.getHyperresolutionManager();
+        // After R(X,Y), the static heuristic prefers S(Y,Z) because it shares a variable with R(X,Y).
+        assertEquals(S,hyperresolutionManager.m_tupleConsumersByDeltaPredicate.get(R).getBodyAtom(1).getDLPredicate());
+        DependencySet emptySet=m_tableau.getDependencySetFactory().emptySet();
+        Node a=m_tableau.createNewRootNode(emptySet);
+        Node b=m_tableau.createNewRootNode(emptySet);
+        Node e=m_tableau.createNewRootNode(emptySet);
+        m_extensionManager.addRoleAssertion(R,a,b,emptySet);
+        for (int index=0;index<10;index++)
+            m_extensionManager.addRoleAssertion(S,b,m_tableau.createNewRootNode(emptySet),emptySet);
+        m_extensionManager.addRoleAssertion(T,e,e,emptySet);
+        assertTrue(m_tableau.isSatisfiable());
+        ExtensionStatistics statistics=new ExtensionStatistics(m_extensionManager);
+        assertEquals(10,statistics.getNumberOfTuples(S));
+        assertEquals(1,statistics.getNumberOfDistinctObjects(S,1));
+        assertEquals(10,statistics.getNumberOfDistinctObjects(S,2));
+        assertEquals(10.0,statistics.getEstimatedNumberOfMatches(S,new boolean[] { true,false }),0.0);
+        // All ten S-successors of b match S(Y,Z), whereas T(W,W) has a single tuple, so it is joined first.
+        hyperresolutionManager.compileDLClauses(statistics);
+        assertEquals(T,hyperresolutionManager.m_tupleConsumersByDeltaPredicate.get(R).getBodyAtom(1).getDLPredicate());
+        assertEquals(S,hyperresolutionManager.m_tupleConsumersByDeltaPredicate.get(R).getBodyAtom(2).getDLPredicate());
+        m_tableau.clear();
+        doTestEvaluator();
+    }
+    
+    public void testParallelEvaluator() {
+        String sequentialDerivations=getDerivationsOnLargeDelta();
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("HyperresolutionManager.numberOfThreads",Integer.valueOf(4));
+        createTableau(parameters);
+        // the delta exceeds HyperresolutionManager.MINIMAL_DELTA_SIZE_FOR_PARALLEL_HYPERRESOLUTION, and the consequences are added in the same order
+        assertEquals(sequentialDerivations,getDerivationsOnLargeDelta());
+        ParallelHyperresolution parallelHyperresolution=m_tableau.getHyperresolutionManager().m_parallelHyperresolution;
+        assertNotNull(parallelHyperresolution);
+        ExecutorService executorService=parallelHyperresolution.m_executorService;
+        assertNotNull(executorService);
+        m_tableau.dispose();
+        assertNull(m_tableau.getHyperresolutionManager().m_parallelHyperresolution);
+        assertTrue(executorService.isShutdown());
+    }
+    
+    public void testProfiler() {
+        DLClauseProfiler dlClauseProfiler=new DLClauseProfiler(1);
+        createTableau(dlClauseProfiler,new HashMap<String,Object>());
+        doTestEvaluator();
+        DLClauseProfiler.DLClauseStatistics statistics=dlClauseProfiler.getStatistics(CL_1);
+        // CL_1 is evaluated once for each of the five R-, S-, and T-tuples; R(a,b), S(b,d), T(e,e) are all in the same delta,
+        // so their match is found from each of them, but U(d,e) is derived only once
+        assertEquals(5,statistics.getNumberOfMatchAttempts());
+        assertEquals(3,statistics.getNumberOfMatches());
+        assertEquals(1,statistics.getNumberOfDerivedTuples());
+        assertEquals(0,statistics.getNumberOfGroundDisjunctions());
+        assertEquals(0,statistics.getNumberOfClashes());
+        assertTrue(statistics.getEstimatedTime()>0);
+        assertEquals(1,dlClauseProfiler.getStatistics().size());
+    }
+    
+    public void testProfilerIgnoresQueryDLClauses() {
+        DLClauseProfiler dlClauseProfiler=new DLClauseProfiler(1);
+        createTableau(dlClauseProfiler,new HashMap<String,Object>());
+        Variable X=Variable.create("X");
+        Variable Y=Variable.create("Y");
+        // V(X,Y) :- R(X,Y)
+        DLClause queryDLClause=DLClause.create(new Atom[] { Atom.create(V,X,Y) },new Atom[] { Atom.create(R,X,Y) });
+        m_tableau.setQueryDLClauses(Collections.singleton(queryDLClause));
+        doTestEvaluator();
+        ExtensionTable.Retrieval retrieval=m_extensionManager.getTernaryExtensionTable().createRetrieval(new boolean[] { true,false,false },ExtensionTable.View.EXTENSION_THIS);
+        retrieval.getBindingsBuffer()[0]=V;
+        retrieval.open();
+        assertFalse(retrieval.afterLast());
+        // the query DL-clause is applied, but only the DL-clause of the DL-ontology is profiled
+        assertNull(dlClauseProfiler.getStatistics(queryDLClause));
+        assertEquals(1,dlClauseProfiler.getStatistics().size());
+        assertEquals(5,dlClauseProfiler.getStatistics(CL_1).getNumberOfMatchAttempts());
+    }
+    
+    protected String getDerivationsOnLargeDelta() {
+        DependencySet emptySet=m_tableau.getDependencySetFactory().emptySet();
+        Node e=m_tableau.createNewRootNode(emptySet);
+        m_extensionManager.addRoleAssertion(T,e,e,emptySet);
+        for (int index=0;index<600;index++) {
+            Node a=m_tableau.createNewRootNode(emptySet);
+            Node b=m_tableau.createNewRootNode(emptySet);
+            Node c=m_tableau.createNewRootNode(emptySet);
+            m_extensionManager.addRoleAssertion(R,a,b,emptySet);
+            m_extensionManager.addRoleAssertion(S,b,c,emptySet);
+        }
+        assertTrue(m_tableau.isSatisfiable());
+        StringBuffer buffer=new StringBuffer();
+        ExtensionTable.Retrieval retrieval=m_extensionManager.getTernaryExtensionTable().createRetrieval(new boolean[] { true,false,false },ExtensionTable.View.EXTENSION_THIS);
+        retrieval.getBindingsBuffer()[0]=U;
+        retrieval.open();
+        int numberOfDerivations=0;
+        while (!retrieval.afterLast()) {
+            Object[] tupleBuffer=retrieval.getTupleBuffer();
+            buffer.append(((Node)tupleBuffer[1]).getNodeID()).append(',').append(((Node)tupleBuffer[2]).getNodeID()).append(' ');
+            numberOfDerivations++;
+            retrieval.next();
+        }
+        assertEquals(600,numberOfDerivations);
+        return buffer.toString();
+    }
+    
+    protected void doTestEvaluator() {
         DependencySet emptySet=m_tableau.getDependencySetFactory().emptySet();
         
         Node a=m_tableau.createNewRootNode(emptySet);
@@ -93,6 +93,74 @@ public class DependencySetTest extends TestCase {
         assertDSEquals(set4, 1, 2, 3, 10, 14, 17, 18);
     }
 
+    public void testBitsetDependencySets() {
+        DependencySetFactory factory = new DependencySetFactory(true);
+        PermanentDependencySet set = factory.emptySet();
+        assertTrue(set.isEmpty());
+        assertEquals(-1, set.getMaximumBranchingPoint());
+        set = factory.addBranchingPoint(set, 32);
+        assertBitsetEquals(set, 32);
+        set = factory.addBranchingPoint(set, 0);
+        assertBitsetEquals(set, 0, 32);
+        PermanentDependencySet set2 = factory.addBranchingPoint(factory.emptySet(), 0);
+        assertTrue(set != set2);
+        assertSame(set, factory.addBranchingPoint(set2, 32));
+        set = factory.unionWith(set, factory.addBranchingPoint(factory.addBranchingPoint(set2, 15), 17));
+        assertBitsetEquals(set, 0, 15, 17, 32);
+        assertSame(set, factory.unionWith(set, factory.emptySet()));
+        assertSame(set, factory.removeBranchingPoint(set, 13));
+        set = factory.removeBranchingPoint(set, 17);
+        assertBitsetEquals(set, 0, 15, 32);
+        set = factory.removeBranchingPoint(factory.removeBranchingPoint(set, 15), 32);
+        assertSame(set2, set);
+        assertSame(factory.emptySet(), factory.removeBranchingPoint(set, 0));
+    }
+
+    public void testSparseBitsetDependencySets() {
+        DependencySetFactory factory = new DependencySetFactory(true);
+        PermanentDependencySet sparse = factory.addBranchingPoint(factory.addBranchingPoint(factory.emptySet(), 5000), 3);
+        assertNotNull(sparse.m_members);
+        assertBitsetEquals(sparse, 3, 5000);
+        PermanentDependencySet dense = factory.emptySet();
+        for (int branchingPoint = 0; branchingPoint < 100; branchingPoint += 2)
+            dense = factory.addBranchingPoint(dense, branchingPoint);
+        assertNotNull(dense.m_words);
+        PermanentDependencySet union = factory.unionWith(sparse, dense);
+        assertEquals(5000, union.getMaximumBranchingPoint());
+        assertTrue(union.containsBranchingPoint(3));
+        assertTrue(union.containsBranchingPoint(98));
+        assertFalse(union.containsBranchingPoint(99));
+        assertSame(dense, factory.removeBranchingPoint(factory.removeBranchingPoint(union, 5000), 3));
+        UnionDependencySet unionDependencySet = new UnionDependencySet(2);
+        unionDependencySet.getConstituents()[0] = dense;
+        unionDependencySet.getConstituents()[1] = sparse;
+        assertSame(union, factory.getPermanent(unionDependencySet));
+    }
+
+    public void testBitsetDependencySetsAreReclaimed() {
+        DependencySetFactory factory = new DependencySetFactory(true);
+        PermanentDependencySet kept = factory.addBranchingPoint(factory.emptySet(), 7);
+        factory.addUsage(kept);
+        for (int branchingPoint = 0; branchingPoint < 5000; branchingPoint++)
+            factory.addBranchingPoint(kept, branchingPoint);
+        factory.removeUnusedSets();
+        assertEquals(1, factory.m_size);
+        assertBitsetEquals(kept, 7);
+        assertSame(kept, factory.addBranchingPoint(factory.emptySet(), 7));
+    }
+
+    protected static void assertBitsetEquals(PermanentDependencySet dependencySet, int... expectedSortedMembers) {
+        int maximum = expectedSortedMembers[expectedSortedMembers.length - 1];
+        assertEquals(maximum, dependencySet.getMaximumBranchingPoint());
+        int expectedIndex = 0;
+        for (int branchingPoint = 0; branchingPoint <= maximum + 64; branchingPoint++) {
+            boolean expected = expectedIndex < expectedSortedMembers.length && expectedSortedMembers[expectedIndex] == branchingPoint;
+            assertEquals("Branching point " + branchingPoint + " in " + dependencySet, expected, dependencySet.containsBranchingPoint(branchingPoint));
+            if (expected)
+                expectedIndex++;
+        }
+    }
+
     protected static void assertDSEquals(PermanentDependencySet dependencySet,
             int... expectedSortedMembers) {
         PermanentDependencySet checkSet = dependencySet;
@@ -0,0 +1,91 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Individual;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.monitor.TableauMonitorAdapter;
+
+public class DisjunctWatchingTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept G=AtomicConcept.create("G");
+    protected static final AtomicConcept K=AtomicConcept.create("K");
+    protected static final Individual INDIVIDUAL_A=Individual.create("i:a");
+    protected static final Variable X=Variable.create("X");
+
+    protected Set<DLClause> m_dlClauses;
+    protected Set<Atom> m_positiveFacts;
+    protected Set<Atom> m_negativeFacts;
+
+    public DisjunctWatchingTest(String name) {
+        super(name);
+    }
+    protected void setUp() throws Exception {
+        super.setUp();
+        m_dlClauses=new HashSet<DLClause>();
+        // A(X) v B(X) :- C(X)
+        m_dlClauses.add(DLClause.create(new Atom[] { Atom.create(A,X),Atom.create(B,X) },new Atom[] { Atom.create(C,X) }));
+        m_positiveFacts=new HashSet<Atom>();
+        m_positiveFacts.add(Atom.create(C,INDIVIDUAL_A));
+        m_negativeFacts=new HashSet<Atom>();
+    }
+    protected Tableau createTableau(boolean watchDisjuncts,BranchingPointCounter branchingPointCounter) {
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("Tableau.watchDisjuncts",Boolean.valueOf(watchDisjuncts));
+        return createTableau(m_dlClauses,m_positiveFacts,m_negativeFacts,branchingPointCounter,parameters);
+    }
+    public void testUnitWhenDerived() {
+        m_negativeFacts.add(Atom.create(A,INDIVIDUAL_A));
+        BranchingPointCounter branchingPointCounter=new BranchingPointCounter();
+        Tableau tableau=createTableau(true,branchingPointCounter);
+        assertTrue(tableau.isABoxSatisfiable());
+        assertEquals(1,tableau.getDisjunctWatchManager().getNumberOfPropagations());
+        assertEquals(0,branchingPointCounter.m_numberOfDisjunctionBranchingPoints);
+        assertTrue(tableau.getExtensionManager().containsConceptAssertion(B,tableau.restoreABoxCheckpoint().get(INDIVIDUAL_A)));
+        assertTrue(tableau.isInstanceOf(INDIVIDUAL_A,B));
+        assertTrue(createTableau(false,null).isInstanceOf(INDIVIDUAL_A,B));
+    }
+    public void testUnitAfterChoice() {
+        // A(X) v G(X) :- C(X); A fails because of K, so G is chosen and not A is added, which makes A(X) v B(X) unit
+        m_dlClauses.add(DLClause.create(new Atom[] { Atom.create(A,X),Atom.create(G,X) },new Atom[] { Atom.create(C,X) }));
+        m_dlClauses.add(DLClause.create(new Atom[] { Atom.create(K,X) },new Atom[] { Atom.create(C,X) }));
+        m_dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A,X),Atom.create(K,X) }));
+        BranchingPointCounter branchingPointCounter=new BranchingPointCounter();
+        Tableau tableau=createTableau(true,branchingPointCounter);
+        assertTrue(tableau.isABoxSatisfiable());
+        assertEquals(1,tableau.getDisjunctWatchManager().getNumberOfPropagations());
+        assertEquals(1,branchingPointCounter.m_numberOfDisjunctionBranchingPoints);
+        branchingPointCounter=new BranchingPointCounter();
+        assertTrue(createTableau(false,branchingPointCounter).isABoxSatisfiable());
+        assertEquals(2,branchingPointCounter.m_numberOfDisjunctionBranchingPoints);
+    }
+    public void testConflict() {
+        m_negativeFacts.add(Atom.create(A,INDIVIDUAL_A));
+        m_negativeFacts.add(Atom.create(B,INDIVIDUAL_A));
+        BranchingPointCounter branchingPointCounter=new BranchingPointCounter();
+        Tableau tableau=createTableau(true,branchingPointCounter);
+        assertFalse(tableau.isABoxSatisfiable());
+        assertEquals(1,tableau.getDisjunctWatchManager().getNumberOfPropagations());
+        assertEquals(0,branchingPointCounter.m_numberOfDisjunctionBranchingPoints);
+        assertFalse(createTableau(false,null).isABoxSatisfiable());
+    }
+
+    protected static class BranchingPointCounter extends TableauMonitorAdapter {
+        private static final long serialVersionUID=-8398475936641962374L;
+
+        protected int m_numberOfDisjunctionBranchingPoints;
+
+        public void pushBranchingPointStarted(BranchingPoint branchingPoint) {
+            if (branchingPoint instanceof DisjunctionBranchingPoint)
+                m_numberOfDisjunctionBranchingPoints++;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.monitor.TableauMonitorAdapter;
+
+public class DisjunctionSchedulerTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept S=AtomicConcept.create("S");
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept P=AtomicConcept.create("P");
+    protected static final AtomicConcept Q=AtomicConcept.create("Q");
+    protected static final AtomicConcept R=AtomicConcept.create("R");
+    protected static final Variable X=Variable.create("X");
+
+    public DisjunctionSchedulerTest(String name) {
+        super(name);
+    }
+    protected Tableau createTableau(Configuration.DisjunctionSchedulerType disjunctionSchedulerType,DisjunctsRecorder disjunctsRecorder,boolean satisfiable) {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // P(X) v Q(X) v R(X) :- C(X) is derived before A(X) v B(X) :- S(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(P,X),Atom.create(Q,X),Atom.create(R,X) },new Atom[] { Atom.create(C,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(S,X) },new Atom[] { Atom.create(C,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(A,X),Atom.create(B,X) },new Atom[] { Atom.create(S,X) }));
+        // :- A(X), P(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A,X),Atom.create(P,X) }));
+        // :- A(X), Q(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A,X),Atom.create(Q,X) }));
+        if (!satisfiable) {
+            // :- B(X)
+            dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(B,X) }));
+            // :- A(X), R(X)
+            dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A,X),Atom.create(R,X) }));
+        }
+        Set<Atom> noFacts=Collections.emptySet();
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("Tableau.disjunctionSchedulerType",disjunctionSchedulerType);
+        return createTableau(dlClauses,noFacts,noFacts,disjunctsRecorder,parameters);
+    }
+    public void testSameResults() {
+        for (Configuration.DisjunctionSchedulerType disjunctionSchedulerType : Configuration.DisjunctionSchedulerType.values()) {
+            Tableau tableau=createTableau(disjunctionSchedulerType,null,true);
+            for (int round=0;round<2;round++) {
+                assertTrue(tableau.isSatisfiable(C));
+                assertTrue(tableau.isSubsumedBy(C,S));
+                assertFalse(tableau.isSubsumedBy(C,B));
+            }
+            tableau=createTableau(disjunctionSchedulerType,null,false);
+            assertFalse(tableau.isSatisfiable(C));
+            assertTrue(tableau.isSatisfiable(S));
+        }
+    }
+    public void testCreationOrder() {
+        DisjunctsRecorder disjunctsRecorder=new DisjunctsRecorder();
+        assertTrue(createTableau(Configuration.DisjunctionSchedulerType.CREATION_ORDER,disjunctsRecorder,true).isSatisfiable(C));
+        // A clashes with P, and the second disjunct is tried
+        assertEquals("P A B",disjunctsRecorder.toString());
+    }
+    public void testReverseCreationOrder() {
+        DisjunctsRecorder disjunctsRecorder=new DisjunctsRecorder();
+        assertTrue(createTableau(Configuration.DisjunctionSchedulerType.REVERSE_CREATION_ORDER,disjunctsRecorder,true).isSatisfiable(C));
+        assertEquals("A P Q R",disjunctsRecorder.toString());
+        disjunctsRecorder.m_disjuncts.clear();
+        // A v B is processed out of order; it must remain processed when backtracking to its own branching point
+        assertFalse(createTableau(Configuration.DisjunctionSchedulerType.REVERSE_CREATION_ORDER,disjunctsRecorder,false).isSatisfiable(C));
+        assertEquals("A P Q R B",disjunctsRecorder.toString());
+    }
+    public void testFewestOpenDisjuncts() {
+        DisjunctsRecorder disjunctsRecorder=new DisjunctsRecorder();
+        assertTrue(createTableau(Configuration.DisjunctionSchedulerType.FEWEST_OPEN_DISJUNCTS,disjunctsRecorder,true).isSatisfiable(C));
+        assertEquals("A P Q R",disjunctsRecorder.toString());
+    }
+    public void testActivity() {
+        DisjunctsRecorder disjunctsRecorder=new DisjunctsRecorder();
+        Tableau tableau=createTableau(Configuration.DisjunctionSchedulerType.ACTIVITY,disjunctsRecorder,true);
+        assertTrue(tableau.isSatisfiable(C));
+        assertEquals("P A B",disjunctsRecorder.toString());
+        ActivityDisjunctionScheduler disjunctionScheduler=(ActivityDisjunctionScheduler)tableau.getDisjunctionScheduler();
+        assertTrue(disjunctionScheduler.getActivity(A)>0.0);
+        assertEquals(disjunctionScheduler.getActivity(A),disjunctionScheduler.getActivity(P),0.0);
+        assertEquals(0.0,disjunctionScheduler.getActivity(B),0.0);
+        // both disjunctions are equally active, so they are processed in creation order, but the inactive disjuncts are tried first
+        disjunctsRecorder.m_disjuncts.clear();
+        assertTrue(tableau.isSatisfiable(C));
+        assertEquals("Q B",disjunctsRecorder.toString());
+    }
+
+    protected static class DisjunctsRecorder extends TableauMonitorAdapter {
+        private static final long serialVersionUID=-2585916012227405437L;
+
+        protected final List<String> m_disjuncts=new ArrayList<String>();
+
+        public void disjunctProcessingStarted(GroundDisjunction groundDisjunction,int disjunct) {
+            m_disjuncts.add(((AtomicConcept)groundDisjunction.getDLPredicate(disjunct)).getURI());
+        }
+        public String toString() {
+            StringBuffer buffer=new StringBuffer();
+            for (String disjunct : m_disjuncts) {
+                if (buffer.length()>0)
+                    buffer.append(' ');
+                buffer.append(disjunct);
+            }
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicNegationConcept;
+
+public class ExtensionTableWithPartitionsTest extends AbstractExtensionManagerTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+
+    public ExtensionTableWithPartitionsTest(String name) {
+        super(name);
+    }
+    protected Map<String,Object> getParameters() {
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("ExtensionManager.extensionTableType",Configuration.ExtensionTableType.PREDICATE_PARTITIONS);
+        return parameters;
+    }
+    public void testViewsAndBacktracking() {
+        ExtensionTable ternaryTable=m_extensionManager.getTernaryExtensionTable();
+        assertTrue(ternaryTable instanceof ExtensionTableWithPartitions);
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        Node c=m_tableau.createNewRootNode(m_emptySet);
+
+        m_extensionManager.addRoleAssertion(R,a,b,m_emptySet);
+        m_extensionManager.addRoleAssertion(S,a,c,m_emptySet);
+        m_extensionManager.propagateDeltaNew();
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(R,a,b) });
+        assertRetrieval(ternaryTable,T(S,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(S,a,c) });
+        assertRetrieval(ternaryTable,T(T,null,null),ExtensionTable.View.DELTA_OLD,NO_TUPLES);
+
+        m_extensionManager.addRoleAssertion(R,b,c,m_emptySet);
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.EXTENSION_THIS,new Object[][] { T(R,a,b) });
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.TOTAL,new Object[][] { T(R,a,b),T(R,b,c) });
+        m_extensionManager.propagateDeltaNew();
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(R,b,c) });
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.EXTENSION_OLD,new Object[][] { T(R,a,b) });
+        assertRetrieval(ternaryTable,T(S,null,null),ExtensionTable.View.DELTA_OLD,NO_TUPLES);
+
+        BranchingPoint branchingPoint=new BranchingPoint(m_tableau);
+        m_tableau.pushBranchingPoint(branchingPoint);
+        m_extensionManager.addRoleAssertion(R,c,a,m_emptySet);
+        m_extensionManager.addRoleAssertion(T,c,c,m_emptySet);
+        m_extensionManager.propagateDeltaNew();
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(R,c,a) });
+        assertRetrieval(ternaryTable,T(T,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(T,c,c) });
+
+        m_tableau.backtrackTo(branchingPoint.getLevel());
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.TOTAL,new Object[][] { T(R,a,b),T(R,b,c) });
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.DELTA_OLD,new Object[][] { T(R,b,c) });
+        assertRetrieval(ternaryTable,T(T,null,null),ExtensionTable.View.TOTAL,NO_TUPLES);
+        assertRetrieval(ternaryTable,T(R,a,null),ExtensionTable.View.TOTAL,new Object[][] { T(R,a,b) });
+    }
+    public void testBulkLoad() {
+        doTestBulkLoad();
+        initializeTableau(new HashMap<String,Object>());
+        doTestBulkLoad();
+    }
+    protected void doTestBulkLoad() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        Node c=m_tableau.createNewRootNode(m_emptySet);
+        m_extensionManager.addRoleAssertion(R,a,b,m_emptySet);
+        List<Object[]> tuples=new ArrayList<Object[]>();
+        tuples.add(T(R,a,b));
+        tuples.add(T(R,b,c));
+        tuples.add(T(S,c,b));
+        tuples.add(T(R,b,c));
+        tuples.add(new Object[] { A,a });
+        tuples.add(new Object[] { AtomicConcept.THING,a });
+        // the duplicates and the tuple of owl:Thing are not added
+        assertEquals(3,m_extensionManager.addTuples(tuples,m_emptySet));
+        ExtensionTable ternaryTable=m_extensionManager.getTernaryExtensionTable();
+        assertRetrieval(ternaryTable,T(R,null,null),ExtensionTable.View.TOTAL,new Object[][] { T(R,a,b),T(R,b,c) });
+        assertRetrieval(ternaryTable,T(null,b,null),ExtensionTable.View.TOTAL,new Object[][] { T(R,b,c) });
+        assertRetrieval(ternaryTable,T(null,null,b),ExtensionTable.View.TOTAL,new Object[][] { T(R,a,b),T(S,c,b) });
+        assertTrue(a.getPositiveLabel().contains(A));
+        assertFalse(m_extensionManager.containsClash());
+        // the complement of a bulk-loaded assertion is detected
+        tuples.clear();
+        tuples.add(new Object[] { AtomicNegationConcept.create(A),a });
+        assertEquals(1,m_extensionManager.addTuples(tuples,m_emptySet));
+        assertTrue(m_extensionManager.containsClash());
+    }
+}
@@ -0,0 +1,178 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.ReasoningCache;
+import org.semanticweb.HermiT.hierarchy.IncrementalClassification;
+import org.semanticweb.HermiT.hierarchy.Taxonomy;
+import org.semanticweb.HermiT.model.AtLeastConcept;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.util.NullMonitor;
+
+public class IncrementalClassificationTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept D=AtomicConcept.create("D");
+    protected static final AtomicConcept E=AtomicConcept.create("E");
+    protected static final AtomicConcept F=AtomicConcept.create("F");
+    protected static final AtomicConcept G=AtomicConcept.create("G");
+    protected static final AtomicConcept H=AtomicConcept.create("H");
+    protected static final AtomicConcept K=AtomicConcept.create("K");
+    protected static final AtomicRole R=AtomicRole.createAtomicRole("R");
+    protected static final Variable X=Variable.create("X");
+    protected static final Variable Y=Variable.create("Y");
+
+    protected int m_numberOfTests;
+
+    public IncrementalClassificationTest(String name) {
+        super(name);
+    }
+    public void testRenumberedInternalConcepts() {
+        DLOntology previous=createDLOntology("internal:q#1",false);
+        DLOntology current=createDLOntology("internal:q#7",false);
+        assertEquals(Collections.emptySet(),IncrementalClassification.getAffectedConcepts(previous,current,getConcepts(current)));
+    }
+    public void testAffectedConcepts() {
+        DLOntology previous=createDLOntology("internal:q#1",false);
+        DLOntology current=createDLOntology("internal:q#2",true);
+        Set<AtomicConcept> expected=new HashSet<AtomicConcept>();
+        // C gets the new subsumer E; A is affected as well because its R-successors are C, although its subsumers do not change
+        expected.add(A);
+        expected.add(C);
+        assertEquals(expected,IncrementalClassification.getAffectedConcepts(previous,current,getConcepts(current)));
+    }
+    public void testChangedGlobalDLClause() {
+        DLOntology previous=createDLOntology("internal:q#1",false);
+        Set<DLClause> dlClauses=new HashSet<DLClause>(previous.getDLClauses());
+        // H(X) :- owl:Thing(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(H,X) },new Atom[] { Atom.create(AtomicConcept.THING,X) }));
+        DLOntology current=createDLOntology(dlClauses);
+        assertNull(IncrementalClassification.getAffectedConcepts(previous,current,getConcepts(current)));
+    }
+    public void testIncrementalClassificationMatchesFullClassification() {
+        DLOntology previous=createDLOntology("internal:q#1",false);
+        DLOntology current=createDLOntology("internal:q#2",true);
+        Set<AtomicConcept> allConcepts=getConcepts(current);
+        Taxonomy<AtomicConcept> previousTaxonomy=classify(previous,getConcepts(previous),null);
+        m_numberOfTests=0;
+        Taxonomy<AtomicConcept> fullTaxonomy=classify(current,allConcepts,null);
+        int numberOfTestsForFullClassification=m_numberOfTests;
+        Set<AtomicConcept> affectedConcepts=IncrementalClassification.getAffectedConcepts(previous,current,allConcepts);
+        m_numberOfTests=0;
+        Taxonomy<AtomicConcept> incrementalTaxonomy=classify(current,IncrementalClassification.getReusableSubsumers(previousTaxonomy,getConcepts(previous),allConcepts,affectedConcepts));
+        assertTrue(m_numberOfTests<numberOfTestsForFullClassification);
+        for (AtomicConcept atomicConcept : allConcepts)
+            assertEquals(fullTaxonomy.getAllSuccessors(atomicConcept),incrementalTaxonomy.getAllSuccessors(atomicConcept));
+        assertTrue(incrementalTaxonomy.getAllSuccessors(C).contains(E));
+    }
+    public void testUnsatisfiableConcept() {
+        // :- H(X)
+        DLClause unsatisfiableH=DLClause.create(new Atom[] {},new Atom[] { Atom.create(H,X) });
+        Set<DLClause> previousDLClauses=new HashSet<DLClause>(createDLOntology("internal:q#1",false).getDLClauses());
+        previousDLClauses.add(unsatisfiableH);
+        DLOntology previous=createDLOntology(previousDLClauses);
+        Set<DLClause> currentDLClauses=new HashSet<DLClause>(createDLOntology("internal:q#2",true).getDLClauses());
+        currentDLClauses.add(unsatisfiableH);
+        // K(X) :- C(X)
+        currentDLClauses.add(DLClause.create(new Atom[] { Atom.create(K,X) },new Atom[] { Atom.create(C,X) }));
+        DLOntology current=createDLOntology(currentDLClauses);
+        Set<AtomicConcept> allConcepts=getConcepts(current);
+        Taxonomy<AtomicConcept> previousTaxonomy=classify(previous,getConcepts(previous),null);
+        Taxonomy<AtomicConcept> fullTaxonomy=classify(current,allConcepts,null);
+        Set<AtomicConcept> affectedConcepts=IncrementalClassification.getAffectedConcepts(previous,current,allConcepts);
+        // no changed DL-clause applies to H, but H was unsatisfiable, so its previous subsumers lack the new concept K
+        assertFalse(affectedConcepts.contains(H));
+        assertTrue(affectedConcepts.contains(K));
+        Map<AtomicConcept,Set<AtomicConcept>> reusableSubsumers=IncrementalClassification.getReusableSubsumers(previousTaxonomy,getConcepts(previous),allConcepts,affectedConcepts);
+        assertFalse(reusableSubsumers.containsKey(H));
+        assertTrue(reusableSubsumers.containsKey(B));
+        Taxonomy<AtomicConcept> incrementalTaxonomy=classify(current,reusableSubsumers);
+        for (AtomicConcept atomicConcept : allConcepts)
+            assertEquals(fullTaxonomy.getAllSuccessors(atomicConcept),incrementalTaxonomy.getAllSuccessors(atomicConcept));
+        assertTrue(incrementalTaxonomy.getAllSuccessors(H).contains(K));
+    }
+    public void testIndistinguishableInternalConcepts() {
+        AtomicConcept q1=AtomicConcept.create("internal:q#1");
+        AtomicConcept q2=AtomicConcept.create("internal:q#2");
+        Set<DLClause> dlClauses=new HashSet<DLClause>(createDLOntology("internal:q#3",false).getDLClauses());
+        // q1(X) v q2(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(q1,X),Atom.create(q2,X) },new Atom[] { Atom.create(A,X) }));
+        DLOntology dlOntology=createDLOntology(dlClauses);
+        // q1 and q2 occur in the same DL-clause in the same way, so they would get the same name
+        assertNull(IncrementalClassification.getAffectedConcepts(dlOntology,dlOntology,getConcepts(dlOntology)));
+    }
+    protected Taxonomy<AtomicConcept> classify(DLOntology dlOntology,Map<AtomicConcept,Set<AtomicConcept>> reusableSubsumers) {
+        Set<AtomicConcept> conceptsToTest=getConcepts(dlOntology);
+        conceptsToTest.removeAll(reusableSubsumers.keySet());
+        return classify(dlOntology,conceptsToTest,reusableSubsumers);
+    }
+    protected Taxonomy<AtomicConcept> classify(DLOntology dlOntology,Set<AtomicConcept> conceptsToTest,Map<AtomicConcept,Set<AtomicConcept>> reusableSubsumers) {
+        final Tableau tableau=createTableau(dlOntology,null,new HashMap<String,Object>());
+        Set<AtomicConcept> allConcepts=getConcepts(dlOntology);
+        ReasoningCache cache=new ReasoningCache();
+        cache.seed(conceptsToTest,allConcepts,tableau,new NullMonitor());
+        m_numberOfTests+=conceptsToTest.size();
+        if (reusableSubsumers!=null)
+            for (Map.Entry<AtomicConcept,Set<AtomicConcept>> entry : reusableSubsumers.entrySet())
+                cache.setSubsumers(entry.getKey(),entry.getValue());
+        return new Taxonomy<AtomicConcept>(new Taxonomy.Ordering<AtomicConcept>() {
+            public boolean doesPrecede(AtomicConcept subconcept,AtomicConcept superconcept) {
+                m_numberOfTests++;
+                return tableau.isSubsumedBy(subconcept,superconcept);
+            }
+        },allConcepts,cache.knownSubsumers,cache.possibleSubsumers,null);
+    }
+    protected DLOntology createDLOntology(String internalConceptURI,boolean withChange) {
+        AtomicConcept internalConcept=AtomicConcept.create(internalConceptURI);
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // B(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(A,X) }));
+        // D(X) :- C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(D,X) },new Atom[] { Atom.create(C,X) }));
+        // (>= 1 R.C)(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(AtLeastConcept.create(1,R,C),X) },new Atom[] { Atom.create(A,X) }));
+        // F(X) v G(X) :- E(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(F,X),Atom.create(G,X) },new Atom[] { Atom.create(E,X) }));
+        // (>= 1 R.q)(X) :- H(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(AtLeastConcept.create(1,R,internalConcept),X) },new Atom[] { Atom.create(H,X) }));
+        // G(X) :- q(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(G,X) },new Atom[] { Atom.create(internalConcept,X) }));
+        // F(Y) :- R(X,Y), G(Y)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(F,Y) },new Atom[] { Atom.create(R,X,Y),Atom.create(G,Y) }));
+        if (withChange) {
+            // E(X) :- C(X)
+            dlClauses.add(DLClause.create(new Atom[] { Atom.create(E,X) },new Atom[] { Atom.create(C,X) }));
+        }
+        return createDLOntology(dlClauses);
+    }
+    protected DLOntology createDLOntology(Set<DLClause> dlClauses) {
+        Set<Atom> noFacts=Collections.emptySet();
+        Set<AtomicConcept> atomicConcepts=new HashSet<AtomicConcept>();
+        for (DLClause dlClause : dlClauses) {
+            for (int headIndex=0;headIndex<dlClause.getHeadLength();headIndex++)
+                if (dlClause.getHeadAtom(headIndex).getDLPredicate() instanceof AtomicConcept)
+                    atomicConcepts.add((AtomicConcept)dlClause.getHeadAtom(headIndex).getDLPredicate());
+            for (int bodyIndex=0;bodyIndex<dlClause.getBodyLength();bodyIndex++)
+                if (dlClause.getBodyAtom(bodyIndex).getDLPredicate() instanceof AtomicConcept)
+                    atomicConcepts.add((AtomicConcept)dlClause.getBodyAtom(bodyIndex).getDLPredicate());
+        }
+        return new DLOntology("opaque:test",dlClauses,noFacts,noFacts,atomicConcepts,null,null,null,null,false,false,false,false,false);
+    }
+    protected static Set<AtomicConcept> getConcepts(DLOntology dlOntology) {
+        Set<AtomicConcept> atomicConcepts=new HashSet<AtomicConcept>();
+        for (AtomicConcept atomicConcept : dlOntology.getAllAtomicConcepts())
+            if (!atomicConcept.getURI().startsWith("internal:"))
+                atomicConcepts.add(atomicConcept);
+        return atomicConcepts;
+    }
+}
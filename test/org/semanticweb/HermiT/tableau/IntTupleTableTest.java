@@ -0,0 +1,79 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.model.AtomicRole;
+
+public class IntTupleTableTest extends AbstractExtensionManagerTest {
+
+    public IntTupleTableTest(String name) {
+        super(name);
+    }
+    protected Map<String,Object> getParameters() {
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("ExtensionManager.tupleTableType",getTupleTableType());
+        return parameters;
+    }
+    protected Configuration.TupleTableType getTupleTableType() {
+        return Configuration.TupleTableType.INTEGERS;
+    }
+    protected EncodedTupleTable createTupleTable(int encodedArity,int objectArity) {
+        return new IntTupleTable(m_extensionManager.getTupleObjectDictionary(),encodedArity,objectArity);
+    }
+    public void testStoreAndRetrieve() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        EncodedTupleTable tupleTable=createTupleTable(3,1);
+        assertEquals(0,tupleTable.addTuple(T(R,a,b,"x")));
+        assertEquals(1,tupleTable.addTuple(T(S,b,null,"y")));
+        assertEquals(2,tupleTable.getFirstFreeTupleIndex());
+
+        Object[] tupleBuffer=new Object[4];
+        tupleTable.retrieveTuple(tupleBuffer,0);
+        assertEquals(T(R,a,b,"x"),tupleBuffer);
+        tupleTable.retrieveTuple(tupleBuffer,1);
+        assertEquals(T(S,b,null,"y"),tupleBuffer);
+        assertSame(b,tupleTable.getTupleObject(0,2));
+        assertEquals(b.getNodeID(),tupleTable.getTupleID(0,2));
+
+        assertTrue(tupleTable.tupleEquals(T(R,a,b),0,3));
+        assertFalse(tupleTable.tupleEquals(T(R,b,a),0,3));
+        assertFalse(tupleTable.tupleEquals(T(U,a,b),0,3));
+        assertTrue(tupleTable.tupleEquals(T(R,a,b,"x"),0,4));
+        assertFalse(tupleTable.tupleEquals(T(R,a,b,"y"),0,4));
+
+        tupleTable.setTupleObject(0,3,"z");
+        assertEquals("z",tupleTable.getTupleObject(0,3));
+        tupleTable.nullifyTuple(1);
+        tupleTable.retrieveTuple(tupleBuffer,1);
+        assertEquals(T(null,null,null,null),tupleBuffer);
+        tupleTable.truncate(1);
+        assertEquals(1,tupleTable.getFirstFreeTupleIndex());
+        assertEquals(1,tupleTable.addTuple(T(T,b,a,"w")));
+        tupleTable.retrieveTuple(tupleBuffer,1);
+        assertEquals(T(T,b,a,"w"),tupleBuffer);
+    }
+    public void testLotsOfData() {
+        Node[] nodes=new Node[100];
+        for (int index=0;index<nodes.length;index++)
+            nodes[index]=m_tableau.createNewRootNode(m_emptySet);
+        AtomicRole[] roles=new AtomicRole[50];
+        for (int index=0;index<roles.length;index++)
+            roles[index]=AtomicRole.createAtomicRole("R"+index);
+        EncodedTupleTable tupleTable=createTupleTable(3,0);
+        int numberOfTuples=0;
+        for (int roleIndex=0;roleIndex<roles.length;roleIndex++)
+            for (int nodeIndex=0;nodeIndex<nodes.length;nodeIndex++)
+                assertEquals(numberOfTuples++,tupleTable.addTuple(T(roles[roleIndex],nodes[nodeIndex],nodes[(nodeIndex*7) % nodes.length])));
+        Object[] tupleBuffer=new Object[3];
+        int tupleIndex=0;
+        for (int roleIndex=0;roleIndex<roles.length;roleIndex++)
+            for (int nodeIndex=0;nodeIndex<nodes.length;nodeIndex++) {
+                tupleTable.retrieveTuple(tupleBuffer,tupleIndex);
+                assertEquals(T(roles[roleIndex],nodes[nodeIndex],nodes[(nodeIndex*7) % nodes.length]),tupleBuffer);
+                tupleIndex++;
+            }
+    }
+}
@@ -142,6 +142,27 @@ public class MergeTest extends AbstractReasonerInternalsTest {
         assertFalse(m_extensionManager.containsClash());
         assertRetrieval(m_extensionManager.getTernaryExtensionTable(),T(Inequality.INSTANCE,null,null),ExtensionTable.View.TOTAL,NO_TUPLES);
     }
+    public void testNodeReuseAfterBacktracking() {
+        DependencySet emptySet=m_tableau.getDependencySetFactory().emptySet();
+        Node a=m_tableau.createNewRootNode(emptySet);
+        BranchingPoint bp=new BranchingPoint(m_tableau);
+        m_tableau.pushBranchingPoint(bp);
+        Node a1=m_tableau.createNewTreeNode(emptySet,a);
+        m_extensionManager.addConceptAssertion(A,a1,emptySet);
+        assertSame(a1,m_tableau.getNode(a1.getNodeID()));
+        assertEquals(1,a1.getTreeDepth());
+        assertEquals(2,m_tableau.getNumberOfAllocatedNodes());
+
+        m_tableau.backtrackTo(bp.getLevel());
+
+        assertNull(m_tableau.getNode(2));
+        assertSame(a,m_tableau.getNode(1));
+        Node b=m_tableau.createNewRootNode(emptySet);
+        assertSame(a1,b);
+        assertEquals(0,b.getTreeDepth());
+        assertLabel(b);
+        assertEquals(2,m_tableau.getNumberOfAllocatedNodes());
+    }
     protected void assertLabel(Node node,Concept... concepts) {
         assertEquals(concepts.length,node.getPositiveLabelSize()+node.getNegativeLabelSize());
         for (Concept concept : concepts)
@@ -0,0 +1,85 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.HermiT.hierarchy.PseudoModelCache;
+import org.semanticweb.HermiT.model.AtLeastConcept;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.Variable;
+
+public class ModelMergingTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept D=AtomicConcept.create("D");
+    protected static final AtomicConcept E=AtomicConcept.create("E");
+    protected static final AtomicConcept F=AtomicConcept.create("F");
+    protected static final AtomicConcept G=AtomicConcept.create("G");
+    protected static final AtomicRole R=AtomicRole.createAtomicRole("R");
+    protected static final Variable X=Variable.create("X");
+    protected static final Variable Y=Variable.create("Y");
+
+    protected Tableau m_tableau;
+    protected PseudoModelCache m_pseudoModelCache;
+
+    public ModelMergingTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // B(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(A,X) }));
+        // B(X) :- C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(C,X) }));
+        // D(X) :- A(X), E(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(D,X) },new Atom[] { Atom.create(A,X),Atom.create(E,X) }));
+        // (>= 1 R.E)(X) :- E(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(AtLeastConcept.create(1,R,E),X) },new Atom[] { Atom.create(E,X) }));
+        // D(Y) :- R(X,Y)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(D,Y) },new Atom[] { Atom.create(R,X,Y) }));
+        // F(X) v G(X) :- owl:Thing(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(F,X),Atom.create(G,X) },new Atom[] { Atom.create(AtomicConcept.THING,X) }));
+        // :- A(X), F(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A,X),Atom.create(F,X) }));
+        Set<Atom> noFacts=Collections.emptySet();
+        DLOntology dlOntology=createDLOntology(dlClauses,noFacts,noFacts,false);
+        m_tableau=createTableau(dlOntology,null,new HashMap<String,Object>());
+        assertTrue(PseudoModelCache.isApplicable(dlOntology));
+        m_pseudoModelCache=new PseudoModelCache(m_tableau);
+        for (AtomicConcept atomicConcept : new AtomicConcept[] { A,C,E }) {
+            assertTrue(m_tableau.isSatisfiable(atomicConcept));
+            m_pseudoModelCache.addPositiveModel(atomicConcept);
+        }
+    }
+    public void testNonSubsumptionByMerging() {
+        assertTrue(m_pseudoModelCache.isKnownNotSubsumedBy(C,A));
+        assertTrue(m_pseudoModelCache.isKnownNotSubsumedBy(E,A));
+        // the complement of A is tested only once
+        assertEquals(2,m_pseudoModelCache.getNumberOfMergeTests());
+        assertEquals(2,m_pseudoModelCache.getNumberOfSuccessfulMergeTests());
+        assertFalse(m_tableau.isSubsumedBy(C,A));
+        assertFalse(m_tableau.isSubsumedBy(E,A));
+    }
+    public void testSubsumerAtRoot() {
+        assertFalse(m_pseudoModelCache.isKnownNotSubsumedBy(A,B));
+        assertEquals(0,m_pseudoModelCache.getNumberOfMergeTests());
+        assertTrue(m_tableau.isSubsumedBy(A,B));
+    }
+    public void testConflictingModels() {
+        // the model of A chooses G, but the model of not C chooses F, which is disjoint with A
+        assertFalse(m_pseudoModelCache.isKnownNotSubsumedBy(A,C));
+        assertEquals(1,m_pseudoModelCache.getNumberOfMergeTests());
+        assertEquals(0,m_pseudoModelCache.getNumberOfSuccessfulMergeTests());
+        assertFalse(m_tableau.isSubsumedBy(A,C));
+    }
+    public void testUnknownConcept() {
+        assertFalse(m_pseudoModelCache.isKnownNotSubsumedBy(B,A));
+    }
+}
@@ -84,10 +84,10 @@ public class NIRuleTest extends AbstractReasonerInternalsTest {
 
         m_extensionManager.addAssertion(R,a,b11,emptySet);
         assertEquals(0,m_manager.m_targets.getFirstFreeTupleIndex());
-        assertEquals(1,a.m_numberOfNIAssertionsFromNode);
-        assertEquals(0,a.m_numberOfNIAssertionsToNode);
-        assertEquals(0,b11.m_numberOfNIAssertionsFromNode);
-        assertEquals(1,b11.m_numberOfNIAssertionsToNode);
+        assertEquals(1,a.getNumberOfNIAssertionsFromNode());
+        assertEquals(0,a.getNumberOfNIAssertionsToNode());
+        assertEquals(0,b11.getNumberOfNIAssertionsFromNode());
+        assertEquals(1,b11.getNumberOfNIAssertionsToNode());
         
         m_extensionManager.addAssertion(A,b11,emptySet);
         assertEquals(1,m_manager.m_targets.getFirstFreeTupleIndex());
@@ -0,0 +1,78 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Variable;
+
+public class NogoodLearningTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept A1=AtomicConcept.create("A1");
+    protected static final AtomicConcept B1=AtomicConcept.create("B1");
+    protected static final AtomicConcept S1=AtomicConcept.create("S1");
+    protected static final AtomicConcept P=AtomicConcept.create("P");
+    protected static final AtomicConcept Q=AtomicConcept.create("Q");
+    protected static final AtomicConcept S2=AtomicConcept.create("S2");
+    protected static final AtomicConcept A2=AtomicConcept.create("A2");
+    protected static final AtomicConcept B2=AtomicConcept.create("B2");
+    protected static final Variable X=Variable.create("X");
+
+    public NogoodLearningTest(String name) {
+        super(name);
+    }
+    protected Tableau createTableau(boolean learnNogoods,boolean satisfiable) {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // A1(X) v B1(X) :- C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(A1,X),Atom.create(B1,X) },new Atom[] { Atom.create(C,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(S1,X) },new Atom[] { Atom.create(A1,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(S1,X) },new Atom[] { Atom.create(B1,X) }));
+        // P(X) v Q(X) :- S1(X) is processed before A2(X) v B2(X) :- S2(X), but the latter does not depend on the former
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(P,X),Atom.create(Q,X) },new Atom[] { Atom.create(S1,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(S2,X) },new Atom[] { Atom.create(S1,X) }));
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(A2,X),Atom.create(B2,X) },new Atom[] { Atom.create(S2,X) }));
+        // :- A1(X), A2(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(A1,X),Atom.create(A2,X) }));
+        // :- P(X), B2(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(P,X),Atom.create(B2,X) }));
+        if (!satisfiable) {
+            // :- Q(X), B2(X)
+            dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(Q,X),Atom.create(B2,X) }));
+            // :- B1(X)
+            dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(B1,X) }));
+        }
+        Set<Atom> noFacts=Collections.emptySet();
+        Map<String,Object> parameters=new HashMap<String,Object>();
+        parameters.put("Tableau.learnNogoods",Boolean.valueOf(learnNogoods));
+        parameters.put("Tableau.disjunctionSchedulerType",Configuration.DisjunctionSchedulerType.CREATION_ORDER);
+        return createTableau(dlClauses,noFacts,noFacts,null,parameters);
+    }
+    public void testDisabledByDefault() {
+        assertNull(createTableau(false,true).getNogoodManager());
+    }
+    public void testSatisfiable() {
+        Tableau tableau=createTableau(true,true);
+        for (int round=0;round<2;round++) {
+            assertTrue(tableau.isSatisfiable(C));
+            // {A1,A2} and {A1,P} are learned; after switching to Q, A2(X) v B2(X) is processed again and {A1,A2} rules out A2
+            assertEquals(2,tableau.getNogoodManager().getNumberOfNogoods());
+            assertEquals(1,tableau.getNogoodManager().getNumberOfPreventedChoices());
+        }
+        assertTrue(createTableau(false,true).isSatisfiable(C));
+    }
+    public void testUnsatisfiable() {
+        Tableau tableau=createTableau(true,false);
+        assertFalse(tableau.isSatisfiable(C));
+        assertTrue(tableau.getNogoodManager().getNumberOfNogoods()>0);
+        assertEquals(1,tableau.getNogoodManager().getNumberOfPreventedChoices());
+        assertFalse(createTableau(false,false).isSatisfiable(C));
+        assertTrue(tableau.isSatisfiable(S1));
+        assertEquals(0,tableau.getNogoodManager().getNumberOfPreventedChoices());
+    }
+}
@@ -0,0 +1,93 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.semanticweb.HermiT.Configuration;
+
+public class OffHeapTupleTableTest extends IntTupleTableTest {
+
+    public OffHeapTupleTableTest(String name) {
+        super(name);
+    }
+    protected Configuration.TupleTableType getTupleTableType() {
+        return Configuration.TupleTableType.MEMORY_MAPPED;
+    }
+    protected EncodedTupleTable createTupleTable(int encodedArity,int objectArity) {
+        return new OffHeapTupleTable(m_extensionManager.getTupleObjectDictionary(),encodedArity,objectArity,true,null);
+    }
+    public void testDirectBuffers() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        OffHeapTupleTable tupleTable=new OffHeapTupleTable(m_extensionManager.getTupleObjectDictionary(),3,0,false,null);
+        for (int index=0;index<40000;index++)
+            assertEquals(index,tupleTable.addTuple(T(index % 2==0 ? R : S,a,b)));
+        assertEquals(3,tupleTable.m_numberOfPages);
+        Object[] tupleBuffer=new Object[3];
+        tupleTable.retrieveTuple(tupleBuffer,39999);
+        assertEquals(T(S,a,b),tupleBuffer);
+        tupleTable.truncate(20000);
+        assertEquals(20000,tupleTable.addTuple(T(T,b,a)));
+        tupleTable.retrieveTuple(tupleBuffer,20000);
+        assertEquals(T(T,b,a),tupleBuffer);
+    }
+    public void testClearAndDispose() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        OffHeapTupleTable tupleTable=new OffHeapTupleTable(m_extensionManager.getTupleObjectDictionary(),3,0,true,null);
+        for (int index=0;index<40000;index++)
+            tupleTable.addTuple(T(R,a,b));
+        assertEquals(3,tupleTable.m_numberOfPages);
+        File scratchFile=tupleTable.m_scratchFilePath;
+        assertTrue(scratchFile.exists());
+        tupleTable.clear();
+        assertEquals(1,tupleTable.m_numberOfPages);
+        assertNull(tupleTable.m_idPages[1]);
+        for (int index=0;index<40000;index++)
+            assertEquals(index,tupleTable.addTuple(T(index % 2==0 ? R : S,a,b)));
+        Object[] tupleBuffer=new Object[3];
+        tupleTable.retrieveTuple(tupleBuffer,39999);
+        assertEquals(T(S,a,b),tupleBuffer);
+        tupleTable.dispose();
+        assertNull(tupleTable.m_scratchFile);
+        assertFalse(scratchFile.exists());
+    }
+    public void testTableauDispose() {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        m_extensionManager.addRoleAssertion(R,a,b,m_emptySet);
+        OffHeapTupleTable tupleTable=(OffHeapTupleTable)m_extensionManager.getTernaryExtensionTable().m_tupleTable;
+        File scratchFile=tupleTable.m_scratchFilePath;
+        assertTrue(scratchFile.exists());
+        m_tableau.dispose();
+        assertFalse(scratchFile.exists());
+    }
+    public void testSerialization() throws Exception {
+        Node a=m_tableau.createNewRootNode(m_emptySet);
+        Node b=m_tableau.createNewRootNode(m_emptySet);
+        m_extensionManager.addRoleAssertion(R,a,b,m_emptySet);
+        m_extensionManager.addRoleAssertion(S,b,a,m_emptySet);
+        ByteArrayOutputStream buffer=new ByteArrayOutputStream();
+        ObjectOutputStream output=new ObjectOutputStream(buffer);
+        output.writeObject(m_tableau);
+        output.close();
+        ObjectInputStream input=new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        Tableau tableau=(Tableau)input.readObject();
+        input.close();
+        TupleStore tupleTable=tableau.getExtensionManager().getTernaryExtensionTable().m_tupleTable;
+        assertTrue(tupleTable instanceof OffHeapTupleTable);
+        assertEquals(2,tupleTable.getFirstFreeTupleIndex());
+        Object[] tupleBuffer=new Object[3];
+        tupleTable.retrieveTuple(tupleBuffer,0);
+        assertEquals(R,tupleBuffer[0]);
+        assertEquals(a.getNodeID(),((Node)tupleBuffer[1]).getNodeID());
+        assertEquals(b.getNodeID(),((Node)tupleBuffer[2]).getNodeID());
+        tupleTable.retrieveTuple(tupleBuffer,1);
+        assertEquals(S,tupleBuffer[0]);
+        assertEquals(b.getNodeID(),((Node)tupleBuffer[1]).getNodeID());
+        assertEquals(a.getNodeID(),((Node)tupleBuffer[2]).getNodeID());
+    }
+}
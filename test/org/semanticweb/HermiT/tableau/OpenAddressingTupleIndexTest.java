@@ -0,0 +1,11 @@
+package org.semanticweb.HermiT.tableau;
+
+public class OpenAddressingTupleIndexTest extends TupleIndexTest {
+
+    public OpenAddressingTupleIndexTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        m_tupleIndex=new OpenAddressingTupleIndex(new int[] { 0,1,2 });
+    }
+}
@@ -0,0 +1,80 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.HermiT.ReasoningCache;
+import org.semanticweb.HermiT.hierarchy.PseudoModelCache;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.DLOntology;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.util.NullMonitor;
+
+public class ParallelSeedingTest extends AbstractReasonerInternalsTest {
+    protected static final int NUMBER_OF_CONCEPTS=60;
+    protected static final AtomicConcept F=AtomicConcept.create("F");
+    protected static final AtomicConcept G=AtomicConcept.create("G");
+    protected static final Variable X=Variable.create("X");
+
+    protected DLOntology m_dlOntology;
+    protected List<AtomicConcept> m_concepts;
+
+    public ParallelSeedingTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        m_concepts=new ArrayList<AtomicConcept>();
+        for (int index=0;index<NUMBER_OF_CONCEPTS;index++)
+            m_concepts.add(AtomicConcept.create("A"+index));
+        for (int index=1;index<NUMBER_OF_CONCEPTS;index++) {
+            // A(i/2)(X) :- Ai(X)
+            dlClauses.add(DLClause.create(new Atom[] { Atom.create(m_concepts.get(index/2),X) },new Atom[] { Atom.create(m_concepts.get(index),X) }));
+            // Ai is unsatisfiable if i mod 7 is 6
+            if (index%7==6) {
+                dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(m_concepts.get(index),X),Atom.create(F,X) }));
+                dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(m_concepts.get(index),X),Atom.create(G,X) }));
+            }
+        }
+        // F(X) v G(X) :- owl:Thing(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(F,X),Atom.create(G,X) },new Atom[] { Atom.create(AtomicConcept.THING,X) }));
+        Set<Atom> noFacts=Collections.emptySet();
+        m_dlOntology=createDLOntology(dlClauses,noFacts,noFacts,false);
+    }
+    protected Tableau createTableau() {
+        return createTableau(m_dlOntology,null,new HashMap<String,Object>());
+    }
+    public void testParallelSeedingMatchesSequentialSeeding() {
+        ReasoningCache sequentialCache=new ReasoningCache();
+        sequentialCache.seed(m_concepts,createTableau(),new NullMonitor());
+        List<Tableau> tableaux=new ArrayList<Tableau>();
+        for (int index=0;index<4;index++)
+            tableaux.add(createTableau());
+        ReasoningCache parallelCache=new ReasoningCache();
+        parallelCache.pseudoModels=new PseudoModelCache(tableaux.get(0));
+        parallelCache.seed(m_concepts,tableaux,new NullMonitor());
+        assertEquals(sequentialCache.knownSubsumers,parallelCache.knownSubsumers);
+        assertEquals(sequentialCache.possibleSubsumers,parallelCache.possibleSubsumers);
+        // A13 is unsatisfiable, and so is its subconcept A27
+        assertEquals(new HashSet<AtomicConcept>(m_concepts),parallelCache.knownSubsumers.get(m_concepts.get(13)));
+        assertEquals(new HashSet<AtomicConcept>(m_concepts),parallelCache.knownSubsumers.get(m_concepts.get(27)));
+        assertTrue(parallelCache.knownSubsumers.get(m_concepts.get(5)).contains(m_concepts.get(2)));
+        assertFalse(parallelCache.knownSubsumers.get(m_concepts.get(5)).contains(m_concepts.get(4)));
+        // the models of all satisfiable concepts are recorded, whichever tableau has produced them
+        AtomicConcept a59=m_concepts.get(59);
+        for (int index=0;index<59;index++)
+            assertEquals(isSatisfiable(index),parallelCache.pseudoModels.isKnownNotSubsumedBy(m_concepts.get(index),a59));
+    }
+    protected static boolean isSatisfiable(int index) {
+        for (;index>0;index/=2)
+            if (index%7==6)
+                return false;
+        return true;
+    }
+}
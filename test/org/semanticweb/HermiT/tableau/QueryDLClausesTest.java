@@ -0,0 +1,96 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.HermiT.model.AtLeastConcept;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.AtomicRole;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Individual;
+import org.semanticweb.HermiT.model.Variable;
+
+public class QueryDLClausesTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept Q=AtomicConcept.create("internal:query-concept");
+    protected static final AtomicRole R=AtomicRole.createAtomicRole("R");
+    protected static final Individual IA=Individual.create("a");
+    protected static final Variable X=Variable.create("X");
+    protected static final Variable Y=Variable.create("Y");
+
+    protected Tableau m_tableau;
+
+    public QueryDLClausesTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // B(X) :- A(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(A,X) }));
+        // :- B(X), C(X)
+        dlClauses.add(DLClause.create(new Atom[] {},new Atom[] { Atom.create(B,X),Atom.create(C,X) }));
+        Set<Atom> positiveFacts=new HashSet<Atom>();
+        positiveFacts.add(Atom.create(A,IA));
+        Set<Atom> negativeFacts=new HashSet<Atom>();
+        m_tableau=createTableau(dlClauses,positiveFacts,negativeFacts,null,new HashMap<String,Object>());
+    }
+    public void testAttachAndDetach() {
+        assertTrue(m_tableau.isSatisfiable(Q));
+        assertFalse(m_tableau.isSubsumedBy(Q,B));
+        Set<DLClause> queryDLClauses=new HashSet<DLClause>();
+        // A(X) :- Q(X)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(A,X) },new Atom[] { Atom.create(Q,X) }));
+        m_tableau.setQueryDLClauses(queryDLClauses);
+        assertTrue(m_tableau.isSatisfiable(Q));
+        assertTrue(m_tableau.isSubsumedBy(Q,B));
+        assertEquals(queryDLClauses,new HashSet<DLClause>(m_tableau.getHyperresolutionManager().getQueryDLClauses()));
+        // C(X) :- Q(X)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(C,X) },new Atom[] { Atom.create(Q,X) }));
+        m_tableau.setQueryDLClauses(queryDLClauses);
+        assertFalse(m_tableau.isSatisfiable(Q));
+        m_tableau.clearQueryDLClauses();
+        assertTrue(m_tableau.getHyperresolutionManager().getQueryDLClauses().isEmpty());
+        assertTrue(m_tableau.isSatisfiable(Q));
+        assertFalse(m_tableau.isSubsumedBy(Q,B));
+        assertTrue(m_tableau.isSubsumedBy(A,B));
+    }
+    public void testQueryDLClausesOnNewTable() {
+        // the ontology has no DL-clauses over roles, so the query DL-clauses need a retrieval of their own
+        Set<DLClause> queryDLClauses=new HashSet<DLClause>();
+        // atLeast(1 R A)(X) :- Q(X)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(AtLeastConcept.create(1,R,A),X) },new Atom[] { Atom.create(Q,X) }));
+        // C(Y) :- Q(X), R(X,Y)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(C,Y) },new Atom[] { Atom.create(Q,X),Atom.create(R,X,Y) }));
+        m_tableau.setQueryDLClauses(queryDLClauses);
+        assertFalse(m_tableau.isSatisfiable(Q));
+        m_tableau.clearQueryDLClauses();
+        assertTrue(m_tableau.isSatisfiable(Q));
+    }
+    public void testInstanceOf() {
+        assertFalse(m_tableau.isInstanceOf(IA,Q));
+        Set<DLClause> queryDLClauses=new HashSet<DLClause>();
+        // Q(X) :- B(X)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(Q,X) },new Atom[] { Atom.create(B,X) }));
+        m_tableau.setQueryDLClauses(queryDLClauses);
+        assertTrue(m_tableau.isInstanceOf(IA,Q));
+        m_tableau.clearQueryDLClauses();
+        assertFalse(m_tableau.isInstanceOf(IA,Q));
+        assertTrue(m_tableau.isInstanceOf(IA,B));
+    }
+    public void testDisjunctiveQueryDLClausesOfDeterministicTableau() {
+        assertTrue(m_tableau.isDeterministic());
+        Set<DLClause> queryDLClauses=new HashSet<DLClause>();
+        // A(X) v C(X) :- Q(X)
+        queryDLClauses.add(DLClause.create(new Atom[] { Atom.create(A,X),Atom.create(C,X) },new Atom[] { Atom.create(Q,X) }));
+        try {
+            m_tableau.setQueryDLClauses(queryDLClauses);
+            fail();
+        }
+        catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.semanticweb.HermiT.tableau;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.HermiT.ReasoningCache;
+import org.semanticweb.HermiT.hierarchy.HierarchyPosition;
+import org.semanticweb.HermiT.hierarchy.Realizer;
+import org.semanticweb.HermiT.hierarchy.Taxonomy;
+import org.semanticweb.HermiT.hierarchy.TaxonomyHierarchy;
+import org.semanticweb.HermiT.model.Atom;
+import org.semanticweb.HermiT.model.AtomicConcept;
+import org.semanticweb.HermiT.model.DLClause;
+import org.semanticweb.HermiT.model.Individual;
+import org.semanticweb.HermiT.model.Variable;
+import org.semanticweb.HermiT.util.NullMonitor;
+
+public class RealizationTest extends AbstractReasonerInternalsTest {
+    protected static final AtomicConcept A=AtomicConcept.create("A");
+    protected static final AtomicConcept B=AtomicConcept.create("B");
+    protected static final AtomicConcept C=AtomicConcept.create("C");
+    protected static final AtomicConcept D=AtomicConcept.create("D");
+    protected static final AtomicConcept E=AtomicConcept.create("E");
+    protected static final Individual IA=Individual.create("a");
+    protected static final Individual IB=Individual.create("b");
+    protected static final Individual IC=Individual.create("c");
+    protected static final Individual ID=Individual.create("d");
+    protected static final Variable X=Variable.create("X");
+
+    protected Tableau m_tableau;
+    protected Realizer m_realizer;
+
+    public RealizationTest(String name) {
+        super(name);
+    }
+    protected void setUp() {
+        Set<DLClause> dlClauses=new HashSet<DLClause>();
+        // A(X) :- B(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(A,X) },new Atom[] { Atom.create(B,X) }));
+        // A(X) :- C(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(A,X) },new Atom[] { Atom.create(C,X) }));
+        // B(X) :- D(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X) },new Atom[] { Atom.create(D,X) }));
+        // B(X) v C(X) :- E(X)
+        dlClauses.add(DLClause.create(new Atom[] { Atom.create(B,X),Atom.create(C,X) },new Atom[] { Atom.create(E,X) }));
+        Set<Atom> positiveFacts=new HashSet<Atom>();
+        positiveFacts.add(Atom.create(D,IA));
+        positiveFacts.add(Atom.create(B,IB));
+        positiveFacts.add(Atom.create(E,IC));
+        positiveFacts.add(Atom.create(E,ID));
+        positiveFacts.add(Atom.create(C,ID));
+        Set<Atom> negativeFacts=new HashSet<Atom>();
+        Set<AtomicConcept> atomicConcepts=new HashSet<AtomicConcept>();
+        for (AtomicConcept atomicConcept : new AtomicConcept[] { AtomicConcept.THING,AtomicConcept.NOTHING,A,B,C,D,E })
+            atomicConcepts.add(atomicConcept);
+        Set<Individual> individuals=new HashSet<Individual>();
+        for (Individual individual : new Individual[] { IA,IB,IC,ID })
+            individuals.add(individual);
+        m_tableau=createTableau(dlClauses,positiveFacts,negativeFacts,null,new HashMap<String,Object>());
+        ReasoningCache cache=new ReasoningCache();
+        cache.seed(atomicConcepts,m_tableau,new NullMonitor());
+        Taxonomy<AtomicConcept> taxonomy=new Taxonomy<AtomicConcept>(new Taxonomy.Ordering<AtomicConcept>() {
+            public boolean doesPrecede(AtomicConcept subconcept,AtomicConcept superconcept) {
+                return m_tableau.isSubsumedBy(subconcept,superconcept);
+            }
+        },atomicConcepts,cache.knownSubsumers,cache.possibleSubsumers,null);
+        taxonomy.releaseClosure();
+        m_realizer=new Realizer(m_tableau,new TaxonomyHierarchy<AtomicConcept>(taxonomy),individuals);
+    }
+    public void testDeterministicTypes() {
+        assertEquals(getDirectTypes(D),getDirectTypes(m_realizer.getPosition(IA)));
+        assertEquals(getDirectTypes(B),getDirectTypes(m_realizer.getPosition(IB)));
+        assertEquals(getDirectTypes(C,E),getDirectTypes(m_realizer.getPosition(ID)));
+        assertTrue(m_realizer.getKnownTypes(IA).contains(A));
+        assertEquals(0,m_realizer.getNumberOfInstanceTests());
+    }
+    public void testNondeterministicTypes() {
+        // the model chooses B or C for c, but c is an instance of neither
+        HierarchyPosition<AtomicConcept> position=m_realizer.getPosition(IC);
+        assertEquals(getDirectTypes(E),getDirectTypes(position));
+        assertEquals(1,m_realizer.getNumberOfInstanceTests());
+        assertTrue(position.getAncestors().contains(A));
+        assertFalse(position.getAncestors().contains(B));
+        assertFalse(position.getAncestors().contains(C));
+        // the types are now known, so they are not tested again
+        m_realizer.getPosition(IC);
+        assertEquals(1,m_realizer.getNumberOfInstanceTests());
+    }
+    public void testUnknownIndividual() {
+        Individual individual=Individual.create("e");
+        assertEquals(getDirectTypes(AtomicConcept.THING),getDirectTypes(m_realizer.getPosition(individual)));
+        assertFalse(m_tableau.isInstanceOf(individual,A));
+    }
+    protected static Set<AtomicConcept> getDirectTypes(AtomicConcept... atomicConcepts) {
+        Set<AtomicConcept> result=new HashSet<AtomicConcept>();
+        for (AtomicConcept atomicConcept : atomicConcepts)
+            result.add(atomicConcept);
+        return result;
+    }
+    protected static Set<AtomicConcept> getDirectTypes(HierarchyPosition<AtomicConcept> position) {
+        Set<AtomicConcept> result=new HashSet<AtomicConcept>();
+        for (HierarchyPosition<AtomicConcept> parent : position.getParentPositions())
+            result.addAll(parent.getEquivalents());
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package org.semanticweb.HermiT.tableau;
+
+/**
+ * Compares the running times of TupleIndex and OpenAddressingTupleIndex on the same workload. This is not a unit test; run it
+ * with its main method.
+ */
+public class TupleIndexBenchmark {
+
+    public static void main(String[] args) {
+        int numberOfTuples=(args.length>0 ? Integer.parseInt(args[0]) : 100000);
+        int[] indexingSequence=new int[] { 0,1,2 };
+        String[][] tuples=new String[numberOfTuples][3];
+        for (int index=0;index<tuples.length;index++) {
+            tuples[index][0]=String.valueOf(index % 50);
+            tuples[index][1]=String.valueOf(index % 5000);
+            tuples[index][2]=String.valueOf(index);
+        }
+        // The first round warms up the JIT compiler.
+        long chainingTime=0;
+        long openAddressingTime=0;
+        for (int round=0;round<2;round++) {
+            chainingTime=runWorkload(new TupleIndex(indexingSequence),tuples);
+            openAddressingTime=runWorkload(new OpenAddressingTupleIndex(indexingSequence),tuples);
+        }
+        System.out.println("TupleIndex: "+chainingTime+" ms, OpenAddressingTupleIndex: "+openAddressingTime+" ms ("+tuples.length+" tuples)");
+    }
+    protected static long runWorkload(TupleIndex tupleIndex,String[][] tuples) {
+        long start=System.currentTimeMillis();
+        for (int round=0;round<3;round++) {
+            for (int index=0;index<tuples.length;index++)
+                check(tupleIndex.addTuple(tuples[index],index));
+            for (int index=0;index<tuples.length;index++)
+                check(!tupleIndex.addTuple(tuples[index],-1));
+            for (int index=0;index<tuples.length;index++)
+                check(tupleIndex.getTupleIndex(tuples[index])==index);
+            for (int index=0;index<tuples.length;index+=2)
+                check(tupleIndex.removeTuple(tuples[index])==index);
+            for (int index=0;index<tuples.length;index++)
+                check(tupleIndex.getTupleIndex(tuples[index])==(index % 2==0 ? -1 : index));
+            tupleIndex.clear();
+        }
+        return System.currentTimeMillis()-start;
+    }
+    protected static void check(boolean condition) {
+        if (!condition)
+            throw new IllegalStateException("The tuple index returned a wrong result.");
+    }
+}
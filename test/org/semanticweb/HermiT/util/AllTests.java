@@ -10,6 +10,9 @@ public class AllTests {
                 "Unit tests for utility functions");
         //$JUnit-BEGIN$
         suite.addTestSuite(GraphUtilsTest.class);
+        suite.addTestSuite(TaxonomyTest.class);
+        suite.addTestSuite(CompactTaxonomyTest.class);
+        suite.addTestSuite(ReachabilityIndexTest.class);
         //$JUnit-END$
         return suite;
     }
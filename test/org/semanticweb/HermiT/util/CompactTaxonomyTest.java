@@ -0,0 +1,121 @@
+package org.semanticweb.HermiT.util;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.HermiT.hierarchy.CompactTaxonomy;
+import org.semanticweb.HermiT.hierarchy.Taxonomy;
+import org.semanticweb.HermiT.model.AtomicConcept;
+
+public class CompactTaxonomyTest extends TestCase {
+    // sorts after all ASCII names when encoded in UTF-8
+    protected static final String F = "\u00e9";
+    protected CompactTaxonomy compact;
+    protected File file;
+    
+    public CompactTaxonomyTest(String name) {
+        super(name);
+    }
+    
+    protected void setUp() throws Exception {
+        // A == B, A -> C -> D, E -> D, F -> E
+        final Map<AtomicConcept, Set<AtomicConcept>> subsumers
+            = new HashMap<AtomicConcept, Set<AtomicConcept>>();
+        addSubsumers(subsumers, "A", "A", "B", "C", "D");
+        addSubsumers(subsumers, "B", "A", "B", "C", "D");
+        addSubsumers(subsumers, "C", "C", "D");
+        addSubsumers(subsumers, "D", "D");
+        addSubsumers(subsumers, "E", "E", "D");
+        addSubsumers(subsumers, F, F, "E", "D");
+        Taxonomy<AtomicConcept> tax = new Taxonomy<AtomicConcept>(
+            new Taxonomy.Ordering<AtomicConcept>() {
+                public boolean doesPrecede(AtomicConcept x, AtomicConcept y) {
+                    return subsumers.get(x).contains(y);
+                }
+            },
+            new HashSet<AtomicConcept>(subsumers.keySet()),
+            GraphTesting.cloneGraph(subsumers),
+            GraphTesting.cloneGraph(subsumers), null);
+        file = File.createTempFile("HermiT-taxonomy", ".bin");
+        file.deleteOnExit();
+        CompactTaxonomy.save(tax, file);
+        compact = CompactTaxonomy.load(file);
+    }
+    
+    protected void tearDown() {
+        compact = null;
+        file.delete();
+    }
+    
+    public void testConcepts() {
+        assertEquals(6, compact.getNumberOfConcepts());
+        assertEquals(5, compact.getNumberOfNodes());
+        for (int i = 0; i < compact.getNumberOfConcepts(); ++i) {
+            assertEquals(i, compact.getConceptId(compact.getURI(i)));
+        }
+        // ids follow the order of the URIs:
+        assertEquals(0, id("A"));
+        assertEquals(4, id("E"));
+        assertEquals(5, id(F));
+        assertEquals(-1, compact.getConceptId("urn:test#F"));
+        assertEquals(-1, compact.getConceptId("urn:test#"));
+    }
+    
+    public void testAdjacency() {
+        int a = compact.getNode(id("A"));
+        assertEquals(a, compact.getNode(id("B")));
+        assertTrue(Arrays.equals(new int[] { id("A"), id("B") },
+                                 compact.getEquivalents(a)));
+        int c = compact.getNode(id("C"));
+        int d = compact.getNode(id("D"));
+        int e = compact.getNode(id("E"));
+        int f = compact.getNode(id(F));
+        assertTrue(Arrays.equals(new int[] { c }, compact.getParents(a)));
+        assertTrue(Arrays.equals(new int[] { d }, compact.getParents(c)));
+        assertEquals(0, compact.getParents(d).length);
+        assertTrue(Arrays.equals(sorted(c, e), compact.getChildren(d)));
+        assertTrue(Arrays.equals(sorted(c, d), compact.getAncestors(a)));
+        assertTrue(Arrays.equals(sorted(a, c, e, f),
+                                 compact.getDescendants(d)));
+        assertEquals(0, compact.getDescendants(f).length);
+    }
+    
+    public void testCorruptFile() throws Exception {
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write(0);
+        out.close();
+        try {
+            CompactTaxonomy.load(file);
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+    
+    protected int id(String name) {
+        return compact.getConceptId("urn:test#" + name);
+    }
+    
+    protected static int[] sorted(int... ints) {
+        Arrays.sort(ints);
+        return ints;
+    }
+    
+    protected static void addSubsumers(
+            Map<AtomicConcept, Set<AtomicConcept>> subsumers,
+            String name, String... names) {
+        Set<AtomicConcept> s = new HashSet<AtomicConcept>();
+        for (String n : names) {
+            s.add(AtomicConcept.create("urn:test#" + n));
+        }
+        subsumers.put(AtomicConcept.create("urn:test#" + name), s);
+    }
+    
+}
@@ -0,0 +1,99 @@
+package org.semanticweb.HermiT.util;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.semanticweb.HermiT.hierarchy.ReachabilityIndex;
+import org.semanticweb.HermiT.hierarchy.Taxonomy;
+
+public class ReachabilityIndexTest extends TestCase {
+    
+    public ReachabilityIndexTest(String name) {
+        super(name);
+    }
+    
+    public void testLadder() {
+        GraphTesting.LadderGraph ladder = new GraphTesting.LadderGraph(40);
+        checkIndex(ladder.graph);
+    }
+    
+    public void testRandomDAG() {
+        Random rand = new Random(0);
+        GraphTesting.IntegerGraph igraph = new GraphTesting.IntegerGraph();
+        for (int i = 0; i < 300; ++i) {
+            igraph.add(i);
+            for (int j = 0; j < 3 && i > 0; ++j) {
+                igraph.add(i, rand.nextInt(i));
+            }
+        }
+        checkIndex(igraph.graph);
+    }
+    
+    public void testDeepChain() {
+        GraphTesting.IntegerGraph igraph = new GraphTesting.IntegerGraph();
+        int depth = 100000;
+        for (int i = 0; i < depth; ++i) {
+            igraph.add(i, i + 1);
+        }
+        ReachabilityIndex<Integer> index
+            = new ReachabilityIndex<Integer>(igraph.graph);
+        assertTrue(index.reaches(0, depth));
+        assertFalse(index.reaches(depth, 0));
+        assertEquals(depth + 1, index.getSuccessors(0).size());
+        assertEquals(1, index.getPredecessors(0).size());
+        // one interval for each vertex and direction:
+        assertEquals(2 * (depth + 1), index.getNumberOfIntervals());
+    }
+    
+    public void testReleasedClosure() {
+        GraphTesting.LadderGraph ladder = new GraphTesting.LadderGraph(20);
+        final GraphUtils.TransAnalyzed<Integer> correct
+            = new GraphUtils.TransAnalyzed<Integer>(ladder.graph);
+        Taxonomy<Integer> tax = new Taxonomy<Integer>(
+            new Taxonomy.Ordering<Integer>() {
+                public boolean doesPrecede(Integer x, Integer y) {
+                    return GraphUtils.successors(x, correct.closed)
+                        .contains(y);
+                }
+            },
+            new HashSet<Integer>(ladder.domain),
+            new HashMap<Integer, Set<Integer>>(),
+            GraphTesting.cloneGraph(correct.closed), null);
+        Map<Integer, Set<Integer>> closed
+            = GraphTesting.cloneGraph(tax.closed);
+        tax.releaseClosure();
+        assertNull(tax.closed);
+        for (Integer i : ladder.domain) {
+            assertEquals(closed.get(i), tax.getAllSuccessors(i));
+        }
+    }
+    
+    protected void checkIndex(Map<Integer, Set<Integer>> graph) {
+        GraphUtils.TransAnalyzed<Integer> analyzed
+            = new GraphUtils.TransAnalyzed<Integer>(graph);
+        ReachabilityIndex<Integer> index
+            = new ReachabilityIndex<Integer>(graph);
+        Map<Integer, Set<Integer>> closed
+            = GraphTesting.cloneGraph(analyzed.closed);
+        for (Integer i : graph.keySet()) {
+            GraphUtils.successorSet(i, closed).add(i);
+        }
+        Map<Integer, Set<Integer>> closedInverse = GraphUtils.reversed(closed);
+        for (Integer i : graph.keySet()) {
+            assertEquals(closed.get(i), index.getSuccessors(i));
+            assertEquals(closed.get(i),
+                         new HashSet<Integer>(index.getSuccessors(i)));
+            assertEquals(closedInverse.get(i),
+                         new HashSet<Integer>(index.getPredecessors(i)));
+            for (Integer j : graph.keySet()) {
+                assertEquals(closed.get(i).contains(j), index.reaches(i, j));
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,73 @@
+package org.semanticweb.HermiT.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.semanticweb.HermiT.hierarchy.Taxonomy;
+
+public class TaxonomyTest extends TestCase {
+    protected GraphTesting.LadderGraph ladder;
+    protected GraphUtils.TransAnalyzed<Integer> correct;
+    
+    public TaxonomyTest(String name) {
+        super(name);
+    }
+    
+    protected void setUp() {
+        ladder = new GraphTesting.LadderGraph(40);
+        correct = new GraphUtils.TransAnalyzed<Integer>(ladder.graph);
+        GraphUtils.removeSelfLoops(correct.reduced);
+    }
+    
+    public void testSerialTaxonomy() throws Exception {
+        Taxonomy<Integer> tax = buildTaxonomy(1, new Random(0));
+        assertEquals(correct.reduced, tax.reduced);
+    }
+    
+    public void testParallelTaxonomy() throws Exception {
+        Set<Thread> threads
+            = Collections.synchronizedSet(new HashSet<Thread>());
+        Taxonomy<Integer> tax = buildTaxonomy(4, new Random(0), threads);
+        assertEquals(correct.reduced, tax.reduced);
+        assertEquals(buildTaxonomy(1, new Random(0)).closed, tax.closed);
+        assertTrue(threads.size() > 1);
+    }
+    
+    protected Taxonomy<Integer> buildTaxonomy(int numberOfThreads,
+                                              Random rand) {
+        return buildTaxonomy(numberOfThreads, rand,
+            Collections.synchronizedSet(new HashSet<Thread>()));
+    }
+    
+    protected Taxonomy<Integer> buildTaxonomy(int numberOfThreads,
+                                              Random rand,
+                                              final Set<Thread> threads) {
+        List<Taxonomy.Ordering<Integer>> orderings
+            = new ArrayList<Taxonomy.Ordering<Integer>>();
+        for (int i = 0; i < numberOfThreads; ++i) {
+            orderings.add(new Taxonomy.Ordering<Integer>() {
+                public boolean doesPrecede(Integer x, Integer y) {
+                    threads.add(Thread.currentThread());
+                    return GraphUtils.successors(x, correct.closed).contains(y);
+                }
+            });
+        }
+        Map<Integer, Set<Integer>> known
+            = GraphTesting.cloneGraph(correct.closed);
+        GraphTesting.removeEdges(known, 0.5, rand);
+        Map<Integer, Set<Integer>> poss
+            = GraphTesting.cloneGraph(correct.closed);
+        GraphTesting.addEdges(poss, ladder.domain, 0.5, rand);
+        return new Taxonomy<Integer>(orderings,
+                                     new HashSet<Integer>(ladder.domain),
+                                     known, poss, null);
+    }
+    
+}